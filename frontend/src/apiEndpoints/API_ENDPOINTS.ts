@@ -1,3 +1,4 @@
 export const enum API_ENDPOINTS {
     RECORD_METRIC_EVENT = '/api/save-metric',
+    RECORD_METRIC_EVENT_BATCH = '/api/save-metric/batch',
 }
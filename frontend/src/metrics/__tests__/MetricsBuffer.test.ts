@@ -0,0 +1,79 @@
+import { afterEach, beforeEach, describe, expect, it, vi } from 'vitest';
+
+import { MetricsBuffer } from '../client/MetricsBuffer.ts';
+import { MetricEventType } from '../model/MetricEventType.ts';
+import { METRIC_EVENT_TYPE } from '../model/METRIC_EVENT_TYPE.ts';
+
+describe('Metrics Buffer', () => {
+    const event = (id: string): MetricEventType => ({
+        event: METRIC_EVENT_TYPE.BUTTON_CLICK,
+        eventMetadata: { triggerId: 'React Button', screen: 'Home' },
+        clientEventId: id,
+    });
+
+    const createBuffer = (overrides: Partial<ConstructorParameters<typeof MetricsBuffer>[0]>) =>
+        new MetricsBuffer({
+            maxBatchSize: 3,
+            maxBufferedEvents: 4,
+            flushIntervalMs: 1000,
+            send: vi.fn().mockResolvedValue(undefined),
+            beacon: vi.fn().mockReturnValue(true),
+            ...overrides,
+        });
+
+    beforeEach(() => {
+        vi.useFakeTimers();
+    });
+
+    afterEach(() => {
+        vi.useRealTimers();
+    });
+
+    it('should flush as soon as the batch size is reached', async () => {
+        const send = vi.fn().mockResolvedValue(undefined);
+        const buffer = createBuffer({ send });
+
+        await buffer.add(event('1'));
+        await buffer.add(event('2'));
+        expect(send).not.toHaveBeenCalled();
+
+        await buffer.add(event('3'));
+
+        expect(send).toHaveBeenCalledWith([event('1'), event('2'), event('3')]);
+        expect(buffer.size).toBe(0);
+    });
+
+    it('should flush on the timer when the batch size is not reached', async () => {
+        const send = vi.fn().mockResolvedValue(undefined);
+        const buffer = createBuffer({ send });
+
+        await buffer.add(event('1'));
+        await vi.advanceTimersByTimeAsync(1000);
+
+        expect(send).toHaveBeenCalledWith([event('1')]);
+    });
+
+    it('should put failed batches back and drop the oldest events beyond the cap', async () => {
+        const send = vi.fn().mockRejectedValue(new Error('offline'));
+        const buffer = createBuffer({ send });
+
+        await buffer.add(event('1'));
+        await buffer.add(event('2'));
+        await expect(buffer.add(event('3'))).rejects.toThrow('offline');
+        await expect(buffer.add(event('4'))).rejects.toThrow('offline');
+        await expect(buffer.add(event('5'))).rejects.toThrow('offline');
+
+        expect(buffer.size).toBe(4);
+    });
+
+    it('should keep events when the beacon is refused', async () => {
+        const beacon = vi.fn().mockReturnValue(false);
+        const buffer = createBuffer({ beacon });
+
+        await buffer.add(event('1'));
+        buffer.flushWithBeacon();
+
+        expect(beacon).toHaveBeenCalledWith([event('1')]);
+        expect(buffer.size).toBe(1);
+    });
+});
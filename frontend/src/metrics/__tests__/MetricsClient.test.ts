@@ -3,7 +3,7 @@ import { http, HttpResponse } from 'msw';
 import { describe, expect, vi, beforeEach } from 'vitest';
 
 import { API_ENDPOINTS } from '../../apiEndpoints/API_ENDPOINTS.ts';
-import { useMetrics } from '../client/MetricsClient.ts';
+import { flushMetricEvents, metricsBuffer, useMetrics } from '../client/MetricsClient.ts';
 import { MetadataType } from '../model/MetadataType.ts';
 import { METRIC_EVENT_TYPE } from '../model/METRIC_EVENT_TYPE.ts';
 import { server } from '../../setupTests.ts';
@@ -13,54 +13,99 @@ describe('Metrics Client', () => {
 
     beforeEach(() => {
         vi.clearAllMocks();
+        metricsBuffer.clear();
     });
 
-    it('should post correct data to the metrics endpoint without userId', async () => {
+    it('should buffer events and post them as one batch when flushed', async () => {
         let requestBody;
         const mockHandler = vi.fn(async ({ request }) => {
             requestBody = await request.json();
             return HttpResponse.json({}, { status: 201 });
         });
 
-        server.use(http.post(API_ENDPOINTS.RECORD_METRIC_EVENT, mockHandler));
+        server.use(http.post(API_ENDPOINTS.RECORD_METRIC_EVENT_BATCH, mockHandler));
 
         const { result } = renderHook(() => useMetrics());
 
-        const savePromise = result.current.saveMetricEvent(
-            METRIC_EVENT_TYPE.BUTTON_CLICK,
-            metadata
-        );
+        await expect(
+            result.current.saveMetricEvent(METRIC_EVENT_TYPE.BUTTON_CLICK, metadata)
+        ).resolves.toBeUndefined();
+        await result.current.saveMetricEvent(METRIC_EVENT_TYPE.BUTTON_CLICK, metadata);
+        expect(mockHandler).not.toHaveBeenCalled();
+
+        await flushMetricEvents();
 
-        await expect(savePromise).resolves.toBeUndefined();
         expect(mockHandler).toHaveBeenCalledTimes(1);
-        expect(requestBody).toEqual({
-            event: METRIC_EVENT_TYPE.BUTTON_CLICK,
-            eventMetadata: metadata,
-            userId: undefined,
-        });
+        expect(requestBody).toEqual([
+            {
+                event: METRIC_EVENT_TYPE.BUTTON_CLICK,
+                eventMetadata: metadata,
+                clientEventId: expect.any(String),
+            },
+            {
+                event: METRIC_EVENT_TYPE.BUTTON_CLICK,
+                eventMetadata: metadata,
+                clientEventId: expect.any(String),
+            },
+        ]);
+    });
+
+    it('should send a distinct client event id with each event', async () => {
+        let requestBody: { clientEventId: string }[] = [];
+        server.use(
+            http.post(API_ENDPOINTS.RECORD_METRIC_EVENT_BATCH, async ({ request }) => {
+                requestBody = (await request.json()) as { clientEventId: string }[];
+                return HttpResponse.json({}, { status: 201 });
+            })
+        );
+
+        const { result } = renderHook(() => useMetrics());
+
+        await result.current.saveMetricEvent(METRIC_EVENT_TYPE.BUTTON_CLICK, metadata);
+        await result.current.saveMetricEvent(METRIC_EVENT_TYPE.BUTTON_CLICK, metadata);
+        await flushMetricEvents();
+
+        expect(requestBody).toHaveLength(2);
+        expect(requestBody[0].clientEventId).not.toEqual(requestBody[1].clientEventId);
+    });
+
+    it('should send buffered events with a beacon when the page is hidden', () => {
+        const sendBeacon = vi.fn().mockReturnValue(true);
+        Object.defineProperty(navigator, 'sendBeacon', { value: sendBeacon, configurable: true });
+
+        const { result } = renderHook(() => useMetrics());
+        void result.current.saveMetricEvent(METRIC_EVENT_TYPE.BUTTON_CLICK, metadata);
+
+        window.dispatchEvent(new Event('pagehide'));
+
+        expect(sendBeacon).toHaveBeenCalledTimes(1);
+        expect(sendBeacon).toHaveBeenCalledWith(
+            API_ENDPOINTS.RECORD_METRIC_EVENT_BATCH,
+            expect.any(Blob)
+        );
+        expect(metricsBuffer.size).toBe(0);
     });
 
-    it('should throw error when request fails', async () => {
+    it('should throw error and keep events when the batch request fails', async () => {
         server.use(
-            http.post(API_ENDPOINTS.RECORD_METRIC_EVENT, () =>
+            http.post(API_ENDPOINTS.RECORD_METRIC_EVENT_BATCH, () =>
                 HttpResponse.json({}, { status: 500 })
             )
         );
 
         const { result } = renderHook(() => useMetrics());
+        await result.current.saveMetricEvent(METRIC_EVENT_TYPE.BUTTON_CLICK, metadata);
 
-        await expect(
-            result.current.saveMetricEvent(METRIC_EVENT_TYPE.BUTTON_CLICK, metadata)
-        ).rejects.toThrow('Failed to capture metric event.');
+        await expect(flushMetricEvents()).rejects.toThrow('Failed to capture metric event.');
+        expect(metricsBuffer.size).toBe(1);
     });
 
     it('should throw error when network request fails', async () => {
-        server.use(http.post(API_ENDPOINTS.RECORD_METRIC_EVENT, () => HttpResponse.error()));
+        server.use(http.post(API_ENDPOINTS.RECORD_METRIC_EVENT_BATCH, () => HttpResponse.error()));
 
         const { result } = renderHook(() => useMetrics());
+        await result.current.saveMetricEvent(METRIC_EVENT_TYPE.BUTTON_CLICK, metadata);
 
-        await expect(
-            result.current.saveMetricEvent(METRIC_EVENT_TYPE.BUTTON_CLICK, metadata)
-        ).rejects.toThrow('Failed to capture metric event.');
+        await expect(flushMetricEvents()).rejects.toThrow('Failed to capture metric event.');
     });
 });
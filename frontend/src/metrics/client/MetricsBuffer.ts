@@ -0,0 +1,73 @@
+import { MetricEventType } from '../model/MetricEventType.ts';
+
+export type MetricsBufferOptions = {
+    maxBatchSize: number;
+    maxBufferedEvents: number;
+    flushIntervalMs: number;
+    send: (events: MetricEventType[]) => Promise<void>;
+    beacon: (events: MetricEventType[]) => boolean;
+};
+
+/**
+ * Collects metric events and sends them as one batch when the buffer fills, when the flush timer
+ * fires, or - via the beacon - when the page is being hidden or unloaded. Failed batches are put
+ * back at the front of the buffer (keeping their client event IDs, so the server can drop any copy
+ * that did land) and the oldest events are discarded beyond maxBufferedEvents.
+ */
+export class MetricsBuffer {
+    private events: MetricEventType[] = [];
+    private flushTimer: ReturnType<typeof setTimeout> | undefined;
+
+    constructor(private readonly options: MetricsBufferOptions) {}
+
+    get size(): number {
+        return this.events.length;
+    }
+
+    add = async (event: MetricEventType): Promise<void> => {
+        this.events.push(event);
+        if (this.events.length >= this.options.maxBatchSize) {
+            await this.flush();
+        } else if (this.flushTimer === undefined) {
+            this.flushTimer = setTimeout(() => {
+                this.flush().catch(() => undefined);
+            }, this.options.flushIntervalMs);
+        }
+    };
+
+    flush = async (): Promise<void> => {
+        const batch = this.drain();
+        if (batch.length === 0) {
+            return;
+        }
+        try {
+            await this.options.send(batch);
+        } catch (error) {
+            this.requeue(batch);
+            throw error;
+        }
+    };
+
+    flushWithBeacon = (): void => {
+        const batch = this.drain();
+        if (batch.length > 0 && !this.options.beacon(batch)) {
+            this.requeue(batch);
+        }
+    };
+
+    clear = (): void => {
+        this.drain();
+    };
+
+    private drain(): MetricEventType[] {
+        clearTimeout(this.flushTimer);
+        this.flushTimer = undefined;
+        const batch = this.events;
+        this.events = [];
+        return batch;
+    }
+
+    private requeue(batch: MetricEventType[]): void {
+        this.events = batch.concat(this.events).slice(-this.options.maxBufferedEvents);
+    }
+}
@@ -3,20 +3,64 @@ import axiosInstance from '../../axiosInstance/AxiosInstance.ts';
 import { MetadataType } from '../model/MetadataType.ts';
 import { METRIC_EVENT_TYPE } from '../model/METRIC_EVENT_TYPE.ts';
 import { MetricEventType } from '../model/MetricEventType.ts';
+import { MetricsBuffer } from './MetricsBuffer.ts';
+
+const MAX_BATCH_SIZE = 20;
+const MAX_BUFFERED_EVENTS = 200;
+const FLUSH_INTERVAL_MS = 5000;
+
+const sendBatch = async (events: MetricEventType[]): Promise<void> => {
+    await axiosInstance.post(API_ENDPOINTS.RECORD_METRIC_EVENT_BATCH, events);
+};
+
+// text/plain keeps the beacon a simple request, so no CORS preflight is needed on unload.
+const sendBeacon = (events: MetricEventType[]): boolean => {
+    if (typeof navigator === 'undefined' || typeof navigator.sendBeacon !== 'function') {
+        return false;
+    }
+    const payload = new Blob([JSON.stringify(events)], { type: 'text/plain;charset=UTF-8' });
+    return navigator.sendBeacon(API_ENDPOINTS.RECORD_METRIC_EVENT_BATCH, payload);
+};
+
+export const metricsBuffer = new MetricsBuffer({
+    maxBatchSize: MAX_BATCH_SIZE,
+    maxBufferedEvents: MAX_BUFFERED_EVENTS,
+    flushIntervalMs: FLUSH_INTERVAL_MS,
+    send: sendBatch,
+    beacon: sendBeacon,
+});
+
+if (typeof window !== 'undefined') {
+    document.addEventListener('visibilitychange', () => {
+        if (document.visibilityState === 'hidden') {
+            metricsBuffer.flushWithBeacon();
+        }
+    });
+    window.addEventListener('pagehide', metricsBuffer.flushWithBeacon);
+}
+
+export const flushMetricEvents = async (): Promise<void> => {
+    try {
+        await metricsBuffer.flush();
+    } catch {
+        throw new Error('Failed to capture metric event.');
+    }
+};
 
 export const useMetrics = () => {
     const saveMetricEvent = async (
         event: METRIC_EVENT_TYPE,
         eventMetadata: MetadataType
     ): Promise<void> => {
-        try {
-            const metricEvent: MetricEventType = {
-                event,
-                eventMetadata,
-                userId: undefined,
-            };
+        const metricEvent: MetricEventType = {
+            event,
+            eventMetadata,
+            userId: undefined,
+            clientEventId: crypto.randomUUID(),
+        };
 
-            await axiosInstance.post(API_ENDPOINTS.RECORD_METRIC_EVENT, metricEvent);
+        try {
+            await metricsBuffer.add(metricEvent);
         } catch {
             throw new Error('Failed to capture metric event.');
         }
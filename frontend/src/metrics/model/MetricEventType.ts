@@ -5,4 +5,5 @@ export type MetricEventType = {
     event: METRIC_EVENT_TYPE;
     eventMetadata: MetadataType;
     userId?: number;
+    clientEventId?: string;
 };
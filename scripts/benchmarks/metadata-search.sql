@@ -0,0 +1,55 @@
+-- Metadata search plan benchmark.
+--
+-- Seeds :rows synthetic metric events inside a transaction, shows the plans for the containment queries issued by
+-- GET /api/metrics/search with and without idx_metrics_metadata, then rolls everything back.
+--
+--   docker compose exec -T postgres-db psql -U dev -d fortuna_dev -v rows=1000000 \
+--       < scripts/benchmarks/metadata-search.sql
+--
+-- Run against a migrated database; the seeded rows never outlive the transaction.
+
+\if :{?rows}
+\else
+\set rows 1000000
+\endif
+\timing on
+
+BEGIN;
+
+-- 90% button clicks over 500 buttons and 40 pages, 10% payments; one event per second going back in time.
+INSERT INTO metrics (event, event_time, metadata)
+SELECT CASE WHEN g % 10 = 0 THEN 'PAYMENT_SUBMITTED' ELSE 'BUTTON_CLICK' END,
+       now() - make_interval(secs => g),
+       CASE WHEN g % 10 = 0
+            THEN jsonb_build_object('amount', 100 + g % 5000, 'currency', 'usd', 'paymentType', 'Card')
+            ELSE jsonb_build_object('buttonId', 'button-' || g % 500, 'page', '/page-' || g % 40,
+                                    'variant', CASE WHEN g % 2 = 0 THEN 'A' ELSE 'B' END)
+       END
+FROM generate_series(1, :rows) AS g;
+
+ANALYZE metrics;
+
+SELECT count(*) AS seeded_rows, pg_size_pretty(pg_relation_size('idx_metrics_metadata')) AS gin_index_size FROM metrics;
+
+-- Rare value (200 of 1M rows): the planner goes through idx_metrics_metadata.
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM metrics
+WHERE metadata @> '{"amount": 4200}' AND event = 'PAYMENT_SUBMITTED'
+ORDER BY event_time DESC LIMIT 100;
+
+-- Common value (a match every ~1000 rows): walking idx_metrics_event_time backwards fills the limit sooner, so
+-- the planner is expected to skip the GIN index here.
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM metrics
+WHERE metadata @> '{"buttonId": "button-42", "page": "/page-2"}'
+ORDER BY event_time DESC LIMIT 100;
+
+-- The rare query again with the index out of the picture, for comparison.
+SET LOCAL enable_bitmapscan = off;
+
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM metrics
+WHERE metadata @> '{"amount": 4200}' AND event = 'PAYMENT_SUBMITTED'
+ORDER BY event_time DESC LIMIT 100;
+
+ROLLBACK;
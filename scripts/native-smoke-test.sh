@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+#
+# Boots each launcher against the docker-compose Postgres, calls the metrics and payments endpoints,
+# and reports time-to-first-request and resident memory side by side.
+#
+# Usage: scripts/native-smoke-test.sh <native-binary> <jvm-launcher>
+
+set -euo pipefail
+
+NATIVE_BINARY=${1:?native binary path required}
+JVM_LAUNCHER=${2:?jvm launcher path required}
+PORT=${SMOKE_TEST_PORT:-8089}
+BASE_URL="http://localhost:${PORT}"
+
+export STRIPE_SECRET_KEY=${STRIPE_SECRET_KEY:-sk_test_smoke}
+export STRIPE_PUBLISHABLE_KEY=${STRIPE_PUBLISHABLE_KEY:-pk_test_smoke}
+
+now_ms() {
+  perl -MTime::HiRes=time -e 'printf "%d\n", time * 1000'
+}
+
+smoke_test() {
+  local label=$1
+  local launcher=$2
+  local log_file
+  log_file=$(mktemp)
+
+  local start
+  start=$(now_ms)
+  "$launcher" --server.port="$PORT" >"$log_file" 2>&1 &
+  local pid=$!
+
+  until curl -s -o /dev/null "${BASE_URL}/actuator/health"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "❌ ${label} exited during startup, log: ${log_file}"
+      return 1
+    fi
+    if (($(now_ms) - start > 120000)); then
+      echo "❌ ${label} did not start within 120s, log: ${log_file}"
+      kill "$pid" 2>/dev/null || true
+      return 1
+    fi
+    sleep 0.02
+  done
+  local startup_ms=$(($(now_ms) - start))
+
+  local metric_status
+  metric_status=$(curl -s -o /dev/null -w '%{http_code}' -X POST "${BASE_URL}/api/save-metric" \
+    -H 'Content-Type: application/json' \
+    -d '{"event":"BUTTON_CLICK","eventMetadata":{"buttonId":"smoke-test","screen":"native"}}')
+  local config_status
+  config_status=$(curl -s -o /dev/null -w '%{http_code}' "${BASE_URL}/api/payments/config")
+
+  local rss_kb
+  rss_kb=$(ps -o rss= -p "$pid" | tr -d ' ')
+
+  printf '   %-8s startup %6d ms   RSS %7d KB   save-metric %s   payments/config %s\n' \
+    "$label" "$startup_ms" "$rss_kb" "$metric_status" "$config_status"
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+
+  if [ "$metric_status" != "201" ] || [ "$config_status" != "200" ]; then
+    echo "❌ ${label} smoke test failed, log: ${log_file}"
+    return 1
+  fi
+  rm -f "$log_file"
+}
+
+echo "🔥 Native image smoke test against ${BASE_URL}"
+smoke_test "native" "$NATIVE_BINARY"
+smoke_test "jvm" "$JVM_LAUNCHER"
+echo "✅ Native and JVM builds both served /api/save-metric and /api/payments/config"
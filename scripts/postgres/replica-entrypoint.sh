@@ -0,0 +1,21 @@
+#!/usr/bin/env bash
+#
+# Entrypoint for the docker-compose read replica. On first start it clones the primary with pg_basebackup
+# (-R writes primary_conninfo and standby.signal), then runs Postgres as a hot standby. Later starts reuse the
+# existing data directory and resume streaming.
+#
+set -euo pipefail
+
+mkdir -p "$PGDATA"
+chown postgres:postgres "$PGDATA"
+chmod 0700 "$PGDATA"
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until gosu postgres pg_basebackup -h "$PRIMARY_HOST" -U "$PRIMARY_USER" -D "$PGDATA" -R -X stream; do
+        echo "Waiting for $PRIMARY_HOST to accept replication connections..."
+        rm -rf "${PGDATA:?}"/*
+        sleep 2
+    done
+fi
+
+exec gosu postgres postgres
@@ -0,0 +1,94 @@
+package com.fortuna.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.metrics.controller.MetricEventHttpMessageConverter;
+import com.fortuna.metrics.controller.model.MetricEventDTO;
+import com.fortuna.metrics.controller.model.metadata.JsonMetadata;
+import com.fortuna.metrics.controller.model.metadata.MetricMetadataSchemas;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+
+/**
+ * Cost of taking one {@code POST /api/save-metric} body to the metadata string that is inserted:
+ * read, validate, then produce the stored JSON. {@code tree} is the generic path (bind the DTO with
+ * its metadata as a map, then normalize and serialize the map); {@code streaming} goes through
+ * {@link MetricEventHttpMessageConverter} and {@link MetricMetadataSchemas#normalize(
+ * com.fortuna.metrics.controller.model.MetricEventType, JsonMetadata)}. Run with {@code
+ * -PjmhProfilers=gc} for allocated bytes per event.
+ */
+@State(Scope.Benchmark)
+public class MetricEventConverterBenchmark {
+
+    static final String BODY =
+            """
+            {"event":"BUTTON_CLICK","userId":42,"clientEventId":"6f1c2a7e-3b9d-4e0a-8c55-1d2e3f4a5b6c",
+             "eventMetadata":{"triggerId":"checkout-pay-now","screen":"/checkout/payment",
+              "variant":"B","viewport":{"width":1440,"height":900},"referrer":"https://example.com/cart",
+              "tags":["promo","returning"],"elapsedMs":1532}}
+            """;
+
+    @Param({"tree", "streaming"})
+    public String path;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private MetricEventHttpMessageConverter converter;
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        converter = new MetricEventHttpMessageConverter(objectMapper);
+        body = BODY.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String ingest() throws IOException {
+        MetricEventDTO event =
+                path.equals("tree")
+                        ? objectMapper.readValue(body, MetricEventDTO.class)
+                        : converter.read(MetricEventDTO.class, new Body(body));
+        Set<ConstraintViolation<MetricEventDTO>> violations = validator.validate(event);
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException(violations.toString());
+        }
+        return event.getEventMetadata() instanceof JsonMetadata json
+                ? MetricMetadataSchemas.normalize(event.getEvent(), json)
+                : objectMapper.writeValueAsString(
+                        MetricMetadataSchemas.normalize(
+                                event.getEvent(), event.getEventMetadata()));
+    }
+
+    private record Body(byte[] bytes) implements HttpInputMessage {
+
+        private static final HttpHeaders HEADERS = new HttpHeaders();
+
+        static {
+            HEADERS.setContentType(MediaType.APPLICATION_JSON);
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return HEADERS;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.fortuna.metrics;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fortuna.metrics.controller.MetricEventReader;
+import com.fortuna.metrics.controller.model.MetricEventDTO;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.MediaType;
+
+/**
+ * Parse cost per event for each ingestion format, measured through {@link MetricEventReader} so
+ * binding and validation are included. Setup prints the encoded bytes per event for the same batch,
+ * which is what each format puts on the wire.
+ */
+@State(Scope.Benchmark)
+@OperationsPerInvocation(MetricEventFormatBenchmark.BATCH_SIZE)
+public class MetricEventFormatBenchmark {
+
+    static final int BATCH_SIZE = 100;
+
+    @Param({"JSON", "JSON_GZIP", "NDJSON", "CBOR", "SMILE"})
+    public String format;
+
+    private MetricEventReader reader;
+    private MediaType contentType;
+    private boolean gzip;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper json = new ObjectMapper();
+        reader =
+                new MetricEventReader(
+                        json, Validation.buildDefaultValidatorFactory().getValidator(), BATCH_SIZE);
+        List<MetricEventDTO> events = events();
+        gzip = format.equals("JSON_GZIP");
+        switch (format) {
+            case "JSON", "JSON_GZIP" -> {
+                contentType = MediaType.APPLICATION_JSON;
+                payload = json.writeValueAsBytes(events);
+            }
+            case "NDJSON" -> {
+                contentType = MediaType.APPLICATION_NDJSON;
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                for (MetricEventDTO event : events) {
+                    out.write(json.writeValueAsBytes(event));
+                    out.write('\n');
+                }
+                payload = out.toByteArray();
+            }
+            case "CBOR" -> {
+                contentType = MediaType.APPLICATION_CBOR;
+                payload = encode(new CBORFactory(), events);
+            }
+            case "SMILE" -> {
+                contentType = MetricEventReader.APPLICATION_SMILE;
+                payload = encode(new SmileFactory(), events);
+            }
+            default -> throw new IllegalArgumentException(format);
+        }
+        if (gzip) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(payload);
+            }
+            payload = compressed.toByteArray();
+        }
+        System.out.printf(
+                "%n[%s] %d bytes for %d events (%.1f bytes/event)%n",
+                format, payload.length, BATCH_SIZE, (double) payload.length / BATCH_SIZE);
+    }
+
+    @Benchmark
+    public List<MetricEventDTO> parse() throws IOException {
+        InputStream body = new ByteArrayInputStream(payload);
+        return reader.read(gzip ? new GZIPInputStream(body) : body, contentType);
+    }
+
+    private static byte[] encode(JsonFactory factory, List<MetricEventDTO> events)
+            throws IOException {
+        return new ObjectMapper(factory).writeValueAsBytes(events);
+    }
+
+    private static List<MetricEventDTO> events() {
+        List<MetricEventDTO> events = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            events.add(
+                    new MetricEventDTO(
+                            i % 5 == 0
+                                    ? MetricEventType.PAYMENT_SUBMITTED
+                                    : MetricEventType.BUTTON_CLICK,
+                            Map.of("triggerId", "button-" + (i % 12), "screen", "landing-page"),
+                            i % 3 == 0 ? null : (long) (i % 40),
+                            UUID.nameUUIDFromBytes(("event-" + i).getBytes()).toString()));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,93 @@
+package com.fortuna.metrics.repository;
+
+import com.fortuna.FortunaApplication;
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Insert cost per metric event for each {@link MetricEventWriter}, against the database the app is
+ * configured for (the docker-compose Postgres by default, or {@code POSTGRES_*} overrides). The
+ * writer comes from a real application context, so pools, transactions and driver settings match
+ * production. Run with {@code -PjmhProfilers=gc} to add allocated bytes per event.
+ *
+ * <p>{@link #insertConcurrently} is the load case: eight threads share the write pool. Rows are
+ * written with event {@code BENCHMARK} and deleted after each trial.
+ */
+@State(Scope.Benchmark)
+public class MetricEventWriterBenchmark {
+
+    static final int BATCH_SIZE = 100;
+
+    @Param({"jpa", "jdbc"})
+    public String writer;
+
+    private ConfigurableApplicationContext context;
+    private MetricEventWriter metricEventWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context =
+                new SpringApplicationBuilder(FortunaApplication.class)
+                        // Defaults only: real STRIPE_* variables still win.
+                        .properties(
+                                "STRIPE_SECRET_KEY=sk_test_benchmark",
+                                "STRIPE_PUBLISHABLE_KEY=pk_test_benchmark")
+                        .run(
+                                "--application.metrics.writer=" + writer,
+                                "--server.port=0",
+                                "--logging.level.root=WARN");
+        metricEventWriter = context.getBean(MetricEventWriter.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.getBean(JdbcTemplate.class).update("DELETE FROM metrics WHERE event = 'BENCHMARK'");
+        context.close();
+    }
+
+    @Benchmark
+    public void insert() {
+        metricEventWriter.insert(event());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insertBatch() {
+        List<MetricEventEntity> events = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            events.add(event());
+        }
+        metricEventWriter.insertAll(events);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void insertConcurrently() {
+        metricEventWriter.insert(event());
+    }
+
+    private static MetricEventEntity event() {
+        return MetricEventEntity.builder()
+                .event("BENCHMARK")
+                .eventTime(Timestamp.from(Instant.now()))
+                .metadata("{\"buttonId\": \"submit\", \"page\": \"/checkout\"}")
+                .clientEventId(UUID.randomUUID().toString())
+                .build();
+    }
+}
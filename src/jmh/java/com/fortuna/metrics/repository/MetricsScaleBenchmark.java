@@ -0,0 +1,428 @@
+package com.fortuna.metrics.repository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * How the {@code metrics} table behaves as it grows: loads {@link ScaleDataset} into a dedicated
+ * database one scale at a time and, at each, measures bulk load and insert throughput, table and
+ * index sizes, and the latency of the statements the app issues against the table. The database is
+ * dropped to an empty schema and migrated with the app's own Flyway migrations first, so a rerun
+ * after a schema change measures the new schema on the same data. Not a JMH benchmark: run it
+ * through {@code ./gradlew metricsScale} (see {@code gradle/benchmarks.gradle}).
+ *
+ * <p>Latencies are measured from one connection, one statement at a time, with parameters drawn
+ * from the dataset's distributions; rows written by the insert probes stay in the table.
+ */
+public final class MetricsScaleBenchmark {
+
+    private static final Pattern DATABASE_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final DateTimeFormatter RUN_ID =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final String DEDUP_LOOKUP =
+            "SELECT id FROM metrics WHERE client_event_id = ? LIMIT 1";
+    private static final String SEARCH_RARE_AMOUNT =
+            "SELECT * FROM metrics WHERE TRUE AND metadata @> CAST(? AS jsonb) AND event = ?"
+                    + " ORDER BY event_time DESC LIMIT ?";
+    private static final String SEARCH_BUTTON_PAGE =
+            "SELECT * FROM metrics WHERE TRUE AND metadata @> CAST(? AS jsonb)"
+                    + " ORDER BY event_time DESC LIMIT ?";
+    private static final String SEARCH_LAST_HOUR =
+            "SELECT * FROM metrics WHERE TRUE AND event = ? AND event_time >= ?"
+                    + " AND event_time < ? ORDER BY event_time DESC LIMIT ?";
+    private static final String ARCHIVE_OLDEST =
+            "SELECT min(event_time) FROM metrics WHERE event_time < ?";
+    private static final String ARCHIVE_PAGE =
+            "SELECT * FROM metrics WHERE event_time >= ? AND event_time < ?"
+                    + " AND (event_time > ? OR (event_time = ? AND id > ?))"
+                    + " ORDER BY event_time, id LIMIT ?";
+    private static final String DELETE_USER = "DELETE FROM users WHERE id = ?";
+    private static final int SEARCH_LIMIT = 100;
+    private static final int ARCHIVE_PAGE_SIZE = 1000;
+    private static final int BATCH_SIZE = 100;
+
+    private final Connection connection;
+    private final ScaleDataset dataset;
+    private final int iterations;
+    private final int warmup;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private long seeded;
+    private long headMicros;
+
+    private MetricsScaleBenchmark(
+            Connection connection, ScaleDataset dataset, int iterations, int warmup) {
+        this.connection = connection;
+        this.dataset = dataset;
+        this.iterations = iterations;
+        this.warmup = warmup;
+    }
+
+    public static void main(String[] args) throws SQLException, IOException {
+        Map<String, String> options = options(args);
+        String url = options.getOrDefault("url", "jdbc:postgresql://localhost:5432/fortuna_bench");
+        String user = options.getOrDefault("user", "dev");
+        String password = options.getOrDefault("password", "password");
+        List<Long> scales = scales(options.getOrDefault("scales", "1M,10M,100M,500M"));
+        long users = Long.parseLong(options.getOrDefault("users", "100000"));
+        Duration spacing = DurationStyle.detectAndParse(options.getOrDefault("spacing", "50ms"));
+        long chunkRows = scale(options.getOrDefault("chunk-rows", "5M"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "200"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "20"));
+        Path output = Path.of(options.getOrDefault("output", "build/results/metrics-scale"));
+        String baselineOption = options.get("baseline");
+        ScaleReport.Run baseline =
+                baselineOption == null || baselineOption.isBlank()
+                        ? null
+                        : ScaleReport.read(Path.of(baselineOption));
+
+        Instant started = Instant.now();
+        createDatabase(url, user, password);
+        Flyway flyway =
+                Flyway.configure().dataSource(url, user, password).cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            Map<String, String> settings = new LinkedHashMap<>();
+            settings.put("users", Long.toString(users));
+            settings.put("spacing", spacing.toMillis() + "ms");
+            settings.put("iterations", Integer.toString(iterations));
+            ScaleReport report =
+                    new ScaleReport(
+                            started.toString(),
+                            queryString(connection, "SHOW server_version"),
+                            flyway.info().current().getVersion().toString(),
+                            settings);
+            Path json = output.resolve("metrics-scale-" + RUN_ID.format(started) + ".json");
+            Path markdown = output.resolve("metrics-scale-" + RUN_ID.format(started) + ".md");
+
+            MetricsScaleBenchmark benchmark =
+                    new MetricsScaleBenchmark(
+                            connection,
+                            ScaleDataset.create(connection, users, spacing),
+                            iterations,
+                            warmup);
+            for (long rows : scales) {
+                report.add(benchmark.measure(rows, chunkRows));
+                // Written after every scale so a long run leaves results if it is stopped.
+                report.write(json, markdown, baseline);
+            }
+            System.out.println();
+            System.out.print(report.render(baseline));
+            System.out.printf("%nWritten to %s and %s%n", json, markdown);
+        }
+    }
+
+    private ScaleReport.Scale measure(long rows, long chunkRows) throws SQLException {
+        Map<String, Double> measurements = new LinkedHashMap<>();
+        long loaded = 0;
+        long loadNanos = 0;
+        while (seeded < rows) {
+            long to = Math.min(rows, seeded + chunkRows);
+            long start = System.nanoTime();
+            dataset.load(connection, seeded + 1, to);
+            loadNanos += System.nanoTime() - start;
+            loaded += to - seeded;
+            seeded = to;
+            System.out.printf(
+                    "Loaded %s of %s rows (%,.0f rows/s)%n",
+                    ScaleReport.rows(seeded), ScaleReport.rows(rows), loaded * 1e9 / loadNanos);
+        }
+        headMicros = Duration.between(ScaleDataset.START, dataset.timeOf(seeded)).toNanos() / 1_000;
+        if (loaded > 0) {
+            measurements.put("bulk load rows/s", loaded * 1e9 / loadNanos);
+        }
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM (ANALYZE) metrics");
+        }
+        measurements.put("vacuum analyze s", (System.nanoTime() - start) / 1e9);
+        sizes(measurements);
+
+        System.out.printf("Measuring at %s rows%n", ScaleReport.rows(rows));
+        measurements.put("batch insert rows/s", batchInsertRowsPerSecond());
+        ScaleReport.latencies(
+                measurements, "insert", time(JdbcMetricEventWriter.INSERT_SQL, this::insert));
+        ScaleReport.latencies(measurements, "dedup lookup", time(DEDUP_LOOKUP, this::dedupLookup));
+        ScaleReport.latencies(
+                measurements,
+                "search rare amount",
+                time(SEARCH_RARE_AMOUNT, this::searchRareAmount));
+        ScaleReport.latencies(
+                measurements,
+                "search button+page",
+                time(SEARCH_BUTTON_PAGE, this::searchButtonPage));
+        ScaleReport.latencies(
+                measurements, "search last hour", time(SEARCH_LAST_HOUR, this::searchLastHour));
+        ScaleReport.latencies(
+                measurements, "archive oldest", time(ARCHIVE_OLDEST, this::archiveOldest));
+        ScaleReport.latencies(measurements, "archive page", time(ARCHIVE_PAGE, this::archivePage));
+        ScaleReport.latencies(measurements, "delete user", time(DELETE_USER, this::deleteUser));
+        return new ScaleReport.Scale(rows, measurements);
+    }
+
+    private void sizes(Map<String, Double> measurements) throws SQLException {
+        measurements.put(
+                "heap MB", queryLong("SELECT pg_table_size('metrics')") / (1024.0 * 1024.0));
+        measurements.put(
+                "indexes MB", queryLong("SELECT pg_indexes_size('metrics')") / (1024.0 * 1024.0));
+        try (Statement statement = connection.createStatement();
+                ResultSet indexes =
+                        statement.executeQuery(
+                                "SELECT indexrelid::regclass::text, pg_relation_size(indexrelid)"
+                                        + " FROM pg_index WHERE indrelid = 'metrics'::regclass"
+                                        + " ORDER BY 1")) {
+            while (indexes.next()) {
+                measurements.put(
+                        indexes.getString(1) + " MB", indexes.getLong(2) / (1024.0 * 1024.0));
+            }
+        }
+    }
+
+    /** {@link JdbcMetricEventWriter#insertAll}: 100-row JDBC batches, one transaction each. */
+    private double batchInsertRowsPerSecond() throws SQLException {
+        int batches = Math.max(1, iterations / 4);
+        long nanos = 0;
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert =
+                connection.prepareStatement(JdbcMetricEventWriter.INSERT_SQL)) {
+            for (int batch = 0; batch < batches; batch++) {
+                long start = System.nanoTime();
+                for (int row = 0; row < BATCH_SIZE; row++) {
+                    bindNewEvent(insert);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                connection.commit();
+                nanos += System.nanoTime() - start;
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        return (double) batches * BATCH_SIZE * 1e9 / nanos;
+    }
+
+    /** {@link JdbcMetricEventWriter#insert}: one row, autocommit. */
+    private void insert(PreparedStatement statement) throws SQLException {
+        bindNewEvent(statement);
+        statement.executeUpdate();
+    }
+
+    /** {@link MetricsRepository#existsByClientEventId}; most ingested events are new. */
+    private void dedupLookup(PreparedStatement statement) throws SQLException {
+        statement.setString(
+                1,
+                random.nextInt(10) == 0
+                        ? ScaleDataset.clientEventIdOf(1 + random.nextLong(seeded))
+                        : ScaleDataset.randomClientEventId(random));
+        drain(statement);
+    }
+
+    /** {@link MetricsSearchRepositoryImpl} with a selective containment and an event type. */
+    private void searchRareAmount(PreparedStatement statement) throws SQLException {
+        statement.setString(1, "{\"amount\": " + ScaleDataset.randomAmount(random) + "}");
+        statement.setString(2, "PAYMENT_SUBMITTED");
+        statement.setInt(3, SEARCH_LIMIT);
+        drain(statement);
+    }
+
+    /** {@link MetricsSearchRepositoryImpl} with a common containment and no other filter. */
+    private void searchButtonPage(PreparedStatement statement) throws SQLException {
+        statement.setString(
+                1,
+                "{\"buttonId\": \"%s\", \"page\": \"%s\"}"
+                        .formatted(
+                                ScaleDataset.randomButton(random),
+                                ScaleDataset.randomPage(random)));
+        statement.setInt(2, SEARCH_LIMIT);
+        drain(statement);
+    }
+
+    /** {@link MetricsSearchRepositoryImpl} with an event type and a one-hour window anywhere. */
+    private void searchLastHour(PreparedStatement statement) throws SQLException {
+        Instant to = randomTime();
+        statement.setString(1, "BUTTON_CLICK");
+        statement.setTimestamp(2, Timestamp.from(to.minus(Duration.ofHours(1))));
+        statement.setTimestamp(3, Timestamp.from(to));
+        statement.setInt(4, SEARCH_LIMIT);
+        drain(statement);
+    }
+
+    /** {@link MetricsRepository#findOldestEventTimeBefore}, as the archiver starts a pass. */
+    private void archiveOldest(PreparedStatement statement) throws SQLException {
+        statement.setTimestamp(1, Timestamp.from(randomTime()));
+        drain(statement);
+    }
+
+    /** {@link MetricsRepository#findPageByEventTimeRange}, one page of an archiver day read. */
+    private void archivePage(PreparedStatement statement) throws SQLException {
+        Instant from = randomTime();
+        statement.setTimestamp(1, Timestamp.from(from));
+        statement.setTimestamp(2, Timestamp.from(from.plus(Duration.ofDays(1))));
+        statement.setTimestamp(3, Timestamp.from(from));
+        statement.setTimestamp(4, Timestamp.from(from));
+        statement.setLong(5, Long.MIN_VALUE);
+        statement.setInt(6, ARCHIVE_PAGE_SIZE);
+        drain(statement);
+    }
+
+    /**
+     * Deleting a user sets {@code user_id} to null on their events through the foreign key; rolled
+     * back so every scale keeps the same users.
+     */
+    private void deleteUser(PreparedStatement statement) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            statement.setLong(1, dataset.randomUserId(random));
+            statement.executeUpdate();
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private interface Probe {
+        void run(PreparedStatement statement) throws SQLException;
+    }
+
+    /** Runs the probe {@code warmup} then {@code iterations} times; returns the timed runs. */
+    private long[] time(String sql, Probe probe) throws SQLException {
+        long[] nanos = new long[iterations];
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < warmup; i++) {
+                probe.run(statement);
+            }
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                probe.run(statement);
+                nanos[i] = System.nanoTime() - start;
+            }
+        }
+        return nanos;
+    }
+
+    private void bindNewEvent(PreparedStatement statement) throws SQLException {
+        boolean payment = random.nextDouble() < ScaleDataset.PAYMENT_SHARE;
+        headMicros += 1_000;
+        statement.setString(1, payment ? "PAYMENT_SUBMITTED" : "BUTTON_CLICK");
+        statement.setTimestamp(
+                2, Timestamp.from(ScaleDataset.START.plus(Duration.ofNanos(headMicros * 1_000))));
+        statement.setString(3, ScaleDataset.randomMetadata(payment, random));
+        if (random.nextDouble() < ScaleDataset.ANONYMOUS_SHARE) {
+            statement.setNull(4, Types.BIGINT);
+        } else {
+            statement.setLong(4, dataset.randomUserId(random));
+        }
+        statement.setString(5, ScaleDataset.randomClientEventId(random));
+    }
+
+    private Instant randomTime() {
+        return dataset.timeOf(1 + random.nextLong(seeded));
+    }
+
+    private static void drain(PreparedStatement statement) throws SQLException {
+        try (ResultSet results = statement.executeQuery()) {
+            while (results.next()) {
+                // Fetch every row, as the app does.
+            }
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private static String queryString(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getString(1);
+        }
+    }
+
+    /** Creates the benchmark database through the server's {@code postgres} database if needed. */
+    private static void createDatabase(String url, String user, String password)
+            throws SQLException {
+        int slash = url.lastIndexOf('/');
+        int query = url.indexOf('?', slash);
+        String database = url.substring(slash + 1, query < 0 ? url.length() : query);
+        if (!DATABASE_NAME.matcher(database).matches()) {
+            throw new IllegalArgumentException("Unexpected database name " + database);
+        }
+        try (Connection admin =
+                        DriverManager.getConnection(
+                                url.substring(0, slash + 1) + "postgres", user, password);
+                PreparedStatement exists =
+                        admin.prepareStatement("SELECT 1 FROM pg_database WHERE datname = ?")) {
+            exists.setString(1, database);
+            try (ResultSet found = exists.executeQuery()) {
+                if (found.next()) {
+                    return;
+                }
+            }
+            try (Statement create = admin.createStatement()) {
+                create.execute("CREATE DATABASE " + database);
+            }
+        }
+    }
+
+    static List<Long> scales(String scales) {
+        List<Long> parsed = new ArrayList<>();
+        for (String scale : scales.split(",")) {
+            parsed.add(scale(scale.trim()));
+        }
+        if (parsed.stream().sorted().toList().equals(parsed)) {
+            return parsed;
+        }
+        throw new IllegalArgumentException("Scales must be increasing: " + scales);
+    }
+
+    private static long scale(String scale) {
+        String upper = scale.toUpperCase(Locale.ROOT);
+        if (upper.endsWith("M")) {
+            return Long.parseLong(upper.substring(0, upper.length() - 1)) * 1_000_000;
+        }
+        if (upper.endsWith("K")) {
+            return Long.parseLong(upper.substring(0, upper.length() - 1)) * 1_000;
+        }
+        return Long.parseLong(upper);
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+}
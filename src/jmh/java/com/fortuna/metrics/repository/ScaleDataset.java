@@ -0,0 +1,184 @@
+package com.fortuna.metrics.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Synthetic metric events, generated inside Postgres from the row number {@code g} alone so every
+ * run at a given scale loads exactly the same rows. Row {@code g} happens at {@code START + g *
+ * spacing}. The mix is skewed the way real traffic is:
+ *
+ * <ul>
+ *   <li>8% payments, the rest button clicks;
+ *   <li>clicks over 500 buttons and 60 pages, the low-numbered ones far more often;
+ *   <li>payment amounts log-uniform from 1.00 to 1000.00, mostly USD;
+ *   <li>30% anonymous, the rest spread over the seeded users with a power law, so a few heavy users
+ *       own much of the table;
+ *   <li>85% carry a client event id, as current clients send one.
+ * </ul>
+ *
+ * The query parameters below draw from the same distributions, so the probes hit realistic data.
+ */
+final class ScaleDataset {
+
+    static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+    static final int BUTTONS = 500;
+    static final int PAGES = 60;
+    static final double PAYMENT_SHARE = 0.08;
+    static final double ANONYMOUS_SHARE = 0.30;
+    static final double CLIENT_EVENT_ID_SHARE = 0.85;
+
+    /** A uniform value in [0, 1) per row and stream; inlined by the planner. */
+    private static final String UNIT_FUNCTION =
+            """
+            CREATE OR REPLACE FUNCTION pg_temp.unit(g bigint, stream bigint) RETURNS float8
+                LANGUAGE sql IMMUTABLE PARALLEL SAFE
+                AS $$ SELECT (hashint8extended(g, stream) & 9007199254740991)::float8 / 9007199254740992 $$
+            """;
+
+    private static final String SEED_USERS =
+            """
+            INSERT INTO users (email, first_name, last_name)
+            SELECT 'bench-user-' || i || '@example.com', 'Bench', 'User ' || i
+            FROM generate_series(1, ?) AS i
+            """;
+
+    private static final String SEED_METRICS =
+            """
+            INSERT INTO metrics (event, event_time, metadata, user_id, client_event_id)
+            SELECT CASE WHEN u1 < %1$s THEN 'PAYMENT_SUBMITTED' ELSE 'BUTTON_CLICK' END,
+                   TIMESTAMPTZ '%2$s' + g * (? * INTERVAL '1 microsecond'),
+                   CASE WHEN u1 < %1$s
+                        THEN jsonb_build_object(
+                                 'amount', floor(100 * power(1000, u2))::bigint,
+                                 'currency', CASE WHEN u3 < 0.80 THEN 'USD' WHEN u3 < 0.92 THEN 'EUR' ELSE 'GBP' END,
+                                 'paymentType', CASE WHEN u4 < 0.70 THEN 'Card' ELSE 'Wallet' END)
+                        ELSE jsonb_build_object(
+                                 'buttonId', 'button-' || floor(%3$d * u2 * u2)::int,
+                                 'page', '/page-' || floor(%4$d * u3 * u3)::int,
+                                 'variant', CASE WHEN u4 < 0.5 THEN 'A' ELSE 'B' END,
+                                 'elapsedMs', floor(30000 * u5)::int)
+                   END,
+                   CASE WHEN u6 >= %5$s THEN ? + floor(? * power(u7, 4))::bigint END,
+                   CASE WHEN u8 < %6$s THEN md5(g::text)::uuid::text END
+            FROM (SELECT g,
+                         pg_temp.unit(g, 1) AS u1, pg_temp.unit(g, 2) AS u2, pg_temp.unit(g, 3) AS u3,
+                         pg_temp.unit(g, 4) AS u4, pg_temp.unit(g, 5) AS u5, pg_temp.unit(g, 6) AS u6,
+                         pg_temp.unit(g, 7) AS u7, pg_temp.unit(g, 8) AS u8
+                  FROM generate_series(?::bigint, ?::bigint) AS g) AS rows
+            """
+                    .formatted(
+                            PAYMENT_SHARE,
+                            START,
+                            BUTTONS,
+                            PAGES,
+                            ANONYMOUS_SHARE,
+                            CLIENT_EVENT_ID_SHARE);
+
+    private final long users;
+    private final long firstUserId;
+    private final Duration spacing;
+
+    private ScaleDataset(long users, long firstUserId, Duration spacing) {
+        this.users = users;
+        this.firstUserId = firstUserId;
+        this.spacing = spacing;
+    }
+
+    /** Seeds {@code users} users into an empty, migrated database. */
+    static ScaleDataset create(Connection connection, long users, Duration spacing)
+            throws SQLException {
+        try (PreparedStatement seed = connection.prepareStatement(SEED_USERS)) {
+            seed.setLong(1, users);
+            seed.executeUpdate();
+        }
+        try (Statement statement = connection.createStatement();
+                ResultSet firstId = statement.executeQuery("SELECT min(id) FROM users")) {
+            firstId.next();
+            return new ScaleDataset(users, firstId.getLong(1), spacing);
+        }
+    }
+
+    /** Inserts rows {@code from} to {@code to} inclusive, as one statement. */
+    void load(Connection connection, long from, long to) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(UNIT_FUNCTION);
+        }
+        try (PreparedStatement load = connection.prepareStatement(SEED_METRICS)) {
+            load.setLong(1, spacing.toNanos() / 1_000);
+            load.setLong(2, firstUserId);
+            load.setLong(3, users);
+            load.setLong(4, from);
+            load.setLong(5, to);
+            load.executeUpdate();
+        }
+    }
+
+    Instant timeOf(long g) {
+        return START.plus(spacing.multipliedBy(g));
+    }
+
+    long randomUserId(SplittableRandom random) {
+        return firstUserId + random.nextLong(users);
+    }
+
+    /** The client event id row {@code g} was generated with, if it got one. */
+    static String clientEventIdOf(long g) {
+        try {
+            byte[] md5 =
+                    MessageDigest.getInstance("MD5")
+                            .digest(Long.toString(g).getBytes(StandardCharsets.US_ASCII));
+            String hex = HexFormat.of().formatHex(md5);
+            return hex.substring(0, 8)
+                    + '-'
+                    + hex.substring(8, 12)
+                    + '-'
+                    + hex.substring(12, 16)
+                    + '-'
+                    + hex.substring(16, 20)
+                    + '-'
+                    + hex.substring(20);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Metadata for a new event, as the app stores it after normalizing. */
+    static String randomMetadata(boolean payment, SplittableRandom random) {
+        if (payment) {
+            return "{\"amount\": %d, \"currency\": \"USD\", \"paymentType\": \"Card\"}"
+                    .formatted(randomAmount(random));
+        }
+        return "{\"buttonId\": \"%s\", \"page\": \"%s\", \"variant\": \"A\", \"elapsedMs\": %d}"
+                .formatted(randomButton(random), randomPage(random), random.nextInt(30_000));
+    }
+
+    static String randomButton(SplittableRandom random) {
+        double u = random.nextDouble();
+        return "button-" + (int) (BUTTONS * u * u);
+    }
+
+    static String randomPage(SplittableRandom random) {
+        double u = random.nextDouble();
+        return "/page-" + (int) (PAGES * u * u);
+    }
+
+    static long randomAmount(SplittableRandom random) {
+        return (long) Math.floor(100 * Math.pow(1000, random.nextDouble()));
+    }
+
+    static String randomClientEventId(SplittableRandom random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+}
@@ -0,0 +1,170 @@
+package com.fortuna.metrics.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Results of one run, as JSON to compare later runs against and as a Markdown table with one column
+ * per scale. Every measurement is a named number per scale, so runs compare key by key; names say
+ * their unit, and for throughput higher is better while for sizes and latencies lower is.
+ */
+final class ScaleReport {
+
+    private static final ObjectMapper MAPPER =
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /** JSON form; {@code settings} say what was loaded, to compare like with like. */
+    record Run(
+            String startedAt,
+            String postgresVersion,
+            String schemaVersion,
+            Map<String, String> settings,
+            List<Scale> scales) {}
+
+    record Scale(long rows, Map<String, Double> measurements) {}
+
+    private final Run run;
+
+    ScaleReport(
+            String startedAt,
+            String postgresVersion,
+            String schemaVersion,
+            Map<String, String> settings) {
+        this.run = new Run(startedAt, postgresVersion, schemaVersion, settings, new ArrayList<>());
+    }
+
+    void add(Scale scale) {
+        run.scales().add(scale);
+    }
+
+    static Run read(Path json) throws IOException {
+        return MAPPER.readValue(json.toFile(), Run.class);
+    }
+
+    void write(Path json, Path markdown, Run baseline) throws IOException {
+        Files.createDirectories(json.toAbsolutePath().getParent());
+        MAPPER.writeValue(json.toFile(), run);
+        Files.writeString(markdown, render(baseline));
+    }
+
+    String render(Run baseline) {
+        StringBuilder out = new StringBuilder();
+        out.append("# metrics scale benchmark, ").append(run.startedAt()).append("\n\n");
+        out.append("Postgres ")
+                .append(run.postgresVersion())
+                .append(", schema ")
+                .append(run.schemaVersion());
+        run.settings()
+                .forEach((name, value) -> out.append(", ").append(name).append(' ').append(value));
+        out.append("\n\n");
+        table(out, run.scales());
+        if (baseline != null) {
+            out.append("\n## Against ").append(baseline.startedAt()).append("\n\n");
+            out.append("Baseline schema ").append(baseline.schemaVersion());
+            if (!baseline.settings().equals(run.settings())) {
+                out.append(", **different settings**: ").append(baseline.settings());
+            }
+            out.append(". Change is current against baseline.\n\n");
+            comparison(out, baseline);
+        }
+        return out.toString();
+    }
+
+    private static void table(StringBuilder out, List<Scale> scales) {
+        out.append("| |");
+        scales.forEach(scale -> out.append(' ').append(rows(scale.rows())).append(" |"));
+        out.append("\n|---|");
+        scales.forEach(scale -> out.append("---:|"));
+        out.append('\n');
+        for (String name : names(scales)) {
+            out.append("| ").append(name).append(" |");
+            for (Scale scale : scales) {
+                Double value = scale.measurements().get(name);
+                out.append(' ').append(value == null ? "" : number(value)).append(" |");
+            }
+            out.append('\n');
+        }
+    }
+
+    private void comparison(StringBuilder out, Run baseline) {
+        Map<Long, Scale> before = new LinkedHashMap<>();
+        baseline.scales().forEach(scale -> before.put(scale.rows(), scale));
+        List<Scale> common =
+                run.scales().stream().filter(scale -> before.containsKey(scale.rows())).toList();
+        if (common.isEmpty()) {
+            out.append("No scale in common with the baseline.\n");
+            return;
+        }
+        out.append("| |");
+        common.forEach(scale -> out.append(' ').append(rows(scale.rows())).append(" |"));
+        out.append("\n|---|");
+        common.forEach(scale -> out.append("---:|"));
+        out.append('\n');
+        for (String name : names(common)) {
+            out.append("| ").append(name).append(" |");
+            for (Scale scale : common) {
+                Double current = scale.measurements().get(name);
+                Double previous = before.get(scale.rows()).measurements().get(name);
+                out.append(' ');
+                if (current != null && previous != null) {
+                    out.append(number(previous)).append(" → ").append(number(current));
+                    if (previous != 0) {
+                        out.append(
+                                String.format(
+                                        Locale.ROOT, " (%+.0f%%)", (current / previous - 1) * 100));
+                    }
+                }
+                out.append(" |");
+            }
+            out.append('\n');
+        }
+    }
+
+    private static Set<String> names(List<Scale> scales) {
+        Set<String> names = new LinkedHashSet<>();
+        scales.forEach(scale -> names.addAll(scale.measurements().keySet()));
+        return names;
+    }
+
+    /** Nearest-rank percentile of sorted, non-empty nanosecond timings, in milliseconds. */
+    static double percentileMillis(long[] sortedNanos, double percentile) {
+        int rank = (int) Math.ceil(percentile * sortedNanos.length);
+        return sortedNanos[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    /** Adds p50, p95 and p99 of {@code nanos} (sorted in place) under {@code name}. */
+    static void latencies(Map<String, Double> measurements, String name, long[] nanos) {
+        Arrays.sort(nanos);
+        measurements.put(name + " p50 ms", percentileMillis(nanos, 0.50));
+        measurements.put(name + " p95 ms", percentileMillis(nanos, 0.95));
+        measurements.put(name + " p99 ms", percentileMillis(nanos, 0.99));
+    }
+
+    static String rows(long rows) {
+        if (rows >= 1_000_000 && rows % 1_000_000 == 0) {
+            return rows / 1_000_000 + "M";
+        }
+        if (rows >= 1_000 && rows % 1_000 == 0) {
+            return rows / 1_000 + "k";
+        }
+        return Long.toString(rows);
+    }
+
+    private static String number(double value) {
+        if (Math.abs(value) >= 100) {
+            return String.format(Locale.ROOT, "%,.0f", value);
+        }
+        return String.format(Locale.ROOT, Math.abs(value) >= 10 ? "%.1f" : "%.2f", value);
+    }
+}
@@ -0,0 +1,46 @@
+package com.fortuna.tracing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Tracing overhead per request. {@code traced} records the eight spans a payment request produces
+ * and finishes the trace; {@code untraced} is the same instrumentation with no trace attached, the
+ * cost paid by code running outside a request. Run with {@code -PjmhProfilers=gc} for bytes per
+ * request.
+ */
+@State(Scope.Thread)
+public class RequestTraceBenchmark {
+
+    @Benchmark
+    public RequestTrace traced() {
+        RequestTrace trace = new RequestTrace("benchmark", "POST /api/payments", 64);
+        Tracing.attach(trace);
+        try {
+            spans();
+        } finally {
+            Tracing.detach();
+        }
+        trace.finish("POST /api/payments/create-payment-intent", 200);
+        return trace;
+    }
+
+    @Benchmark
+    public void untraced() {
+        spans();
+    }
+
+    private static void spans() {
+        try (Span handler = Tracing.span("PaymentController#createPaymentIntent")) {
+            Tracing.span("request.read").close();
+            Tracing.span("validate").close();
+            try (Span service = Tracing.span("PaymentService#createPaymentIntent")) {
+                Tracing.span("payment.buildStripeParams").close();
+                Tracing.span("stripe.PaymentIntent.create").close();
+                Tracing.span("jdbc.payments.upsert").close();
+            }
+            Tracing.span("response.write");
+        }
+    }
+}
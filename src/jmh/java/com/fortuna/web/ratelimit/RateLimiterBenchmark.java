@@ -0,0 +1,69 @@
+package com.fortuna.web.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+/**
+ * Cost of one {@link RateLimiter} decision. {@code allow} keeps buckets from emptying, so every
+ * call ends in a compare-and-set; {@code reject} keeps them empty, so calls only read. The
+ * contended benchmark has eight threads on one client key, the worst case for the CAS loop.
+ */
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    @Param({"allow", "reject"})
+    public String outcome;
+
+    private RateLimiter rateLimiter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment
+                .getPropertySources()
+                .addFirst(
+                        new MapPropertySource(
+                                "benchmark",
+                                Map.of(
+                                        "application.rate-limit.limits.allow.rate", "1e12",
+                                        "application.rate-limit.limits.allow.burst", "1000000",
+                                        "application.rate-limit.limits.reject.rate", "0.001",
+                                        "application.rate-limit.limits.reject.burst", "1")));
+        rateLimiter = new RateLimiter(environment, new SimpleMeterRegistry());
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private static final AtomicInteger NEXT = new AtomicInteger();
+
+        final String key = "ip:10.0.0." + NEXT.incrementAndGet();
+    }
+
+    @Benchmark
+    public Duration singleThread(Client client) {
+        return rateLimiter.tryAcquire(outcome, client.key, 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Duration keyPerThread(Client client) {
+        return rateLimiter.tryAcquire(outcome, client.key, 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Duration sharedKey() {
+        return rateLimiter.tryAcquire(outcome, "ip:10.0.0.1", 1);
+    }
+}
@@ -0,0 +1,264 @@
+package com.fortuna.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.zaxxer.hikari.HikariDataSource;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps in-process caches consistent across instances. Caches register under a name; {@link
+ * #publish} drops a key locally at once and tells the other instances with Postgres {@code NOTIFY},
+ * which every instance receives through a {@code LISTEN}ing {@link PostgresNotificationListener}.
+ *
+ * <p>Published keys are held for {@code application.cache-invalidation.debounce} and sent as one
+ * notification per cache, split only where a payload would exceed Postgres' 8000 byte limit. Inside
+ * a transaction, publishing waits for the commit so other instances cannot reload the old row. An
+ * instance that loses its listener connection clears all its registered caches on reconnect, since
+ * it may have missed notifications in between.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus implements SmartLifecycle {
+
+    static final int MAX_PAYLOAD_BYTES = 7_900;
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final Duration debounce;
+    private final PostgresNotificationListener listener;
+    private final String origin = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<String, InvalidatableCache> caches = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private Map<String, Set<String>> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    @Autowired
+    public CacheInvalidationBus(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${application.cache-invalidation.enabled:true}") boolean enabled,
+            @Value("${application.cache-invalidation.channel:fortuna_cache_invalidation}")
+                    String channel,
+            @Value("${application.cache-invalidation.debounce:50ms}") Duration debounce,
+            @Value("${application.cache-invalidation.max-reconnect-backoff:30s}")
+                    Duration maxReconnectBackoff,
+            @Qualifier("writeDataSource") HikariDataSource writeDataSource) {
+        this(
+                jdbcTemplate,
+                objectMapper,
+                enabled,
+                channel,
+                debounce,
+                maxReconnectBackoff,
+                writeDataSource.getJdbcUrl(),
+                writeDataSource.getUsername(),
+                writeDataSource.getPassword(),
+                writeDataSource.getDataSourceProperties());
+    }
+
+    CacheInvalidationBus(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            boolean enabled,
+            String channel,
+            Duration debounce,
+            Duration maxReconnectBackoff,
+            String url,
+            String username,
+            String password,
+            Properties dataSourceProperties) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid cache invalidation channel: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.debounce = debounce;
+        this.listener =
+                enabled
+                        ? new PostgresNotificationListener(
+                                url,
+                                username,
+                                password,
+                                dataSourceProperties,
+                                channel,
+                                this::receive,
+                                this::invalidateAllLocally,
+                                maxReconnectBackoff)
+                        : null;
+    }
+
+    public void register(String cacheName, InvalidatableCache cache) {
+        if (caches.putIfAbsent(cacheName, cache) != null) {
+            throw new IllegalStateException("Cache already registered: " + cacheName);
+        }
+    }
+
+    /** Drops {@code key} from {@code cacheName} on every instance, after the current commit. */
+    public void publish(String cacheName, String key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            publishNow(cacheName, key);
+                        }
+                    });
+        } else {
+            publishNow(cacheName, key);
+        }
+    }
+
+    private void publishNow(String cacheName, String key) {
+        InvalidatableCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.invalidate(key);
+        }
+        if (listener == null) {
+            return;
+        }
+        synchronized (lock) {
+            pending.computeIfAbsent(cacheName, name -> new LinkedHashSet<>()).add(key);
+            if (!flushScheduled && running) {
+                flushScheduled = true;
+                flusher.schedule(this::flush, debounce.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /** Sends everything published since the last flush; returns the notifications sent. */
+    int flush() {
+        Map<String, Set<String>> batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            flushScheduled = false;
+        }
+        if (listener == null || batch.isEmpty()) {
+            return 0;
+        }
+        int sent = 0;
+        try {
+            for (Map.Entry<String, Set<String>> cacheKeys : batch.entrySet()) {
+                ArrayNode keys = objectMapper.createArrayNode();
+                int size = 0;
+                for (String key : cacheKeys.getValue()) {
+                    int keySize = key.getBytes(StandardCharsets.UTF_8).length + 3;
+                    if (!keys.isEmpty() && size + keySize > MAX_PAYLOAD_BYTES) {
+                        notify(cacheKeys.getKey(), keys);
+                        sent++;
+                        keys = objectMapper.createArrayNode();
+                        size = 0;
+                    }
+                    keys.add(key);
+                    size += keySize;
+                }
+                notify(cacheKeys.getKey(), keys);
+                sent++;
+            }
+        } catch (DataAccessException e) {
+            // Other instances keep the stale entries until they expire or are invalidated again.
+            log.warn("Failed to publish cache invalidations for {}", batch.keySet(), e);
+        }
+        return sent;
+    }
+
+    void receive(String payload) {
+        JsonNode message;
+        try {
+            message = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed cache invalidation payload", e);
+        }
+        if (origin.equals(message.path("origin").asText())) {
+            return;
+        }
+        InvalidatableCache cache = caches.get(message.path("cache").asText());
+        if (cache == null) {
+            return;
+        }
+        message.path("keys").forEach(key -> cache.invalidate(key.asText()));
+    }
+
+    void invalidateAllLocally() {
+        caches.values().forEach(InvalidatableCache::invalidateAll);
+    }
+
+    private void notify(String cacheName, ArrayNode keys) {
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("origin", origin);
+        message.put("cache", cacheName);
+        message.set("keys", keys);
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, message.toString());
+    }
+
+    @Override
+    public void start() {
+        flusher =
+                Executors.newSingleThreadScheduledExecutor(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "cache-invalidation-flusher");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        if (listener != null) {
+            listener.start();
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        synchronized (lock) {
+            running = false;
+        }
+        flusher.shutdownNow();
+        flush();
+        if (listener != null) {
+            listener.stop();
+        }
+    }
+
+    /** Stops after the web server has drained, so invalidations from the last requests go out. */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
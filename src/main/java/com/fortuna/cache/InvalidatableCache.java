@@ -0,0 +1,26 @@
+package com.fortuna.cache;
+
+import java.util.function.Consumer;
+
+/** A local cache that {@link CacheInvalidationBus} can drop entries from. */
+public interface InvalidatableCache {
+
+    void invalidate(String key);
+
+    /** Drops everything; used when invalidations may have been missed. */
+    void invalidateAll();
+
+    static InvalidatableCache of(Consumer<String> invalidate, Runnable invalidateAll) {
+        return new InvalidatableCache() {
+            @Override
+            public void invalidate(String key) {
+                invalidate.accept(key);
+            }
+
+            @Override
+            public void invalidateAll() {
+                invalidateAll.run();
+            }
+        };
+    }
+}
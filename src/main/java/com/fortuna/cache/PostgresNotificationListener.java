@@ -0,0 +1,145 @@
+package com.fortuna.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.postgresql.PGProperty;
+
+/**
+ * Holds one connection outside the pools that {@code LISTEN}s on a channel and hands each payload
+ * to a consumer on its own thread. It connects with the same driver properties as the write pool,
+ * so settings such as {@code sslFactory} apply to it too. When the connection drops it reconnects
+ * with exponential backoff and runs {@code onReconnect}, because notifications sent while it was
+ * away are gone.
+ */
+@Slf4j
+final class PostgresNotificationListener implements Runnable {
+
+    static final String APPLICATION_NAME = "fortuna-cache-invalidation";
+
+    private static final Duration POLL_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(100);
+
+    private final String url;
+    private final Properties connectionProperties;
+    private final String channel;
+    private final Consumer<String> onNotification;
+    private final Runnable onReconnect;
+    private final Duration maxBackoff;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    PostgresNotificationListener(
+            String url,
+            String username,
+            String password,
+            Properties dataSourceProperties,
+            String channel,
+            Consumer<String> onNotification,
+            Runnable onReconnect,
+            Duration maxBackoff) {
+        this.url = url;
+        this.connectionProperties = new Properties();
+        this.connectionProperties.putAll(dataSourceProperties);
+        PGProperty.USER.set(connectionProperties, username);
+        PGProperty.PASSWORD.set(connectionProperties, password);
+        PGProperty.APPLICATION_NAME.set(connectionProperties, APPLICATION_NAME);
+        this.channel = channel;
+        this.onNotification = onNotification;
+        this.onReconnect = onReconnect;
+        this.maxBackoff = maxBackoff;
+    }
+
+    synchronized void start() {
+        running = true;
+        thread = new Thread(this, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        closeQuietly(connection);
+    }
+
+    @Override
+    public void run() {
+        boolean connectedBefore = false;
+        Duration backoff = INITIAL_BACKOFF;
+        while (running) {
+            try (Connection listening = DriverManager.getConnection(url, connectionProperties)) {
+                connection = listening;
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connectedBefore) {
+                    log.info("Cache invalidation listener reconnected; invalidating local caches");
+                    onReconnect.run();
+                }
+                connectedBefore = true;
+                backoff = INITIAL_BACKOFF;
+                listen(listening.unwrap(PGConnection.class));
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn(
+                        "Cache invalidation listener lost its connection; retrying in {}",
+                        backoff,
+                        e);
+                try {
+                    Thread.sleep(backoff.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff =
+                        backoff.multipliedBy(2).compareTo(maxBackoff) > 0
+                                ? maxBackoff
+                                : backoff.multipliedBy(2);
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private void listen(PGConnection listening) throws SQLException {
+        while (running) {
+            PGNotification[] notifications =
+                    listening.getNotifications((int) POLL_INTERVAL.toMillis());
+            if (notifications == null) {
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                try {
+                    onNotification.accept(notification.getParameter());
+                } catch (RuntimeException e) {
+                    log.warn("Ignoring unreadable cache invalidation {}", notification, e);
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close cache invalidation connection", e);
+        }
+    }
+}
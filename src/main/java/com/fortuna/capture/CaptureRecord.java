@@ -0,0 +1,23 @@
+package com.fortuna.capture;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One captured request, written as a line of NDJSON by {@link CaptureWriter}. {@code time} is the
+ * ISO-8601 instant the request reached the filter and {@code route} the handler pattern it matched,
+ * if any. Sanitized text bodies go in {@code body} and binary ones (CBOR, Smile) in {@code
+ * bodyBase64}; when a body could not be kept (over the size cap, or not parseable and so not
+ * sanitizable) both are null and {@code bodyOmitted} is set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CaptureRecord(
+        String time,
+        String method,
+        String path,
+        String route,
+        String contentType,
+        int status,
+        long durationMicros,
+        String body,
+        String bodyBase64,
+        Boolean bodyOmitted) {}
@@ -0,0 +1,72 @@
+package com.fortuna.capture;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Rewrites a request body token by token with the value of every redacted field replaced, at any
+ * depth and in any Jackson format. Redacted values become {@value #REDACTED}, or {@value
+ * #REDACTED_EMAIL} when they look like an email address so email validation still passes on replay.
+ * Field names match case-insensitively.
+ */
+final class CaptureSanitizer {
+
+    static final String REDACTED = "redacted";
+    static final String REDACTED_EMAIL = "redacted@example.com";
+
+    private static final SerializedString NEWLINE = new SerializedString("\n");
+
+    private final Set<String> redactFields;
+
+    CaptureSanitizer(Collection<String> redactFields) {
+        this.redactFields =
+                redactFields.stream()
+                        .map(field -> field.trim().toLowerCase(Locale.ROOT))
+                        .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @throws IOException when the body is not well-formed in the factory's format, in which case
+     *     it cannot be sanitized and must not be kept
+     */
+    byte[] sanitize(byte[] body, JsonFactory factory) throws IOException {
+        ByteArrayOutputStream sanitized = new ByteArrayOutputStream(body.length);
+        try (JsonParser in = factory.createParser(body);
+                JsonGenerator out = factory.createGenerator(sanitized)) {
+            if (JsonFactory.FORMAT_NAME_JSON.equals(factory.getFormatName())) {
+                // Keeps NDJSON line-delimited; other bodies have a single root value.
+                out.setRootValueSeparator(NEWLINE);
+            }
+            JsonToken token;
+            while ((token = in.nextToken()) != null) {
+                if (token != JsonToken.FIELD_NAME) {
+                    out.copyCurrentEvent(in);
+                    continue;
+                }
+                String name = in.currentName();
+                out.writeFieldName(name);
+                if (redactFields.contains(name.toLowerCase(Locale.ROOT))) {
+                    JsonToken value = in.nextToken();
+                    if (value == JsonToken.VALUE_NULL) {
+                        out.writeNull();
+                    } else {
+                        boolean email =
+                                value == JsonToken.VALUE_STRING && in.getText().contains("@");
+                        in.skipChildren();
+                        out.writeString(email ? REDACTED_EMAIL : REDACTED);
+                    }
+                }
+            }
+        }
+        return sanitized.toByteArray();
+    }
+}
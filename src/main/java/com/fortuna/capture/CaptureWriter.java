@@ -0,0 +1,165 @@
+package com.fortuna.capture;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Appends {@link CaptureRecord}s as NDJSON to {@code capture-<utc timestamp>.ndjson} files in
+ * {@code application.capture.directory}. A file is closed once it reaches {@code max-file-size} and
+ * the next record starts a new one; only the newest {@code max-files} are kept. Writes are buffered
+ * and flushed every {@code flush-interval} and on shutdown, so a crash loses at most that much
+ * capture. A failed write is logged and the record dropped; capture never fails a request.
+ */
+@Slf4j
+@Component
+public class CaptureWriter {
+
+    static final String FILE_PREFIX = "capture-";
+    static final String FILE_SUFFIX = ".ndjson";
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final Clock clock;
+
+    private OutputStream out;
+    private Path file;
+    private long fileBytes;
+
+    @Autowired
+    public CaptureWriter(
+            ObjectMapper objectMapper,
+            @Value("${application.capture.directory:capture}") Path directory,
+            @Value("${application.capture.max-file-size:64MB}") DataSize maxFileSize,
+            @Value("${application.capture.max-files:20}") int maxFiles) {
+        this(objectMapper, directory, maxFileSize, maxFiles, Clock.systemUTC());
+    }
+
+    CaptureWriter(
+            ObjectMapper objectMapper,
+            Path directory,
+            DataSize maxFileSize,
+            int maxFiles,
+            Clock clock) {
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.maxFileBytes = maxFileSize.toBytes();
+        this.maxFiles = Math.max(1, maxFiles);
+        this.clock = clock;
+    }
+
+    public void write(CaptureRecord record) {
+        byte[] line;
+        try {
+            line = objectMapper.writeValueAsBytes(record);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize capture record for {}", record.path(), e);
+            return;
+        }
+        synchronized (this) {
+            try {
+                if (out == null) {
+                    open();
+                }
+                out.write(line);
+                out.write('\n');
+                fileBytes += line.length + 1;
+                if (fileBytes >= maxFileBytes) {
+                    close();
+                }
+            } catch (IOException e) {
+                log.warn("Could not write capture record to {}", file, e);
+                close();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.capture.flush-interval:5s}")
+    public synchronized void flush() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            log.warn("Could not flush capture file {}", file, e);
+            close();
+        }
+    }
+
+    /** Closes the current file; the next record starts a new one. */
+    @PreDestroy
+    public synchronized void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Could not close capture file {}", file, e);
+        }
+        out = null;
+    }
+
+    /** The capture files on disk, oldest first. */
+    public List<Path> files() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(CaptureWriter::isCaptureFile)
+                    .sorted(Comparator.comparing(Path::getFileName))
+                    .toList();
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        file =
+                directory.resolve(
+                        FILE_PREFIX + FILE_TIMESTAMP.format(clock.instant()) + FILE_SUFFIX);
+        out =
+                new BufferedOutputStream(
+                        Files.newOutputStream(
+                                file, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                        64 * 1024);
+        fileBytes = Files.size(file);
+        log.info("Capturing traffic to {}", file);
+        prune();
+    }
+
+    private void prune() throws IOException {
+        List<Path> files = files();
+        for (Path old : files.subList(0, Math.max(0, files.size() - maxFiles))) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    private static boolean isCaptureFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+    }
+}
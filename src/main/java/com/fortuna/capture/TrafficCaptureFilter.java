@@ -0,0 +1,213 @@
+package com.fortuna.capture;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fortuna.metrics.controller.MetricEventReader;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Records requests to the configured paths for replay: method, path, matched route, content type,
+ * status, server-side duration and the body with {@code redact-fields} sanitized out (see {@link
+ * CaptureSanitizer}). Headers, query strings and client addresses are never kept. Off unless {@code
+ * application.capture.enabled} is set.
+ *
+ * <p>It runs right after tracing and ahead of the concurrency limit, so the recorded duration
+ * includes any queueing there. The body is teed as the handler reads it; whatever a handler left
+ * unread (a rate-limited request, say) is drained afterwards so it can still be replayed. Gzip
+ * bodies are captured inflated.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+
+    private final CaptureWriter captureWriter;
+    private final boolean enabled;
+    private final List<PathPattern> paths;
+    private final int maxBodyBytes;
+    private final CaptureSanitizer sanitizer;
+    private final Clock clock;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final CBORFactory cborFactory = new CBORFactory();
+    private final SmileFactory smileFactory = new SmileFactory();
+
+    @Autowired
+    public TrafficCaptureFilter(
+            CaptureWriter captureWriter,
+            @Value("${application.capture.enabled:false}") boolean enabled,
+            @Value("${application.capture.paths:/api/save-metric/**,/api/payments/**}")
+                    List<String> paths,
+            @Value("${application.capture.max-body-size:256KB}") DataSize maxBodySize,
+            @Value(
+                            "${application.capture.redact-fields:customerEmail,receiptEmail,email,name,phone,address,password,token,clientSecret}")
+                    List<String> redactFields) {
+        this(captureWriter, enabled, paths, maxBodySize, redactFields, Clock.systemUTC());
+    }
+
+    TrafficCaptureFilter(
+            CaptureWriter captureWriter,
+            boolean enabled,
+            List<String> paths,
+            DataSize maxBodySize,
+            List<String> redactFields,
+            Clock clock) {
+        this.captureWriter = captureWriter;
+        this.enabled = enabled;
+        this.paths = paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.maxBodyBytes = (int) maxBodySize.toBytes();
+        this.sanitizer = new CaptureSanitizer(redactFields);
+        this.clock = clock;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (PathPattern pattern : paths) {
+            if (pattern.matches(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Instant time = clock.instant();
+        long start = System.nanoTime();
+        TeedRequest teed = new TeedRequest(request, maxBodyBytes);
+        try {
+            filterChain.doFilter(teed, response);
+        } finally {
+            long durationMicros = (System.nanoTime() - start) / 1_000;
+            try {
+                captureWriter.write(record(teed, time, durationMicros, response.getStatus()));
+            } catch (IOException | RuntimeException e) {
+                log.warn(
+                        "Could not capture {} {}", request.getMethod(), request.getRequestURI(), e);
+            }
+        }
+    }
+
+    private CaptureRecord record(TeedRequest request, Instant time, long durationMicros, int status)
+            throws IOException {
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String contentType = request.getContentType();
+        String body = null;
+        String bodyBase64 = null;
+        Boolean bodyOmitted = null;
+        byte[] raw = readBody(request);
+        if (raw == null) {
+            bodyOmitted = true;
+        } else if (raw.length > 0) {
+            JsonFactory factory = factoryFor(contentType);
+            try {
+                byte[] sanitized = sanitizer.sanitize(raw, factory);
+                if (factory == jsonFactory) {
+                    body = new String(sanitized, StandardCharsets.UTF_8);
+                } else {
+                    bodyBase64 = Base64.getEncoder().encodeToString(sanitized);
+                }
+            } catch (IOException e) {
+                bodyOmitted = true;
+            }
+        }
+        return new CaptureRecord(
+                time.toString(),
+                request.getMethod(),
+                request.getRequestURI(),
+                route == null ? null : route.toString(),
+                contentType,
+                status,
+                durationMicros,
+                body,
+                bodyBase64,
+                bodyOmitted);
+    }
+
+    /** The plain request body, or {@code null} when it is over the size cap or not valid gzip. */
+    private byte[] readBody(TeedRequest request) throws IOException {
+        try {
+            InputStream unread = request.getInputStream();
+            byte[] buffer = new byte[8192];
+            while (!request.overflowed && unread.read(buffer) != -1) {
+                // Drained into the cache.
+            }
+        } catch (IllegalStateException e) {
+            // The handler read the body through getReader(); the cache already holds what it read.
+        }
+        if (request.overflowed) {
+            return null;
+        }
+        byte[] raw = request.getContentAsByteArray();
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (raw.length == 0 || encoding == null || !"gzip".equalsIgnoreCase(encoding.trim())) {
+            return raw;
+        }
+        try (InputStream inflating = new GZIPInputStream(new ByteArrayInputStream(raw))) {
+            byte[] inflated = inflating.readNBytes(maxBodyBytes + 1);
+            return inflated.length > maxBodyBytes ? null : inflated;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private JsonFactory factoryFor(String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (MediaType.APPLICATION_CBOR.isCompatibleWith(mediaType)) {
+                return cborFactory;
+            }
+            if (MetricEventReader.APPLICATION_SMILE.isCompatibleWith(mediaType)) {
+                return smileFactory;
+            }
+        }
+        return jsonFactory;
+    }
+
+    private static final class TeedRequest extends ContentCachingRequestWrapper {
+
+        private boolean overflowed;
+
+        private TeedRequest(HttpServletRequest request, int maxBodyBytes) {
+            super(request, maxBodyBytes);
+        }
+
+        @Override
+        protected void handleContentOverflow(int contentCacheLimit) {
+            overflowed = true;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.fortuna.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Two Hikari pools behind one routing {@link DataSource}. Read-write transactions, which is where
+ * metric ingestion runs, use the write pool on the primary. {@code @Transactional(readOnly = true)}
+ * work (including Spring Data's default for repository reads) uses the read pool, which points at
+ * {@code application.datasource.read.url} and falls back to the primary when no replica is set.
+ *
+ * <p>Both pools are built the way Boot builds its own: the write pool from {@code
+ * spring.datasource.*} with {@code spring.datasource.hikari.*} bound onto it, so existing settings
+ * keep applying to the primary, and the read pool from {@code application.datasource.read.*} with
+ * {@code application.datasource.read.hikari.*}.
+ *
+ * <p>{@link LazyConnectionDataSourceProxy} defers fetching a physical connection until the first
+ * statement, by which point the transaction manager has marked the connection read-only, so the
+ * routing decision is made per transaction. Each pool publishes {@code hikaricp.connections.*}
+ * meters tagged with its pool name: {@code .acquire} for acquire latency, {@code .pending} and
+ * {@code .timeout} for saturation.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    static final String WRITE_POOL_NAME = "fortuna-write";
+    static final String READ_POOL_NAME = "fortuna-read";
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(
+            DataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource writeDataSource =
+                pool(
+                        WRITE_POOL_NAME,
+                        properties.determineUrl(),
+                        properties.determineUsername(),
+                        properties.determinePassword(),
+                        properties,
+                        meterRegistry);
+        // Lets pgjdbc collapse JDBC insert batches into multi-row INSERT statements.
+        writeDataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+        return writeDataSource;
+    }
+
+    /**
+     * Not an autowire candidate, so Boot's own {@code spring.datasource} properties stay unique.
+     */
+    @Bean(autowireCandidate = false)
+    @ConfigurationProperties("application.datasource.read")
+    public DataSourceProperties readDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("application.datasource.read.hikari")
+    public HikariDataSource readDataSource(
+            DataSourceProperties properties, MeterRegistry meterRegistry) {
+        DataSourceProperties read = readDataSourceProperties();
+        boolean replica = read.getUrl() != null;
+        HikariDataSource readDataSource =
+                pool(
+                        READ_POOL_NAME,
+                        replica ? read.getUrl() : properties.determineUrl(),
+                        replica ? read.getUsername() : properties.determineUsername(),
+                        replica ? read.getPassword() : properties.determinePassword(),
+                        properties,
+                        meterRegistry);
+        readDataSource.setReadOnly(true);
+        return readDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("writeDataSource") DataSource writeDataSource,
+            @Qualifier("readDataSource") DataSource readDataSource) {
+        LazyConnectionDataSourceProxy dataSource =
+                new LazyConnectionDataSourceProxy(writeDataSource);
+        dataSource.setReadOnlyDataSource(readDataSource);
+        return dataSource;
+    }
+
+    private static HikariDataSource pool(
+            String poolName,
+            String url,
+            String username,
+            String password,
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry) {
+        HikariDataSource pool =
+                properties
+                        .initializeDataSourceBuilder()
+                        .type(HikariDataSource.class)
+                        .url(url)
+                        .username(username)
+                        .password(password)
+                        .build();
+        pool.setPoolName(poolName);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
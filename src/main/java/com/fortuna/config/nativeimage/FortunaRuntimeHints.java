@@ -0,0 +1,80 @@
+package com.fortuna.config.nativeimage;
+
+import com.fortuna.exception.model.ErrorResponse;
+import com.fortuna.metrics.controller.model.MetricEventDTO;
+import com.fortuna.metrics.controller.model.metadata.ButtonClickMetadata;
+import com.fortuna.metrics.controller.model.metadata.PaymentSubmittedMetadata;
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import com.fortuna.payment.controller.model.PaymentIntentRequestDTO;
+import com.fortuna.payment.controller.model.PaymentIntentResponseDTO;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.PaymentIntentCollection;
+import com.stripe.model.StripeCollection;
+import com.stripe.model.StripeError;
+import com.stripe.model.StripeObject;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.PaymentIntentListParams;
+import com.stripe.param.common.EmptyParam;
+import java.util.List;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection and resource hints for the parts of the app that Spring AOT cannot discover on its
+ * own. Stripe reads and writes its models and params through Gson reflection, including every
+ * nested class, and the DTOs below are bound by Jackson outside of controller signatures. Listing
+ * payment intents (the reconciler) also needs the list params and the collection types each page is
+ * read into.
+ */
+public class FortunaRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final List<Class<?>> STRIPE_TYPES =
+            List.of(
+                    PaymentIntent.class,
+                    PaymentIntentCreateParams.class,
+                    PaymentIntentListParams.class,
+                    PaymentIntentCollection.class,
+                    StripeCollection.class,
+                    EmptyParam.class,
+                    StripeError.class,
+                    StripeObject.class);
+
+    static final List<Class<?>> BOUND_TYPES =
+            List.of(
+                    MetricEventDTO.class,
+                    ButtonClickMetadata.class,
+                    PaymentSubmittedMetadata.class,
+                    PaymentIntentRequestDTO.class,
+                    PaymentIntentResponseDTO.class,
+                    ErrorResponse.class);
+
+    private static final MemberCategory[] GSON_MEMBERS = {
+        MemberCategory.ACCESS_DECLARED_FIELDS,
+        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+        MemberCategory.INVOKE_DECLARED_METHODS
+    };
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar =
+            new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        STRIPE_TYPES.forEach(type -> registerWithNestedTypes(hints, type));
+
+        bindingRegistrar.registerReflectionHints(
+                hints.reflection(), BOUND_TYPES.toArray(Class<?>[]::new));
+        hints.reflection().registerType(MetricEventEntity.class, GSON_MEMBERS);
+
+        hints.resources().registerPattern("db/migration/*.sql");
+        hints.resources().registerPattern("banner.txt");
+    }
+
+    private void registerWithNestedTypes(RuntimeHints hints, Class<?> type) {
+        hints.reflection().registerType(type, GSON_MEMBERS);
+        for (Class<?> nested : type.getDeclaredClasses()) {
+            registerWithNestedTypes(hints, nested);
+        }
+    }
+}
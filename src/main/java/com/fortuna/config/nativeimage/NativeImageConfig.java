@@ -0,0 +1,8 @@
+package com.fortuna.config.nativeimage;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+@Configuration
+@ImportRuntimeHints(FortunaRuntimeHints.class)
+public class NativeImageConfig {}
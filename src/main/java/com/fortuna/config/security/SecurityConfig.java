@@ -1,19 +1,44 @@
 package com.fortuna.config.security;
 
+import com.fortuna.config.web.StaticResourceConfig;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
 public class SecurityConfig {
 
+    /** Search and stream of stored events, user ids and metadata included. */
+    static final String METRICS_READ_PATHS = "/api/metrics/**";
+
+    /**
+     * Nothing here authenticates, so the metrics read endpoints are refused unless {@code
+     * application.metrics.read-api.enabled} is set, which only belongs where they are not public.
+     */
     @Bean
-    SecurityFilterChain web(HttpSecurity http) throws Exception {
-        http.authorizeHttpRequests((authorize) -> authorize.anyRequest().permitAll())
+    SecurityFilterChain web(
+            HttpSecurity http,
+            @Value("${application.metrics.read-api.enabled:false}") boolean metricsReadApiEnabled)
+            throws Exception {
+        http.authorizeHttpRequests(
+                        (authorize) -> {
+                            if (!metricsReadApiEnabled) {
+                                authorize.requestMatchers(METRICS_READ_PATHS).denyAll();
+                            }
+                            authorize.anyRequest().permitAll();
+                        })
                 .csrf(AbstractHttpConfigurer::disable);
 
         return http.build();
     }
+
+    /** Fingerprinted static assets are public and immutable, so they bypass the filter chain. */
+    @Bean
+    WebSecurityCustomizer ignoreStaticAssets() {
+        return (web) -> web.ignoring().requestMatchers(StaticResourceConfig.ASSETS_PATH_PATTERN);
+    }
 }
@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
 
 @Slf4j
 @Configuration
@@ -18,9 +19,17 @@ public class StripeConfig {
     @Value("${stripe.publishable-key}")
     private String publishableKey;
 
+    /** Points the client at a stand-in for the Stripe API, such as the traffic replay stub. */
+    @Value("${stripe.api-base:}")
+    private String apiBase;
+
     @PostConstruct
     public void init() {
         Stripe.apiKey = secretKey;
+        if (StringUtils.hasText(apiBase)) {
+            Stripe.overrideApiBase(apiBase);
+            log.warn("Stripe API calls go to {}, not Stripe", apiBase);
+        }
         log.info("Stripe API initialized");
     }
 }
@@ -0,0 +1,41 @@
+package com.fortuna.config.web;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+/**
+ * Serves the Vite build's fingerprinted assets. The build writes {@code .br} and {@code .gz}
+ * siblings for each asset, and {@link EncodedResourceResolver} picks one by {@code
+ * Accept-Encoding}, so nothing is compressed per request. File names change whenever content does,
+ * so the assets can be cached as immutable.
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    public static final String ASSETS_PATH_PATTERN = "/assets/**";
+
+    private static final CacheControl IMMUTABLE =
+            CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final String assetsLocation;
+
+    public StaticResourceConfig(
+            @Value("${application.static-assets.location:classpath:/static/assets/}")
+                    String assetsLocation) {
+        this.assetsLocation = assetsLocation;
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(ASSETS_PATH_PATTERN)
+                .addResourceLocations(assetsLocation)
+                .setCacheControl(IMMUTABLE)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+    }
+}
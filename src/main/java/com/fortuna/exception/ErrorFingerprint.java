@@ -0,0 +1,24 @@
+package com.fortuna.exception;
+
+/** Groups exceptions by their class and the frame that threw them. */
+record ErrorFingerprint(String exceptionClass, String topFrame) {
+
+    static final ErrorFingerprint OVERFLOW = new ErrorFingerprint("overflow", "overflow");
+
+    static ErrorFingerprint of(Throwable ex) {
+        StackTraceElement[] stackTrace = ex.getStackTrace();
+        String topFrame =
+                stackTrace.length == 0
+                        ? "unknown"
+                        : stackTrace[0].getClassName()
+                                + "."
+                                + stackTrace[0].getMethodName()
+                                + ":"
+                                + stackTrace[0].getLineNumber();
+        return new ErrorFingerprint(ex.getClass().getName(), topFrame);
+    }
+
+    String id() {
+        return Integer.toHexString(hashCode());
+    }
+}
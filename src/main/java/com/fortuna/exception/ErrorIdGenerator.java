@@ -0,0 +1,21 @@
+package com.fortuna.exception;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates error IDs in the familiar UUID format without going through {@link UUID#randomUUID()},
+ * whose shared SecureRandom becomes a point of contention when every failing request needs an ID.
+ * The IDs only need to be unique enough to correlate logs, not unguessable.
+ */
+final class ErrorIdGenerator {
+
+    private ErrorIdGenerator() {}
+
+    static String nextId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSigBits = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+}
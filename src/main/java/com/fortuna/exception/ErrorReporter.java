@@ -0,0 +1,192 @@
+package com.fortuna.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs handled exceptions without letting an error storm take the node down. Exceptions are
+ * fingerprinted by class and top frame; only the first {@code full-trace-limit} occurrences of a
+ * fingerprint per window are logged with a stack trace, after which every {@code
+ * summary-sample-rate}-th occurrence is logged as a one-line summary with the running count. Every
+ * occurrence is counted in the {@code fortuna.errors} meter.
+ *
+ * <p>At most {@code max-fingerprints} are tracked; once full, fingerprints whose window has expired
+ * are dropped, at most once per window, and new ones share an overflow fingerprint until there is
+ * room again.
+ */
+@Slf4j
+@Component
+public class ErrorReporter {
+
+    static final String METER_NAME = "fortuna.errors";
+
+    private final MeterRegistry meterRegistry;
+    private final int fullTraceLimit;
+    private final long windowMillis;
+    private final int summarySampleRate;
+    private final int maxFingerprints;
+    private final Clock clock;
+    private final ConcurrentMap<ErrorFingerprint, FingerprintWindow> windows =
+            new ConcurrentHashMap<>();
+    private final AtomicLong lastEviction;
+
+    @Autowired
+    public ErrorReporter(
+            MeterRegistry meterRegistry,
+            @Value("${application.errors.full-trace-limit:5}") int fullTraceLimit,
+            @Value("${application.errors.window:1m}") Duration window,
+            @Value("${application.errors.summary-sample-rate:100}") int summarySampleRate,
+            @Value("${application.errors.max-fingerprints:1000}") int maxFingerprints) {
+        this(
+                meterRegistry,
+                fullTraceLimit,
+                window,
+                summarySampleRate,
+                maxFingerprints,
+                Clock.systemUTC());
+    }
+
+    ErrorReporter(
+            MeterRegistry meterRegistry,
+            int fullTraceLimit,
+            Duration window,
+            int summarySampleRate,
+            int maxFingerprints,
+            Clock clock) {
+        this.meterRegistry = meterRegistry;
+        this.fullTraceLimit = fullTraceLimit;
+        this.windowMillis = window.toMillis();
+        this.summarySampleRate = Math.max(1, summarySampleRate);
+        this.maxFingerprints = maxFingerprints;
+        this.clock = clock;
+        this.lastEviction = new AtomicLong(clock.millis());
+    }
+
+    /** Logs the exception at error level, subject to throttling, and returns its error ID. */
+    public String reportError(String message, Throwable ex) {
+        return report(Level.ERROR, message, ex);
+    }
+
+    /** Logs the exception at warn level, subject to throttling, and returns its error ID. */
+    public String reportWarning(String message, Throwable ex) {
+        return report(Level.WARN, message, ex);
+    }
+
+    private String report(Level level, String message, Throwable ex) {
+        String errorId = ErrorIdGenerator.nextId();
+        ErrorFingerprint fingerprint = ErrorFingerprint.of(ex);
+        long now = clock.millis();
+        FingerprintWindow window = windowFor(fingerprint, now);
+        window.counter.increment();
+
+        long occurrence = window.record(level, now);
+        if (occurrence <= fullTraceLimit) {
+            log.atLevel(level)
+                    .setCause(ex)
+                    .log("{} [errorId: {}, fingerprint: {}]", message, errorId, fingerprint.id());
+        } else if ((occurrence - fullTraceLimit - 1) % summarySampleRate == 0) {
+            log.atLevel(level)
+                    .log(
+                            "{} [errorId: {}, fingerprint: {}] {}: {} ({} occurrences in the"
+                                    + " current window, stack traces suppressed)",
+                            message,
+                            errorId,
+                            fingerprint.id(),
+                            ex.getClass().getName(),
+                            ex.getMessage(),
+                            occurrence);
+        }
+        return errorId;
+    }
+
+    private FingerprintWindow windowFor(ErrorFingerprint fingerprint, long now) {
+        FingerprintWindow window = windows.get(fingerprint);
+        if (window != null) {
+            return window;
+        }
+        if (windows.size() >= maxFingerprints) {
+            evictExpired(now);
+        }
+        ErrorFingerprint key =
+                windows.size() < maxFingerprints ? fingerprint : ErrorFingerprint.OVERFLOW;
+        return windows.computeIfAbsent(key, k -> newWindow(k, now));
+    }
+
+    // An expired window would be rolled over on its next occurrence anyway, so dropping it loses
+    // nothing but the map entry.
+    private void evictExpired(long now) {
+        long last = lastEviction.get();
+        if (now - last < windowMillis || !lastEviction.compareAndSet(last, now)) {
+            return;
+        }
+        windows.values().removeIf(window -> window.expire(now));
+    }
+
+    private FingerprintWindow newWindow(ErrorFingerprint fingerprint, long now) {
+        Counter counter =
+                Counter.builder(METER_NAME)
+                        .description("Handled exceptions by fingerprint")
+                        .tag("exception", fingerprint.exceptionClass())
+                        .tag("frame", fingerprint.topFrame())
+                        .register(meterRegistry);
+        return new FingerprintWindow(fingerprint, counter, now);
+    }
+
+    private final class FingerprintWindow {
+        private final ErrorFingerprint fingerprint;
+        private final Counter counter;
+        private final AtomicLong occurrences = new AtomicLong();
+        private volatile long windowStart;
+        private volatile Level level = Level.ERROR;
+
+        private FingerprintWindow(ErrorFingerprint fingerprint, Counter counter, long now) {
+            this.fingerprint = fingerprint;
+            this.counter = counter;
+            this.windowStart = now;
+        }
+
+        long record(Level level, long now) {
+            this.level = level;
+            if (now - windowStart >= windowMillis) {
+                roll(level, now);
+            }
+            return occurrences.incrementAndGet();
+        }
+
+        /** Rolls the window over if it has expired, returning whether it had. */
+        synchronized boolean expire(long now) {
+            if (now - windowStart < windowMillis) {
+                return false;
+            }
+            roll(level, now);
+            return true;
+        }
+
+        private synchronized void roll(Level level, long now) {
+            if (now - windowStart < windowMillis) {
+                return;
+            }
+            long previous = occurrences.getAndSet(0);
+            windowStart = now;
+            if (previous > fullTraceLimit) {
+                log.atLevel(level)
+                        .log(
+                                "Fingerprint {} ({} at {}) occurred {} times in the last window",
+                                fingerprint.id(),
+                                fingerprint.exceptionClass(),
+                                fingerprint.topFrame(),
+                                previous);
+            }
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package com.fortuna.exception;
 
 import com.fortuna.exception.model.ErrorResponse;
+import com.fortuna.jfr.ExceptionHandledEvent;
 import com.fortuna.metrics.exception.MetricSerializationException;
 import com.fortuna.payment.exception.PaymentException;
-import java.util.UUID;
-import lombok.extern.slf4j.Slf4j;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -12,14 +12,16 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 
 @RestControllerAdvice
-@Slf4j
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final ErrorReporter errorReporter;
+
     @ExceptionHandler(PaymentException.class)
     public ResponseEntity<ErrorResponse> handlePaymentException(
             PaymentException ex, WebRequest request) {
-        String errorId = UUID.randomUUID().toString();
-        log.error("Payment exception occurred [errorId: {}]", errorId, ex);
+        String errorId = errorReporter.reportError("Payment exception occurred", ex);
+        recordHandled(ex, HttpStatus.BAD_REQUEST, errorId, request);
 
         ErrorResponse errorResponse =
                 ErrorResponse.builder()
@@ -35,8 +37,8 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(MetricSerializationException.class)
     public ResponseEntity<ErrorResponse> handleMetricSerializationException(
             MetricSerializationException ex, WebRequest request) {
-        String errorId = UUID.randomUUID().toString();
-        log.error("Metric serialization failed [errorId: {}]", errorId, ex);
+        String errorId = errorReporter.reportError("Metric serialization failed", ex);
+        recordHandled(ex, HttpStatus.INTERNAL_SERVER_ERROR, errorId, request);
 
         ErrorResponse errorResponse =
                 ErrorResponse.builder()
@@ -52,8 +54,8 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgumentException(
             IllegalArgumentException ex, WebRequest request) {
-        String errorId = UUID.randomUUID().toString();
-        log.warn("Illegal argument provided [errorId: {}]", errorId, ex);
+        String errorId = errorReporter.reportWarning("Illegal argument provided", ex);
+        recordHandled(ex, HttpStatus.BAD_REQUEST, errorId, request);
 
         ErrorResponse errorResponse =
                 ErrorResponse.builder()
@@ -69,8 +71,8 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorResponse> handleRuntimeException(
             RuntimeException ex, WebRequest request) {
-        String errorId = UUID.randomUUID().toString();
-        log.error("Runtime exception occurred [errorId: {}]", errorId, ex);
+        String errorId = errorReporter.reportError("Runtime exception occurred", ex);
+        recordHandled(ex, HttpStatus.INTERNAL_SERVER_ERROR, errorId, request);
 
         ErrorResponse errorResponse =
                 ErrorResponse.builder()
@@ -85,8 +87,8 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex, WebRequest request) {
-        String errorId = UUID.randomUUID().toString();
-        log.error("Unhandled exception occurred [errorId: {}]", errorId, ex);
+        String errorId = errorReporter.reportError("Unhandled exception occurred", ex);
+        recordHandled(ex, HttpStatus.INTERNAL_SERVER_ERROR, errorId, request);
 
         ErrorResponse errorResponse =
                 ErrorResponse.builder()
@@ -98,4 +100,17 @@ public class GlobalExceptionHandler {
 
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    /** Emits an {@link ExceptionHandledEvent} when a JFR recording is taking them. */
+    private static void recordHandled(
+            Exception ex, HttpStatus status, String errorId, WebRequest request) {
+        ExceptionHandledEvent event = new ExceptionHandledEvent();
+        if (event.shouldCommit()) {
+            event.exceptionClass = ex.getClass();
+            event.status = status.value();
+            event.errorId = errorId;
+            event.request = request.getDescription(false);
+            event.commit();
+        }
+    }
 }
@@ -0,0 +1,207 @@
+package com.fortuna.jfr;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * A Flight Recorder recording that runs for the life of the application, keeping the last {@code
+ * max-age} (bounded by {@code max-size}) in the JFR repository on disk. It uses the JDK's {@code
+ * default} settings unless told otherwise, which JFR documents at around 1% overhead, and records
+ * the app's own events (Stripe calls, metric ingestion, handled exceptions) next to GC, lock and
+ * I/O events so stalls can be matched to the work they held up.
+ *
+ * <p>{@link #dump} copies a trailing window into {@code dump-directory} through the same diagnostic
+ * command as {@code jcmd JFR.dump}, keeping the newest {@code max-dumps} files. A dump asked for
+ * within {@code min-dump-interval} of the previous one returns that one instead, so repeated
+ * requests cannot keep the disk busy writing recordings of up to {@code max-size} each.
+ */
+@Slf4j
+@Component
+public class ContinuousRecording implements SmartLifecycle {
+
+    static final String RECORDING_NAME = "fortuna-continuous";
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final boolean enabled;
+    private final String settings;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+    private final Path dumpDirectory;
+    private final int maxDumps;
+    private final Duration minDumpInterval;
+    private final Clock clock;
+    private volatile Recording recording;
+    private Path lastDump;
+    private Instant lastDumpAt;
+
+    @Autowired
+    public ContinuousRecording(
+            @Value("${application.jfr.continuous.enabled:false}") boolean enabled,
+            @Value("${application.jfr.continuous.settings:default}") String settings,
+            @Value("${application.jfr.continuous.max-age:30m}") Duration maxAge,
+            @Value("${application.jfr.continuous.max-size:250MB}") DataSize maxSize,
+            @Value("${application.jfr.dump-directory:jfr}") Path dumpDirectory,
+            @Value("${application.jfr.max-dumps:3}") int maxDumps,
+            @Value("${application.jfr.min-dump-interval:1m}") Duration minDumpInterval) {
+        this(
+                enabled,
+                settings,
+                maxAge,
+                maxSize,
+                dumpDirectory,
+                maxDumps,
+                minDumpInterval,
+                Clock.systemUTC());
+    }
+
+    ContinuousRecording(
+            boolean enabled,
+            String settings,
+            Duration maxAge,
+            DataSize maxSize,
+            Path dumpDirectory,
+            int maxDumps,
+            Duration minDumpInterval,
+            Clock clock) {
+        this.enabled = enabled;
+        this.settings = settings;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.dumpDirectory = dumpDirectory;
+        this.maxDumps = Math.max(1, maxDumps);
+        this.minDumpInterval = minDumpInterval;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || recording != null) {
+            return;
+        }
+        try {
+            Recording continuous = new Recording(Configuration.getConfiguration(settings));
+            continuous.setName(RECORDING_NAME);
+            continuous.setToDisk(true);
+            continuous.setMaxAge(maxAge);
+            continuous.setMaxSize(maxSize.toBytes());
+            continuous.start();
+            recording = continuous;
+            log.info("Started continuous JFR recording ({} settings, last {})", settings, maxAge);
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            // Profiling is optional; the app runs the same without it.
+            log.warn("Could not start continuous JFR recording", e);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recording != null;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public Path getDumpDirectory() {
+        return dumpDirectory.toAbsolutePath();
+    }
+
+    /** Size of the data currently held by the recording, or 0 when it is not running. */
+    public long getSize() {
+        Recording current = recording;
+        return current == null ? 0 : current.getSize();
+    }
+
+    /**
+     * Writes the last {@code window} of the recording, capped at {@code max-age}, to a new file in
+     * the dump directory and returns its path; within {@code min-dump-interval} of the previous
+     * dump, returns that one's path instead.
+     */
+    public synchronized Path dump(Duration window) {
+        if (recording == null) {
+            throw new IllegalStateException("Continuous JFR recording is not running");
+        }
+        Instant now = clock.instant();
+        if (lastDump != null
+                && now.isBefore(lastDumpAt.plus(minDumpInterval))
+                && Files.exists(lastDump)) {
+            return lastDump;
+        }
+        Duration last = window == null || window.compareTo(maxAge) > 0 ? maxAge : window;
+        Path file = getDumpDirectory().resolve("fortuna-" + FILE_TIMESTAMP.format(now) + ".jfr");
+        try {
+            Files.createDirectories(file.getParent());
+            Object result =
+                    ManagementFactory.getPlatformMBeanServer()
+                            .invoke(
+                                    new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                                    "jfrDump",
+                                    new Object[] {
+                                        new String[] {
+                                            "name=" + RECORDING_NAME,
+                                            "maxage=" + Math.max(1, last.toSeconds()) + "s",
+                                            "filename=" + file
+                                        }
+                                    },
+                                    new String[] {String[].class.getName()});
+            if (!Files.exists(file)) {
+                throw new IllegalStateException("JFR dump failed: " + result);
+            }
+            pruneDumps();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (JMException e) {
+            throw new IllegalStateException("JFR dump failed", e);
+        }
+        log.info("Dumped the last {} of the JFR recording to {}", last, file);
+        lastDump = file;
+        lastDumpAt = now;
+        return file;
+    }
+
+    private void pruneDumps() throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(getDumpDirectory())) {
+            dumps =
+                    files.filter(path -> path.getFileName().toString().startsWith("fortuna-"))
+                            .filter(path -> path.getFileName().toString().endsWith(".jfr"))
+                            .sorted(Comparator.comparing(Path::getFileName).reversed())
+                            .toList();
+        }
+        for (Path old : dumps.subList(Math.min(maxDumps, dumps.size()), dumps.size())) {
+            Files.deleteIfExists(old);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.fortuna.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** An exception turned into an error response by {@code GlobalExceptionHandler}. */
+@Name("com.fortuna.ExceptionHandled")
+@Label("Exception Handled")
+@Category({"Fortuna", "Web"})
+@StackTrace(false)
+public class ExceptionHandledEvent extends Event {
+
+    @Label("Exception Class")
+    public Class<?> exceptionClass;
+
+    @Label("Response Status")
+    public int status;
+
+    @Label("Error ID")
+    public String errorId;
+
+    @Label("Request")
+    public String request;
+}
@@ -0,0 +1,51 @@
+package com.fortuna.jfr;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code GET /actuator/jfr} describes the continuous recording; {@code POST /actuator/jfr} with an
+ * optional {@code {"minutes": n}} dumps its last {@code n} minutes (all of it by default) to a file
+ * on the server, for copying off the host and opening in JDK Mission Control. Only the file name is
+ * returned; the dump directory is configuration, not something to tell callers. Not exposed by
+ * default: nothing in front of {@code /actuator} authenticates.
+ */
+@Component
+@Endpoint(id = "jfr")
+@RequiredArgsConstructor
+public class FlightRecordingEndpoint {
+
+    private final ContinuousRecording continuousRecording;
+
+    @ReadOperation
+    public RecordingDescriptor recording() {
+        return new RecordingDescriptor(
+                continuousRecording.isRunning(),
+                continuousRecording.getMaxAge().toMinutes(),
+                continuousRecording.getSize());
+    }
+
+    @WriteOperation
+    public DumpDescriptor dump(@Nullable Integer minutes) {
+        Duration window = minutes == null ? null : Duration.ofMinutes(Math.max(1, minutes));
+        Path file = continuousRecording.dump(window);
+        try {
+            return new DumpDescriptor(file.getFileName().toString(), Files.size(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public record RecordingDescriptor(boolean running, long maxAgeMinutes, long sizeBytes) {}
+
+    public record DumpDescriptor(String file, long sizeBytes) {}
+}
@@ -0,0 +1,60 @@
+package com.fortuna.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** One metric event, or one batch, accepted and written to the metrics table. */
+@Name("com.fortuna.MetricIngestion")
+@Label("Metric Ingestion")
+@Category({"Fortuna", "Metrics"})
+@StackTrace(false)
+public class MetricIngestionEvent extends Event {
+
+    @Label("Event Type")
+    @Description("The metric event type, or MIXED for a batch of several types")
+    public String eventType;
+
+    @Label("Events")
+    public int events;
+
+    @Label("Metadata Size")
+    @Description("UTF-8 size of the serialized metadata, summed over the batch")
+    @DataAmount
+    public long metadataSize;
+
+    @Label("Serialize Duration")
+    @Timespan
+    public long serializeDuration;
+
+    @Label("Persist Duration")
+    @Timespan
+    public long persistDuration;
+
+    /** UTF-8 length without encoding the string. */
+    public static long utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
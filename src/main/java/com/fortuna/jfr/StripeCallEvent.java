@@ -0,0 +1,29 @@
+package com.fortuna.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One call to the Stripe API; the event duration is the call. */
+@Name("com.fortuna.StripeCall")
+@Label("Stripe Call")
+@Category({"Fortuna", "Payments"})
+@StackTrace(false)
+public class StripeCallEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Status")
+    @Description("ok, or the Stripe error code of a failed call")
+    public String status;
+
+    @Label("HTTP Status")
+    public int httpStatus;
+
+    @Label("Request ID")
+    public String requestId;
+}
@@ -0,0 +1,375 @@
+package com.fortuna.metrics.archive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.metrics.exception.MetricArchiveException;
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cold tier for metric events: {@code <directory>/<yyyy-MM-dd>/<EVENT>.seg}, one columnar segment
+ * per UTC day and event type. Segments are replaced atomically, so a reader always maps either the
+ * old or the new file.
+ *
+ * <p>Only days older than everything left in the table are archived, so the end of the newest
+ * archived day is a horizon: a search starting at or after it has nothing to find here. {@link
+ * #covers} answers that from a cached horizon, kept current by {@link #store} and re-read from the
+ * directory every {@link #HORIZON_REFRESH} in case another instance archives into it.
+ */
+@Slf4j
+@Component
+public class MetricArchive {
+
+    private static final Comparator<MetricEventEntity> EVENT_TIME_ORDER =
+            Comparator.comparing(MetricEventEntity::getEventTime)
+                    .thenComparing(MetricEventEntity::getId);
+    private static final Comparator<MetricEventEntity> NEWEST_FIRST = EVENT_TIME_ORDER.reversed();
+
+    static final Duration HORIZON_REFRESH = Duration.ofMinutes(1);
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private Instant horizon;
+    private long horizonReadAt;
+
+    public MetricArchive(
+            ObjectMapper objectMapper,
+            @Value("${application.metrics.archive.directory:metrics-archive}") Path directory) {
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+    }
+
+    /**
+     * Writes the rows for one day and event type, merged with any segment already archived for it.
+     * Rows are keyed by id, so storing the same rows twice (e.g. after a failed delete) is
+     * harmless.
+     */
+    public void store(LocalDate day, String event, List<MetricEventEntity> rows) {
+        DayWriter writer = writeDay(day);
+        rows.stream().sorted(EVENT_TIME_ORDER).forEach(row -> writer.add(event, row));
+        writer.commit();
+    }
+
+    /**
+     * Starts rewriting {@code day}'s segments from rows {@link DayWriter#add}ed in (event time, id)
+     * order, as {@link #store} does for a list; nothing on disk changes until {@link
+     * DayWriter#commit}.
+     */
+    public DayWriter writeDay(LocalDate day) {
+        return new DayWriter(day);
+    }
+
+    /** One day being archived: a {@link MetricSegmentWriter} per event type, filled row by row. */
+    public class DayWriter {
+
+        private final LocalDate day;
+        private final Path dayDirectory;
+        private final Map<String, EventSegment> segments = new TreeMap<>();
+
+        private DayWriter(LocalDate day) {
+            this.day = day;
+            this.dayDirectory = directory.resolve(day.toString());
+        }
+
+        /** Adds a row to its event type's segment; rows must come in (event time, id) order. */
+        public void add(MetricEventEntity row) {
+            add(row.getEvent(), row);
+        }
+
+        private void add(String event, MetricEventEntity row) {
+            try {
+                EventSegment segment = segments.get(event);
+                if (segment == null) {
+                    segment = new EventSegment(dayDirectory, event);
+                    segments.put(event, segment);
+                }
+                segment.add(row);
+            } catch (IOException e) {
+                throw failure(event, e);
+            }
+        }
+
+        /**
+         * Replaces each event type's segment and forces the directories holding them, so the
+         * segments are on disk before the caller deletes the rows.
+         */
+        public void commit() {
+            String event = null;
+            try {
+                boolean created = !Files.isDirectory(dayDirectory);
+                Files.createDirectories(dayDirectory);
+                for (EventSegment segment : segments.values()) {
+                    event = segment.event;
+                    segment.replace();
+                }
+                forceDirectory(dayDirectory);
+                if (created) {
+                    forceDirectory(directory);
+                }
+            } catch (IOException e) {
+                throw failure(event, e);
+            }
+            extendHorizon(day);
+            segments.values()
+                    .forEach(
+                            segment ->
+                                    log.info(
+                                            "Archived {} {} metric events for {}",
+                                            segment.added,
+                                            segment.event,
+                                            day));
+        }
+
+        private MetricArchiveException failure(String event, IOException e) {
+            return new MetricArchiveException(
+                    "Failed to archive " + event + " metric events for " + day, e);
+        }
+    }
+
+    /**
+     * New rows for one day and event type, merged in order with the rows already archived for it.
+     * Archived rows never change, so a row archived again sorts right next to its old copy, which
+     * is dropped.
+     */
+    private static final class EventSegment {
+
+        final String event;
+        final Path segment;
+        final Path temporary;
+        final MetricSegmentWriter writer;
+        final Iterator<MetricEventEntity> archived;
+        MetricEventEntity nextArchived;
+        int added;
+
+        EventSegment(Path dayDirectory, String event) throws IOException {
+            this.event = event;
+            this.segment = dayDirectory.resolve(event + MetricSegmentFormat.EXTENSION);
+            this.temporary = dayDirectory.resolve(event + MetricSegmentFormat.EXTENSION + ".tmp");
+            this.writer = new MetricSegmentWriter(event);
+            // Only a day archived again (late rows, or a retry after a failed delete) has one.
+            this.archived =
+                    Files.exists(segment)
+                            ? MetricSegmentReader.open(segment).readAll().iterator()
+                            : Collections.emptyIterator();
+            this.nextArchived = archived.hasNext() ? archived.next() : null;
+        }
+
+        void add(MetricEventEntity row) {
+            while (nextArchived != null && EVENT_TIME_ORDER.compare(nextArchived, row) <= 0) {
+                if (!nextArchived.getId().equals(row.getId())) {
+                    writer.add(nextArchived);
+                }
+                nextArchived = archived.hasNext() ? archived.next() : null;
+            }
+            writer.add(row);
+            added++;
+        }
+
+        void replace() throws IOException {
+            while (nextArchived != null) {
+                writer.add(nextArchived);
+                nextArchived = archived.hasNext() ? archived.next() : null;
+            }
+            Files.deleteIfExists(temporary);
+            writer.finish(temporary);
+            Files.move(
+                    temporary,
+                    segment,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Whether a search from {@code from} (null for no lower bound) could find archived events, that
+     * is whether {@code from} is before the end of the newest archived day.
+     */
+    public synchronized boolean covers(Instant from) {
+        if (horizon == null || System.nanoTime() - horizonReadAt > HORIZON_REFRESH.toNanos()) {
+            horizon = readHorizon();
+            horizonReadAt = System.nanoTime();
+        }
+        return horizon.isAfter(Instant.MIN) && (from == null || from.isBefore(horizon));
+    }
+
+    /**
+     * Scans the segments overlapping {@code [from, to)} newest day first, with the same semantics
+     * as the database search: {@code metadataContainment} is a JSON object the metadata must
+     * contain, and null arguments are not filtered on.
+     */
+    public List<MetricEventEntity> search(
+            String metadataContainment, String event, Instant from, Instant to, int limit) {
+        if (limit <= 0 || !Files.isDirectory(directory)) {
+            return List.of();
+        }
+        Predicate<String> metadataFilter = containmentFilter(metadataContainment);
+        List<MetricEventEntity> results = new ArrayList<>();
+        try {
+            for (LocalDate day : archivedDays(from, to)) {
+                List<MetricEventEntity> dayRows = new ArrayList<>();
+                for (Path segment : segments(day, event)) {
+                    dayRows.addAll(
+                            MetricSegmentReader.open(segment).read(from, to, metadataFilter));
+                }
+                dayRows.sort(NEWEST_FIRST);
+                Iterator<MetricEventEntity> rows = dayRows.iterator();
+                while (rows.hasNext() && results.size() < limit) {
+                    results.add(rows.next());
+                }
+                if (results.size() == limit) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new MetricArchiveException("Failed to read the metric archive", e);
+        }
+        return results;
+    }
+
+    private synchronized void extendHorizon(LocalDate day) {
+        Instant end = endOf(day);
+        if (horizon != null && end.isAfter(horizon)) {
+            horizon = end;
+        }
+    }
+
+    /** End of the newest archived day, or {@link Instant#MIN} when nothing is archived. */
+    private Instant readHorizon() {
+        if (!Files.isDirectory(directory)) {
+            return Instant.MIN;
+        }
+        try {
+            List<LocalDate> days = archivedDays(null, null);
+            return days.isEmpty() ? Instant.MIN : endOf(days.get(0));
+        } catch (IOException e) {
+            throw new MetricArchiveException("Failed to read the metric archive", e);
+        }
+    }
+
+    private static void forceDirectory(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform can open a directory; the segment data itself is still forced.
+            log.debug("Could not force metric archive directory {}", path, e);
+        }
+    }
+
+    private static Instant endOf(LocalDate day) {
+        return day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private List<LocalDate> archivedDays(Instant from, Instant to) throws IOException {
+        LocalDate first = from == null ? null : LocalDate.ofInstant(from, ZoneOffset.UTC);
+        LocalDate last = to == null ? null : LocalDate.ofInstant(to.minusNanos(1), ZoneOffset.UTC);
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.filter(Files::isDirectory)
+                    .map(MetricArchive::parseDay)
+                    .filter(day -> day != null)
+                    .filter(day -> first == null || !day.isBefore(first))
+                    .filter(day -> last == null || !day.isAfter(last))
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+        }
+    }
+
+    private List<Path> segments(LocalDate day, String event) throws IOException {
+        Path dayDirectory = directory.resolve(day.toString());
+        if (event != null) {
+            Path segment = dayDirectory.resolve(event + MetricSegmentFormat.EXTENSION);
+            return Files.exists(segment) ? List.of(segment) : List.of();
+        }
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream =
+                Files.newDirectoryStream(dayDirectory, "*" + MetricSegmentFormat.EXTENSION)) {
+            stream.forEach(segments::add);
+        }
+        return segments;
+    }
+
+    private static LocalDate parseDay(Path dayDirectory) {
+        try {
+            return LocalDate.parse(dayDirectory.getFileName().toString());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private Predicate<String> containmentFilter(String metadataContainment) {
+        if (metadataContainment == null) {
+            return metadata -> true;
+        }
+        JsonNode filter = readTree(metadataContainment);
+        return metadata -> contains(readTree(metadata), filter);
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new MetricArchiveException("Unreadable archived metadata", e);
+        }
+    }
+
+    /** jsonb {@code @>} for objects, arrays and scalars. */
+    static boolean contains(JsonNode value, JsonNode filter) {
+        if (filter.isObject()) {
+            if (!value.isObject()) {
+                return false;
+            }
+            for (Map.Entry<String, JsonNode> field : filter.properties()) {
+                JsonNode member = value.get(field.getKey());
+                if (member == null || !contains(member, field.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (filter.isArray()) {
+            if (!value.isArray()) {
+                return false;
+            }
+            for (JsonNode wanted : filter) {
+                boolean found = false;
+                for (JsonNode element : value) {
+                    if (contains(element, wanted)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (filter.isNumber() && value.isNumber()) {
+            return filter.decimalValue().compareTo(value.decimalValue()) == 0;
+        }
+        return filter.equals(value);
+    }
+}
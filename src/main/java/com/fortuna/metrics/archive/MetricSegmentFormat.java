@@ -0,0 +1,77 @@
+package com.fortuna.metrics.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Layout of an archive segment: one file per UTC day and event type, holding its rows column by
+ * column so a reader only inflates the columns it needs.
+ *
+ * <pre>
+ * MAGIC VERSION
+ * column blocks (deflated): id | event_time | user_id | client_event_id | metadata
+ * footer: rowCount minMicros maxMicros columnCount {offset length rawLength}* event
+ * footerLength MAGIC
+ * </pre>
+ *
+ * Rows are sorted by event time. Ids and times are delta-encoded varints; string columns are a
+ * dictionary of distinct values followed by one varint code per row, with 0 meaning null.
+ */
+final class MetricSegmentFormat {
+
+    static final int MAGIC = 0x464d5347; // "FMSG"
+    static final byte VERSION = 1;
+    static final String EXTENSION = ".seg";
+
+    static final int ID = 0;
+    static final int EVENT_TIME = 1;
+    static final int USER_ID = 2;
+    static final int CLIENT_EVENT_ID = 3;
+    static final int METADATA = 4;
+    static final int COLUMN_COUNT = 5;
+
+    /** Footer length and trailing magic. */
+    static final int TRAILER_SIZE = Integer.BYTES * 2;
+
+    private MetricSegmentFormat() {}
+
+    static long toMicros(Instant instant) {
+        return Math.addExact(
+                Math.multiplyExact(instant.getEpochSecond(), 1_000_000L),
+                instant.getNano() / 1_000);
+    }
+
+    static Instant fromMicros(long micros) {
+        return Instant.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint in metric segment");
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,230 @@
+package com.fortuna.metrics.archive;
+
+import static com.fortuna.metrics.archive.MetricSegmentFormat.*;
+
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A memory-mapped segment. Opening one only parses the footer; columns are inflated straight from
+ * the mapping when {@link #read} needs them, event time and metadata first so that a segment with
+ * no matching rows never touches the rest.
+ */
+final class MetricSegmentReader {
+
+    private final Path path;
+    private final ByteBuffer segment;
+    private final String event;
+    private final int rowCount;
+    private final long minMicros;
+    private final long maxMicros;
+    private final int[] offsets = new int[COLUMN_COUNT];
+    private final int[] lengths = new int[COLUMN_COUNT];
+    private final int[] rawLengths = new int[COLUMN_COUNT];
+
+    private MetricSegmentReader(Path path, ByteBuffer segment) throws IOException {
+        this.path = path;
+        this.segment = segment;
+        int size = segment.capacity();
+        if (size < Integer.BYTES + 1 + TRAILER_SIZE
+                || segment.getInt(0) != MAGIC
+                || segment.getInt(size - Integer.BYTES) != MAGIC) {
+            throw new IOException("Not a metric segment: " + path);
+        }
+        if (segment.get(Integer.BYTES) != VERSION) {
+            throw new IOException("Unsupported metric segment version in " + path);
+        }
+        int footerLength = segment.getInt(size - TRAILER_SIZE);
+        ByteBuffer footer = segment.slice(size - TRAILER_SIZE - footerLength, footerLength);
+        rowCount = footer.getInt();
+        minMicros = footer.getLong();
+        maxMicros = footer.getLong();
+        if (footer.get() != COLUMN_COUNT) {
+            throw new IOException("Unexpected column count in " + path);
+        }
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            offsets[column] = footer.getInt();
+            lengths[column] = footer.getInt();
+            rawLengths[column] = footer.getInt();
+        }
+        byte[] eventBytes = new byte[footer.getShort()];
+        footer.get(eventBytes);
+        event = new String(eventBytes, StandardCharsets.UTF_8);
+    }
+
+    static MetricSegmentReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            return new MetricSegmentReader(
+                    path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    String event() {
+        return event;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    Instant minEventTime() {
+        return fromMicros(minMicros);
+    }
+
+    Instant maxEventTime() {
+        return fromMicros(maxMicros);
+    }
+
+    /** Whether any row can fall in {@code [from, to)}; null bounds are open. */
+    boolean overlaps(Instant from, Instant to) {
+        return rowCount > 0
+                && (from == null || maxMicros >= toMicros(from))
+                && (to == null || minMicros < toMicros(to));
+    }
+
+    List<MetricEventEntity> readAll() throws IOException {
+        return read(null, null, metadata -> true);
+    }
+
+    /** Rows in {@code [from, to)} whose metadata passes the filter, oldest first. */
+    List<MetricEventEntity> read(Instant from, Instant to, Predicate<String> metadataFilter)
+            throws IOException {
+        if (!overlaps(from, to)) {
+            return List.of();
+        }
+        long[] eventTimes = decodeDeltas(column(EVENT_TIME), false);
+        int first = from == null ? 0 : lowerBound(eventTimes, toMicros(from));
+        int last = to == null ? rowCount : lowerBound(eventTimes, toMicros(to));
+
+        // The filter runs once per distinct metadata value rather than once per row.
+        ByteBuffer metadataColumn = column(METADATA);
+        String[] metadataDictionary = readDictionary(metadataColumn);
+        Boolean[] metadataMatches = new Boolean[metadataDictionary.length];
+        int[] metadataCodes = readCodes(metadataColumn, last);
+        List<Integer> matches = new ArrayList<>();
+        for (int row = first; row < last; row++) {
+            int code = metadataCodes[row];
+            if (code == 0) {
+                continue;
+            }
+            if (metadataMatches[code - 1] == null) {
+                metadataMatches[code - 1] = metadataFilter.test(metadataDictionary[code - 1]);
+            }
+            if (metadataMatches[code - 1]) {
+                matches.add(row);
+            }
+        }
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        long[] ids = decodeDeltas(column(ID), true);
+        ByteBuffer userIdColumn = column(USER_ID);
+        long[] userIds = new long[last];
+        for (int row = 0; row < last; row++) {
+            userIds[row] = readVarLong(userIdColumn);
+        }
+        ByteBuffer clientEventIdColumn = column(CLIENT_EVENT_ID);
+        String[] clientEventIdDictionary = readDictionary(clientEventIdColumn);
+        int[] clientEventIdCodes = readCodes(clientEventIdColumn, last);
+
+        List<MetricEventEntity> rows = new ArrayList<>(matches.size());
+        for (int row : matches) {
+            rows.add(
+                    MetricEventEntity.builder()
+                            .id(ids[row])
+                            .event(event)
+                            .eventTime(Timestamp.from(fromMicros(eventTimes[row])))
+                            .metadata(metadataDictionary[metadataCodes[row] - 1])
+                            .userId(userIds[row] == 0 ? null : unZigZag(userIds[row] - 1))
+                            .clientEventId(
+                                    clientEventIdCodes[row] == 0
+                                            ? null
+                                            : clientEventIdDictionary[clientEventIdCodes[row] - 1])
+                            .build());
+        }
+        return rows;
+    }
+
+    private ByteBuffer column(int column) throws IOException {
+        byte[] raw = new byte[rawLengths[column]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(segment.slice(offsets[column], lengths[column]));
+            int inflated = 0;
+            while (inflated < raw.length) {
+                int n = inflater.inflate(raw, inflated, raw.length - inflated);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated column " + column + " in " + path);
+                }
+                inflated += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt column " + column + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(raw);
+    }
+
+    private long[] decodeDeltas(ByteBuffer column, boolean signed) {
+        long[] values = new long[rowCount];
+        long previous = 0;
+        for (int row = 0; row < rowCount; row++) {
+            long delta = readVarLong(column);
+            previous += signed ? unZigZag(delta) : delta;
+            values[row] = previous;
+        }
+        return values;
+    }
+
+    private static String[] readDictionary(ByteBuffer column) {
+        String[] dictionary = new String[(int) readVarLong(column)];
+        for (int i = 0; i < dictionary.length; i++) {
+            int length = (int) readVarLong(column);
+            dictionary[i] =
+                    new String(
+                            column.array(),
+                            column.arrayOffset() + column.position(),
+                            length,
+                            StandardCharsets.UTF_8);
+            column.position(column.position() + length);
+        }
+        return dictionary;
+    }
+
+    private static int[] readCodes(ByteBuffer column, int count) {
+        int[] codes = new int[count];
+        for (int row = 0; row < count; row++) {
+            codes[row] = (int) readVarLong(column);
+        }
+        return codes;
+    }
+
+    private static int lowerBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,183 @@
+package com.fortuna.metrics.archive;
+
+import static com.fortuna.metrics.archive.MetricSegmentFormat.*;
+
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Encodes rows into the {@link MetricSegmentFormat} layout. Rows are {@link #add}ed one at a time
+ * in event time order and only their encoded columns are kept, so a day can be streamed in from the
+ * database without holding its entities.
+ */
+final class MetricSegmentWriter {
+
+    private static final Comparator<MetricEventEntity> EVENT_TIME_ORDER =
+            Comparator.comparing(MetricEventEntity::getEventTime)
+                    .thenComparing(MetricEventEntity::getId);
+
+    private final String event;
+    private final ByteArrayOutputStream ids = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream eventTimes = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream userIds = new ByteArrayOutputStream();
+    private final DictionaryColumn clientEventIds = new DictionaryColumn();
+    private final DictionaryColumn metadata = new DictionaryColumn();
+    private int rowCount;
+    private long previousId;
+    private long minMicros;
+    private long maxMicros;
+
+    MetricSegmentWriter(String event) {
+        this.event = event;
+    }
+
+    /** Writes a new segment file and forces it to disk; {@code path} must not exist yet. */
+    static void write(Path path, String event, List<MetricEventEntity> rows) throws IOException {
+        MetricSegmentWriter writer = new MetricSegmentWriter(event);
+        rows.stream().sorted(EVENT_TIME_ORDER).forEach(writer::add);
+        writer.finish(path);
+    }
+
+    /** Appends a row; rows must come in (event time, id) order. */
+    void add(MetricEventEntity row) {
+        long micros = micros(row);
+        if (rowCount > 0 && micros < maxMicros) {
+            throw new IllegalArgumentException("Metric segment rows must be in event time order");
+        }
+        writeVarLong(ids, zigZag(row.getId() - previousId));
+        previousId = row.getId();
+        writeVarLong(eventTimes, micros - (rowCount == 0 ? 0 : maxMicros));
+        writeVarLong(userIds, row.getUserId() == null ? 0 : zigZag(row.getUserId()) + 1);
+        clientEventIds.add(row.getClientEventId());
+        metadata.add(row.getMetadata());
+        if (rowCount == 0) {
+            minMicros = micros;
+        }
+        maxMicros = micros;
+        rowCount++;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    /** Writes the segment file and forces it to disk; {@code path} must not exist yet. */
+    void finish(Path path) throws IOException {
+        byte[][] raw = new byte[COLUMN_COUNT][];
+        raw[ID] = ids.toByteArray();
+        raw[EVENT_TIME] = eventTimes.toByteArray();
+        raw[USER_ID] = userIds.toByteArray();
+        raw[CLIENT_EVENT_ID] = clientEventIds.toByteArray();
+        raw[METADATA] = metadata.toByteArray();
+
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1).putInt(MAGIC).put(VERSION);
+        byte[][] compressed = new byte[COLUMN_COUNT][];
+        int[] offsets = new int[COLUMN_COUNT];
+        long offset = header.capacity();
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            compressed[column] = deflate(raw[column]);
+            offsets[column] = (int) offset;
+            offset += compressed[column].length;
+        }
+
+        byte[] eventBytes = event.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer footer =
+                ByteBuffer.allocate(
+                        Integer.BYTES
+                                + Long.BYTES * 2
+                                + 1
+                                + COLUMN_COUNT * Integer.BYTES * 3
+                                + Short.BYTES
+                                + eventBytes.length
+                                + TRAILER_SIZE);
+        footer.putInt(rowCount);
+        footer.putLong(minMicros);
+        footer.putLong(maxMicros);
+        footer.put((byte) COLUMN_COUNT);
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            footer.putInt(offsets[column])
+                    .putInt(compressed[column].length)
+                    .putInt(raw[column].length);
+        }
+        footer.putShort((short) eventBytes.length).put(eventBytes);
+        footer.putInt(footer.position()).putInt(MAGIC);
+        if (offset + footer.capacity() > Integer.MAX_VALUE) {
+            // Segments are mapped as a single buffer.
+            throw new IOException("Metric segment for " + event + " exceeds 2 GB");
+        }
+
+        try (FileChannel channel =
+                FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            writeFully(channel, header.flip());
+            for (byte[] column : compressed) {
+                writeFully(channel, ByteBuffer.wrap(column));
+            }
+            writeFully(channel, footer.flip());
+            channel.force(true);
+        }
+    }
+
+    /** Distinct values in first-seen order, then one code per row, with 0 meaning null. */
+    private static final class DictionaryColumn {
+
+        private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+        private final ByteArrayOutputStream codes = new ByteArrayOutputStream();
+
+        void add(String value) {
+            writeVarLong(
+                    codes,
+                    value == null
+                            ? 0
+                            : dictionary.computeIfAbsent(value, v -> dictionary.size() + 1));
+        }
+
+        byte[] toByteArray() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeVarLong(out, dictionary.size());
+            for (String value : dictionary.keySet()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, bytes.length);
+                out.writeBytes(bytes);
+            }
+            out.writeBytes(codes.toByteArray());
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static long micros(MetricEventEntity row) {
+        return toMicros(row.getEventTime().toInstant());
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
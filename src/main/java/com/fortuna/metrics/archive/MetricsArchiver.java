@@ -0,0 +1,152 @@
+package com.fortuna.metrics.archive;
+
+import com.fortuna.metrics.exception.MetricArchiveException;
+import com.fortuna.metrics.repository.MetricsRepository;
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves metric events older than {@code max-age} out of Postgres into the {@link MetricArchive},
+ * one whole UTC day at a time. Each day is written to disk before its rows are deleted, in the same
+ * transaction, so a failure at any point leaves the rows in the table and the next run rewrites the
+ * day's segments. A day is read in pages of {@code page-size} rows, keyed on (event time, id), and
+ * streamed into the segment writers, so its size is bounded by disk rather than heap.
+ *
+ * <p>Enable it on a single instance only; instances do not coordinate.
+ */
+@Slf4j
+@Component
+public class MetricsArchiver {
+
+    private final MetricsRepository metricsRepository;
+    private final MetricArchive metricArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final int pageSize;
+    private final Clock clock;
+
+    @Autowired
+    public MetricsArchiver(
+            MetricsRepository metricsRepository,
+            MetricArchive metricArchive,
+            TransactionTemplate transactionTemplate,
+            @Value("${application.metrics.archive.enabled:false}") boolean enabled,
+            @Value("${application.metrics.archive.max-age:90d}") Duration maxAge,
+            @Value("${application.metrics.archive.page-size:1000}") int pageSize) {
+        this(
+                metricsRepository,
+                metricArchive,
+                transactionTemplate,
+                enabled,
+                maxAge,
+                pageSize,
+                Clock.systemUTC());
+    }
+
+    MetricsArchiver(
+            MetricsRepository metricsRepository,
+            MetricArchive metricArchive,
+            TransactionTemplate transactionTemplate,
+            boolean enabled,
+            Duration maxAge,
+            int pageSize,
+            Clock clock) {
+        this.metricsRepository = metricsRepository;
+        this.metricArchive = metricArchive;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.pageSize = pageSize;
+        this.clock = clock;
+    }
+
+    @Scheduled(cron = "${application.metrics.archive.cron:0 30 3 * * *}", zone = "UTC")
+    public void archiveOnSchedule() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archive();
+        } catch (MetricArchiveException e) {
+            log.error("Metric archival stopped", e);
+        }
+    }
+
+    /** Archives every UTC day that ended before {@code now - max-age}; returns the rows moved. */
+    public int archive() {
+        Timestamp cutoff =
+                Timestamp.from(
+                        LocalDate.ofInstant(clock.instant().minus(maxAge), ZoneOffset.UTC)
+                                .atStartOfDay(ZoneOffset.UTC)
+                                .toInstant());
+        int archived = 0;
+        Integer moved;
+        while ((moved = transactionTemplate.execute(status -> archiveOldestDay(cutoff))) != null) {
+            archived += moved;
+        }
+        return archived;
+    }
+
+    /** Returns the rows moved, or null once nothing before the cutoff is left. */
+    private Integer archiveOldestDay(Timestamp cutoff) {
+        // Looked up in the read-write transaction so it sees the primary, not a lagging replica.
+        Timestamp oldest = metricsRepository.findOldestEventTimeBefore(cutoff);
+        if (oldest == null) {
+            return null;
+        }
+        return archiveDay(LocalDate.ofInstant(oldest.toInstant(), ZoneOffset.UTC));
+    }
+
+    private int archiveDay(LocalDate day) {
+        Instant start = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Timestamp from = Timestamp.from(start);
+        Timestamp to = Timestamp.from(start.plus(Duration.ofDays(1)));
+
+        MetricArchive.DayWriter writer = metricArchive.writeDay(day);
+        int archived = 0;
+        Timestamp afterTime = from;
+        long afterId = Long.MIN_VALUE;
+        List<MetricEventEntity> page;
+        do {
+            page =
+                    metricsRepository.findPageByEventTimeRange(
+                            from, to, afterTime, afterId, Limit.of(pageSize));
+            page.forEach(writer::add);
+            archived += page.size();
+            if (!page.isEmpty()) {
+                MetricEventEntity last = page.get(page.size() - 1);
+                afterTime = last.getEventTime();
+                afterId = last.getId();
+            }
+        } while (page.size() == pageSize);
+        writer.commit();
+
+        int deleted = metricsRepository.deleteAllByEventTimeRange(from, to);
+        if (deleted != archived) {
+            // Rows landed in the day after it was read; roll back and retry on the next run.
+            throw new MetricArchiveException(
+                    "Archived "
+                            + archived
+                            + " metric events for "
+                            + day
+                            + " but "
+                            + deleted
+                            + " matched the delete");
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,72 @@
+package com.fortuna.metrics.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.metrics.controller.model.MetricEventDTO;
+import java.io.IOException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads JSON {@link MetricEventDTO} request bodies with {@link MetricEventParser} in place of
+ * Spring's generic JSON converter, so {@code POST /api/save-metric} hands the metadata to {@code
+ * MetricsService} as canonical JSON rather than a map it has to serialize again. Boot registers
+ * converter beans ahead of its defaults; this one only reads, and only this type.
+ */
+@Component
+public class MetricEventHttpMessageConverter extends AbstractHttpMessageConverter<MetricEventDTO> {
+
+    private final JsonFactory jsonFactory;
+    private final MetricEventParser eventParser;
+
+    public MetricEventHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.jsonFactory = objectMapper.getFactory();
+        // Unknown properties stay ignored, as they were under Spring's default JSON converter.
+        this.eventParser =
+                new MetricEventParser(
+                        objectMapper
+                                .copy()
+                                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return MetricEventDTO.class == clazz;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected MetricEventDTO readInternal(
+            Class<? extends MetricEventDTO> clazz, HttpInputMessage inputMessage)
+            throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(inputMessage.getBody())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new HttpMessageNotReadableException(
+                        "Metric event must be an object", inputMessage);
+            }
+            return eventParser.parse(parser);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException(
+                    "Malformed metric event: " + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(MetricEventDTO metricEventDTO, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("Metric events are not written as responses");
+    }
+}
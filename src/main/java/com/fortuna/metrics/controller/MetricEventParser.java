@@ -0,0 +1,109 @@
+package com.fortuna.metrics.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fortuna.metrics.controller.model.MetricEventDTO;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import com.fortuna.metrics.controller.model.metadata.JsonMetadata;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Binds one {@link MetricEventDTO} straight off a {@link JsonParser}. The scalar fields are read
+ * from their tokens; {@code eventMetadata} is copied through as JSON text into {@link
+ * JsonMetadata}, so it is validated and stored without ever being built as a map. Any Jackson
+ * format can be read; the metadata is always re-emitted as JSON for the jsonb column.
+ *
+ * <p>Anything unexpected (a null, an unknown event type, a value of the wrong shape) is handed to
+ * the {@link ObjectMapper}, so errors and coercions are the same as binding the DTO with it.
+ */
+final class MetricEventParser {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE =
+            new TypeReference<>() {};
+    private static final Map<String, MetricEventType> EVENT_TYPES =
+            Arrays.stream(MetricEventType.values())
+                    .collect(Collectors.toMap(Enum::name, Function.identity()));
+    private static final List<Object> FIELDS =
+            List.of("event", "eventMetadata", "userId", "clientEventId");
+
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+    private final boolean failOnUnknownProperties;
+
+    MetricEventParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+        this.failOnUnknownProperties =
+                objectMapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /** Reads the event whose {@code START_OBJECT} is the current token, up to its end. */
+    MetricEventDTO parse(JsonParser parser) throws IOException {
+        MetricEventDTO event = new MetricEventDTO();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "event" -> event.setEvent(eventType(parser, value));
+                case "userId" -> event.setUserId(
+                        value == JsonToken.VALUE_NUMBER_INT
+                                ? Long.valueOf(parser.getLongValue())
+                                : objectMapper.readValue(parser, Long.class));
+                case "clientEventId" -> event.setClientEventId(
+                        value == JsonToken.VALUE_STRING
+                                ? parser.getText()
+                                : objectMapper.readValue(parser, String.class));
+                case "eventMetadata" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        event.setEventMetadata(new JsonMetadata(copy(parser)));
+                    } else {
+                        event.setEventMetadata(objectMapper.readValue(parser, MAP_TYPE));
+                    }
+                }
+                default -> {
+                    if (failOnUnknownProperties) {
+                        throw UnrecognizedPropertyException.from(
+                                parser, MetricEventDTO.class, field, FIELDS);
+                    }
+                    parser.skipChildren();
+                }
+            }
+        }
+        return event;
+    }
+
+    private MetricEventType eventType(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            MetricEventType type = EVENT_TYPES.get(parser.getText());
+            if (type != null) {
+                return type;
+            }
+        }
+        return objectMapper.readValue(parser, MetricEventType.class);
+    }
+
+    /**
+     * Re-emits the current structure as JSON. A plain writer beats the mapper's recycled one here:
+     * the parser being copied from already holds the recycled text buffer.
+     */
+    private String copy(JsonParser parser) throws IOException {
+        StringWriter json = new StringWriter(256);
+        try (JsonGenerator generator = jsonFactory.createGenerator(json)) {
+            generator.copyCurrentStructure(parser);
+        }
+        return json.toString();
+    }
+}
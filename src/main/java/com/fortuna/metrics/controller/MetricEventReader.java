@@ -0,0 +1,123 @@
+package com.fortuna.metrics.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fortuna.metrics.controller.model.MetricEventDTO;
+import com.fortuna.metrics.exception.MetricPayloadException;
+import com.fortuna.tracing.Span;
+import com.fortuna.tracing.Tracing;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads metric events token by token, binding (with {@link MetricEventParser}) and validating one
+ * event at a time so a payload is never buffered as a tree. In JSON (and text/plain beacons), CBOR
+ * and Smile, a batch ({@link #read}) is an array of events and a single event ({@link #readOne}) is
+ * one object; a batch sent as NDJSON is a stream of root-level events. Every format goes through
+ * the same {@link Validator} as the {@code @Valid} JSON path.
+ */
+@Slf4j
+@Component
+public class MetricEventReader {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+    private final ObjectMapper objectMapper;
+    private final MetricEventParser eventParser;
+    private final Validator validator;
+    private final int maxEvents;
+    private final CBORFactory cborFactory = new CBORFactory();
+    private final SmileFactory smileFactory = new SmileFactory();
+
+    public MetricEventReader(
+            ObjectMapper objectMapper,
+            Validator validator,
+            @Value("${application.metrics.batch.max-events:500}") int maxEvents) {
+        this.objectMapper = objectMapper;
+        this.eventParser = new MetricEventParser(objectMapper);
+        this.validator = validator;
+        this.maxEvents = maxEvents;
+    }
+
+    /**
+     * Returns the valid events in the batch. Invalid elements are logged and skipped so one bad
+     * event does not discard the rest of a beacon; a malformed or oversized payload, or one that is
+     * not an array (except NDJSON), is rejected.
+     */
+    public List<MetricEventDTO> read(InputStream body, MediaType contentType) {
+        boolean stream = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType);
+        try (Span span = Tracing.span("metrics.read");
+                JsonParser parser = factoryFor(contentType).createParser(body)) {
+            if (!stream && parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new MetricPayloadException("Metric batch must be an array");
+            }
+            List<MetricEventDTO> events = new ArrayList<>();
+            int read = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (++read > maxEvents) {
+                    throw new MetricPayloadException(
+                            "Metric batch exceeds " + maxEvents + " events");
+                }
+                MetricEventDTO event = eventParser.parse(parser);
+                Set<ConstraintViolation<MetricEventDTO>> violations = validator.validate(event);
+                if (violations.isEmpty()) {
+                    events.add(event);
+                } else {
+                    log.warn(
+                            "Skipping invalid metric event at index {}: {}",
+                            read - 1,
+                            violations.iterator().next().getMessage());
+                }
+            }
+            JsonToken end = stream ? null : JsonToken.END_ARRAY;
+            if (parser.currentToken() != end) {
+                throw new MetricPayloadException("Metric batch must contain only objects");
+            }
+            return events;
+        } catch (IOException e) {
+            throw new MetricPayloadException("Malformed metric batch", e);
+        }
+    }
+
+    /** Reads and validates a single event; unlike a batch, an invalid event is rejected. */
+    public MetricEventDTO readOne(InputStream body, MediaType contentType) {
+        try (Span span = Tracing.span("metrics.read");
+                JsonParser parser = factoryFor(contentType).createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new MetricPayloadException("Metric event must be an object");
+            }
+            MetricEventDTO event = eventParser.parse(parser);
+            Set<ConstraintViolation<MetricEventDTO>> violations = validator.validate(event);
+            if (!violations.isEmpty()) {
+                throw new MetricPayloadException(violations.iterator().next().getMessage());
+            }
+            return event;
+        } catch (IOException e) {
+            throw new MetricPayloadException("Malformed metric event", e);
+        }
+    }
+
+    private JsonFactory factoryFor(MediaType contentType) {
+        if (MediaType.APPLICATION_CBOR.isCompatibleWith(contentType)) {
+            return cborFactory;
+        }
+        if (APPLICATION_SMILE.isCompatibleWith(contentType)) {
+            return smileFactory;
+        }
+        return objectMapper.getFactory();
+    }
+}
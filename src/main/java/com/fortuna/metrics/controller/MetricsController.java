@@ -1,23 +1,47 @@
 package com.fortuna.metrics.controller;
 
 import com.fortuna.metrics.controller.model.MetricEventDTO;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import com.fortuna.metrics.exception.MetricPayloadException;
 import com.fortuna.metrics.service.MetricsService;
+import com.fortuna.web.ratelimit.ClientKey;
+import com.fortuna.web.ratelimit.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+@Slf4j
 @RestController
 @AllArgsConstructor
 public class MetricsController {
 
     private final MetricsService metricsService;
+    private final MetricEventReader metricEventReader;
+    private final RateLimiter rateLimiter;
 
     @PostMapping("/api/save-metric")
-    public ResponseEntity<Void> saveMetricEvent(@Valid @RequestBody MetricEventDTO metricEventDTO) {
+    public ResponseEntity<Void> saveMetricEvent(
+            @Valid @RequestBody MetricEventDTO metricEventDTO, HttpServletRequest request) {
+        ResponseEntity<Void> limited = rateLimit(List.of(metricEventDTO), request);
+        if (limited != null) {
+            return limited;
+        }
         try {
             metricsService.saveMetricEvent(metricEventDTO);
             return ResponseEntity.status(HttpStatus.CREATED).build();
@@ -25,4 +49,102 @@ public class MetricsController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @PostMapping(
+            value = "/api/save-metric",
+            consumes = {
+                MediaType.APPLICATION_CBOR_VALUE,
+                MetricEventReader.APPLICATION_SMILE_VALUE
+            })
+    public ResponseEntity<Void> saveBinaryMetricEvent(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            HttpServletRequest request) {
+        MetricEventDTO metricEventDTO;
+        try {
+            metricEventDTO = metricEventReader.readOne(body, contentType);
+        } catch (MetricPayloadException e) {
+            log.warn("Rejected metric event: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        return saveMetricEvent(metricEventDTO, request);
+    }
+
+    @PostMapping(
+            value = "/api/save-metric/batch",
+            consumes = {
+                MediaType.APPLICATION_JSON_VALUE,
+                MediaType.TEXT_PLAIN_VALUE,
+                MediaType.APPLICATION_NDJSON_VALUE,
+                MediaType.APPLICATION_CBOR_VALUE,
+                MetricEventReader.APPLICATION_SMILE_VALUE
+            })
+    public ResponseEntity<Void> saveMetricEvents(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            HttpServletRequest request) {
+        List<MetricEventDTO> metricEventDTOs;
+        try {
+            metricEventDTOs = metricEventReader.read(body, contentType);
+        } catch (MetricPayloadException e) {
+            log.warn("Rejected metric batch: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        ResponseEntity<Void> limited = rateLimit(metricEventDTOs, request);
+        if (limited != null) {
+            return limited;
+        }
+        try {
+            metricsService.saveMetricEvents(metricEventDTOs);
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Charges each event against its type's limit, e.g. {@code button-click}, for the calling
+     * client. Returns 413 when a type has more events than its burst, since no retry can fit them,
+     * 429 when a type is over its limit, or null when every type was charged. A rejected request
+     * keeps no tokens.
+     */
+    private ResponseEntity<Void> rateLimit(
+            List<MetricEventDTO> metricEventDTOs, HttpServletRequest request) {
+        Map<MetricEventType, Integer> counts = new EnumMap<>(MetricEventType.class);
+        metricEventDTOs.forEach(dto -> counts.merge(dto.getEvent(), 1, Integer::sum));
+        for (Map.Entry<MetricEventType, Integer> count : counts.entrySet()) {
+            if (rateLimiter.exceedsBurst(limitName(count.getKey()), count.getValue())) {
+                log.debug(
+                        "Rejected {} {} events, more than their burst",
+                        count.getValue(),
+                        count.getKey());
+                return ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE).build();
+            }
+        }
+        String clientKey = ClientKey.of(request);
+        List<Map.Entry<MetricEventType, Integer>> charged = new ArrayList<>(counts.size());
+        for (Map.Entry<MetricEventType, Integer> count : counts.entrySet()) {
+            Duration retryAfter =
+                    rateLimiter.tryAcquire(limitName(count.getKey()), clientKey, count.getValue());
+            if (!retryAfter.isZero()) {
+                // The request is rejected as a whole, so the types charged before this one are not.
+                charged.forEach(
+                        earlier ->
+                                rateLimiter.release(
+                                        limitName(earlier.getKey()),
+                                        clientKey,
+                                        earlier.getValue()));
+                log.debug("Rate limited {} events from {}", count.getKey(), clientKey);
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, RateLimiter.retryAfterSeconds(retryAfter))
+                        .build();
+            }
+            charged.add(count);
+        }
+        return null;
+    }
+
+    static String limitName(MetricEventType type) {
+        return type.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
 }
@@ -0,0 +1,50 @@
+package com.fortuna.metrics.controller;
+
+import com.fortuna.metrics.controller.model.MetricEventSearchResultDTO;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import com.fortuna.metrics.service.MetricsService;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * {@code GET /api/metrics/search?event=BUTTON_CLICK&buttonId=submit&from=...} — every query
+ * parameter other than the reserved ones is a metadata key/value filter. Refused unless {@code
+ * application.metrics.read-api.enabled} is set; see {@code SecurityConfig}.
+ */
+@RestController
+@AllArgsConstructor
+public class MetricsSearchController {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+    private static final Set<String> RESERVED_PARAMETERS = Set.of("event", "from", "to", "limit");
+
+    private final MetricsService metricsService;
+
+    @GetMapping("/api/metrics/search")
+    public ResponseEntity<List<MetricEventSearchResultDTO>> searchMetricEvents(
+            @RequestParam(required = false) MetricEventType event,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    Instant to,
+            @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit,
+            @RequestParam Map<String, String> parameters) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<String, String> metadataFilters = new LinkedHashMap<>(parameters);
+        metadataFilters.keySet().removeAll(RESERVED_PARAMETERS);
+        return ResponseEntity.ok(
+                metricsService.searchByMetadata(event, metadataFilters, from, to, limit));
+    }
+}
@@ -0,0 +1,88 @@
+package com.fortuna.metrics.controller;
+
+import com.fortuna.metrics.controller.model.MetricEventType;
+import com.fortuna.metrics.controller.model.metadata.MetricMetadataSchemas;
+import com.fortuna.metrics.stream.MetricStream;
+import com.fortuna.metrics.stream.MetricStreamFilter;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * {@code GET /api/metrics/stream} — Server-Sent Events from the {@link MetricStream}: a {@code
+ * counts} event every second with the events stored per type, and with {@code raw=true} an {@code
+ * event} event per stored event. Raw events can be narrowed like a search: {@code event} (may
+ * repeat) and any other query parameter as a metadata key/value filter, bound through the event's
+ * schema when exactly one type is given. Each connection lasts at most {@code timeout}; browsers
+ * reconnect on their own. Refused unless {@code application.metrics.read-api.enabled} is set; see
+ * {@code SecurityConfig}.
+ */
+@RestController
+public class MetricsStreamController {
+
+    private static final Set<String> RESERVED_PARAMETERS = Set.of("raw", "event");
+
+    private final MetricStream metricStream;
+    private final Duration timeout;
+
+    @Autowired
+    public MetricsStreamController(
+            MetricStream metricStream,
+            @Value("${application.metrics.stream.timeout:30m}") Duration timeout) {
+        this.metricStream = metricStream;
+        this.timeout = timeout;
+    }
+
+    @GetMapping(value = "/api/metrics/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void streamMetricEvents(
+            @RequestParam(defaultValue = "false") boolean raw,
+            @RequestParam(required = false) List<MetricEventType> event,
+            @RequestParam Map<String, String> parameters,
+            HttpServletRequest request,
+            HttpServletResponse response)
+            throws IOException {
+        Map<String, Object> metadataFilters = new LinkedHashMap<>(parameters);
+        metadataFilters.keySet().removeAll(RESERVED_PARAMETERS);
+        Set<MetricEventType> events = event == null ? Set.of() : Set.copyOf(event);
+        if (events.size() == 1 && !metadataFilters.isEmpty()) {
+            try {
+                metadataFilters =
+                        MetricMetadataSchemas.normalize(events.iterator().next(), metadataFilters);
+            } catch (IllegalArgumentException e) {
+                // Handled here: an error body cannot be negotiated against text/event-stream.
+                response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+                return;
+            }
+        }
+        MetricStreamFilter filter = new MetricStreamFilter(raw, events, metadataFilters);
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        // Stops nginx-style proxies from buffering the stream.
+        response.setHeader("X-Accel-Buffering", "no");
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(timeout.toMillis());
+        if (!metricStream.subscribe(asyncContext, filter)) {
+            response.reset();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+            asyncContext.complete();
+        }
+    }
+}
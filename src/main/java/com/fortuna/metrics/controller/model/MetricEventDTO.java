@@ -1,6 +1,8 @@
 package com.fortuna.metrics.controller.model;
 
+import com.fortuna.metrics.controller.model.metadata.ValidEventMetadata;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.util.Map;
 import lombok.*;
 
@@ -10,6 +12,7 @@ import lombok.*;
 @EqualsAndHashCode
 @AllArgsConstructor
 @NoArgsConstructor
+@ValidEventMetadata
 public class MetricEventDTO {
     @NotNull(message = "event is required")
     MetricEventType event;
@@ -18,4 +21,7 @@ public class MetricEventDTO {
     private Map<String, Object> eventMetadata;
 
     Long userId;
+
+    @Size(max = 64, message = "clientEventId must be at most 64 characters")
+    String clientEventId;
 }
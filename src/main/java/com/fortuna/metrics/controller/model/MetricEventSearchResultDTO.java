@@ -0,0 +1,23 @@
+package com.fortuna.metrics.controller.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricEventSearchResultDTO {
+    private Long id;
+    private String event;
+    private Instant eventTime;
+
+    // Already JSON in the database; written through as-is instead of parsed and re-serialized.
+    @JsonRawValue private String metadata;
+
+    private Long userId;
+}
@@ -0,0 +1,13 @@
+package com.fortuna.metrics.controller.model.metadata;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import jakarta.validation.constraints.Size;
+
+/** The frontend still sends {@code triggerId}/{@code screen}; both are read as aliases. */
+public record ButtonClickMetadata(
+        @JsonAlias("triggerId")
+                @Size(max = 100, message = "buttonId must be at most 100 characters")
+                String buttonId,
+        @JsonAlias("screen") @Size(max = 200, message = "page must be at most 200 characters")
+                String page)
+        implements MetricMetadata {}
@@ -0,0 +1,59 @@
+package com.fortuna.metrics.controller.model.metadata;
+
+import com.fortuna.metrics.controller.model.MetricEventDTO;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Checks the typed metadata record against its own constraints with the application's {@link
+ * Validator}, which Spring's constraint validator factory injects, so no second validator factory
+ * is built.
+ */
+public class EventMetadataValidator
+        implements ConstraintValidator<ValidEventMetadata, MetricEventDTO> {
+
+    private final Validator validator;
+
+    public EventMetadataValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    @Override
+    public boolean isValid(MetricEventDTO metricEventDTO, ConstraintValidatorContext context) {
+        if (metricEventDTO.getEvent() == null || metricEventDTO.getEventMetadata() == null) {
+            return true;
+        }
+        MetricMetadata typed;
+        try {
+            typed =
+                    MetricMetadataSchemas.parse(
+                            metricEventDTO.getEvent(), metricEventDTO.getEventMetadata());
+        } catch (IllegalArgumentException e) {
+            context.disableDefaultConstraintViolation();
+            context.buildConstraintViolationWithTemplate(
+                            "eventMetadata does not match the "
+                                    + metricEventDTO.getEvent()
+                                    + " schema")
+                    .addPropertyNode("eventMetadata")
+                    .addConstraintViolation();
+            return false;
+        }
+        if (typed == null) {
+            return true;
+        }
+        boolean valid = true;
+        for (ConstraintViolation<MetricMetadata> violation : validator.validate(typed)) {
+            if (valid) {
+                context.disableDefaultConstraintViolation();
+                valid = false;
+            }
+            context.buildConstraintViolationWithTemplate(violation.getMessage())
+                    .addPropertyNode("eventMetadata")
+                    .addPropertyNode(violation.getPropertyPath().toString())
+                    .addConstraintViolation();
+        }
+        return valid;
+    }
+}
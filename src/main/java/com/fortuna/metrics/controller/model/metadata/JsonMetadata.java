@@ -0,0 +1,48 @@
+package com.fortuna.metrics.controller.model.metadata;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Event metadata held as the JSON text it was sent as. It is a read-only {@link Map} so code
+ * written against {@code MetricEventDTO#getEventMetadata()} keeps working, but the map is only
+ * parsed if something reads it: validation binds the typed record from {@link #json()}, and
+ * ingestion streams it into the stored shape with {@link
+ * MetricMetadataSchemas#normalize(MetricEventType, JsonMetadata)}.
+ */
+public final class JsonMetadata extends AbstractMap<String, Object> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE =
+            new TypeReference<>() {};
+
+    private final String json;
+    private Map<String, Object> map;
+
+    public JsonMetadata(String json) {
+        this.json = json;
+    }
+
+    public String json() {
+        return json;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (map == null) {
+            try {
+                map = Collections.unmodifiableMap(MAPPER.readValue(json, MAP_TYPE));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Metadata is not a JSON object", e);
+            }
+        }
+        return map.entrySet();
+    }
+}
@@ -0,0 +1,4 @@
+package com.fortuna.metrics.controller.model.metadata;
+
+/** Typed metadata for one {@code MetricEventType}; see {@link MetricMetadataSchemas}. */
+public sealed interface MetricMetadata permits ButtonClickMetadata, PaymentSubmittedMetadata {}
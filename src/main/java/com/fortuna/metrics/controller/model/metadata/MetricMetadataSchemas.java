@@ -0,0 +1,194 @@
+package com.fortuna.metrics.controller.model.metadata;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.core.util.RecyclerPool;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import java.io.IOException;
+import java.lang.reflect.RecordComponent;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registry of the typed metadata record for each {@link MetricEventType}. Known keys (including
+ * aliases) bind to the record; anything else is carried through untouched so it still lands in the
+ * jsonb column. Event types without a schema keep fully free-form metadata.
+ */
+public final class MetricMetadataSchemas {
+
+    private static final Map<MetricEventType, Class<? extends MetricMetadata>> SCHEMAS =
+            new EnumMap<>(
+                    Map.of(
+                            MetricEventType.BUTTON_CLICK, ButtonClickMetadata.class,
+                            MetricEventType.PAYMENT_SUBMITTED, PaymentSubmittedMetadata.class));
+
+    /** For each schema, its record components keyed by every name they bind from. */
+    private static final Map<Class<?>, Map<String, RecordComponent>> BOUND_KEYS =
+            new LinkedHashMap<>();
+
+    static {
+        SCHEMAS.values().forEach(schema -> BOUND_KEYS.put(schema, boundKeys(schema)));
+    }
+
+    private static final ObjectMapper MAPPER =
+            new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final RecyclerPool<BufferRecycler> RECYCLERS = JsonRecyclerPools.defaultPool();
+
+    private MetricMetadataSchemas() {}
+
+    public static Class<? extends MetricMetadata> schemaFor(MetricEventType event) {
+        return SCHEMAS.get(event);
+    }
+
+    /**
+     * Binds the metadata to the event's record, or returns {@code null} when the event type has no
+     * schema.
+     *
+     * @throws IllegalArgumentException when a known key has the wrong type
+     */
+    public static MetricMetadata parse(MetricEventType event, Map<String, Object> metadata) {
+        Class<? extends MetricMetadata> schema = schemaFor(event);
+        if (schema == null) {
+            return null;
+        }
+        if (metadata instanceof JsonMetadata json) {
+            try {
+                return MAPPER.readValue(json.json(), schema);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException(e.getOriginalMessage(), e);
+            }
+        }
+        return MAPPER.convertValue(metadata, schema);
+    }
+
+    /**
+     * Rewrites the metadata with canonical field names for the typed part, followed by any extra
+     * keys the schema does not know about. This is the shape stored in {@code metrics.metadata}.
+     */
+    public static Map<String, Object> normalize(
+            MetricEventType event, Map<String, Object> metadata) {
+        MetricMetadata typed = parse(event, metadata);
+        if (typed == null) {
+            return metadata;
+        }
+        Map<String, RecordComponent> bound = BOUND_KEYS.get(typed.getClass());
+        Map<String, Object> normalized = new LinkedHashMap<>();
+        for (RecordComponent component : typed.getClass().getRecordComponents()) {
+            Object value = valueOf(component, typed);
+            if (value != null) {
+                normalized.put(component.getName(), value);
+            }
+        }
+        metadata.forEach(
+                (key, value) -> {
+                    if (!bound.containsKey(key)) {
+                        normalized.putIfAbsent(key, value);
+                    }
+                });
+        return normalized;
+    }
+
+    /**
+     * The stored JSON for metadata that arrived as JSON, streamed token by token instead of binding
+     * a map: known keys and their aliases take their canonical names and drop out when null, and
+     * every other key is copied through. Only when a known key holds a value the record has to
+     * coerce (a number sent as a string, say), or a field arrives under more than one of its names,
+     * does it fall back to {@link #normalize(MetricEventType, Map)}, so the stored value is always
+     * the one the record bound. Key order may differ from that method, which jsonb does not keep
+     * anyway.
+     */
+    public static String normalize(MetricEventType event, JsonMetadata metadata)
+            throws IOException {
+        Class<? extends MetricMetadata> schema = schemaFor(event);
+        if (schema == null) {
+            return metadata.json();
+        }
+        Map<String, RecordComponent> bound = BOUND_KEYS.get(schema);
+        Set<RecordComponent> seen = new HashSet<>();
+        BufferRecycler recycler = RECYCLERS.acquireAndLinkPooled();
+        try (SegmentedStringWriter normalized = new SegmentedStringWriter(recycler)) {
+            try (JsonParser in = MAPPER.createParser(metadata.json());
+                    JsonGenerator out = MAPPER.createGenerator(normalized)) {
+                in.nextToken();
+                out.writeStartObject();
+                while (in.nextToken() == JsonToken.FIELD_NAME) {
+                    String key = in.currentName();
+                    RecordComponent component = bound.get(key);
+                    JsonToken value = in.nextToken();
+                    if (component == null) {
+                        out.writeFieldName(key);
+                        out.copyCurrentStructure(in);
+                        continue;
+                    }
+                    if (!seen.add(component)
+                            || (value != JsonToken.VALUE_NULL
+                                    && !bindsAsIs(component.getType(), value, in))) {
+                        return MAPPER.writeValueAsString(
+                                normalize(event, (Map<String, Object>) metadata));
+                    }
+                    if (value != JsonToken.VALUE_NULL) {
+                        out.writeFieldName(component.getName());
+                        out.copyCurrentEvent(in);
+                    }
+                }
+                out.writeEndObject();
+            }
+            return normalized.getAndClear();
+        } finally {
+            recycler.releaseToPool();
+        }
+    }
+
+    private static boolean bindsAsIs(Class<?> type, JsonToken value, JsonParser in)
+            throws IOException {
+        if (type == String.class) {
+            return value == JsonToken.VALUE_STRING;
+        }
+        if (type == Long.class) {
+            return value == JsonToken.VALUE_NUMBER_INT
+                    && in.getNumberType() != JsonParser.NumberType.BIG_INTEGER;
+        }
+        return false;
+    }
+
+    private static Object valueOf(RecordComponent component, MetricMetadata typed) {
+        try {
+            return component.getAccessor().invoke(typed);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read " + component.getName(), e);
+        }
+    }
+
+    private static Map<String, RecordComponent> boundKeys(Class<?> schema) {
+        Map<String, RecordComponent> keys = new HashMap<>();
+        for (RecordComponent component : schema.getRecordComponents()) {
+            keys.put(component.getName(), component);
+            try {
+                JsonAlias alias =
+                        schema.getDeclaredField(component.getName()).getAnnotation(JsonAlias.class);
+                if (alias != null) {
+                    for (String name : alias.value()) {
+                        keys.put(name, component);
+                    }
+                }
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return Collections.unmodifiableMap(keys);
+    }
+}
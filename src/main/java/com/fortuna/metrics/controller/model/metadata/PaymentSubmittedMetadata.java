@@ -0,0 +1,11 @@
+package com.fortuna.metrics.controller.model.metadata;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/** {@code amount} is in the currency's minor unit, matching the Stripe payment intent. */
+public record PaymentSubmittedMetadata(
+        @PositiveOrZero(message = "amount must not be negative") Long amount,
+        @Pattern(regexp = "[A-Za-z]{3}", message = "currency must be an ISO 4217 code")
+                String currency)
+        implements MetricMetadata {}
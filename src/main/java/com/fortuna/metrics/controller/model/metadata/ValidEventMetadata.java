@@ -0,0 +1,20 @@
+package com.fortuna.metrics.controller.model.metadata;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** Checks a metric event's metadata against the schema registered for its event type. */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = EventMetadataValidator.class)
+public @interface ValidEventMetadata {
+    String message() default "eventMetadata does not match the schema for this event";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,12 @@
+package com.fortuna.metrics.exception;
+
+public class MetricArchiveException extends RuntimeException {
+
+    public MetricArchiveException(String message) {
+        super(message);
+    }
+
+    public MetricArchiveException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
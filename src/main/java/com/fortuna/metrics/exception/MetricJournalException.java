@@ -0,0 +1,12 @@
+package com.fortuna.metrics.exception;
+
+public class MetricJournalException extends RuntimeException {
+
+    public MetricJournalException(String message) {
+        super(message);
+    }
+
+    public MetricJournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
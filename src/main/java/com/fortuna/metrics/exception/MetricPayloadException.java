@@ -0,0 +1,12 @@
+package com.fortuna.metrics.exception;
+
+public class MetricPayloadException extends RuntimeException {
+
+    public MetricPayloadException(String message) {
+        super(message);
+    }
+
+    public MetricPayloadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,574 @@
+package com.fortuna.metrics.journal;
+
+import static com.fortuna.metrics.journal.MetricJournalFormat.*;
+
+import com.fortuna.metrics.exception.MetricJournalException;
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Durable, append-only journal of accepted metric events, so events buffered ahead of the database
+ * survive a crash. Appends go to a memory-mapped segment file in {@code directory}; a full segment
+ * is forced to disk and the next append starts a new one. An append returns once the {@link Fsync}
+ * policy says the event is safe.
+ *
+ * <p>The {@link MetricJournalDrainer} reads events in order with {@link #read} and {@link
+ * #confirm}s them once they are stored, which moves the checkpoint and deletes the segments behind
+ * it. On start every record after the checkpoint is still pending, so events that were journaled
+ * but not confirmed before a crash are drained again. Appends always go to a fresh segment, never
+ * after a possibly torn tail.
+ *
+ * <p>Each instance needs its own directory; a lock file keeps a second process out.
+ */
+@Slf4j
+@Component
+public class MetricJournal implements SmartLifecycle {
+
+    static final String METER_NAME = "fortuna.metrics.journal.pending";
+
+    /** When an append counts as durable. */
+    public enum Fsync {
+        /** Forces every append, and any unforced one before it, to disk before returning it. */
+        ALWAYS,
+        /**
+         * Returns an append after the next force, which starts as soon as the one before it ends
+         * and covers every append made meanwhile, so concurrent requests share one fsync.
+         */
+        GROUP,
+        /**
+         * Returns as soon as the append is in the mapped page cache, which outlives a crash or an
+         * OOM kill of the process but not of the machine; forced every {@code fsync-interval}.
+         */
+        NONE
+    }
+
+    /** A position in the journal: a segment and a byte offset in it. */
+    record Cursor(long segment, int position) {}
+
+    /** Events read from {@code start} up to {@code end}; confirm it once they are stored. */
+    record Batch(List<MetricEventEntity> events, Cursor end) {}
+
+    private static final class Segment {
+        final long sequence;
+        final Path path;
+        final MappedByteBuffer buffer;
+        volatile int end;
+        volatile boolean sealed;
+
+        /** Everything before this offset is on disk; guarded by the segment's monitor. */
+        int forcedEnd;
+
+        Segment(long sequence, Path path, MappedByteBuffer buffer, int end) {
+            this.sequence = sequence;
+            this.path = path;
+            this.buffer = buffer;
+            this.end = end;
+            this.forcedEnd = end;
+        }
+    }
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final Fsync fsync;
+    private final Duration fsyncInterval;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Object appendLock = new Object();
+    private final Object forcedMonitor = new Object();
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private Segment active;
+    private long appended;
+    private long forced;
+    private volatile IOException forceFailure;
+    private volatile Cursor confirmed;
+    private volatile boolean running;
+    private volatile Thread flusher;
+
+    @Autowired
+    public MetricJournal(
+            MeterRegistry meterRegistry,
+            @Value("${application.metrics.journal.enabled:false}") boolean enabled,
+            @Value("${application.metrics.journal.directory:metrics-journal}") Path directory,
+            @Value("${application.metrics.journal.segment-size:64MB}") DataSize segmentSize,
+            @Value("${application.metrics.journal.fsync:group}") String fsync,
+            @Value("${application.metrics.journal.fsync-interval:5ms}") Duration fsyncInterval) {
+        this(enabled, directory, segmentSize, parseFsync(fsync), fsyncInterval);
+        Gauge.builder(METER_NAME, this, MetricJournal::pendingBytes)
+                .description("Journaled metric event bytes not yet stored in the database")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    MetricJournal(
+            boolean enabled,
+            Path directory,
+            DataSize segmentSize,
+            Fsync fsync,
+            Duration fsyncInterval) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentBytes = (int) Math.min(Integer.MAX_VALUE, segmentSize.toBytes());
+        this.fsync = fsync;
+        this.fsyncInterval = fsyncInterval;
+    }
+
+    private static Fsync parseFsync(String fsync) {
+        try {
+            return Fsync.valueOf(fsync.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(
+                    "Unknown application.metrics.journal.fsync '"
+                            + fsync
+                            + "'; use always, group or none");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        try {
+            open();
+        } catch (IOException e) {
+            throw new MetricJournalException("Could not open metric journal in " + directory, e);
+        }
+        running = true;
+        if (fsync != Fsync.ALWAYS) {
+            flusher = new Thread(this::flushLoop, "metrics-journal-fsync");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    /** Stops after the web server has drained, so the last requests can still append. */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        long end;
+        synchronized (appendLock) {
+            running = false;
+            active.buffer.force();
+            end = appended;
+        }
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flusher = null;
+        }
+        synchronized (forcedMonitor) {
+            forced = end;
+            forcedMonitor.notifyAll();
+        }
+        try {
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            log.warn("Could not release metric journal lock in {}", directory, e);
+        }
+        confirmed = null;
+        segments.clear();
+        active = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Journals {@code events} as one record and returns once the fsync policy is met. */
+    public void append(List<MetricEventEntity> events) {
+        byte[] payload = encode(events);
+        int crc = checksum(ByteBuffer.wrap(payload));
+        int size = RECORD_HEADER_SIZE + payload.length;
+        Segment segment;
+        int offset;
+        long end;
+        synchronized (appendLock) {
+            if (!running) {
+                throw new MetricJournalException("Metric journal is not running");
+            }
+            if (active.buffer.capacity() - active.end < size) {
+                rotate(size);
+            }
+            segment = active;
+            offset = segment.end;
+            segment.buffer.put(offset + RECORD_HEADER_SIZE, payload);
+            segment.buffer.putInt(offset + Integer.BYTES, crc);
+            // The length goes in last: until then the record reads as the end of the segment.
+            segment.buffer.putInt(offset, payload.length);
+            segment.end = offset + size;
+            appended += size;
+            end = appended;
+        }
+        switch (fsync) {
+            case ALWAYS -> forceThrough(segment, offset + size);
+            case GROUP -> {
+                LockSupport.unpark(flusher);
+                awaitForced(end);
+            }
+            case NONE -> {}
+        }
+    }
+
+    /**
+     * Reads whole records after the last confirmed position until at least {@code maxEvents} events
+     * are read or no more are journaled; returns null when there is nothing new. Meant for a single
+     * reader.
+     */
+    Batch read(int maxEvents) {
+        Cursor cursor = confirmed;
+        if (cursor == null) {
+            throw new MetricJournalException("Metric journal is not running");
+        }
+        Segment segment = segments.get(cursor.segment());
+        if (segment == null) {
+            throw new MetricJournalException("Metric journal is not running");
+        }
+        int position = cursor.position();
+        while (segment.sealed && position >= segment.end) {
+            Segment next = next(segment);
+            if (next == null) {
+                break;
+            }
+            segment = next;
+            position = HEADER_SIZE;
+        }
+        List<MetricEventEntity> events = new ArrayList<>();
+        int end = segment.end;
+        while (position < end && events.size() < maxEvents) {
+            int length = segment.buffer.getInt(position);
+            events.addAll(decode(segment.buffer.slice(position + RECORD_HEADER_SIZE, length)));
+            position += RECORD_HEADER_SIZE + length;
+        }
+        Cursor next = new Cursor(segment.sequence, position);
+        return next.equals(cursor) ? null : new Batch(events, next);
+    }
+
+    /** Marks everything up to {@code end} as stored and deletes the segments before it. */
+    void confirm(Cursor end) {
+        Path checkpoint = directory.resolve(CHECKPOINT);
+        Path next = directory.resolve(CHECKPOINT + ".next");
+        ByteBuffer bytes =
+                ByteBuffer.allocate(CHECKPOINT_SIZE).putLong(end.segment()).putInt(end.position());
+        bytes.putInt(checksum(bytes.duplicate().flip()));
+        try (FileChannel channel =
+                FileChannel.open(
+                        next,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+            Files.move(next, checkpoint, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new MetricJournalException("Could not write metric journal checkpoint", e);
+        }
+        // As in create: the rename is only durable once the directory is.
+        forceDirectory();
+        confirmed = end;
+        for (Segment segment : segments.values()) {
+            if (segment.sequence >= end.segment()) {
+                break;
+            }
+            segments.remove(segment.sequence);
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                // Left for the next start, which deletes segments before the checkpoint.
+                log.warn("Could not delete drained metric journal segment {}", segment.path, e);
+            }
+        }
+    }
+
+    /** Journaled bytes after the last confirmed position. */
+    long pendingBytes() {
+        Cursor cursor = confirmed;
+        if (cursor == null) {
+            return 0;
+        }
+        long pending = 0;
+        for (Segment segment : segments.values()) {
+            if (segment.sequence >= cursor.segment()) {
+                int start = segment.sequence == cursor.segment() ? cursor.position() : HEADER_SIZE;
+                pending += Math.max(0, segment.end - start);
+            }
+        }
+        return pending;
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        lockChannel =
+                FileChannel.open(
+                        directory.resolve(LOCK),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new MetricJournalException(
+                    "Metric journal " + directory + " is in use by another process");
+        }
+        Cursor checkpoint = readCheckpoint();
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> sequenceOf(path.getFileName().toString()) >= 0).toList();
+        }
+        long events = 0;
+        for (Path path : files) {
+            long sequence = sequenceOf(path.getFileName().toString());
+            if (checkpoint != null && sequence < checkpoint.segment()) {
+                Files.delete(path);
+                continue;
+            }
+            Segment segment = recover(sequence, path);
+            int from =
+                    checkpoint != null && sequence == checkpoint.segment()
+                            ? checkpoint.position()
+                            : HEADER_SIZE;
+            events += countEvents(segment, from);
+            segments.put(sequence, segment);
+        }
+        long last = segments.isEmpty() ? 0 : segments.lastKey();
+        if (checkpoint != null) {
+            last = Math.max(last, checkpoint.segment());
+        }
+        active = create(last + 1, segmentBytes);
+        segments.put(active.sequence, active);
+        confirmed =
+                checkpoint != null && segments.containsKey(checkpoint.segment())
+                        ? checkpoint
+                        : new Cursor(segments.firstKey(), HEADER_SIZE);
+        if (events > 0) {
+            log.info(
+                    "Replaying {} unconfirmed metric events from {} journal segments",
+                    events,
+                    segments.size() - 1);
+        }
+    }
+
+    private Cursor readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (bytes.remaining() != CHECKPOINT_SIZE
+                || checksum(bytes.slice(0, CHECKPOINT_SIZE - Integer.BYTES))
+                        != bytes.getInt(CHECKPOINT_SIZE - Integer.BYTES)) {
+            throw new MetricJournalException("Corrupt metric journal checkpoint " + path);
+        }
+        return new Cursor(bytes.getLong(0), bytes.getInt(Long.BYTES));
+    }
+
+    /** Maps an existing segment read-only and finds the end of its last intact record. */
+    private Segment recover(long sequence, Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new MetricJournalException("Not a metric journal segment: " + path);
+        }
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0) {
+                break;
+            }
+            if (length > buffer.capacity() - position - RECORD_HEADER_SIZE
+                    || checksum(buffer.slice(position + RECORD_HEADER_SIZE, length))
+                            != buffer.getInt(position + Integer.BYTES)) {
+                log.warn(
+                        "Metric journal segment {} ends in a torn record at offset {}",
+                        path,
+                        position);
+                break;
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        Segment segment = new Segment(sequence, path, buffer, position);
+        segment.sealed = true;
+        return segment;
+    }
+
+    private static long countEvents(Segment segment, int from) {
+        long events = 0;
+        for (int position = from; position < segment.end; ) {
+            events += segment.buffer.getInt(position + RECORD_HEADER_SIZE);
+            position += RECORD_HEADER_SIZE + segment.buffer.getInt(position);
+        }
+        return events;
+    }
+
+    private Segment create(long sequence, int size) throws IOException {
+        Path path = directory.resolve(segmentName(sequence));
+        MappedByteBuffer buffer;
+        try (FileChannel channel =
+                FileChannel.open(
+                        path,
+                        StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.putInt(0, MAGIC).put(Integer.BYTES, VERSION);
+        buffer.force(0, HEADER_SIZE);
+        // The directory entry must be durable too, or a crash can lose the whole file.
+        forceDirectory();
+        return new Segment(sequence, path, buffer, HEADER_SIZE);
+    }
+
+    /** Forces the full segment and moves appends to a new one with room for {@code size}. */
+    private void rotate(int size) {
+        Segment full = active;
+        full.buffer.force();
+        full.sealed = true;
+        try {
+            long needed = (long) HEADER_SIZE + size;
+            active =
+                    create(
+                            full.sequence + 1,
+                            (int) Math.min(Integer.MAX_VALUE, Math.max(segmentBytes, needed)));
+        } catch (IOException e) {
+            throw new MetricJournalException("Could not start a new metric journal segment", e);
+        }
+        segments.put(active.sequence, active);
+    }
+
+    private Segment next(Segment segment) {
+        Map.Entry<Long, Segment> next = segments.higherEntry(segment.sequence);
+        return next == null ? null : next.getValue();
+    }
+
+    /**
+     * Forces {@code segment} from where the last force stopped through {@code end}, so an append is
+     * never acknowledged while an earlier one in the segment, on another page, is still unforced:
+     * recovery stops at the first missing record and would drop everything after it.
+     */
+    private static void forceThrough(Segment segment, int end) {
+        synchronized (segment) {
+            if (segment.forcedEnd < end) {
+                segment.buffer.force(segment.forcedEnd, end - segment.forcedEnd);
+                segment.forcedEnd = end;
+            }
+        }
+    }
+
+    private void forceDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform can open a directory; the file data itself is still forced.
+            log.debug("Could not force metric journal directory {}", directory, e);
+        }
+    }
+
+    private void awaitForced(long end) {
+        synchronized (forcedMonitor) {
+            while (forced < end) {
+                if (forceFailure != null) {
+                    throw new MetricJournalException(
+                            "Could not force metric journal to disk", forceFailure);
+                }
+                if (!running) {
+                    throw new MetricJournalException(
+                            "Metric journal stopped before the append was forced");
+                }
+                try {
+                    forcedMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MetricJournalException(
+                            "Interrupted waiting for the metric journal", e);
+                }
+            }
+        }
+    }
+
+    private void flushLoop() {
+        long intervalNanos = Math.max(1, fsyncInterval.toNanos());
+        while (running) {
+            LockSupport.parkNanos(intervalNanos);
+            Segment segment;
+            long target;
+            synchronized (appendLock) {
+                if (!running) {
+                    return;
+                }
+                segment = active;
+                target = appended;
+            }
+            if (target == forced) {
+                continue;
+            }
+            // Segments before the active one were forced when it replaced them.
+            try {
+                segment.buffer.force();
+                forceFailure = null;
+                synchronized (forcedMonitor) {
+                    forced = target;
+                    forcedMonitor.notifyAll();
+                }
+            } catch (UncheckedIOException e) {
+                // Fails the appends waiting now; the next round tries again.
+                log.error("Could not force metric journal segment {}", segment.path, e);
+                synchronized (forcedMonitor) {
+                    forceFailure = e.getCause();
+                    forcedMonitor.notifyAll();
+                }
+            }
+        }
+    }
+}
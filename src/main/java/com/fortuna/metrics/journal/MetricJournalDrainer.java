@@ -0,0 +1,110 @@
+package com.fortuna.metrics.journal;
+
+import com.fortuna.metrics.repository.MetricEventWriter;
+import com.fortuna.metrics.repository.MetricsRepository;
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import com.fortuna.metrics.service.MetricEventDeduplicator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves journaled metric events into the {@code metrics} table in batches of up to {@code
+ * drain-batch-size}, confirming each batch with the {@link MetricJournal} only after it is stored.
+ * The first run after a start picks up whatever a crash left unconfirmed.
+ *
+ * <p>A crash between storing a batch and confirming it drains that batch again. Events with a
+ * client event ID are then dropped as duplicates by the unique index; events without one are stored
+ * twice. An event the database rejects for good, such as one for a user deleted since, is logged
+ * and dropped so it cannot hold up the rest. Any other failure leaves the batch unconfirmed for the
+ * next run.
+ */
+@Slf4j
+@Component
+public class MetricJournalDrainer {
+
+    static final String METER_NAME = "fortuna.metrics.journal.rejected";
+
+    private final MetricJournal metricJournal;
+    private final MetricEventWriter metricEventWriter;
+    private final MetricsRepository metricsRepository;
+    private final MetricEventDeduplicator metricEventDeduplicator;
+    private final int batchSize;
+    private final Counter rejected;
+
+    @Autowired
+    public MetricJournalDrainer(
+            MetricJournal metricJournal,
+            MetricEventWriter metricEventWriter,
+            MetricsRepository metricsRepository,
+            MetricEventDeduplicator metricEventDeduplicator,
+            MeterRegistry meterRegistry,
+            @Value("${application.metrics.journal.drain-batch-size:500}") int batchSize) {
+        this.metricJournal = metricJournal;
+        this.metricEventWriter = metricEventWriter;
+        this.metricsRepository = metricsRepository;
+        this.metricEventDeduplicator = metricEventDeduplicator;
+        this.batchSize = Math.max(1, batchSize);
+        this.rejected =
+                Counter.builder(METER_NAME)
+                        .description("Journaled metric events the database rejected")
+                        .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${application.metrics.journal.drain-interval:200ms}")
+    public void drainOnSchedule() {
+        if (!metricJournal.isRunning()) {
+            return;
+        }
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.warn("Metric journal drain stopped; retrying on the next run", e);
+        }
+    }
+
+    /** Stores and confirms everything journaled so far; returns the events drained. */
+    public synchronized int drain() {
+        int drained = 0;
+        MetricJournal.Batch batch;
+        while ((batch = metricJournal.read(batchSize)) != null) {
+            if (!batch.events().isEmpty()) {
+                store(batch.events());
+            }
+            metricJournal.confirm(batch.end());
+            drained += batch.events().size();
+        }
+        return drained;
+    }
+
+    private void store(List<MetricEventEntity> events) {
+        try {
+            metricEventWriter.insertAll(events);
+        } catch (DataIntegrityViolationException e) {
+            log.warn(
+                    "Draining {} journaled metric events failed, retrying individually",
+                    events.size());
+            events.forEach(this::storeOne);
+        }
+    }
+
+    private void storeOne(MetricEventEntity event) {
+        try {
+            metricEventWriter.insert(event);
+        } catch (DataIntegrityViolationException e) {
+            String clientEventId = event.getClientEventId();
+            if (clientEventId != null && metricsRepository.existsByClientEventId(clientEventId)) {
+                metricEventDeduplicator.recordRejectedDuplicate(clientEventId);
+                return;
+            }
+            rejected.increment();
+            log.error("Dropping journaled {} event the database rejects", event.getEvent(), e);
+        }
+    }
+}
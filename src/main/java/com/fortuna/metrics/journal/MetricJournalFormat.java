@@ -0,0 +1,139 @@
+package com.fortuna.metrics.journal;
+
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Layout of a journal segment: a header, then records back to back until the first zero length.
+ *
+ * <pre>
+ * MAGIC VERSION padding
+ * record: length crc32c payload
+ * payload: count {event epochSecond nanos userId? clientEventId? metadata}*
+ * </pre>
+ *
+ * A record holds every event of one append, so a batch is journaled whole or not at all. Segments
+ * are mapped at full size up front and the file is zero-filled, so a zero length marks the end of
+ * what was written; a record whose length runs past the segment or whose checksum does not match
+ * was torn by a crash and ends the segment the same way. Strings are an int byte length, -1 for
+ * null, followed by UTF-8.
+ */
+final class MetricJournalFormat {
+
+    static final int MAGIC = 0x464d4a4e; // "FMJN"
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = Long.BYTES;
+    static final int RECORD_HEADER_SIZE = Integer.BYTES * 2;
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".journal";
+    static final String CHECKPOINT = "checkpoint";
+    static final String LOCK = "journal.lock";
+
+    /** Segment sequence and offset, then a checksum of both. */
+    static final int CHECKPOINT_SIZE = Long.BYTES + Integer.BYTES * 2;
+
+    private MetricJournalFormat() {}
+
+    static String segmentName(long sequence) {
+        return SEGMENT_PREFIX + String.format("%020d", sequence) + SEGMENT_SUFFIX;
+    }
+
+    /** The sequence of a segment file name, or -1 when it is not one. */
+    static long sequenceOf(String fileName) {
+        if (!fileName.startsWith(SEGMENT_PREFIX) || !fileName.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(
+                    fileName.substring(
+                            SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static byte[] encode(List<MetricEventEntity> events) {
+        List<byte[]> strings = new ArrayList<>(events.size() * 3);
+        int size = Integer.BYTES;
+        for (MetricEventEntity event : events) {
+            byte[] name = utf8(event.getEvent());
+            byte[] clientEventId = utf8(event.getClientEventId());
+            byte[] metadata = utf8(event.getMetadata());
+            strings.add(name);
+            strings.add(clientEventId);
+            strings.add(metadata);
+            size += Long.BYTES + Integer.BYTES + 1 + Long.BYTES;
+            size += stringSize(name) + stringSize(clientEventId) + stringSize(metadata);
+        }
+        ByteBuffer out = ByteBuffer.allocate(size).putInt(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            MetricEventEntity event = events.get(i);
+            putString(out, strings.get(i * 3));
+            Timestamp eventTime = event.getEventTime();
+            out.putLong(Math.floorDiv(eventTime.getTime(), 1000L)).putInt(eventTime.getNanos());
+            out.put((byte) (event.getUserId() == null ? 0 : 1));
+            out.putLong(event.getUserId() == null ? 0 : event.getUserId());
+            putString(out, strings.get(i * 3 + 1));
+            putString(out, strings.get(i * 3 + 2));
+        }
+        return out.array();
+    }
+
+    static List<MetricEventEntity> decode(ByteBuffer in) {
+        int count = in.getInt();
+        List<MetricEventEntity> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String event = getString(in);
+            Timestamp eventTime = new Timestamp(in.getLong() * 1000L);
+            eventTime.setNanos(in.getInt());
+            boolean hasUserId = in.get() != 0;
+            long userId = in.getLong();
+            events.add(
+                    MetricEventEntity.builder()
+                            .event(event)
+                            .eventTime(eventTime)
+                            .userId(hasUserId ? userId : null)
+                            .clientEventId(getString(in))
+                            .metadata(getString(in))
+                            .build());
+        }
+        return events;
+    }
+
+    static int checksum(ByteBuffer bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] bytes) {
+        return Integer.BYTES + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putString(ByteBuffer out, byte[] bytes) {
+        if (bytes == null) {
+            out.putInt(-1);
+        } else {
+            out.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,59 @@
+package com.fortuna.metrics.repository;
+
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import com.fortuna.tracing.Span;
+import com.fortuna.tracing.Tracing;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes metric events with plain JDBC: no persistence context, no dirty checking and no generated
+ * id round trip. The SQL text never changes, so pgjdbc switches each pooled connection to a
+ * server-side prepared statement after a few executions and keeps it in its statement cache. With
+ * {@code reWriteBatchedInserts} on the write pool, {@link #insertAll} goes out as multi-row inserts
+ * instead of one statement per event. Hibernate cannot batch these inserts at all, because the
+ * table uses IDENTITY ids.
+ */
+@AllArgsConstructor
+class JdbcMetricEventWriter implements MetricEventWriter {
+
+    static final String INSERT_SQL =
+            "INSERT INTO metrics (event, event_time, metadata, user_id, client_event_id)"
+                    + " VALUES (?, ?, CAST(? AS jsonb), ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insert(MetricEventEntity event) {
+        try (Span span = Tracing.span("jdbc.metrics.insert")) {
+            jdbcTemplate.update(INSERT_SQL, statement -> bind(statement, event));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(List<MetricEventEntity> events) {
+        try (Span span = Tracing.span("jdbc.metrics.insertAll")) {
+            jdbcTemplate.batchUpdate(
+                    INSERT_SQL, events, events.size(), JdbcMetricEventWriter::bind);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, MetricEventEntity event)
+            throws SQLException {
+        statement.setString(1, event.getEvent());
+        statement.setTimestamp(2, event.getEventTime());
+        statement.setString(3, event.getMetadata());
+        if (event.getUserId() == null) {
+            statement.setNull(4, Types.BIGINT);
+        } else {
+            statement.setLong(4, event.getUserId());
+        }
+        statement.setString(5, event.getClientEventId());
+    }
+}
@@ -0,0 +1,22 @@
+package com.fortuna.metrics.repository;
+
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import java.util.List;
+import lombok.AllArgsConstructor;
+
+/** Persists through Hibernate, as ingestion did before the JDBC writer existed. */
+@AllArgsConstructor
+class JpaMetricEventWriter implements MetricEventWriter {
+
+    private final MetricsRepository metricsRepository;
+
+    @Override
+    public void insert(MetricEventEntity event) {
+        metricsRepository.save(event);
+    }
+
+    @Override
+    public void insertAll(List<MetricEventEntity> events) {
+        metricsRepository.saveAll(events);
+    }
+}
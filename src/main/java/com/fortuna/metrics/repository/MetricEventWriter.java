@@ -0,0 +1,17 @@
+package com.fortuna.metrics.repository;
+
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import java.util.List;
+
+/**
+ * Insert-only persistence for metric events. Ingestion never reads an event back, so it does not
+ * need the entity lifecycle that {@link MetricsRepository#save} brings with it. The implementation
+ * is chosen by {@code application.metrics.writer} ({@code jdbc} or {@code jpa}).
+ */
+public interface MetricEventWriter {
+
+    void insert(MetricEventEntity event);
+
+    /** Inserts all events in one transaction: either every row is written or none is. */
+    void insertAll(List<MetricEventEntity> events);
+}
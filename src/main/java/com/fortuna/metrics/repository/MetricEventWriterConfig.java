@@ -0,0 +1,27 @@
+package com.fortuna.metrics.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Picks the writer at runtime rather than with {@code @ConditionalOnProperty}, which Spring AOT
+ * would freeze at build time for the fast-start launcher.
+ */
+@Configuration
+class MetricEventWriterConfig {
+
+    @Bean
+    MetricEventWriter metricEventWriter(
+            @Value("${application.metrics.writer:jdbc}") String writer,
+            MetricsRepository metricsRepository,
+            JdbcTemplate jdbcTemplate) {
+        return switch (writer) {
+            case "jdbc" -> new JdbcMetricEventWriter(jdbcTemplate);
+            case "jpa" -> new JpaMetricEventWriter(metricsRepository);
+            default -> throw new IllegalStateException(
+                    "Unknown application.metrics.writer '" + writer + "'; use jdbc or jpa");
+        };
+    }
+}
@@ -1,8 +1,42 @@
 package com.fortuna.metrics.repository;
 
 import com.fortuna.metrics.repository.model.MetricEventEntity;
+import java.sql.Timestamp;
+import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface MetricsRepository extends JpaRepository<MetricEventEntity, Long> {}
+public interface MetricsRepository
+        extends JpaRepository<MetricEventEntity, Long>, MetricsSearchRepository {
+
+    // Read-write so it runs on the primary: a replica may not have the row that just collided yet.
+    @Transactional
+    boolean existsByClientEventId(String clientEventId);
+
+    @Query("SELECT MIN(m.eventTime) FROM MetricEventEntity m WHERE m.eventTime < :before")
+    Timestamp findOldestEventTimeBefore(Timestamp before);
+
+    /**
+     * The next {@code limit} rows in {@code [from, to)} after ({@code afterTime}, {@code afterId}),
+     * ordered by event time and id. Built with {@code new}, so the rows are not managed and a
+     * caller paging through a day inside one transaction does not accumulate them.
+     */
+    @Query(
+            "SELECT new com.fortuna.metrics.repository.model.MetricEventEntity(m.id, m.event,"
+                    + " m.eventTime, m.metadata, m.userId, m.clientEventId, m.buttonId, m.page,"
+                    + " m.amount, m.currency) FROM MetricEventEntity m"
+                    + " WHERE m.eventTime >= :from AND m.eventTime < :to"
+                    + " AND (m.eventTime > :afterTime OR (m.eventTime = :afterTime AND m.id > :afterId))"
+                    + " ORDER BY m.eventTime, m.id")
+    List<MetricEventEntity> findPageByEventTimeRange(
+            Timestamp from, Timestamp to, Timestamp afterTime, long afterId, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM MetricEventEntity m WHERE m.eventTime >= :from AND m.eventTime < :to")
+    int deleteAllByEventTimeRange(Timestamp from, Timestamp to);
+}
@@ -0,0 +1,16 @@
+package com.fortuna.metrics.repository;
+
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import java.time.Instant;
+import java.util.List;
+
+public interface MetricsSearchRepository {
+
+    /**
+     * Finds the newest events whose metadata contains {@code metadataContainment} (a JSON object),
+     * optionally narrowed by event name and an event-time range. Null arguments are left out of the
+     * query rather than compared against, so every filter that is present stays sargable.
+     */
+    List<MetricEventEntity> searchByMetadata(
+            String metadataContainment, String event, Instant from, Instant to, int limit);
+}
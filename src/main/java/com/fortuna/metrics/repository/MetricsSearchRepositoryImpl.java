@@ -0,0 +1,47 @@
+package com.fortuna.metrics.repository;
+
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class MetricsSearchRepositoryImpl implements MetricsSearchRepository {
+
+    @PersistenceContext private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<MetricEventEntity> searchByMetadata(
+            String metadataContainment, String event, Instant from, Instant to, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM metrics WHERE TRUE");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (metadataContainment != null) {
+            // @> with a literal object is what idx_metrics_metadata (jsonb_path_ops) can answer.
+            sql.append(" AND metadata @> CAST(:metadata AS jsonb)");
+            parameters.put("metadata", metadataContainment);
+        }
+        if (event != null) {
+            sql.append(" AND event = :event");
+            parameters.put("event", event);
+        }
+        if (from != null) {
+            sql.append(" AND event_time >= :from");
+            parameters.put("from", Timestamp.from(from));
+        }
+        if (to != null) {
+            sql.append(" AND event_time < :to");
+            parameters.put("to", Timestamp.from(to));
+        }
+        sql.append(" ORDER BY event_time DESC LIMIT :limit");
+        parameters.put("limit", limit);
+
+        Query query = entityManager.createNativeQuery(sql.toString(), MetricEventEntity.class);
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+}
@@ -27,4 +27,20 @@ public class MetricEventEntity {
 
     @Column(nullable = true)
     private Long userId;
+
+    @Column(nullable = true)
+    private String clientEventId;
+
+    // Generated from metadata by the database; read-only so inserts never send them.
+    @Column(insertable = false, updatable = false)
+    private String buttonId;
+
+    @Column(insertable = false, updatable = false)
+    private String page;
+
+    @Column(insertable = false, updatable = false)
+    private Long amount;
+
+    @Column(insertable = false, updatable = false)
+    private String currency;
 }
@@ -0,0 +1,86 @@
+package com.fortuna.metrics.service;
+
+import com.fortuna.metrics.repository.MetricsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops metric events whose client event ID has already been stored. A rotating Bloom filter
+ * answers "definitely new" for the common case without touching the database; only possible hits
+ * are confirmed with an exact lookup against {@link MetricsRepository}.
+ */
+@Slf4j
+@Component
+public class MetricEventDeduplicator {
+
+    static final String METER_NAME = "fortuna.metrics.duplicates";
+
+    private final MetricsRepository metricsRepository;
+    private final RotatingBloomFilter seen;
+    private final Counter duplicates;
+    private final Counter falsePositives;
+
+    @Autowired
+    public MetricEventDeduplicator(
+            MetricsRepository metricsRepository,
+            MeterRegistry meterRegistry,
+            @Value("${application.metrics.dedup.expected-events-per-window:100000}")
+                    long expectedEventsPerWindow,
+            @Value("${application.metrics.dedup.false-positive-rate:0.01}")
+                    double falsePositiveRate,
+            @Value("${application.metrics.dedup.window:10m}") Duration window) {
+        this(
+                metricsRepository,
+                meterRegistry,
+                new RotatingBloomFilter(
+                        expectedEventsPerWindow, falsePositiveRate, window, Clock.systemUTC()));
+    }
+
+    MetricEventDeduplicator(
+            MetricsRepository metricsRepository,
+            MeterRegistry meterRegistry,
+            RotatingBloomFilter seen) {
+        this.metricsRepository = metricsRepository;
+        this.seen = seen;
+        this.duplicates =
+                Counter.builder(METER_NAME)
+                        .description("Metric events dropped as duplicates")
+                        .register(meterRegistry);
+        this.falsePositives =
+                Counter.builder(METER_NAME + ".false-positives")
+                        .description("Bloom filter hits that the exact lookup did not confirm")
+                        .register(meterRegistry);
+    }
+
+    /**
+     * Returns {@code true} when an event with this client event ID has already been recorded.
+     * Events without an ID are never treated as duplicates.
+     */
+    public boolean isDuplicate(String clientEventId) {
+        if (clientEventId == null || clientEventId.isBlank()) {
+            return false;
+        }
+        if (seen.mightContain(clientEventId)) {
+            if (metricsRepository.existsByClientEventId(clientEventId)) {
+                duplicates.increment();
+                log.debug("Dropping duplicate metric event {}", clientEventId);
+                return true;
+            }
+            falsePositives.increment();
+        }
+        seen.put(clientEventId);
+        return false;
+    }
+
+    /** Counts a duplicate that slipped past the filter and was rejected by the unique index. */
+    public void recordRejectedDuplicate(String clientEventId) {
+        duplicates.increment();
+        log.debug("Duplicate metric event {} rejected by the database", clientEventId);
+    }
+}
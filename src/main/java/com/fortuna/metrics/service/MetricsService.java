@@ -1,15 +1,35 @@
 package com.fortuna.metrics.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.jfr.MetricIngestionEvent;
+import com.fortuna.metrics.archive.MetricArchive;
 import com.fortuna.metrics.controller.model.MetricEventDTO;
+import com.fortuna.metrics.controller.model.MetricEventSearchResultDTO;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import com.fortuna.metrics.controller.model.metadata.JsonMetadata;
+import com.fortuna.metrics.controller.model.metadata.MetricMetadataSchemas;
 import com.fortuna.metrics.exception.MetricSerializationException;
+import com.fortuna.metrics.journal.MetricJournal;
+import com.fortuna.metrics.repository.MetricEventWriter;
 import com.fortuna.metrics.repository.MetricsRepository;
 import com.fortuna.metrics.repository.model.MetricEventEntity;
+import com.fortuna.metrics.stream.MetricStream;
+import com.fortuna.tracing.Span;
+import com.fortuna.tracing.Tracing;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Service
@@ -18,24 +38,188 @@ public class MetricsService {
 
     private final MetricsRepository metricsRepository;
     private final ObjectMapper objectMapper;
+    private final MetricEventDeduplicator metricEventDeduplicator;
+    private final MetricArchive metricArchive;
+    private final MetricEventWriter metricEventWriter;
+    private final MetricJournal metricJournal;
+    private final MetricStream metricStream;
 
     public void saveMetricEvent(MetricEventDTO metricEventDTO) {
-        MetricEventEntity metricEventEntity =
-                metricEventDTOToMetricEventEntityConversion(metricEventDTO);
-        metricsRepository.save(metricEventEntity);
+        try (Span span = Tracing.span("MetricsService#saveMetricEvent")) {
+            if (metricEventDeduplicator.isDuplicate(metricEventDTO.getClientEventId())) {
+                return;
+            }
+            saveAcceptedMetricEvent(metricEventDTO);
+        }
+    }
+
+    /**
+     * Persists a batch in a single insertAll. Duplicates within the batch or already stored are
+     * dropped first; if a concurrent writer wins a race on a client event ID the batch falls back
+     * to per-event saves so only the duplicate is lost. With the {@link MetricJournal} enabled the
+     * batch is journaled as one record instead, and the drainer settles such races. Stored events
+     * are published to the {@link MetricStream}.
+     */
+    public void saveMetricEvents(List<MetricEventDTO> metricEventDTOs) {
+        try (Span span = Tracing.span("MetricsService#saveMetricEvents")) {
+            MetricIngestionEvent ingestion = new MetricIngestionEvent();
+            ingestion.begin();
+            Set<String> batchClientEventIds = new HashSet<>();
+            List<MetricEventDTO> accepted = new ArrayList<>(metricEventDTOs.size());
+            List<MetricEventEntity> entities = new ArrayList<>(metricEventDTOs.size());
+            for (MetricEventDTO metricEventDTO : metricEventDTOs) {
+                String clientEventId = metricEventDTO.getClientEventId();
+                if (clientEventId != null && !batchClientEventIds.add(clientEventId)) {
+                    metricEventDeduplicator.recordRejectedDuplicate(clientEventId);
+                    continue;
+                }
+                if (metricEventDeduplicator.isDuplicate(clientEventId)) {
+                    continue;
+                }
+                accepted.add(metricEventDTO);
+                long serializeStart = System.nanoTime();
+                entities.add(metricEventDTOToMetricEventEntityConversion(metricEventDTO));
+                ingestion.serializeDuration += System.nanoTime() - serializeStart;
+            }
+            if (entities.isEmpty()) {
+                return;
+            }
+            long persistStart = System.nanoTime();
+            try {
+                if (metricJournal.isEnabled()) {
+                    metricJournal.append(entities);
+                } else {
+                    metricEventWriter.insertAll(entities);
+                }
+                metricStream.publish(entities);
+            } catch (DataIntegrityViolationException e) {
+                log.warn(
+                        "Batch insert of {} metric events failed, retrying individually",
+                        entities.size());
+                // Each save records its own ingestion event for the row it stores, if any.
+                accepted.forEach(this::saveAcceptedMetricEvent);
+                return;
+            }
+            ingestion.persistDuration = System.nanoTime() - persistStart;
+            commit(ingestion, entities);
+        }
+    }
+
+    /**
+     * Searches by metadata containment. With an event type the filters are bound through its schema
+     * first, so aliases map to canonical keys and typed values (e.g. amount) match as numbers
+     * rather than strings. When the table has fewer matches than {@code limit}, the rest come from
+     * the {@link MetricArchive}, if the range starts before its horizon. Runs read-only, so it is
+     * served by the read pool.
+     */
+    @Transactional(readOnly = true)
+    public List<MetricEventSearchResultDTO> searchByMetadata(
+            MetricEventType event,
+            Map<String, String> metadataFilters,
+            Instant from,
+            Instant to,
+            int limit) {
+        String containment = null;
+        if (!metadataFilters.isEmpty()) {
+            Map<String, Object> filters = new LinkedHashMap<>(metadataFilters);
+            try {
+                containment =
+                        objectMapper.writeValueAsString(
+                                event == null
+                                        ? filters
+                                        : MetricMetadataSchemas.normalize(event, filters));
+            } catch (JsonProcessingException e) {
+                throw new MetricSerializationException(e);
+            }
+        }
+        String eventName = event == null ? null : event.name();
+        List<MetricEventEntity> results =
+                new ArrayList<>(
+                        metricsRepository.searchByMetadata(
+                                containment, eventName, from, to, limit));
+        if (results.size() < limit && metricArchive.covers(from)) {
+            // Archived days are older than anything left in the table, so they only ever extend
+            // the tail. A day whose archival rolled back can briefly be in both; skip those ids.
+            Set<Long> ids = new HashSet<>();
+            results.forEach(entity -> ids.add(entity.getId()));
+            metricArchive.search(containment, eventName, from, to, limit - results.size()).stream()
+                    .filter(entity -> ids.add(entity.getId()))
+                    .forEach(results::add);
+        }
+        return results.stream()
+                .map(
+                        entity ->
+                                MetricEventSearchResultDTO.builder()
+                                        .id(entity.getId())
+                                        .event(entity.getEvent())
+                                        .eventTime(entity.getEventTime().toInstant())
+                                        .metadata(entity.getMetadata())
+                                        .userId(entity.getUserId())
+                                        .build())
+                .toList();
+    }
+
+    private void saveAcceptedMetricEvent(MetricEventDTO metricEventDTO) {
+        MetricIngestionEvent ingestion = new MetricIngestionEvent();
+        ingestion.begin();
+        long serializeStart = System.nanoTime();
+        MetricEventEntity entity = metricEventDTOToMetricEventEntityConversion(metricEventDTO);
+        long persistStart = System.nanoTime();
+        ingestion.serializeDuration = persistStart - serializeStart;
+        try {
+            if (metricJournal.isEnabled()) {
+                metricJournal.append(List.of(entity));
+            } else {
+                metricEventWriter.insert(entity);
+            }
+        } catch (DataIntegrityViolationException e) {
+            String clientEventId = metricEventDTO.getClientEventId();
+            if (clientEventId == null || !metricsRepository.existsByClientEventId(clientEventId)) {
+                throw e;
+            }
+            metricEventDeduplicator.recordRejectedDuplicate(clientEventId);
+            return;
+        }
+        ingestion.persistDuration = System.nanoTime() - persistStart;
+        metricStream.publish(List.of(entity));
+        commit(ingestion, List.of(entity));
+    }
+
+    /** Commits the JFR event for stored rows, when a recording wants it. */
+    private static void commit(MetricIngestionEvent ingestion, List<MetricEventEntity> entities) {
+        ingestion.end();
+        if (!ingestion.shouldCommit()) {
+            return;
+        }
+        String eventType = entities.get(0).getEvent();
+        for (MetricEventEntity entity : entities) {
+            if (!eventType.equals(entity.getEvent())) {
+                eventType = "MIXED";
+            }
+            ingestion.metadataSize += MetricIngestionEvent.utf8Length(entity.getMetadata());
+        }
+        ingestion.eventType = eventType;
+        ingestion.events = entities.size();
+        ingestion.commit();
     }
 
     private MetricEventEntity metricEventDTOToMetricEventEntityConversion(
             MetricEventDTO metricEventDTO) {
         try {
+            Map<String, Object> metadata = metricEventDTO.getEventMetadata();
             String jsonMetadata =
-                    objectMapper.writeValueAsString(metricEventDTO.getEventMetadata());
+                    metadata instanceof JsonMetadata json
+                            ? MetricMetadataSchemas.normalize(metricEventDTO.getEvent(), json)
+                            : objectMapper.writeValueAsString(
+                                    MetricMetadataSchemas.normalize(
+                                            metricEventDTO.getEvent(), metadata));
 
             return MetricEventEntity.builder()
                     .event(metricEventDTO.getEvent().name())
                     .eventTime(Timestamp.from(Instant.now()))
                     .metadata(jsonMetadata)
                     .userId(metricEventDTO.getUserId())
+                    .clientEventId(metricEventDTO.getClientEventId())
                     .build();
         } catch (Exception e) {
             throw new MetricSerializationException(e);
@@ -0,0 +1,138 @@
+package com.fortuna.metrics.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time-windowed Bloom filter made of two generations. Keys are added to the current generation and
+ * looked up in both; when the window elapses the current generation becomes the previous one and
+ * the oldest is dropped, so a key is remembered for at least one and at most two windows. Memory is
+ * fixed at construction: two bit arrays sized for {@code expectedInsertions} per window at the
+ * requested false-positive rate.
+ */
+final class RotatingBloomFilter {
+
+    private final int bitCount;
+    private final int hashCount;
+    private final long windowMillis;
+    private final Clock clock;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    RotatingBloomFilter(
+            long expectedInsertions, double falsePositiveRate, Duration window, Clock clock) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        if (window.isZero() || window.isNegative()) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        long bits =
+                (long)
+                        Math.ceil(
+                                -expectedInsertions
+                                        * Math.log(falsePositiveRate)
+                                        / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Math.max(bits, Long.SIZE), Integer.MAX_VALUE - Long.SIZE);
+        this.hashCount =
+                Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+        long now = clock.millis();
+        this.current = new Generation(bitCount, now);
+        this.previous = new Generation(bitCount, now);
+    }
+
+    boolean mightContain(String key) {
+        rotateIfExpired();
+        long hash = hash(key);
+        return current.mightContain(hash) || previous.mightContain(hash);
+    }
+
+    void put(String key) {
+        rotateIfExpired();
+        current.put(hash(key));
+    }
+
+    int bitCount() {
+        return bitCount;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    private void rotateIfExpired() {
+        long now = clock.millis();
+        if (now - current.createdAt < windowMillis) {
+            return;
+        }
+        synchronized (this) {
+            if (now - current.createdAt < windowMillis) {
+                return;
+            }
+            previous = current;
+            current = new Generation(bitCount, now);
+        }
+    }
+
+    /** 64-bit FNV-1a over the UTF-8 bytes, finished with a murmur3 avalanche step. */
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private final class Generation {
+        private final AtomicLongArray words;
+        private final long createdAt;
+
+        private Generation(int bits, long createdAt) {
+            this.words = new AtomicLongArray((bits + Long.SIZE - 1) / Long.SIZE);
+            this.createdAt = createdAt;
+        }
+
+        private boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+                long mask = 1L << bit;
+                int index = bit >>> 6;
+                long word;
+                do {
+                    word = words.get(index);
+                    if ((word & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(index, word, word | mask));
+            }
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.fortuna.metrics.stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Live feed of stored metric events for {@code GET /api/metrics/stream}, fed by {@code
+ * MetricsService} as it stores events rather than by polling the table.
+ *
+ * <p>Ingestion only bumps a per-type counter and, while someone wants raw events, queues the event
+ * for fan-out; a full fan-out queue drops the event from the raw feed rather than slow ingestion
+ * down. One dispatcher thread does the rest. Every {@code tick} it turns the counters into one
+ * {@code counts} frame, and it turns each queued event into one {@code event} frame; each frame is
+ * serialized once and the same bytes are queued to every subscriber it is for. A subscriber whose
+ * queue is full has stopped keeping up and is disconnected; its client can reconnect and pick up
+ * from the next tick.
+ *
+ * <p>Publishes {@code fortuna.metrics.stream.subscribers}, {@code .evicted} and {@code .dropped}.
+ */
+@Slf4j
+@Component
+public class MetricStream implements SmartLifecycle {
+
+    static final String METER_NAME = "fortuna.metrics.stream";
+
+    /** Sent first, so browsers reconnect after a second instead of their default three. */
+    private static final byte[] OPENING_FRAME = "retry: 1000\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+    private final int queueSize;
+    private final int maxSubscribers;
+    private final Duration tick;
+    private final Clock clock;
+    private final Map<String, LongAdder> counts = new LinkedHashMap<>();
+    private final Set<MetricStreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger rawSubscribers = new AtomicInteger();
+    private final BlockingQueue<MetricEventEntity> pending;
+    private final Counter evicted;
+    private final Counter dropped;
+    private volatile Thread dispatcher;
+
+    @Autowired
+    public MetricStream(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${application.metrics.stream.queue-size:64}") int queueSize,
+            @Value("${application.metrics.stream.max-subscribers:500}") int maxSubscribers,
+            @Value("${application.metrics.stream.raw-buffer:10000}") int rawBuffer,
+            @Value("${application.metrics.stream.tick:1s}") Duration tick) {
+        this(
+                objectMapper,
+                meterRegistry,
+                queueSize,
+                maxSubscribers,
+                rawBuffer,
+                tick,
+                Clock.systemUTC());
+    }
+
+    MetricStream(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            int queueSize,
+            int maxSubscribers,
+            int rawBuffer,
+            Duration tick,
+            Clock clock) {
+        this.objectMapper = objectMapper;
+        this.queueSize = Math.max(2, queueSize);
+        this.maxSubscribers = maxSubscribers;
+        this.tick = tick;
+        this.clock = clock;
+        this.pending = new ArrayBlockingQueue<>(Math.max(1, rawBuffer));
+        for (MetricEventType type : MetricEventType.values()) {
+            counts.put(type.name(), new LongAdder());
+        }
+        Gauge.builder(METER_NAME + ".subscribers", subscribers, Set::size)
+                .description("Open metric stream connections")
+                .register(meterRegistry);
+        this.evicted =
+                Counter.builder(METER_NAME + ".evicted")
+                        .description("Metric stream subscribers dropped for falling behind")
+                        .register(meterRegistry);
+        this.dropped =
+                Counter.builder(METER_NAME + ".dropped")
+                        .description("Events left out of the raw metric stream to spare ingestion")
+                        .register(meterRegistry);
+    }
+
+    /** Counts stored events and queues them for raw subscribers; never blocks. */
+    public void publish(List<MetricEventEntity> events) {
+        boolean raw = rawSubscribers.get() > 0;
+        for (MetricEventEntity event : events) {
+            LongAdder count = counts.get(event.getEvent());
+            if (count != null) {
+                count.increment();
+            }
+            if (raw && !pending.offer(event)) {
+                dropped.increment();
+            }
+        }
+    }
+
+    /**
+     * Starts streaming to {@code asyncContext}'s response, which must be in async mode with its
+     * headers set; returns false without touching it when the stream is full or stopped.
+     */
+    public boolean subscribe(AsyncContext asyncContext, MetricStreamFilter filter)
+            throws IOException {
+        if (dispatcher == null || subscribers.size() >= maxSubscribers) {
+            return false;
+        }
+        MetricStreamSubscriber subscriber =
+                new MetricStreamSubscriber(
+                        asyncContext,
+                        asyncContext.getResponse().getOutputStream(),
+                        filter,
+                        queueSize,
+                        this::remove);
+        subscribers.add(subscriber);
+        if (filter.raw()) {
+            rawSubscribers.incrementAndGet();
+        }
+        try {
+            asyncContext.addListener(subscriber);
+            subscriber.offer(OPENING_FRAME);
+            asyncContext.getResponse().getOutputStream().setWriteListener(subscriber);
+        } catch (IOException | RuntimeException e) {
+            subscriber.close();
+            throw e;
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (dispatcher != null) {
+            return;
+        }
+        Thread thread = new Thread(this::dispatch, "metrics-stream");
+        thread.setDaemon(true);
+        dispatcher = thread;
+        thread.start();
+    }
+
+    /** Stops before the web server, so open streams do not hold up its graceful shutdown. */
+    @Override
+    public synchronized void stop() {
+        Thread thread = dispatcher;
+        if (thread == null) {
+            return;
+        }
+        dispatcher = null;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List.copyOf(subscribers).forEach(MetricStreamSubscriber::close);
+        pending.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return dispatcher != null;
+    }
+
+    private void dispatch() {
+        long tickNanos = tick.toNanos();
+        long nextTick = System.nanoTime() + tickNanos;
+        List<MetricEventEntity> batch = new ArrayList<>();
+        while (dispatcher == Thread.currentThread()) {
+            try {
+                long wait = nextTick - System.nanoTime();
+                if (wait <= 0) {
+                    tick(clock.instant());
+                    // After a stall, resume on the regular schedule rather than catch up.
+                    nextTick = Math.max(nextTick + tickNanos, System.nanoTime());
+                    continue;
+                }
+                MetricEventEntity event = pending.poll(wait, TimeUnit.NANOSECONDS);
+                if (event == null) {
+                    continue;
+                }
+                batch.add(event);
+                pending.drainTo(batch, 255);
+                batch.forEach(this::fanOut);
+                batch.clear();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Metric stream dispatch failed", e);
+                batch.clear();
+            }
+        }
+    }
+
+    /** Sends the counts since the last tick to every subscriber, as one shared frame. */
+    void tick(Instant now) {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<String, LongAdder> count : counts.entrySet()) {
+            long value = count.getValue().sumThenReset();
+            snapshot.put(count.getKey(), value);
+            total += value;
+        }
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("time", now.truncatedTo(ChronoUnit.MILLIS).toString());
+        body.put("total", total);
+        body.put("counts", snapshot);
+        byte[] frame;
+        try {
+            frame = frame("counts", objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (MetricStreamSubscriber subscriber : subscribers) {
+            send(subscriber, frame);
+        }
+    }
+
+    /** Sends one event to the raw subscribers whose filter it matches, serialized once. */
+    void fanOut(MetricEventEntity event) {
+        byte[] frame = null;
+        Map<String, Object> metadata = null;
+        boolean parsed = false;
+        for (MetricStreamSubscriber subscriber : subscribers) {
+            MetricStreamFilter filter = subscriber.filter();
+            if (!filter.raw() || !filter.matchesEvent(event.getEvent())) {
+                continue;
+            }
+            if (filter.filtersMetadata()) {
+                if (!parsed) {
+                    metadata = parseMetadata(event.getMetadata());
+                    parsed = true;
+                }
+                if (!filter.matchesMetadata(metadata)) {
+                    continue;
+                }
+            }
+            if (frame == null) {
+                frame = eventFrame(event);
+            }
+            send(subscriber, frame);
+        }
+    }
+
+    private void send(MetricStreamSubscriber subscriber, byte[] frame) {
+        if (!subscriber.offer(frame)) {
+            evicted.increment();
+            log.debug("Dropping metric stream subscriber {} frames behind", queueSize);
+            subscriber.close();
+        }
+    }
+
+    private void remove(MetricStreamSubscriber subscriber) {
+        if (subscribers.remove(subscriber) && subscriber.filter().raw()) {
+            rawSubscribers.decrementAndGet();
+        }
+    }
+
+    private Map<String, Object> parseMetadata(String json) {
+        try {
+            return json == null ? null : objectMapper.readValue(json, MAP_TYPE);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private byte[] eventFrame(MetricEventEntity event) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream(256);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(data)) {
+            json.writeStartObject();
+            json.writeStringField("event", event.getEvent());
+            json.writeStringField("eventTime", event.getEventTime().toInstant().toString());
+            if (event.getUserId() != null) {
+                json.writeNumberField("userId", event.getUserId());
+            }
+            json.writeFieldName("metadata");
+            // Stored metadata is already JSON. Line breaks can only be whitespace between its
+            // tokens, and the event stream format would read them as the end of the data line.
+            json.writeRawValue(
+                    event.getMetadata() == null
+                            ? "null"
+                            : event.getMetadata().replace('\n', ' ').replace('\r', ' '));
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return frame("event", data.toByteArray());
+    }
+
+    private static byte[] frame(String name, byte[] data) {
+        byte[] prefix = ("event: " + name + "\ndata: ").getBytes(StandardCharsets.UTF_8);
+        byte[] frame = new byte[prefix.length + data.length + 2];
+        System.arraycopy(prefix, 0, frame, 0, prefix.length);
+        System.arraycopy(data, 0, frame, prefix.length, data.length);
+        frame[frame.length - 2] = '\n';
+        frame[frame.length - 1] = '\n';
+        return frame;
+    }
+}
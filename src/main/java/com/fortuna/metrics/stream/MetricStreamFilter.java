@@ -0,0 +1,52 @@
+package com.fortuna.metrics.stream;
+
+import com.fortuna.metrics.controller.model.MetricEventType;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * What a stream subscriber asked for. Every subscriber gets the per-second counts; with {@code raw}
+ * it also gets each stored event whose type is in {@code events} (any type when empty) and whose
+ * metadata has every entry of {@code metadata}, values compared as text.
+ */
+public record MetricStreamFilter(
+        boolean raw, Set<MetricEventType> events, Map<String, Object> metadata) {
+
+    public static final MetricStreamFilter COUNTS_ONLY =
+            new MetricStreamFilter(false, Set.of(), Map.of());
+
+    public MetricStreamFilter {
+        events = Set.copyOf(events);
+        metadata = Map.copyOf(metadata);
+    }
+
+    boolean matchesEvent(String event) {
+        if (events.isEmpty()) {
+            return true;
+        }
+        for (MetricEventType type : events) {
+            if (type.name().equals(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean filtersMetadata() {
+        return !metadata.isEmpty();
+    }
+
+    boolean matchesMetadata(Map<String, Object> eventMetadata) {
+        if (eventMetadata == null) {
+            return false;
+        }
+        for (Map.Entry<String, Object> filter : metadata.entrySet()) {
+            Object value = eventMetadata.get(filter.getKey());
+            if (value == null || !Objects.toString(value).equals(filter.getValue().toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
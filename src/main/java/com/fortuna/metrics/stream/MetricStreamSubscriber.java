@@ -0,0 +1,146 @@
+package com.fortuna.metrics.stream;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * One open {@code text/event-stream} response. Frames are queued, up to {@code queueSize}, and
+ * written with Servlet non-blocking I/O: whichever thread queues a frame, or the container when the
+ * socket drains, writes for as long as the socket takes data, then leaves the rest queued. No
+ * thread ever waits on a slow client, so a client that stops reading only fills its own queue, and
+ * {@link #offer} reports that so the stream can drop it.
+ *
+ * <p>At most one thread writes at a time: a caller that finds another one writing bumps {@code wip}
+ * and leaves, and the writer goes round again before it stops. Nothing is written before the
+ * container's first {@link #onWritePossible}, which comes after the request that opened the stream
+ * has returned.
+ */
+final class MetricStreamSubscriber implements WriteListener, AsyncListener {
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream out;
+    private final MetricStreamFilter filter;
+    private final ArrayBlockingQueue<byte[]> queue;
+    private final Consumer<MetricStreamSubscriber> onClose;
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean writable;
+    private boolean unflushed;
+
+    MetricStreamSubscriber(
+            AsyncContext asyncContext,
+            ServletOutputStream out,
+            MetricStreamFilter filter,
+            int queueSize,
+            Consumer<MetricStreamSubscriber> onClose) {
+        this.asyncContext = asyncContext;
+        this.out = out;
+        this.filter = filter;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.onClose = onClose;
+    }
+
+    MetricStreamFilter filter() {
+        return filter;
+    }
+
+    /** Queues a frame and writes what the socket takes; false when the queue is full. */
+    boolean offer(byte[] frame) {
+        if (closed.get()) {
+            return true;
+        }
+        if (!queue.offer(frame)) {
+            return false;
+        }
+        drain();
+        return true;
+    }
+
+    /** Ends the response, once; safe from any thread. */
+    void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        onClose.accept(this);
+        queue.clear();
+        try {
+            asyncContext.complete();
+        } catch (IllegalStateException e) {
+            // Already completed by the container, after an error or timeout.
+        }
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public void onWritePossible() {
+        writable = true;
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        close();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {}
+
+    private void drain() {
+        if (!writable || wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            try {
+                write();
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the container may or may not report it as well.
+                close();
+                return;
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /** Writes queued frames while the socket is ready, flushing once the queue is empty. */
+    private void write() throws IOException {
+        while (!closed.get() && out.isReady()) {
+            byte[] frame = queue.poll();
+            if (frame != null) {
+                out.write(frame);
+                unflushed = true;
+            } else if (unflushed) {
+                unflushed = false;
+                out.flush();
+            } else {
+                return;
+            }
+        }
+    }
+}
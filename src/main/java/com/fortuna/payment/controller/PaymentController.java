@@ -4,6 +4,7 @@ import com.fortuna.config.stripe.StripeConfig;
 import com.fortuna.payment.controller.model.PaymentIntentRequestDTO;
 import com.fortuna.payment.controller.model.PaymentIntentResponseDTO;
 import com.fortuna.payment.service.PaymentService;
+import com.fortuna.web.cache.RepresentationCache;
 import jakarta.validation.Valid;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
@@ -16,8 +17,11 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "${cors.allowed-origins:http://localhost:3000}")
 public class PaymentController {
 
+    static final String PUBLISHABLE_KEY_REPRESENTATION = "payments-config";
+
     private final PaymentService paymentService;
     private final StripeConfig stripeConfig;
+    private final RepresentationCache representationCache;
 
     @PostMapping("/create-payment-intent")
     public ResponseEntity<PaymentIntentResponseDTO> createPaymentIntent(
@@ -27,8 +31,10 @@ public class PaymentController {
     }
 
     @GetMapping("/config")
-    public ResponseEntity<Map<String, String>> getPublishableKey() {
-        return ResponseEntity.ok(Map.of("publishableKey", stripeConfig.getPublishableKey()));
+    public ResponseEntity<byte[]> getPublishableKey() {
+        return representationCache.respond(
+                PUBLISHABLE_KEY_REPRESENTATION,
+                () -> Map.of("publishableKey", stripeConfig.getPublishableKey()));
     }
 
     @GetMapping("/verify/{paymentIntentId}")
@@ -0,0 +1,92 @@
+package com.fortuna.payment.repository;
+
+import com.fortuna.tracing.Span;
+import com.fortuna.tracing.Tracing;
+import com.stripe.model.PaymentIntent;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Upserts PaymentIntents into the {@code payments} ledger with JDBC batches, and stores the
+ * reconciliation checkpoint. Re-reading an intent that has not changed leaves its row untouched, so
+ * the overlapping windows reconciliation re-lists do not churn the table.
+ */
+@Repository
+@AllArgsConstructor
+public class PaymentLedgerWriter {
+
+    static final String UPSERT_SQL =
+            "INSERT INTO payments (id, amount, amount_received, currency, status, receipt_email,"
+                    + " order_id, user_id, stripe_created_at, reconciled_at)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)"
+                    + " ON CONFLICT (id) DO UPDATE SET amount = EXCLUDED.amount,"
+                    + " amount_received = EXCLUDED.amount_received, status = EXCLUDED.status,"
+                    + " receipt_email = EXCLUDED.receipt_email, order_id = EXCLUDED.order_id,"
+                    + " user_id = EXCLUDED.user_id, reconciled_at = EXCLUDED.reconciled_at"
+                    + " WHERE payments.status IS DISTINCT FROM EXCLUDED.status"
+                    + " OR payments.amount IS DISTINCT FROM EXCLUDED.amount"
+                    + " OR payments.amount_received IS DISTINCT FROM EXCLUDED.amount_received";
+
+    static final String SAVE_CHECKPOINT_SQL =
+            "INSERT INTO payment_reconciliation_checkpoints (name, created_to) VALUES (?, ?)"
+                    + " ON CONFLICT (name) DO UPDATE SET created_to = GREATEST("
+                    + "payment_reconciliation_checkpoints.created_to, EXCLUDED.created_to),"
+                    + " updated_at = CURRENT_TIMESTAMP";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void upsertAll(List<PaymentIntent> intents) {
+        try (Span span = Tracing.span("jdbc.payments.upsert")) {
+            jdbcTemplate.batchUpdate(
+                    UPSERT_SQL, intents, intents.size(), PaymentLedgerWriter::bind);
+        }
+    }
+
+    /** The end of the last reconciled window, or null before the first run. */
+    // Read-write so it runs on the primary: a lagging replica would replay finished windows.
+    @Transactional
+    public Instant findCheckpoint(String name) {
+        return jdbcTemplate
+                .query(
+                        "SELECT created_to FROM payment_reconciliation_checkpoints WHERE name = ?",
+                        (rs, row) -> rs.getTimestamp(1).toInstant(),
+                        name)
+                .stream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    public void saveCheckpoint(String name, Instant createdTo) {
+        jdbcTemplate.update(SAVE_CHECKPOINT_SQL, name, Timestamp.from(createdTo));
+    }
+
+    private static void bind(PreparedStatement statement, PaymentIntent intent)
+            throws SQLException {
+        Map<String, String> metadata =
+                intent.getMetadata() == null ? Map.of() : intent.getMetadata();
+        statement.setString(1, intent.getId());
+        // Nulls reach the NOT NULL constraints as a DataAccessException rather than an NPE here.
+        statement.setObject(2, intent.getAmount(), Types.BIGINT);
+        statement.setLong(3, intent.getAmountReceived() == null ? 0 : intent.getAmountReceived());
+        statement.setString(4, intent.getCurrency());
+        statement.setString(5, intent.getStatus());
+        statement.setString(6, intent.getReceiptEmail());
+        statement.setString(7, metadata.get("orderId"));
+        statement.setString(8, metadata.get("userId"));
+        statement.setTimestamp(
+                9,
+                intent.getCreated() == null
+                        ? null
+                        : Timestamp.from(Instant.ofEpochSecond(intent.getCreated())));
+    }
+}
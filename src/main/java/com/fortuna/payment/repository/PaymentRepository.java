@@ -0,0 +1,20 @@
+package com.fortuna.payment.repository;
+
+import com.fortuna.payment.repository.model.PaymentEntity;
+import com.fortuna.payment.repository.model.PaymentSummary;
+import java.sql.Timestamp;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PaymentRepository extends JpaRepository<PaymentEntity, String> {
+
+    @Query(
+            "SELECT p.status AS status, p.currency AS currency, COUNT(p) AS count,"
+                    + " SUM(p.amount) AS amount, SUM(p.amountReceived) AS amountReceived"
+                    + " FROM PaymentEntity p WHERE p.createdAt >= :from AND p.createdAt < :to"
+                    + " GROUP BY p.status, p.currency ORDER BY p.status, p.currency")
+    List<PaymentSummary> summarize(Timestamp from, Timestamp to);
+}
@@ -0,0 +1,38 @@
+package com.fortuna.payment.repository.model;
+
+import jakarta.persistence.*;
+import java.sql.Timestamp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** A PaymentIntent as last seen from Stripe; rows are written by {@code PaymentLedgerWriter}. */
+@Builder
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Table(name = "payments")
+public class PaymentEntity {
+    @Id String id;
+
+    Long amount;
+    Long amountReceived;
+    String currency;
+    String status;
+
+    @Column(nullable = true)
+    private String receiptEmail;
+
+    @Column(nullable = true)
+    private String orderId;
+
+    @Column(nullable = true)
+    private String userId;
+
+    @Column(name = "stripe_created_at")
+    private Timestamp createdAt;
+
+    private Timestamp reconciledAt;
+}
@@ -0,0 +1,14 @@
+package com.fortuna.payment.repository.model;
+
+/** Payments created in a period, grouped by status and currency. */
+public interface PaymentSummary {
+    String getStatus();
+
+    String getCurrency();
+
+    long getCount();
+
+    long getAmount();
+
+    long getAmountReceived();
+}
@@ -0,0 +1,139 @@
+package com.fortuna.payment.service;
+
+import com.fortuna.payment.exception.PaymentException;
+import com.fortuna.payment.repository.PaymentLedgerWriter;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.param.PaymentIntentListParams;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copies Stripe PaymentIntents into the local {@code payments} ledger. Each run walks {@code
+ * created} forward in windows of {@code window} from the checkpoint to now, streams each window
+ * with auto-pagination and upserts it {@value #PAGE_SIZE} intents at a time, so memory stays at one
+ * page however much history there is. The checkpoint moves to the end of a window once the whole
+ * window is stored; a failed run resumes from the last completed window.
+ *
+ * <p>Intents change status after they are created, so each run starts {@code lookback} before the
+ * checkpoint to pick up intents that have since succeeded or failed. The first run starts {@code
+ * initial-history} back. Enable it on a single instance only; instances do not coordinate.
+ */
+@Slf4j
+@Component
+public class PaymentReconciler {
+
+    static final String CHECKPOINT = "payment_intents";
+    static final int PAGE_SIZE = 100;
+
+    private final PaymentLedgerWriter paymentLedgerWriter;
+    private final boolean enabled;
+    private final Duration window;
+    private final Duration lookback;
+    private final Duration initialHistory;
+    private final Clock clock;
+
+    @Autowired
+    public PaymentReconciler(
+            PaymentLedgerWriter paymentLedgerWriter,
+            @Value("${application.payments.reconciliation.enabled:false}") boolean enabled,
+            @Value("${application.payments.reconciliation.window:1d}") Duration window,
+            @Value("${application.payments.reconciliation.lookback:3d}") Duration lookback,
+            @Value("${application.payments.reconciliation.initial-history:90d}")
+                    Duration initialHistory) {
+        this(paymentLedgerWriter, enabled, window, lookback, initialHistory, Clock.systemUTC());
+    }
+
+    PaymentReconciler(
+            PaymentLedgerWriter paymentLedgerWriter,
+            boolean enabled,
+            Duration window,
+            Duration lookback,
+            Duration initialHistory,
+            Clock clock) {
+        this.paymentLedgerWriter = paymentLedgerWriter;
+        this.enabled = enabled;
+        this.window = window;
+        this.lookback = lookback;
+        this.initialHistory = initialHistory;
+        this.clock = clock;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${application.payments.reconciliation.interval:15m}",
+            initialDelayString = "${application.payments.reconciliation.initial-delay:1m}")
+    public void reconcileOnSchedule() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int reconciled = reconcile();
+            log.info("Reconciled {} payment intents", reconciled);
+        } catch (RuntimeException e) {
+            // Auto-pagination reports Stripe failures on later pages as unchecked exceptions.
+            log.error("Payment reconciliation stopped", e);
+        }
+    }
+
+    /** Reconciles from the checkpoint up to now; returns the intents read from Stripe. */
+    public int reconcile() {
+        Instant now = clock.instant().truncatedTo(ChronoUnit.SECONDS);
+        Instant checkpoint = paymentLedgerWriter.findCheckpoint(CHECKPOINT);
+        Instant from = checkpoint == null ? now.minus(initialHistory) : checkpoint.minus(lookback);
+
+        int reconciled = 0;
+        while (from.isBefore(now)) {
+            Instant to = from.plus(window).isBefore(now) ? from.plus(window) : now;
+            reconciled += reconcileWindow(from, to);
+            paymentLedgerWriter.saveCheckpoint(CHECKPOINT, to);
+            from = to;
+        }
+        return reconciled;
+    }
+
+    private int reconcileWindow(Instant from, Instant to) {
+        PaymentIntentListParams params =
+                PaymentIntentListParams.builder()
+                        .setLimit((long) PAGE_SIZE)
+                        .setCreated(
+                                PaymentIntentListParams.Created.builder()
+                                        .setGte(from.getEpochSecond())
+                                        .setLt(to.getEpochSecond())
+                                        .build())
+                        .build();
+        Iterable<PaymentIntent> intents;
+        try {
+            // Later pages are fetched inside the iterator and are not recorded as Stripe calls.
+            intents =
+                    StripeCalls.call("PaymentIntent.list", () -> PaymentIntent.list(params))
+                            .autoPagingIterable();
+        } catch (StripeException e) {
+            throw new PaymentException(e);
+        }
+
+        List<PaymentIntent> page = new ArrayList<>(PAGE_SIZE);
+        int reconciled = 0;
+        for (PaymentIntent intent : intents) {
+            page.add(intent);
+            if (page.size() == PAGE_SIZE) {
+                paymentLedgerWriter.upsertAll(page);
+                reconciled += page.size();
+                page.clear();
+            }
+        }
+        if (!page.isEmpty()) {
+            paymentLedgerWriter.upsertAll(page);
+            reconciled += page.size();
+        }
+        return reconciled;
+    }
+}
@@ -3,24 +3,49 @@ package com.fortuna.payment.service;
 import com.fortuna.payment.controller.model.PaymentIntentRequestDTO;
 import com.fortuna.payment.controller.model.PaymentIntentResponseDTO;
 import com.fortuna.payment.exception.PaymentException;
+import com.fortuna.payment.repository.PaymentLedgerWriter;
+import com.fortuna.payment.repository.PaymentRepository;
+import com.fortuna.payment.repository.model.PaymentEntity;
+import com.fortuna.payment.repository.model.PaymentSummary;
 import com.fortuna.payment.service.model.PaymentIntentRequest;
+import com.fortuna.tracing.Span;
+import com.fortuna.tracing.Tracing;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
 import com.stripe.param.PaymentIntentCreateParams;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
 @Slf4j
 @Service
+@AllArgsConstructor
 public class PaymentService {
 
+    static final String SUCCEEDED = "succeeded";
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentLedgerWriter paymentLedgerWriter;
+
+    /**
+     * Creates the intent with Stripe only. The new intent reaches the ledger through the
+     * reconciler, so an unavailable database cannot hold up the checkout response.
+     */
     public PaymentIntentResponseDTO createPaymentIntent(PaymentIntentRequestDTO requestDTO) {
-        try {
+        try (Span span = Tracing.span("PaymentService#createPaymentIntent")) {
             PaymentIntentRequest request = toServiceModel(requestDTO);
-            PaymentIntentCreateParams params = buildStripeParams(request);
-            PaymentIntent intent = PaymentIntent.create(params);
+            PaymentIntentCreateParams params;
+            try (Span build = Tracing.span("payment.buildStripeParams")) {
+                params = buildStripeParams(request);
+            }
+            PaymentIntent intent =
+                    StripeCalls.call("PaymentIntent.create", () -> PaymentIntent.create(params));
             return toResponseDTO(intent);
         } catch (StripeException e) {
             throw new PaymentException(e);
@@ -29,15 +54,46 @@ public class PaymentService {
 
     public PaymentIntent retrievePaymentIntent(String paymentIntentId) {
         try {
-            return PaymentIntent.retrieve(paymentIntentId);
+            return StripeCalls.call(
+                    "PaymentIntent.retrieve", () -> PaymentIntent.retrieve(paymentIntentId));
         } catch (StripeException e) {
             throw new PaymentException(e);
         }
     }
 
+    /**
+     * Answers from the ledger when it already shows the intent succeeded, which is final. Anything
+     * else may since have changed, so it is checked with Stripe and the answer recorded.
+     */
     public boolean verifyPaymentSuccess(String paymentIntentId) {
-        PaymentIntent intent = retrievePaymentIntent(paymentIntentId);
-        return "succeeded".equals(intent.getStatus());
+        try (Span span = Tracing.span("PaymentService#verifyPaymentSuccess")) {
+            boolean succeeded =
+                    paymentRepository
+                            .findById(paymentIntentId)
+                            .map(PaymentEntity::getStatus)
+                            .filter(SUCCEEDED::equals)
+                            .isPresent();
+            if (succeeded) {
+                return true;
+            }
+            PaymentIntent intent = retrievePaymentIntent(paymentIntentId);
+            record(intent);
+            return SUCCEEDED.equals(intent.getStatus());
+        }
+    }
+
+    /** Payments created in {@code [from, to)}, from the ledger only. */
+    public List<PaymentSummary> summarize(Instant from, Instant to) {
+        return paymentRepository.summarize(Timestamp.from(from), Timestamp.from(to));
+    }
+
+    /** Best effort: the reconciler will store the intent later if this write fails. */
+    private void record(PaymentIntent intent) {
+        try {
+            paymentLedgerWriter.upsertAll(List.of(intent));
+        } catch (DataAccessException e) {
+            log.warn("Failed to record payment intent {} in the ledger", intent.getId(), e);
+        }
     }
 
     private PaymentIntentCreateParams buildStripeParams(PaymentIntentRequest request) {
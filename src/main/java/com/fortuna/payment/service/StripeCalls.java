@@ -0,0 +1,43 @@
+package com.fortuna.payment.service;
+
+import com.fortuna.jfr.StripeCallEvent;
+import com.fortuna.tracing.Span;
+import com.fortuna.tracing.Tracing;
+import com.stripe.exception.StripeException;
+import com.stripe.model.StripeObject;
+import com.stripe.net.StripeResponse;
+
+/** Runs Stripe API calls under a {@code stripe.*} tracing span and a {@link StripeCallEvent}. */
+final class StripeCalls {
+
+    @FunctionalInterface
+    interface StripeCall<T> {
+        T call() throws StripeException;
+    }
+
+    private StripeCalls() {}
+
+    static <T> T call(String operation, StripeCall<T> call) throws StripeException {
+        StripeCallEvent event = new StripeCallEvent();
+        event.begin();
+        try (Span span = Tracing.span("stripe." + operation)) {
+            T result = call.call();
+            event.status = "ok";
+            if (result instanceof StripeObject stripeObject
+                    && stripeObject.getLastResponse() != null) {
+                StripeResponse response = stripeObject.getLastResponse();
+                event.httpStatus = response.code();
+                event.requestId = response.requestId();
+            }
+            return result;
+        } catch (StripeException e) {
+            event.status = e.getCode() == null ? "error" : e.getCode();
+            event.httpStatus = e.getStatusCode() == null ? 0 : e.getStatusCode();
+            event.requestId = e.getRequestId();
+            throw e;
+        } finally {
+            event.operation = operation;
+            event.commit();
+        }
+    }
+}
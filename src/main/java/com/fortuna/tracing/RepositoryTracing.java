@@ -0,0 +1,39 @@
+package com.fortuna.tracing;
+
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records a {@code Repository#method} span for every Spring Data repository call. Spring Data only
+ * reports an invocation once it has returned, so the span is recorded after the fact from the
+ * duration it measured.
+ */
+@Component
+public class RepositoryTracing implements BeanPostProcessor {
+
+    private static final RepositoryMethodInvocationListener LISTENER =
+            invocation -> {
+                if (Tracing.current() == null) {
+                    return;
+                }
+                long end = System.nanoTime();
+                Tracing.record(
+                        invocation.getRepositoryInterface().getSimpleName()
+                                + "#"
+                                + invocation.getMethod().getName(),
+                        end - invocation.getDuration(TimeUnit.NANOSECONDS),
+                        end);
+            };
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(
+                    factory -> factory.addInvocationListener(LISTENER));
+        }
+        return bean;
+    }
+}
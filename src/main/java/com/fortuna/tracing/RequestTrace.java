@@ -0,0 +1,172 @@
+package com.fortuna.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * The spans recorded while serving one request. Spans live in parallel arrays that grow up to
+ * {@code maxSpans}, so a typical request costs a few small allocations; spans beyond the cap are
+ * counted but not kept. A trace is only touched by the thread serving its request, so nothing is
+ * synchronized; it is handed to other threads only after {@link #finish}.
+ */
+public final class RequestTrace {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long OPEN = -1;
+
+    private final String id;
+    private final Instant startTime;
+    private final long startNanos;
+    private final int maxSpans;
+    private final LongSupplier nanoTime;
+
+    private String name;
+    private int status;
+    private long endNanos = OPEN;
+
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] depths = new int[INITIAL_CAPACITY];
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private int count;
+    private int dropped;
+    private int depth;
+
+    RequestTrace(String id, String name, int maxSpans) {
+        this(id, name, maxSpans, System::nanoTime, Instant.now());
+    }
+
+    RequestTrace(String id, String name, int maxSpans, LongSupplier nanoTime, Instant startTime) {
+        this.id = id;
+        this.name = name;
+        this.maxSpans = maxSpans;
+        this.nanoTime = nanoTime;
+        this.startTime = startTime;
+        this.startNanos = nanoTime.getAsLong();
+    }
+
+    Span open(String spanName) {
+        int index = append(spanName, depth, nanoTime.getAsLong(), OPEN);
+        if (index < 0) {
+            return Span.NOOP;
+        }
+        depth++;
+        return new Span(this, index);
+    }
+
+    void record(String spanName, long spanStartNanos, long spanEndNanos) {
+        append(spanName, depth, spanStartNanos, spanEndNanos);
+    }
+
+    void close(int index) {
+        if (ends[index] != OPEN) {
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        for (int i = index; i < count; i++) {
+            if (ends[i] == OPEN) {
+                ends[i] = now;
+            }
+        }
+        depth = depths[index];
+    }
+
+    /** Closes whatever is still open and fixes the name and status the trace is reported under. */
+    void finish(String finalName, int finalStatus) {
+        if (endNanos != OPEN) {
+            return;
+        }
+        endNanos = nanoTime.getAsLong();
+        for (int i = 0; i < count; i++) {
+            if (ends[i] == OPEN) {
+                ends[i] = endNanos;
+            }
+        }
+        depth = 0;
+        name = finalName;
+        status = finalStatus;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getDurationNanos() {
+        return (endNanos == OPEN ? nanoTime.getAsLong() : endNanos) - startNanos;
+    }
+
+    TraceDescriptor describe() {
+        List<TraceDescriptor.SpanDescriptor> spans = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            spans.add(
+                    new TraceDescriptor.SpanDescriptor(
+                            names[i],
+                            depths[i],
+                            millis(starts[i] - startNanos),
+                            millis(ends[i] - starts[i])));
+        }
+        return new TraceDescriptor(
+                id, startTime, name, status, millis(getDurationNanos()), dropped, spans);
+    }
+
+    /**
+     * The breakdown as one line per span: offset from the start of the request, duration, and the
+     * name indented by depth.
+     */
+    String format() {
+        StringBuilder out = new StringBuilder(64 + count * 48);
+        out.append(name)
+                .append(" -> ")
+                .append(status)
+                .append(" in ")
+                .append(formatMillis(getDurationNanos()))
+                .append(" ms [trace ")
+                .append(id)
+                .append(']');
+        for (int i = 0; i < count; i++) {
+            out.append(
+                            String.format(
+                                    Locale.ROOT,
+                                    "%n%10.3f%10.3f ms  ",
+                                    (starts[i] - startNanos) / 1_000_000.0,
+                                    (ends[i] - starts[i]) / 1_000_000.0))
+                    .append("  ".repeat(depths[i]))
+                    .append(names[i]);
+        }
+        if (dropped > 0) {
+            out.append(System.lineSeparator()).append(dropped).append(" more spans not recorded");
+        }
+        return out.toString();
+    }
+
+    private int append(String spanName, int spanDepth, long spanStart, long spanEnd) {
+        if (count == maxSpans) {
+            dropped++;
+            return -1;
+        }
+        if (count == names.length) {
+            int capacity = Math.min(maxSpans, count * 2);
+            names = Arrays.copyOf(names, capacity);
+            depths = Arrays.copyOf(depths, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        names[count] = spanName;
+        depths[count] = spanDepth;
+        starts[count] = spanStart;
+        ends[count] = spanEnd;
+        return count++;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,26 @@
+package com.fortuna.tracing;
+
+/**
+ * An open span in the current {@link RequestTrace}; closing it records its end. Closing a span also
+ * closes any spans opened inside it that are still open, so a missed close cannot corrupt the
+ * nesting of later spans.
+ */
+public final class Span implements AutoCloseable {
+
+    static final Span NOOP = new Span(null, -1);
+
+    private final RequestTrace trace;
+    private final int index;
+
+    Span(RequestTrace trace, int index) {
+        this.trace = trace;
+        this.index = index;
+    }
+
+    @Override
+    public void close() {
+        if (trace != null) {
+            trace.close(index);
+        }
+    }
+}
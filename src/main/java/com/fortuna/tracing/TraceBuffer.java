@@ -0,0 +1,43 @@
+package com.fortuna.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The most recent {@code buffer-size} retained traces. Adding is one increment and one array store,
+ * so request threads never wait on each other or on a reader; a reader racing a writer may see a
+ * slot that was just overwritten, which only costs it one trace.
+ */
+@Component
+public class TraceBuffer {
+
+    private final AtomicReferenceArray<RequestTrace> slots;
+    private final AtomicLong added = new AtomicLong();
+
+    public TraceBuffer(@Value("${application.tracing.buffer-size:256}") int size) {
+        this.slots = new AtomicReferenceArray<>(Math.max(1, size));
+    }
+
+    void add(RequestTrace trace) {
+        long sequence = added.getAndIncrement();
+        slots.set((int) (sequence % slots.length()), trace);
+    }
+
+    /** Newest first. */
+    public List<TraceDescriptor> snapshot() {
+        long newest = added.get() - 1;
+        long oldest = Math.max(0, newest - slots.length() + 1);
+        List<TraceDescriptor> traces = new ArrayList<>((int) (newest - oldest + 1));
+        for (long sequence = newest; sequence >= oldest; sequence--) {
+            RequestTrace trace = slots.get((int) (sequence % slots.length()));
+            if (trace != null) {
+                traces.add(trace.describe());
+            }
+        }
+        return traces;
+    }
+}
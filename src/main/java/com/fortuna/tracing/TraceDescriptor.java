@@ -0,0 +1,18 @@
+package com.fortuna.tracing;
+
+import java.time.Instant;
+import java.util.List;
+
+/** A finished trace as reported by the {@code traces} actuator endpoint. Times are milliseconds. */
+public record TraceDescriptor(
+        String id,
+        Instant startTime,
+        String name,
+        int status,
+        double durationMs,
+        int droppedSpans,
+        List<SpanDescriptor> spans) {
+
+    /** {@code offsetMs} is measured from the start of the request. */
+    public record SpanDescriptor(String name, int depth, double offsetMs, double durationMs) {}
+}
@@ -0,0 +1,34 @@
+package com.fortuna.tracing;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the {@link TraceBuffer} at {@code /actuator/traces}, newest first. Not in the default web
+ * exposure: traces carry request paths and timings, and nothing in front of {@code /actuator}
+ * authenticates.
+ */
+@Component
+@Endpoint(id = "traces")
+@RequiredArgsConstructor
+public class TracesEndpoint {
+
+    private final TraceBuffer traceBuffer;
+
+    @ReadOperation
+    public List<TraceDescriptor> traces() {
+        return traceBuffer.snapshot();
+    }
+
+    @ReadOperation
+    public TraceDescriptor trace(@Selector String id) {
+        return traceBuffer.snapshot().stream()
+                .filter(trace -> trace.id().equals(id))
+                .findFirst()
+                .orElse(null);
+    }
+}
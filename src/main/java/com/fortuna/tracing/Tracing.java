@@ -0,0 +1,45 @@
+package com.fortuna.tracing;
+
+/**
+ * Entry point for instrumented code. Spans attach to the trace of the request the calling thread is
+ * serving; outside a traced request every call returns {@link Span#NOOP} without allocating, so
+ * instrumentation can stay in code that also runs from schedulers and tests.
+ *
+ * <pre>
+ * try (Span span = Tracing.span("stripe.PaymentIntent.create")) {
+ *     return PaymentIntent.create(params);
+ * }
+ * </pre>
+ */
+public final class Tracing {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private Tracing() {}
+
+    /** Opens a span as a child of the innermost open span. */
+    public static Span span(String name) {
+        RequestTrace trace = CURRENT.get();
+        return trace == null ? Span.NOOP : trace.open(name);
+    }
+
+    /** Records a span that has already finished, for callers that are only told afterwards. */
+    public static void record(String name, long startNanos, long endNanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.record(name, startNanos, endNanos);
+        }
+    }
+
+    static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    static void attach(RequestTrace trace) {
+        CURRENT.set(trace);
+    }
+
+    static void detach() {
+        CURRENT.remove();
+    }
+}
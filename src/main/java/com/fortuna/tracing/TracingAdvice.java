@@ -0,0 +1,152 @@
+package com.fortuna.tracing;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.Validator;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Records the MVC steps around a handler that no application code runs in: {@code request.read} for
+ * message conversion of a {@code @RequestBody}, {@code validate} for its {@code @Valid} check, and
+ * {@code response.write} for converting the return value. The write span is left open and closed
+ * with the enclosing handler span once the body has been written.
+ */
+@ControllerAdvice
+public class TracingAdvice implements RequestBodyAdvice, ResponseBodyAdvice<Object> {
+
+    static final String READ_SPAN_ATTRIBUTE = TracingAdvice.class.getName() + ".read";
+
+    @InitBinder
+    public void traceValidation(WebDataBinder binder) {
+        if (Tracing.current() == null
+                || binder.getTarget() == null
+                || binder.getValidators().isEmpty()) {
+            return;
+        }
+        binder.replaceValidators(
+                binder.getValidators().stream()
+                        .map(TracingValidator::new)
+                        .toArray(Validator[]::new));
+    }
+
+    @Override
+    public boolean supports(
+            MethodParameter methodParameter,
+            Type targetType,
+            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(
+            HttpInputMessage inputMessage,
+            MethodParameter parameter,
+            Type targetType,
+            Class<? extends HttpMessageConverter<?>> converterType)
+            throws IOException {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (Tracing.current() != null && attributes != null) {
+            attributes.setAttribute(
+                    READ_SPAN_ATTRIBUTE,
+                    Tracing.span("request.read"),
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+        return inputMessage;
+    }
+
+    @Override
+    public Object afterBodyRead(
+            Object body,
+            HttpInputMessage inputMessage,
+            MethodParameter parameter,
+            Type targetType,
+            Class<? extends HttpMessageConverter<?>> converterType) {
+        closeReadSpan();
+        return body;
+    }
+
+    @Override
+    public Object handleEmptyBody(
+            Object body,
+            HttpInputMessage inputMessage,
+            MethodParameter parameter,
+            Type targetType,
+            Class<? extends HttpMessageConverter<?>> converterType) {
+        closeReadSpan();
+        return body;
+    }
+
+    @Override
+    public boolean supports(
+            MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response) {
+        Tracing.span("response.write");
+        return body;
+    }
+
+    private static void closeReadSpan() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(READ_SPAN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                        instanceof Span span) {
+            span.close();
+        }
+    }
+
+    /** Times each validation the binder runs under a {@code validate} span. */
+    static final class TracingValidator implements SmartValidator {
+
+        private final Validator delegate;
+
+        TracingValidator(Validator delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean supports(Class<?> clazz) {
+            return delegate.supports(clazz);
+        }
+
+        @Override
+        public void validate(Object target, Errors errors) {
+            try (Span span = Tracing.span("validate")) {
+                delegate.validate(target, errors);
+            }
+        }
+
+        @Override
+        public void validate(Object target, Errors errors, Object... validationHints) {
+            try (Span span = Tracing.span("validate")) {
+                if (delegate instanceof SmartValidator smartValidator) {
+                    smartValidator.validate(target, errors, validationHints);
+                } else {
+                    delegate.validate(target, errors);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.fortuna.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Traces every request to the configured paths. Spans are recorded for all of them, because whether
+ * a request is slow is only known at the end; the sampling policy decides which finished traces are
+ * kept in the {@link TraceBuffer}:
+ *
+ * <ul>
+ *   <li>requests taking at least {@code slow-threshold} are always kept, and their span breakdown
+ *       is logged at warn level;
+ *   <li>other requests are kept with probability {@code sample-rate}.
+ * </ul>
+ *
+ * It runs ahead of the concurrency limit and the security filters so their time is inside the
+ * trace.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class TracingFilter extends OncePerRequestFilter {
+
+    private final TraceBuffer traceBuffer;
+    private final boolean enabled;
+    private final List<PathPattern> paths;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxSpans;
+
+    @Autowired
+    public TracingFilter(
+            TraceBuffer traceBuffer,
+            @Value("${application.tracing.enabled:true}") boolean enabled,
+            @Value("${application.tracing.paths:/api/**}") List<String> paths,
+            @Value("${application.tracing.sample-rate:0.01}") double sampleRate,
+            @Value("${application.tracing.slow-threshold:1s}") Duration slowThreshold,
+            @Value("${application.tracing.max-spans:64}") int maxSpans) {
+        this.traceBuffer = traceBuffer;
+        this.enabled = enabled;
+        this.paths = paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxSpans = maxSpans;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (PathPattern pattern : paths) {
+            if (pattern.matches(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTrace trace =
+                new RequestTrace(
+                        Long.toHexString(ThreadLocalRandom.current().nextLong()),
+                        request.getMethod() + " " + request.getRequestURI(),
+                        maxSpans);
+        Tracing.attach(trace);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Tracing.detach();
+            trace.finish(name(request), response.getStatus());
+            complete(trace);
+        }
+    }
+
+    void complete(RequestTrace trace) {
+        if (trace.getDurationNanos() >= slowThresholdNanos) {
+            log.warn("Slow request {}", trace.format());
+            traceBuffer.add(trace);
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            traceBuffer.add(trace);
+        }
+    }
+
+    /** Named by the matched handler pattern where there is one, so traces group by endpoint. */
+    private static String name(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod()
+                + " "
+                + (pattern == null ? request.getRequestURI() : pattern.toString());
+    }
+}
@@ -0,0 +1,53 @@
+package com.fortuna.tracing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Opens a span named {@code Controller#method} around each handler. Request body binding,
+ * validation and writing the response all happen inside it, so {@link TracingAdvice} records them
+ * as its children.
+ */
+@Configuration
+public class TracingWebConfig implements WebMvcConfigurer {
+
+    static final String HANDLER_SPAN_ATTRIBUTE = TracingWebConfig.class.getName() + ".span";
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerSpanInterceptor());
+    }
+
+    static final class HandlerSpanInterceptor implements HandlerInterceptor {
+
+        @Override
+        public boolean preHandle(
+                HttpServletRequest request, HttpServletResponse response, Object handler) {
+            if (Tracing.current() != null && handler instanceof HandlerMethod handlerMethod) {
+                request.setAttribute(
+                        HANDLER_SPAN_ATTRIBUTE,
+                        Tracing.span(
+                                handlerMethod.getBeanType().getSimpleName()
+                                        + "#"
+                                        + handlerMethod.getMethod().getName()));
+            }
+            return true;
+        }
+
+        @Override
+        public void afterCompletion(
+                HttpServletRequest request,
+                HttpServletResponse response,
+                Object handler,
+                Exception ex) {
+            if (request.getAttribute(HANDLER_SPAN_ATTRIBUTE) instanceof Span span) {
+                span.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.fortuna.user.repository;
+
+import com.fortuna.user.repository.model.UserEntity;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The lookups fill {@code UserService}'s cache, often straight after a {@code CacheInvalidationBus}
+ * message for a write on the primary. They run read-write so they are routed to the primary: a
+ * lagging replica could hand back the old row, which would then stay cached for the full TTL.
+ */
+@Repository
+public interface UserRepository extends JpaRepository<UserEntity, Long> {
+
+    @Override
+    @Transactional
+    Optional<UserEntity> findById(Long id);
+
+    @Transactional
+    Optional<UserEntity> findByEmail(String email);
+}
@@ -0,0 +1,37 @@
+package com.fortuna.user.repository.model;
+
+import jakarta.persistence.*;
+import java.sql.Timestamp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Table(name = "users")
+public class UserEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    String email;
+    String firstName;
+    String lastName;
+
+    @Column(nullable = true)
+    private String profilePictureUrl;
+
+    // Set by the database defaults; last_login and updated_at are written by LastLoginRecorder.
+    @Column(insertable = false, updatable = false)
+    private Timestamp createdAt;
+
+    @Column(insertable = false, updatable = false)
+    private Timestamp updatedAt;
+
+    @Column(insertable = false, updatable = false)
+    private Timestamp lastLogin;
+}
@@ -0,0 +1,75 @@
+package com.fortuna.user.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded map whose entries expire a fixed time after they were written. Past {@code maximumSize}
+ * the least recently read entry is dropped. Expired entries are removed when they are next read or
+ * when they fall off the end of the access order.
+ *
+ * <p>Every operation takes the cache's monitor; loading a missing value is left to the caller so no
+ * lock is held across a database round trip.
+ */
+final class ExpiringLruCache<K, V> {
+
+    private final Duration ttl;
+    private final Clock clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    ExpiringLruCache(int maximumSize, Duration ttl, Clock clock) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be at least 1");
+        }
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                        return size() > maximumSize;
+                    }
+                };
+    }
+
+    /** Returns the live value for {@code key}, or null when it is missing or has expired. */
+    synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!clock.instant().isBefore(entry.expiresAt())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.instant().plus(ttl)));
+    }
+
+    /** Replaces a live value in place, keeping its expiry; does nothing when the key is absent. */
+    synchronized void update(K key, UnaryOperator<V> update) {
+        entries.computeIfPresent(
+                key, (k, entry) -> new Entry<>(update.apply(entry.value()), entry.expiresAt()));
+    }
+
+    synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry<V>(V value, Instant expiresAt) {}
+}
@@ -0,0 +1,108 @@
+package com.fortuna.user.service;
+
+import com.fortuna.cache.CacheInvalidationBus;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Buffers {@code last_login} writes and applies them as one batched UPDATE per flush. Repeated
+ * sign-ins by the same user between flushes collapse to the latest time, so a user costs at most
+ * one row update per interval however often they log in.
+ *
+ * <p>Flushed users are published to the {@link CacheInvalidationBus} so other instances reload
+ * them. A failed flush puts its logins back in the buffer for the next attempt. Logins still
+ * buffered when the process dies without a clean shutdown are lost, which is acceptable for a
+ * last-seen timestamp.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LastLoginRecorder {
+
+    static final String UPDATE_SQL =
+            "UPDATE users SET last_login = GREATEST(last_login, ?), updated_at = CURRENT_TIMESTAMP"
+                    + " WHERE id = ?";
+    static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final ConcurrentMap<Long, Instant> pending = new ConcurrentHashMap<>();
+
+    public void record(long userId, Instant loginTime) {
+        pending.merge(userId, loginTime, LastLoginRecorder::latest);
+    }
+
+    /** The buffered login for {@code userId} that has not reached the database yet, if any. */
+    public Instant pending(long userId) {
+        return pending.get(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${application.users.last-login.flush-interval:30s}")
+    @PreDestroy
+    public void flushOnSchedule() {
+        flush();
+    }
+
+    /** Writes every buffered login; returns the number of users flushed. */
+    public int flush() {
+        List<Map.Entry<Long, Instant>> logins = new ArrayList<>();
+        for (Long userId : pending.keySet()) {
+            // A login recorded after this removal stays buffered for the next flush.
+            Instant loginTime = pending.remove(userId);
+            if (loginTime != null) {
+                logins.add(Map.entry(userId, loginTime));
+            }
+        }
+        if (logins.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status ->
+                            jdbcTemplate.batchUpdate(
+                                    UPDATE_SQL,
+                                    logins,
+                                    BATCH_SIZE,
+                                    (statement, login) -> {
+                                        statement.setTimestamp(1, Timestamp.from(login.getValue()));
+                                        statement.setLong(2, login.getKey());
+                                    }));
+        } catch (DataAccessException | TransactionException e) {
+            logins.forEach(
+                    login ->
+                            pending.merge(
+                                    login.getKey(), login.getValue(), LastLoginRecorder::latest));
+            log.warn(
+                    "Failed to flush {} last_login updates; retrying next interval",
+                    logins.size(),
+                    e);
+            return 0;
+        }
+        logins.forEach(
+                login ->
+                        cacheInvalidationBus.publish(
+                                UserService.CACHE_NAME, login.getKey().toString()));
+        return logins.size();
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,159 @@
+package com.fortuna.user.service;
+
+import com.fortuna.cache.CacheInvalidationBus;
+import com.fortuna.cache.InvalidatableCache;
+import com.fortuna.user.repository.UserRepository;
+import com.fortuna.user.service.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Service;
+
+/**
+ * Read-through lookups of users by id and by email, backed by a bounded cache whose entries live
+ * for {@code application.users.cache.ttl}. Users are cached once by id; the email cache only maps
+ * an email to its id, so both lookups share one copy of each user. Misses are not cached, so a
+ * newly created user is visible immediately.
+ *
+ * <p>Sign-ins are recorded through {@link LastLoginRecorder}. Until a login is flushed, lookups
+ * report it as the user's last login, so callers never see an older value than the one recorded.
+ *
+ * <p>The by-id cache is registered with the {@link CacheInvalidationBus} as {@value #CACHE_NAME},
+ * keyed by user id, so writes on any instance drop the user everywhere.
+ */
+@Service
+public class UserService {
+
+    public static final String CACHE_NAME = "users";
+    static final String METER_NAME = "fortuna.users.cache";
+
+    private final UserRepository userRepository;
+    private final LastLoginRecorder lastLoginRecorder;
+    private final Clock clock;
+    private final ExpiringLruCache<Long, User> usersById;
+    private final ExpiringLruCache<String, Long> idsByEmail;
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public UserService(
+            UserRepository userRepository,
+            LastLoginRecorder lastLoginRecorder,
+            CacheInvalidationBus cacheInvalidationBus,
+            MeterRegistry meterRegistry,
+            @Value("${application.users.cache.maximum-size:10000}") int maximumSize,
+            @Value("${application.users.cache.ttl:5m}") Duration ttl) {
+        this(
+                userRepository,
+                lastLoginRecorder,
+                cacheInvalidationBus,
+                meterRegistry,
+                maximumSize,
+                ttl,
+                Clock.systemUTC());
+    }
+
+    UserService(
+            UserRepository userRepository,
+            LastLoginRecorder lastLoginRecorder,
+            CacheInvalidationBus cacheInvalidationBus,
+            MeterRegistry meterRegistry,
+            int maximumSize,
+            Duration ttl,
+            Clock clock) {
+        this.userRepository = userRepository;
+        this.lastLoginRecorder = lastLoginRecorder;
+        this.clock = clock;
+        this.usersById = new ExpiringLruCache<>(maximumSize, ttl, clock);
+        this.idsByEmail = new ExpiringLruCache<>(maximumSize, ttl, clock);
+        this.hits =
+                Counter.builder(METER_NAME + ".hits")
+                        .description("User lookups answered from the cache")
+                        .register(meterRegistry);
+        this.misses =
+                Counter.builder(METER_NAME + ".misses")
+                        .description("User lookups that went to the database")
+                        .register(meterRegistry);
+        Gauge.builder(METER_NAME + ".size", usersById, ExpiringLruCache::size)
+                .description("Users held in the cache")
+                .register(meterRegistry);
+        cacheInvalidationBus.register(
+                CACHE_NAME,
+                InvalidatableCache.of(
+                        id -> usersById.invalidate(Long.valueOf(id)), usersById::invalidateAll));
+    }
+
+    public Optional<User> findById(long id) {
+        User user = usersById.get(id);
+        if (user != null) {
+            hits.increment();
+            return Optional.of(user);
+        }
+        misses.increment();
+        return userRepository.findById(id).map(User::from).map(this::cache);
+    }
+
+    public Optional<User> findByEmail(String email) {
+        Long id = idsByEmail.get(email);
+        if (id != null) {
+            User user = usersById.get(id);
+            if (user != null && email.equals(user.getEmail())) {
+                hits.increment();
+                return Optional.of(user);
+            }
+            if (user != null) {
+                // The email changed, possibly on another instance, whose invalidation only reaches
+                // the by-id cache; the mapping from the old email is stale.
+                idsByEmail.invalidate(email);
+            }
+        }
+        misses.increment();
+        return userRepository.findByEmail(email).map(User::from).map(this::cache);
+    }
+
+    /** Records a sign-in now; the database row is updated on the recorder's next flush. */
+    public void recordLogin(long userId) {
+        Instant loginTime = clock.instant();
+        lastLoginRecorder.record(userId, loginTime);
+        usersById.update(userId, user -> withLogin(user, loginTime));
+    }
+
+    public void evict(User user) {
+        usersById.invalidate(user.getId());
+        idsByEmail.invalidate(user.getEmail());
+    }
+
+    /** Records the login for OAuth2 sign-ins whose email matches a stored user. */
+    @EventListener
+    public void onAuthenticationSuccess(AuthenticationSuccessEvent event) {
+        if (event.getAuthentication().getPrincipal() instanceof OAuth2User principal) {
+            String email = principal.getAttribute("email");
+            if (email != null) {
+                findByEmail(email).ifPresent(user -> recordLogin(user.getId()));
+            }
+        }
+    }
+
+    private User cache(User user) {
+        Instant pendingLogin = lastLoginRecorder.pending(user.getId());
+        User current = pendingLogin == null ? user : withLogin(user, pendingLogin);
+        usersById.put(current.getId(), current);
+        idsByEmail.put(current.getEmail(), current.getId());
+        return current;
+    }
+
+    private static User withLogin(User user, Instant loginTime) {
+        return user.getLastLogin() != null && user.getLastLogin().isAfter(loginTime)
+                ? user
+                : user.withLastLogin(loginTime);
+    }
+}
@@ -0,0 +1,34 @@
+package com.fortuna.user.service.model;
+
+import com.fortuna.user.repository.model.UserEntity;
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Value;
+import lombok.With;
+
+/** Immutable view of a {@code users} row, safe to share from the user cache. */
+@Value
+@Builder
+public class User {
+    Long id;
+    String email;
+    String firstName;
+    String lastName;
+    String profilePictureUrl;
+    Instant createdAt;
+    Instant updatedAt;
+    @With Instant lastLogin;
+
+    public static User from(UserEntity entity) {
+        return User.builder()
+                .id(entity.getId())
+                .email(entity.getEmail())
+                .firstName(entity.getFirstName())
+                .lastName(entity.getLastName())
+                .profilePictureUrl(entity.getProfilePictureUrl())
+                .createdAt(entity.getCreatedAt() == null ? null : entity.getCreatedAt().toInstant())
+                .updatedAt(entity.getUpdatedAt() == null ? null : entity.getUpdatedAt().toInstant())
+                .lastLogin(entity.getLastLogin() == null ? null : entity.getLastLogin().toInstant())
+                .build();
+    }
+}
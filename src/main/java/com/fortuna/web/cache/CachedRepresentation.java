@@ -0,0 +1,41 @@
+package com.fortuna.web.cache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+/**
+ * A response body that has already been serialized, together with a strong ETag derived from its
+ * bytes. Instances are immutable so the same bytes can be written for every request.
+ */
+@Getter
+public final class CachedRepresentation {
+
+    private static final int ETAG_DIGEST_BYTES = 16;
+
+    private final byte[] body;
+    private final String eTag;
+    private final MediaType contentType;
+
+    CachedRepresentation(byte[] body, MediaType contentType) {
+        this.body = body;
+        this.contentType = contentType;
+        this.eTag = strongETag(body);
+    }
+
+    static String strongETag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\""
+                    + Base64.getUrlEncoder()
+                            .withoutPadding()
+                            .encodeToString(Arrays.copyOf(digest, ETAG_DIGEST_BYTES))
+                    + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.fortuna.web.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serves read endpoints whose representation rarely changes. The body is serialized once per name
+ * and kept as bytes with a strong ETag; Spring answers a matching {@code If-None-Match} with 304
+ * before any body is written.
+ *
+ * <p>{@code Cache-Control} is configured per name with {@code
+ * application.http-cache.<name>.max-age} and {@code application.http-cache.<name>.public}. A zero
+ * max-age means clients must revalidate with the ETag on every use.
+ */
+@Component
+@RequiredArgsConstructor
+public class RepresentationCache {
+
+    private static final String PROPERTY_PREFIX = "application.http-cache.";
+
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+
+    private final ConcurrentMap<String, CachedRepresentation> representations =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CacheControl> cacheControls = new ConcurrentHashMap<>();
+
+    public ResponseEntity<byte[]> respond(String name, Supplier<?> bodySupplier) {
+        CachedRepresentation representation =
+                representations.computeIfAbsent(name, key -> serialize(key, bodySupplier.get()));
+
+        return ResponseEntity.ok()
+                .eTag(representation.getETag())
+                .cacheControl(cacheControls.computeIfAbsent(name, this::cacheControlFor))
+                .contentType(representation.getContentType())
+                .body(representation.getBody());
+    }
+
+    public void evict(String name) {
+        representations.remove(name);
+    }
+
+    private CachedRepresentation serialize(String name, Object body) {
+        try {
+            return new CachedRepresentation(
+                    objectMapper.writeValueAsBytes(body), MediaType.APPLICATION_JSON);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize cached representation " + name, e);
+        }
+    }
+
+    CacheControl cacheControlFor(String name) {
+        Duration maxAge =
+                DurationStyle.detectAndParse(
+                        environment.getProperty(
+                                PROPERTY_PREFIX + name + ".max-age",
+                                environment.getProperty(
+                                        PROPERTY_PREFIX + "default-max-age", "0s")));
+        boolean isPublic =
+                environment.getProperty(PROPERTY_PREFIX + name + ".public", Boolean.class, false);
+
+        CacheControl cacheControl =
+                maxAge.isZero() ? CacheControl.noCache() : CacheControl.maxAge(maxAge);
+        return isPublic ? cacheControl.cachePublic() : cacheControl.cachePrivate();
+    }
+}
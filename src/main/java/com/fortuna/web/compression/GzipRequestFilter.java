@@ -0,0 +1,229 @@
+package com.fortuna.web.compression;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Inflates request bodies sent with {@code Content-Encoding: gzip} as they are read, so handlers
+ * see the plain body and the content type decides how it is parsed. The inflated size is capped to
+ * guard against decompression bombs; exceeding it fails the read like any other malformed body.
+ *
+ * <p>A handler that reads without blocking through a {@link ReadListener} is only told data is
+ * available once the whole compressed body has arrived, which is then inflated from memory: the
+ * inflater cannot stop partway through a read when the container has no more bytes ready.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+
+    private final long maxInflatedBytes;
+
+    public GzipRequestFilter(
+            @Value("${application.http.request-decompression.max-inflated-size:10MB}")
+                    DataSize maxInflatedSize) {
+        this.maxInflatedBytes = maxInflatedSize.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return encoding == null || !GZIP.equalsIgnoreCase(encoding.trim());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(new InflatingRequest(request, maxInflatedBytes), response);
+    }
+
+    private static final class InflatingRequest extends HttpServletRequestWrapper {
+
+        private final long maxInflatedBytes;
+        private ServletInputStream inputStream;
+
+        private InflatingRequest(HttpServletRequest request, long maxInflatedBytes) {
+            super(request);
+            this.maxInflatedBytes = maxInflatedBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new InflatingInputStream(super.getInputStream(), maxInflatedBytes);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isHiddenHeader(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isHiddenHeader(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(
+                    Collections.list(super.getHeaderNames()).stream()
+                            .filter(name -> !isHiddenHeader(name))
+                            .toList());
+        }
+
+        private static boolean isHiddenHeader(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    private static final class InflatingInputStream extends ServletInputStream {
+
+        private final ServletInputStream compressed;
+        private final long limit;
+        private InputStream inflated;
+        private long count;
+        private boolean finished;
+        private volatile boolean ready = true;
+
+        private InflatingInputStream(ServletInputStream compressed, long limit) {
+            this.compressed = compressed;
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = inflated().read();
+            if (b == -1) {
+                finished = true;
+            } else {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = inflated().read(buffer, offset, length);
+            if (n == -1) {
+                finished = true;
+            } else {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            ready = false;
+            compressed.setReadListener(new BufferingListener(readListener));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (inflated != null) {
+                inflated.close();
+            } else {
+                compressed.close();
+            }
+        }
+
+        // Created on first read rather than up front, as the gzip header is read straight away.
+        private InputStream inflated() throws IOException {
+            if (inflated == null) {
+                inflated = new GZIPInputStream(compressed);
+            }
+            return inflated;
+        }
+
+        private void count(int n) throws IOException {
+            count += n;
+            if (count > limit) {
+                throw new IOException("Inflated request body exceeds " + limit + " bytes");
+            }
+        }
+
+        /** Collects the compressed body as the container delivers it, then hands it over whole. */
+        private final class BufferingListener implements ReadListener {
+
+            private final ReadListener delegate;
+            private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            private final byte[] chunk = new byte[8192];
+
+            private BufferingListener(ReadListener delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void onDataAvailable() throws IOException {
+                while (compressed.isReady()) {
+                    int n = compressed.read(chunk);
+                    if (n == -1) {
+                        return;
+                    }
+                    if (body.size() + n > limit) {
+                        throw new IOException(
+                                "Compressed request body exceeds " + limit + " bytes");
+                    }
+                    body.write(chunk, 0, n);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() throws IOException {
+                inflated = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()));
+                ready = true;
+                delegate.onDataAvailable();
+                delegate.onAllDataRead();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                delegate.onError(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.fortuna.web.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Sheds load by request class before a request takes a worker thread for long. Each class in {@code
+ * application.concurrency.classes} has its own {@link VegasLimit}, tuned from the latency of its
+ * own requests, so a slow Stripe call shrinks the payments limit without touching metrics and the
+ * other way round. Classes are also capped at {@code share} of the node's {@code capacity}
+ * (Tomcat's thread count by default), counted across all classes, so low-share classes are rejected
+ * first as the node saturates.
+ *
+ * <p>Per class, configured under {@code application.concurrency.classes.<name>}: {@code paths}
+ * (path patterns, first matching class wins in the listed order), {@code share}, and {@code
+ * initial-limit}, {@code min-limit} and {@code max-limit}. Requests outside every class are not
+ * limited. Rejected requests get 503 with {@code Retry-After: 1}.
+ *
+ * <p>Publishes {@code fortuna.concurrency.limit}, {@code .in-flight} and {@code .rejected}, tagged
+ * by class.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static final String METER_NAME = "fortuna.concurrency";
+
+    private static final String PROPERTY_PREFIX = "application.concurrency.";
+
+    private final List<RequestClass> requestClasses;
+    private final int capacity;
+    private final LongSupplier nanoTime;
+    private final AtomicInteger totalInFlight = new AtomicInteger();
+
+    @Autowired
+    public ConcurrencyLimitFilter(Environment environment, MeterRegistry meterRegistry) {
+        this(
+                requestClasses(environment, meterRegistry),
+                environment.getProperty(
+                        PROPERTY_PREFIX + "capacity",
+                        Integer.class,
+                        environment.getProperty("server.tomcat.threads.max", Integer.class, 200)),
+                System::nanoTime);
+    }
+
+    ConcurrencyLimitFilter(List<RequestClass> requestClasses, int capacity, LongSupplier nanoTime) {
+        this.requestClasses = requestClasses;
+        this.capacity = capacity;
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestClass requestClass = classify(request);
+        if (requestClass == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        int inFlight = requestClass.inFlight.incrementAndGet();
+        int total = totalInFlight.incrementAndGet();
+        if (inFlight > requestClass.limit.getLimit() || total > capacity * requestClass.share) {
+            requestClass.inFlight.decrementAndGet();
+            totalInFlight.decrementAndGet();
+            requestClass.rejected.increment();
+            log.debug("Shedding {} request at {} in flight", requestClass.name, inFlight - 1);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+
+        long start = nanoTime.getAsLong();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            requestClass.inFlight.decrementAndGet();
+            totalInFlight.decrementAndGet();
+            // Async responses outlive this call, so their latency says nothing about the limit.
+            if (!request.isAsyncStarted()) {
+                requestClass.limit.onSample(nanoTime.getAsLong() - start, inFlight, failed);
+            }
+        }
+    }
+
+    private RequestClass classify(HttpServletRequest request) {
+        if (requestClasses.isEmpty()) {
+            return null;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (RequestClass requestClass : requestClasses) {
+            if (requestClass.matches(path)) {
+                return requestClass;
+            }
+        }
+        return null;
+    }
+
+    private static List<RequestClass> requestClasses(
+            Environment environment, MeterRegistry meterRegistry) {
+        if (!environment.getProperty(PROPERTY_PREFIX + "enabled", Boolean.class, true)) {
+            return List.of();
+        }
+        String[] names =
+                environment.getProperty(
+                        PROPERTY_PREFIX + "class-names", String[].class, new String[0]);
+        List<RequestClass> requestClasses = new ArrayList<>(names.length);
+        for (String name : names) {
+            String prefix = PROPERTY_PREFIX + "classes." + name + ".";
+            VegasLimit limit =
+                    new VegasLimit(
+                            environment.getProperty(prefix + "initial-limit", Integer.class, 20),
+                            environment.getProperty(prefix + "min-limit", Integer.class, 1),
+                            environment.getProperty(prefix + "max-limit", Integer.class, 200),
+                            environment.getProperty(prefix + "smoothing", Double.class, 1.0));
+            RequestClass requestClass =
+                    new RequestClass(
+                            name,
+                            Arrays.stream(
+                                            environment.getRequiredProperty(
+                                                    prefix + "paths", String[].class))
+                                    .map(PathPatternParser.defaultInstance::parse)
+                                    .toList(),
+                            environment.getProperty(prefix + "share", Double.class, 1.0),
+                            limit,
+                            Counter.builder(METER_NAME + ".rejected")
+                                    .description("Requests shed by the concurrency limiter")
+                                    .tag("class", name)
+                                    .register(meterRegistry));
+            Gauge.builder(METER_NAME + ".limit", limit, VegasLimit::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("class", name)
+                    .register(meterRegistry);
+            Gauge.builder(METER_NAME + ".in-flight", requestClass.inFlight, AtomicInteger::get)
+                    .description("Requests currently admitted")
+                    .tag("class", name)
+                    .register(meterRegistry);
+            requestClasses.add(requestClass);
+        }
+        return requestClasses;
+    }
+}
@@ -0,0 +1,44 @@
+package com.fortuna.web.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+
+/**
+ * One isolated group of endpoints: its own adaptive limit and in-flight count, plus the share of
+ * the node's capacity it may use. A class with a smaller share is shed earlier as the node fills
+ * up, which leaves the remaining threads to the classes with larger shares.
+ */
+final class RequestClass {
+
+    final String name;
+    final List<PathPattern> paths;
+    final double share;
+    final VegasLimit limit;
+    final AtomicInteger inFlight = new AtomicInteger();
+    final Counter rejected;
+
+    RequestClass(
+            String name,
+            List<PathPattern> paths,
+            double share,
+            VegasLimit limit,
+            Counter rejected) {
+        this.name = name;
+        this.paths = paths;
+        this.share = share;
+        this.limit = limit;
+        this.rejected = rejected;
+    }
+
+    boolean matches(PathContainer path) {
+        for (PathPattern pattern : paths) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
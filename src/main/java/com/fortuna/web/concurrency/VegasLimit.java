@@ -0,0 +1,87 @@
+package com.fortuna.web.concurrency;
+
+/**
+ * TCP Vegas applied to request concurrency. The lowest latency seen stands in for the no-load
+ * latency; the gap between it and a sample estimates how many requests are queued:
+ *
+ * <pre>queue = limit * (1 - noLoadRtt / rtt)</pre>
+ *
+ * A short queue grows the limit and a long one shrinks it, with thresholds that scale with {@code
+ * log10(limit)} so large limits move proportionally. Failures shrink the limit. Samples taken while
+ * fewer than half the permits are in use say nothing about capacity and are skipped. Every {@code
+ * probeInterval} samples the no-load latency is re-measured, so a baseline that has drifted up does
+ * not keep the limit pinned down.
+ */
+final class VegasLimit {
+
+    private static final int PROBE_MULTIPLIER = 30;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private long noLoadRttNanos;
+    private long samplesUntilProbe;
+
+    VegasLimit(int initialLimit, int minLimit, int maxLimit, double smoothing) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+        this.samplesUntilProbe = nextProbe();
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    /** Records one finished request; {@code inFlight} is the count when it started. */
+    synchronized void onSample(long rttNanos, int inFlight, boolean failed) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (--samplesUntilProbe <= 0) {
+            samplesUntilProbe = nextProbe();
+            noLoadRttNanos = rttNanos;
+            return;
+        }
+        if (noLoadRttNanos == 0 || rttNanos < noLoadRttNanos) {
+            noLoadRttNanos = rttNanos;
+            return;
+        }
+
+        double current = estimatedLimit;
+        double step = Math.max(1, Math.log10(current));
+        double target;
+        if (failed) {
+            target = current - step;
+        } else if (inFlight * 2 < current) {
+            return;
+        } else {
+            double queue = Math.ceil(current * (1 - (double) noLoadRttNanos / rttNanos));
+            if (queue <= step) {
+                target = current + 6 * step;
+            } else if (queue < 3 * step) {
+                target = current + step;
+            } else if (queue > 6 * step) {
+                target = current - step;
+            } else {
+                return;
+            }
+        }
+
+        target = Math.max(minLimit, Math.min(maxLimit, target));
+        estimatedLimit = (1 - smoothing) * current + smoothing * target;
+        limit = (int) estimatedLimit;
+    }
+
+    private long nextProbe() {
+        return (long) PROBE_MULTIPLIER * Math.max(limit, 1);
+    }
+}
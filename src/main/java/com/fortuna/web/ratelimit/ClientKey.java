@@ -0,0 +1,26 @@
+package com.fortuna.web.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Identifies the client a request counts against: the signed-in user when there is one, otherwise
+ * the remote address. Anonymous session ids are not used, because a client can drop its cookie to
+ * get a fresh bucket.
+ */
+public final class ClientKey {
+
+    private ClientKey() {}
+
+    public static String of(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null
+                && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
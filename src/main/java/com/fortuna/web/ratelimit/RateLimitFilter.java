@@ -0,0 +1,61 @@
+package com.fortuna.web.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.security.autoconfigure.web.servlet.SecurityFilterProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Applies the {@value #LIMIT_NAME} limit per client to the configured paths before the body is
+ * read, answering 429 with {@code Retry-After} once a client's bucket is empty. It runs after the
+ * security filters so signed-in users are limited by user rather than by address.
+ */
+@Slf4j
+@Component
+@Order(SecurityFilterProperties.DEFAULT_FILTER_ORDER + 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_NAME = "requests";
+
+    private final RateLimiter rateLimiter;
+    private final List<String> paths;
+
+    public RateLimitFilter(
+            RateLimiter rateLimiter,
+            @Value("${application.rate-limit.paths:/api/save-metric,/api/save-metric/batch}")
+                    List<String> paths) {
+        this.rateLimiter = rateLimiter;
+        this.paths = paths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !paths.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String clientKey = ClientKey.of(request);
+        Duration retryAfter = rateLimiter.tryAcquire(LIMIT_NAME, clientKey, 1);
+        if (!retryAfter.isZero()) {
+            log.debug("Rate limited {} on {}", clientKey, request.getRequestURI());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RateLimiter.retryAfterSeconds(retryAfter));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
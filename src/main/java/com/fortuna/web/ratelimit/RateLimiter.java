@@ -0,0 +1,222 @@
+package com.fortuna.web.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token buckets per client, one set per named limit, implemented as GCRA: each client is a single
+ * {@link AtomicLong} holding the time its bucket will be full again, and a decision is one read and
+ * one compare-and-set on it. Nothing is refilled in the background, so idle clients cost nothing
+ * until the sweep drops them.
+ *
+ * <p>Limits are configured per name with {@code application.rate-limit.limits.<name>.rate} (tokens
+ * per second) and {@code .burst} (bucket size). A name without a rate is unlimited. Each limit
+ * tracks at most {@code application.rate-limit.max-keys} clients; past that, new clients share one
+ * overflow bucket until the sweep frees space.
+ */
+@Component
+public class RateLimiter {
+
+    static final String METER_NAME = "fortuna.rate-limit.rejected";
+    static final String OVERFLOW_KEY = "*";
+
+    private static final String PROPERTY_PREFIX = "application.rate-limit.limits.";
+
+    /** Marks a bucket the sweep has removed; acquirers that see it start a fresh bucket. */
+    private static final long EVICTED = -1;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final int maxKeys;
+    private final LongSupplier nanoTime;
+    private final long origin;
+
+    private final ConcurrentMap<String, Limit> limits = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RateLimiter(Environment environment, MeterRegistry meterRegistry) {
+        this(
+                environment,
+                meterRegistry,
+                environment.getProperty("application.rate-limit.max-keys", Integer.class, 100_000),
+                System::nanoTime);
+    }
+
+    RateLimiter(
+            Environment environment,
+            MeterRegistry meterRegistry,
+            int maxKeys,
+            LongSupplier nanoTime) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.maxKeys = maxKeys;
+        this.nanoTime = nanoTime;
+        this.origin = nanoTime.getAsLong();
+    }
+
+    /**
+     * Takes {@code permits} tokens from {@code clientKey}'s bucket for {@code limitName}. Returns
+     * {@link Duration#ZERO} when allowed, otherwise how long until the tokens would be available; a
+     * rejected call takes nothing. Requests for more tokens than the burst are always rejected, as
+     * no wait makes them fit; callers check {@link #exceedsBurst} first.
+     */
+    public Duration tryAcquire(String limitName, String clientKey, int permits) {
+        Limit limit = limits.computeIfAbsent(limitName, this::limitFor);
+        if (limit == Limit.UNLIMITED) {
+            return Duration.ZERO;
+        }
+        long waitNanos = limit.tryAcquire(clientKey, permits, now());
+        if (waitNanos == 0) {
+            return Duration.ZERO;
+        }
+        limit.rejected.increment();
+        return Duration.ofNanos(waitNanos);
+    }
+
+    /** Whether {@code permits} tokens are more than {@code limitName}'s bucket can ever hold. */
+    public boolean exceedsBurst(String limitName, int permits) {
+        Limit limit = limits.computeIfAbsent(limitName, this::limitFor);
+        return limit != Limit.UNLIMITED && permits > limit.burst;
+    }
+
+    /**
+     * Gives back tokens taken by an allowed {@link #tryAcquire}, for a request that was rejected
+     * for another reason after taking them.
+     */
+    public void release(String limitName, String clientKey, int permits) {
+        Limit limit = limits.get(limitName);
+        if (limit != null && limit != Limit.UNLIMITED) {
+            limit.release(clientKey, permits);
+        }
+    }
+
+    /** Drops clients whose buckets are full again, which is the state a new client starts in. */
+    @Scheduled(fixedDelayString = "${application.rate-limit.sweep-interval:1m}")
+    public void evictIdle() {
+        long now = now();
+        limits.values().forEach(limit -> limit.evictIdle(now));
+    }
+
+    int size(String limitName) {
+        Limit limit = limits.get(limitName);
+        return limit == null || limit == Limit.UNLIMITED ? 0 : limit.buckets.size();
+    }
+
+    /** Whole seconds for a {@code Retry-After} header, rounded up and at least one. */
+    public static String retryAfterSeconds(Duration wait) {
+        return Long.toString(Math.max(1, (wait.toNanos() + 999_999_999L) / 1_000_000_000L));
+    }
+
+    private long now() {
+        return nanoTime.getAsLong() - origin;
+    }
+
+    private Limit limitFor(String name) {
+        Double rate = environment.getProperty(PROPERTY_PREFIX + name + ".rate", Double.class);
+        if (rate == null || rate <= 0) {
+            return Limit.UNLIMITED;
+        }
+        int burst = environment.getProperty(PROPERTY_PREFIX + name + ".burst", Integer.class, 1);
+        return new Limit(
+                (long) (TimeUnit.SECONDS.toNanos(1) / rate),
+                Math.max(1, burst),
+                maxKeys,
+                Counter.builder(METER_NAME)
+                        .description("Requests rejected by a rate limit")
+                        .tag("limit", name)
+                        .register(meterRegistry));
+    }
+
+    private static final class Limit {
+
+        static final Limit UNLIMITED = new Limit(0, 1, 0, null);
+
+        final long intervalNanos;
+        final int burst;
+        final long toleranceNanos;
+        final int maxKeys;
+        final Counter rejected;
+
+        /**
+         * Per client, the time at which its bucket is full again (GCRA's theoretical arrival time).
+         */
+        final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+        Limit(long intervalNanos, int burst, int maxKeys, Counter rejected) {
+            this.intervalNanos = intervalNanos;
+            this.burst = burst;
+            this.toleranceNanos = intervalNanos * burst;
+            this.maxKeys = maxKeys;
+            this.rejected = rejected;
+        }
+
+        long tryAcquire(String clientKey, int permits, long now) {
+            long cost = cost(permits);
+            while (true) {
+                AtomicLong bucket = bucket(clientKey, now);
+                long full = bucket.get();
+                if (full == EVICTED) {
+                    continue;
+                }
+                long next = Math.max(full, now) + cost;
+                long wait = next - now - toleranceNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (bucket.compareAndSet(full, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        void release(String clientKey, int permits) {
+            AtomicLong bucket = buckets.get(clientKey);
+            if (bucket == null) {
+                // Taken from the overflow bucket while the key limit was reached.
+                bucket = buckets.get(OVERFLOW_KEY);
+            }
+            if (bucket != null) {
+                long cost = cost(permits);
+                bucket.getAndUpdate(full -> full == EVICTED ? full : full - cost);
+            }
+        }
+
+        void evictIdle(long now) {
+            buckets.forEach(
+                    (clientKey, bucket) -> {
+                        long full = bucket.get();
+                        if (full != EVICTED && full <= now && bucket.compareAndSet(full, EVICTED)) {
+                            buckets.remove(clientKey, bucket);
+                        }
+                    });
+        }
+
+        private long cost(int permits) {
+            return intervalNanos * Math.max(permits, 1);
+        }
+
+        private AtomicLong bucket(String clientKey, long now) {
+            AtomicLong bucket = buckets.get(clientKey);
+            if (bucket != null && bucket.get() != EVICTED) {
+                return bucket;
+            }
+            String key = buckets.size() < maxKeys ? clientKey : OVERFLOW_KEY;
+            return buckets.compute(
+                    key,
+                    (k, existing) ->
+                            existing == null || existing.get() == EVICTED
+                                    ? new AtomicLong(now)
+                                    : existing);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+ALTER TABLE metrics ADD COLUMN client_event_id VARCHAR(64) NULL;
+
+CREATE UNIQUE INDEX idx_metrics_client_event_id ON metrics(client_event_id)
+    WHERE client_event_id IS NOT NULL;
@@ -0,0 +1,25 @@
+-- Hot metadata fields extracted into generated columns so filters and group-bys do not parse jsonb per row.
+-- The legacy triggerId/screen keys are read as fallbacks so rows written before the schema registry are covered.
+-- Adding STORED columns rewrites the whole table under an ACCESS EXCLUSIVE lock, blocking reads and writes
+-- for the duration; on a large metrics table run it in a maintenance window. The indexes on these columns are
+-- built concurrently by the next migration.
+ALTER TABLE metrics
+    ADD COLUMN button_id VARCHAR(100) GENERATED ALWAYS AS (
+        CASE WHEN event = 'BUTTON_CLICK'
+             THEN left(COALESCE(metadata ->> 'buttonId', metadata ->> 'triggerId'), 100) END
+    ) STORED,
+    ADD COLUMN page VARCHAR(200) GENERATED ALWAYS AS (
+        CASE WHEN event = 'BUTTON_CLICK'
+             THEN left(COALESCE(metadata ->> 'page', metadata ->> 'screen'), 200) END
+    ) STORED,
+    ADD COLUMN amount BIGINT GENERATED ALWAYS AS (
+        -- Amounts outside the bigint range are left NULL rather than failing the insert.
+        CASE WHEN event = 'PAYMENT_SUBMITTED' AND jsonb_typeof(metadata -> 'amount') = 'number'
+             THEN CASE WHEN trunc((metadata ->> 'amount')::numeric)
+                                BETWEEN -9223372036854775808 AND 9223372036854775807
+                       THEN trunc((metadata ->> 'amount')::numeric)::bigint END END
+    ) STORED,
+    ADD COLUMN currency CHAR(3) GENERATED ALWAYS AS (
+        CASE WHEN event = 'PAYMENT_SUBMITTED' AND metadata ->> 'currency' ~ '^[A-Za-z]{3}$'
+             THEN upper(metadata ->> 'currency') END
+    ) STORED;
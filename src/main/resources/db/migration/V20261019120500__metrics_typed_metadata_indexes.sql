@@ -0,0 +1,8 @@
+-- CONCURRENTLY keeps metrics writable while the indexes build. Flyway runs a migration made only of
+-- concurrent index builds outside a transaction, which CONCURRENTLY requires. A failed build leaves an
+-- INVALID index behind; drop it before retrying.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_metrics_button_id ON metrics(button_id, event_time)
+    WHERE button_id IS NOT NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_metrics_page ON metrics(page, event_time) WHERE page IS NOT NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_metrics_currency_amount ON metrics(currency, amount)
+    WHERE currency IS NOT NULL;
@@ -0,0 +1,3 @@
+-- jsonb_path_ops only supports containment (@>, @?, @@) but is smaller and faster than the default jsonb_ops,
+-- which is all the metadata search endpoint issues.
+CREATE INDEX idx_metrics_metadata ON metrics USING GIN (metadata jsonb_path_ops);
@@ -0,0 +1,25 @@
+-- Local copy of Stripe PaymentIntents, kept current by PaymentReconciler. Reporting reads this table, never Stripe.
+CREATE TABLE payments
+(
+    id                VARCHAR(255) PRIMARY KEY,
+    amount            BIGINT       NOT NULL,
+    amount_received   BIGINT       NOT NULL DEFAULT 0,
+    currency          VARCHAR(3)   NOT NULL,
+    status            VARCHAR(32)  NOT NULL,
+    receipt_email     VARCHAR(255),
+    order_id          VARCHAR(255),
+    user_id           VARCHAR(255),
+    stripe_created_at TIMESTAMP    NOT NULL,
+    reconciled_at     TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_payments_created_at ON payments (stripe_created_at);
+CREATE INDEX idx_payments_status_created_at ON payments (status, stripe_created_at);
+
+-- How far reconciliation has got, as the end of the last fully listed `created` window.
+CREATE TABLE payment_reconciliation_checkpoints
+(
+    name       VARCHAR(64) PRIMARY KEY,
+    created_to TIMESTAMP   NOT NULL,
+    updated_at TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
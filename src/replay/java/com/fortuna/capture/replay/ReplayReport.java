@@ -0,0 +1,149 @@
+package com.fortuna.capture.replay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latency of the replayed requests next to what was recorded, per route. Recorded latency is the
+ * server-side time the capture filter measured; replayed latency is what the replaying client saw,
+ * so it also carries the network and client overhead and reads slightly high on the same hardware.
+ * Send lag is how far behind its scheduled time each request went out: when it grows, the replay
+ * did not keep up with the requested speed (raise the concurrency) and the comparison understates
+ * the load.
+ */
+final class ReplayReport {
+
+    private static final double[] PERCENTILES = {0.50, 0.95, 0.99};
+
+    private final Map<String, List<Sample>> samplesByRoute = new TreeMap<>();
+    private final List<Long> sendLagMicros = new ArrayList<>();
+    private int skipped;
+    private int failed;
+    private long wallMicros;
+
+    record Sample(int recordedStatus, int status, long recordedMicros, long replayedMicros) {}
+
+    /** {@code sendLag} is negative when the replay was not paced. */
+    synchronized void add(String route, Sample sample, long sendLag) {
+        samplesByRoute.computeIfAbsent(route, key -> new ArrayList<>()).add(sample);
+        sendLag(sendLag);
+    }
+
+    /** A request that got no response at all; it counts towards no latency figure. */
+    synchronized void failed(long sendLag) {
+        failed++;
+        sendLag(sendLag);
+    }
+
+    /** A record that was not replayed because its body was not captured. */
+    synchronized void skipped() {
+        skipped++;
+    }
+
+    synchronized void finished(long wallMicros) {
+        this.wallMicros = wallMicros;
+    }
+
+    private void sendLag(long micros) {
+        if (micros >= 0) {
+            sendLagMicros.add(micros);
+        }
+    }
+
+    synchronized int replayed() {
+        return samplesByRoute.values().stream().mapToInt(List::size).sum();
+    }
+
+    synchronized int failed() {
+        return failed;
+    }
+
+    synchronized String render() {
+        StringBuilder out = new StringBuilder();
+        int replayed = replayed();
+        out.append(
+                String.format(
+                        Locale.ROOT,
+                        "Replayed %d requests in %.1f s (%.1f req/s), %d without a response, %d"
+                                + " skipped%n",
+                        replayed,
+                        wallMicros / 1e6,
+                        wallMicros == 0 ? 0.0 : (replayed + failed) * 1e6 / wallMicros,
+                        failed,
+                        skipped));
+        long[] lag = sorted(sendLagMicros);
+        if (lag.length > 0) {
+            out.append(
+                    String.format(
+                            Locale.ROOT,
+                            "Send lag p99 %s ms, max %s ms%n",
+                            millis(percentile(lag, 0.99)),
+                            millis(lag[lag.length - 1])));
+        }
+        out.append(
+                String.format(
+                        Locale.ROOT,
+                        "%n%-44s %6s %8s  %-31s  %-31s%n",
+                        "route",
+                        "n",
+                        "status!=",
+                        "recorded p50/p95/p99/max ms",
+                        "replayed p50/p95/p99/max ms"));
+        List<Sample> all = new ArrayList<>();
+        samplesByRoute.forEach(
+                (route, samples) -> {
+                    all.addAll(samples);
+                    row(out, route, samples);
+                });
+        if (samplesByRoute.size() > 1) {
+            row(out, "all", all);
+        }
+        return out.toString();
+    }
+
+    private static void row(StringBuilder out, String route, List<Sample> samples) {
+        long mismatched =
+                samples.stream()
+                        .filter(sample -> sample.status() != sample.recordedStatus())
+                        .count();
+        out.append(
+                String.format(
+                        Locale.ROOT,
+                        "%-44s %6d %8d  %-31s  %-31s%n",
+                        route,
+                        samples.size(),
+                        mismatched,
+                        distribution(samples.stream().mapToLong(Sample::recordedMicros).toArray()),
+                        distribution(
+                                samples.stream().mapToLong(Sample::replayedMicros).toArray())));
+    }
+
+    private static String distribution(long[] micros) {
+        Arrays.sort(micros);
+        StringBuilder out = new StringBuilder();
+        for (double percentile : PERCENTILES) {
+            out.append(millis(percentile(micros, percentile))).append(" / ");
+        }
+        return out.append(millis(micros[micros.length - 1])).toString();
+    }
+
+    /** Nearest-rank percentile of a sorted, non-empty array. */
+    static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static long[] sorted(List<Long> values) {
+        long[] sorted = values.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+    }
+}
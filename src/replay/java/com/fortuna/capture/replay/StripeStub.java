@@ -0,0 +1,173 @@
+package com.fortuna.capture.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Just enough of the Stripe PaymentIntents API for the payment endpoints to run during a replay:
+ * create answers with a fresh {@code pi_replay_<n>} awaiting a payment method, retrieve reports
+ * every intent as succeeded, and listing (the reconciler) finds nothing. Each call waits {@code
+ * delay} first, to stand in for Stripe's own latency. Anything else is a 404 in Stripe's error
+ * shape.
+ */
+final class StripeStub implements AutoCloseable {
+
+    private static final String PAYMENT_INTENTS = "/v1/payment_intents";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Duration delay;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<String, Map<String, Object>> intents = new ConcurrentHashMap<>();
+
+    private StripeStub(int port, Duration delay) throws IOException {
+        this.delay = delay;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext(PAYMENT_INTENTS, this::handle);
+        server.setExecutor(executor);
+    }
+
+    /** Starts the stub on {@code port}, or on a free port when it is 0. */
+    static StripeStub start(int port, Duration delay) throws IOException {
+        StripeStub stub = new StripeStub(port, delay);
+        stub.server.start();
+        return stub;
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!delay.isZero()) {
+                Thread.sleep(delay.toMillis());
+            }
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            String id =
+                    path.length() > PAYMENT_INTENTS.length() + 1
+                            ? path.substring(PAYMENT_INTENTS.length() + 1)
+                            : null;
+            if ("POST".equals(method) && id == null) {
+                respond(exchange, 200, create(form(exchange)));
+            } else if ("GET".equals(method) && id == null) {
+                respond(
+                        exchange,
+                        200,
+                        Map.of(
+                                "object",
+                                "list",
+                                "data",
+                                List.of(),
+                                "has_more",
+                                false,
+                                "url",
+                                PAYMENT_INTENTS));
+            } else if ("GET".equals(method)) {
+                respond(exchange, 200, retrieve(id));
+            } else {
+                respond(
+                        exchange,
+                        404,
+                        Map.of(
+                                "error",
+                                Map.of(
+                                        "type",
+                                        "invalid_request_error",
+                                        "message",
+                                        "The replay stub does not serve " + method + " " + path)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Object> create(Map<String, String> form) {
+        String id = "pi_replay_" + ids.incrementAndGet();
+        Map<String, String> metadata = new LinkedHashMap<>();
+        form.forEach(
+                (key, value) -> {
+                    if (key.startsWith("metadata[") && key.endsWith("]")) {
+                        metadata.put(key.substring("metadata[".length(), key.length() - 1), value);
+                    }
+                });
+        Map<String, Object> intent = new LinkedHashMap<>();
+        intent.put("id", id);
+        intent.put("object", "payment_intent");
+        intent.put("amount", Long.parseLong(form.getOrDefault("amount", "0")));
+        intent.put("amount_received", 0);
+        intent.put("currency", form.getOrDefault("currency", "usd"));
+        intent.put("status", "requires_payment_method");
+        intent.put("client_secret", id + "_secret_replay");
+        intent.put("receipt_email", form.get("receipt_email"));
+        intent.put("created", Instant.now().getEpochSecond());
+        intent.put("livemode", false);
+        intent.put("metadata", metadata);
+        intents.put(id, intent);
+        return intent;
+    }
+
+    private Map<String, Object> retrieve(String id) {
+        Map<String, Object> created = intents.get(id);
+        Map<String, Object> intent = new LinkedHashMap<>();
+        intent.put("id", id);
+        intent.put("object", "payment_intent");
+        intent.put("amount", created == null ? 0 : created.get("amount"));
+        intent.put("amount_received", created == null ? 0 : created.get("amount"));
+        intent.put("currency", created == null ? "usd" : created.get("currency"));
+        intent.put("status", "succeeded");
+        intent.put(
+                "created",
+                created == null ? Instant.now().getEpochSecond() : created.get("created"));
+        intent.put("livemode", false);
+        intent.put("metadata", created == null ? Map.of() : created.get("metadata"));
+        return intent;
+    }
+
+    private static Map<String, String> form(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Map<String, String> form = new LinkedHashMap<>();
+        for (String pair : body.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                form.put(
+                        URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return form;
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Request-Id", "req_replay");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.fortuna.capture.replay;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fortuna.capture.CaptureRecord;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Re-issues captured requests against a running instance, keeping their recorded spacing divided by
+ * {@code speed}, or back to back at {@code max}, with at most {@code concurrency} in flight.
+ * Requests whose body was not captured are skipped. Run through {@code ./gradlew replay}; see
+ * {@code gradle/replay.gradle} for the options and how to prepare the target.
+ */
+public final class TrafficReplay {
+
+    /** Speed value for sending every request as soon as a slot is free. */
+    static final double MAX_SPEED = 0;
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final URI target;
+    private final double speed;
+    private final Semaphore inFlight;
+
+    TrafficReplay(HttpClient client, URI target, double speed, int concurrency) {
+        this.client = client;
+        this.target = target;
+        this.speed = speed;
+        this.inFlight = new Semaphore(concurrency);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = options(args);
+        Path capture = Path.of(options.getOrDefault("capture", "capture"));
+        URI target = URI.create(options.getOrDefault("target", "http://localhost:8080"));
+        String speedOption = options.getOrDefault("speed", "1");
+        double speed = MAX_SPEED;
+        if (!"max".equalsIgnoreCase(speedOption)) {
+            speed = Double.parseDouble(speedOption);
+            if (!(speed > 0)) {
+                throw new IllegalArgumentException(
+                        "speed must be positive or max, was " + speedOption);
+            }
+        }
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        int stripePort = Integer.parseInt(options.getOrDefault("stripe-port", "12111"));
+        Duration stripeDelay =
+                DurationStyle.detectAndParse(options.getOrDefault("stripe-delay", "0ms"));
+
+        List<CaptureRecord> records = load(capture);
+        try (StripeStub stripe = StripeStub.start(stripePort, stripeDelay)) {
+            System.out.printf(
+                    "Stripe stub on http://localhost:%d; the target needs STRIPE_API_BASE pointing at it%n",
+                    stripe.port());
+            System.out.printf(
+                    "Replaying %d records from %s against %s at %s%n",
+                    records.size(),
+                    capture,
+                    target,
+                    speed == MAX_SPEED ? "max speed" : speed + "x");
+            HttpClient client =
+                    HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_1_1)
+                            .connectTimeout(Duration.ofSeconds(5))
+                            .build();
+            ReplayReport report =
+                    new TrafficReplay(client, target, speed, concurrency).replay(records);
+            System.out.println();
+            System.out.print(report.render());
+            if (report.replayed() == 0 && report.failed() > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /** The records in a capture file, or in every capture file of a directory, oldest first. */
+    static List<CaptureRecord> load(Path capture) throws IOException {
+        List<Path> files;
+        if (Files.isDirectory(capture)) {
+            try (Stream<Path> listed = Files.list(capture)) {
+                files =
+                        listed.filter(file -> file.getFileName().toString().startsWith("capture-"))
+                                .filter(file -> file.getFileName().toString().endsWith(".ndjson"))
+                                .sorted()
+                                .toList();
+            }
+        } else {
+            files = List.of(capture);
+        }
+        ObjectReader reader = new ObjectMapper().readerFor(CaptureRecord.class);
+        List<CaptureRecord> records = new ArrayList<>();
+        for (Path file : files) {
+            try (MappingIterator<CaptureRecord> lines = reader.readValues(file.toFile())) {
+                lines.forEachRemaining(records::add);
+            }
+        }
+        return records;
+    }
+
+    ReplayReport replay(List<CaptureRecord> records) throws InterruptedException {
+        ReplayReport report = new ReplayReport();
+        List<CaptureRecord> replayable = new ArrayList<>(records.size());
+        for (CaptureRecord record : records) {
+            if (Boolean.TRUE.equals(record.bodyOmitted())) {
+                report.skipped();
+            } else {
+                replayable.add(record);
+            }
+        }
+        // Records are written as requests complete; replay them in the order they arrived.
+        replayable.sort(Comparator.comparing(record -> Instant.parse(record.time())));
+
+        long start = System.nanoTime();
+        List<CompletableFuture<?>> pending = new ArrayList<>(replayable.size());
+        Instant first = replayable.isEmpty() ? null : Instant.parse(replayable.get(0).time());
+        for (CaptureRecord record : replayable) {
+            long due = start;
+            if (speed != MAX_SPEED) {
+                long offset = Duration.between(first, Instant.parse(record.time())).toNanos();
+                due += (long) (offset / speed);
+                TimeUnit.NANOSECONDS.sleep(due - System.nanoTime());
+            }
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            long sendLagMicros = speed == MAX_SPEED ? -1 : (sent - due) / 1_000;
+            pending.add(
+                    client.sendAsync(request(record), HttpResponse.BodyHandlers.discarding())
+                            .handle(
+                                    (response, error) -> {
+                                        long micros = (System.nanoTime() - sent) / 1_000;
+                                        inFlight.release();
+                                        if (error != null) {
+                                            report.failed(sendLagMicros);
+                                        } else {
+                                            report.add(
+                                                    route(record),
+                                                    new ReplayReport.Sample(
+                                                            record.status(),
+                                                            response.statusCode(),
+                                                            record.durationMicros(),
+                                                            micros),
+                                                    sendLagMicros);
+                                        }
+                                        return null;
+                                    }));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        report.finished((System.nanoTime() - start) / 1_000);
+        return report;
+    }
+
+    private HttpRequest request(CaptureRecord record) {
+        HttpRequest.BodyPublisher body;
+        if (record.body() != null) {
+            body = HttpRequest.BodyPublishers.ofString(record.body(), StandardCharsets.UTF_8);
+        } else if (record.bodyBase64() != null) {
+            body =
+                    HttpRequest.BodyPublishers.ofByteArray(
+                            Base64.getDecoder().decode(record.bodyBase64()));
+        } else {
+            body = HttpRequest.BodyPublishers.noBody();
+        }
+        HttpRequest.Builder request =
+                HttpRequest.newBuilder(target.resolve(record.path()))
+                        .timeout(REQUEST_TIMEOUT)
+                        .method(record.method(), body);
+        if (record.contentType() != null) {
+            request.header("Content-Type", record.contentType());
+        }
+        return request.build();
+    }
+
+    private static String route(CaptureRecord record) {
+        return record.method() + " " + (record.route() != null ? record.route() : record.path());
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+}
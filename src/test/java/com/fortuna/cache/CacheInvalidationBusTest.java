@@ -0,0 +1,186 @@
+package com.fortuna.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationBusTest {
+
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+    private static final String CHANNEL = "fortuna_cache_invalidation";
+
+    @Mock JdbcTemplate mockJdbcTemplate;
+    @Mock InvalidatableCache mockUsers;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = bus(true);
+        bus.register("users", mockUsers);
+    }
+
+    @Test
+    @DisplayName("should drop keys locally at once and send them as one notification per cache")
+    void shouldBatchPublishedKeys() throws Exception {
+        bus.publish("users", "1");
+        bus.publish("users", "2");
+        bus.publish("users", "1");
+        bus.publish("other", "x");
+
+        verify(mockUsers, times(2)).invalidate("1");
+        verify(mockUsers).invalidate("2");
+        assertEquals(2, bus.flush());
+        List<JsonNode> messages = sentMessages(2);
+        assertEquals("users", messages.get(0).get("cache").asText());
+        assertEquals("[\"1\",\"2\"]", messages.get(0).get("keys").toString());
+        assertEquals("other", messages.get(1).get("cache").asText());
+        assertEquals(0, bus.flush());
+    }
+
+    @Test
+    @DisplayName("should split keys across notifications that fit the Postgres payload limit")
+    void shouldSplitLargeBatches() throws Exception {
+        for (int i = 0; i < 2_000; i++) {
+            bus.publish("users", Integer.toString(1_000_000 + i));
+        }
+
+        int sent = bus.flush();
+
+        assertTrue(sent > 1);
+        int keys = 0;
+        ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+        verify(mockJdbcTemplate, times(sent))
+                .queryForList(eq(NOTIFY_SQL), eq(CHANNEL), payloads.capture());
+        for (String payload : payloads.getAllValues()) {
+            assertTrue(payload.length() < 8_000, "payload of " + payload.length());
+            keys += objectMapper.readTree(payload).get("keys").size();
+        }
+        assertEquals(2_000, keys);
+    }
+
+    @Test
+    @DisplayName("should wait for the surrounding transaction to commit before publishing")
+    void shouldPublishAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bus.publish("users", "1");
+
+            verify(mockUsers, never()).invalidate(anyString());
+            assertEquals(0, bus.flush());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(mockUsers).invalidate("1");
+        assertEquals(1, bus.flush());
+    }
+
+    @Test
+    @DisplayName("should apply notifications from other instances and skip its own")
+    void shouldApplyOnlyRemoteNotifications() throws Exception {
+        bus.publish("users", "1");
+        bus.flush();
+        String own = sentPayloads(1).get(0);
+
+        bus.receive(own);
+        verify(mockUsers, times(1)).invalidate("1");
+
+        bus.receive("{\"origin\":\"another-node\",\"cache\":\"users\",\"keys\":[\"1\",\"9\"]}");
+        bus.receive("{\"origin\":\"another-node\",\"cache\":\"unknown\",\"keys\":[\"1\"]}");
+        verify(mockUsers, times(2)).invalidate("1");
+        verify(mockUsers).invalidate("9");
+
+        bus.invalidateAllLocally();
+        verify(mockUsers).invalidateAll();
+    }
+
+    @Test
+    @DisplayName("should only invalidate locally when disabled")
+    void shouldStayLocalWhenDisabled() {
+        CacheInvalidationBus disabled = bus(false);
+        InvalidatableCache cache = mock(InvalidatableCache.class);
+        disabled.register("users", cache);
+
+        disabled.publish("users", "1");
+
+        verify(cache).invalidate("1");
+        assertEquals(0, disabled.flush());
+        verifyNoInteractions(mockJdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("should reject channel names that are not plain identifiers")
+    void shouldRejectUnsafeChannel() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        new CacheInvalidationBus(
+                                mockJdbcTemplate,
+                                objectMapper,
+                                true,
+                                "x; DROP TABLE users",
+                                Duration.ofMillis(50),
+                                Duration.ofSeconds(1),
+                                "jdbc:postgresql://localhost/none",
+                                "user",
+                                "password",
+                                new Properties()));
+        assertThrows(IllegalStateException.class, () -> bus.register("users", mockUsers));
+    }
+
+    private CacheInvalidationBus bus(boolean enabled) {
+        return new CacheInvalidationBus(
+                mockJdbcTemplate,
+                objectMapper,
+                enabled,
+                CHANNEL,
+                Duration.ofMillis(50),
+                Duration.ofSeconds(1),
+                "jdbc:postgresql://localhost/none",
+                "user",
+                "password",
+                new Properties());
+    }
+
+    private List<String> sentPayloads(int count) {
+        ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+        verify(mockJdbcTemplate, times(count))
+                .queryForList(eq(NOTIFY_SQL), eq(CHANNEL), payloads.capture());
+        return payloads.getAllValues();
+    }
+
+    private List<JsonNode> sentMessages(int count) throws Exception {
+        List<JsonNode> messages = new java.util.ArrayList<>();
+        for (String payload : sentPayloads(count)) {
+            messages.add(objectMapper.readTree(payload));
+        }
+        return messages;
+    }
+}
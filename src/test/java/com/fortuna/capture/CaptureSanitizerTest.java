@@ -0,0 +1,73 @@
+package com.fortuna.capture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CaptureSanitizerTest {
+
+    private final CaptureSanitizer sanitizer =
+            new CaptureSanitizer(List.of("customerEmail", " name ", "address"));
+    private final JsonFactory json = new JsonFactory();
+
+    @Test
+    @DisplayName("should redact matching fields at any depth, case-insensitively")
+    void shouldRedactNestedFields() throws Exception {
+        String sanitized =
+                sanitize(
+                        "{\"CustomerEmail\":\"jane@doe.com\",\"eventMetadata\":{\"name\":\"Jane\","
+                                + "\"address\":{\"street\":\"1 Main St\"}},\"amount\":1000}");
+
+        assertEquals(
+                "{\"CustomerEmail\":\"redacted@example.com\",\"eventMetadata\":{\"name\":\"redacted\","
+                        + "\"address\":\"redacted\"},\"amount\":1000}",
+                sanitized);
+    }
+
+    @Test
+    @DisplayName("should keep explicit nulls so validation sees the same shape")
+    void shouldKeepNulls() throws Exception {
+        assertEquals("{\"name\":null}", sanitize("{\"name\":null}"));
+    }
+
+    @Test
+    @DisplayName("should keep NDJSON bodies line-delimited")
+    void shouldKeepNdjsonLines() throws Exception {
+        assertEquals(
+                "{\"name\":\"redacted\"}\n{\"event\":\"BUTTON_CLICK\"}",
+                sanitize("{\"name\":\"Jane\"}\n{\"event\":\"BUTTON_CLICK\"}\n"));
+    }
+
+    @Test
+    @DisplayName("should sanitize binary formats through their own factory")
+    void shouldSanitizeSmile() throws Exception {
+        SmileMapper smile = new SmileMapper();
+        byte[] body = smile.writeValueAsBytes(Map.of("name", "Jane", "userId", 42));
+
+        byte[] sanitized = sanitizer.sanitize(body, new SmileFactory());
+
+        assertEquals(
+                Map.of("name", "redacted", "userId", 42), smile.readValue(sanitized, Map.class));
+    }
+
+    @Test
+    @DisplayName("should refuse bodies it cannot parse")
+    void shouldRejectMalformedBody() {
+        assertThrows(IOException.class, () -> sanitize("{\"name\":\"Jane\""));
+    }
+
+    private String sanitize(String body) throws IOException {
+        return new String(
+                sanitizer.sanitize(body.getBytes(StandardCharsets.UTF_8), json),
+                StandardCharsets.UTF_8);
+    }
+}
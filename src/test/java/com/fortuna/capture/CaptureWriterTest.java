@@ -0,0 +1,133 @@
+package com.fortuna.capture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class CaptureWriterTest {
+
+    @TempDir Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TickingClock clock = new TickingClock(Instant.parse("2026-03-01T12:00:00Z"));
+
+    @Test
+    @DisplayName("should append records as NDJSON once flushed")
+    void shouldWriteNdjson() throws Exception {
+        CaptureWriter writer = writer(DataSize.ofMegabytes(1), 5);
+
+        writer.write(record("/api/save-metric", "{\"event\":\"BUTTON_CLICK\"}"));
+        writer.write(record("/api/payments/config", null));
+        writer.flush();
+
+        List<Path> files = writer.files();
+        assertEquals(1, files.size());
+        assertEquals("capture-20260301-120000-000.ndjson", files.get(0).getFileName().toString());
+        List<String> lines = Files.readAllLines(files.get(0));
+        assertEquals(2, lines.size());
+        assertEquals(
+                record("/api/save-metric", "{\"event\":\"BUTTON_CLICK\"}"),
+                objectMapper.readValue(lines.get(0), CaptureRecord.class));
+        assertFalse(lines.get(1).contains("body"), "null fields are left out");
+    }
+
+    @Test
+    @DisplayName("should start a new file once the current one reaches the size limit")
+    void shouldRotateAtMaxSize() throws Exception {
+        CaptureWriter writer = writer(DataSize.ofBytes(1), 5);
+
+        writer.write(record("/api/save-metric", "{}"));
+        writer.write(record("/api/save-metric", "{}"));
+        writer.write(record("/api/save-metric", "{}"));
+
+        List<Path> files = writer.files();
+        assertEquals(3, files.size());
+        for (Path file : files) {
+            assertEquals(1, Files.readAllLines(file).size());
+        }
+    }
+
+    @Test
+    @DisplayName("should keep only the newest files")
+    void shouldPruneOldFiles() throws Exception {
+        CaptureWriter writer = writer(DataSize.ofBytes(1), 2);
+
+        for (int i = 0; i < 4; i++) {
+            writer.write(record("/api/save-metric/" + i, "{}"));
+        }
+
+        List<Path> files = writer.files();
+        assertEquals(2, files.size());
+        assertTrue(Files.readString(files.get(0)).contains("/api/save-metric/2"));
+        assertTrue(Files.readString(files.get(1)).contains("/api/save-metric/3"));
+    }
+
+    @Test
+    @DisplayName("should flush what is buffered on close")
+    void shouldFlushOnClose() throws Exception {
+        CaptureWriter writer = writer(DataSize.ofMegabytes(1), 5);
+        writer.write(record("/api/save-metric", "{}"));
+
+        writer.close();
+
+        assertEquals(1, Files.readAllLines(writer.files().get(0)).size());
+    }
+
+    private CaptureWriter writer(DataSize maxFileSize, int maxFiles) {
+        return new CaptureWriter(objectMapper, directory, maxFileSize, maxFiles, clock);
+    }
+
+    private static CaptureRecord record(String path, String body) {
+        return new CaptureRecord(
+                "2026-03-01T12:00:00Z",
+                "POST",
+                path,
+                null,
+                body == null ? null : "application/json",
+                200,
+                1500,
+                body,
+                null,
+                null);
+    }
+
+    /** Moves on a second every read so each rotated file gets its own name. */
+    private static final class TickingClock extends Clock {
+
+        private Instant now;
+
+        private TickingClock(Instant start) {
+            this.now = start.minus(Duration.ofSeconds(1));
+        }
+
+        @Override
+        public Instant instant() {
+            now = now.plus(Duration.ofSeconds(1));
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.fortuna.capture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.HandlerMapping;
+
+class TrafficCaptureFilterTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T12:00:00Z");
+
+    private final CaptureWriter captureWriter = mock(CaptureWriter.class);
+    private final TrafficCaptureFilter filter = filter(true, DataSize.ofKilobytes(1));
+
+    @Test
+    @DisplayName("should record the request with its route, status and redacted body")
+    void shouldRecordSanitizedRequest() throws Exception {
+        MockHttpServletRequest request =
+                jsonRequest(
+                        "/api/payments/create-payment-intent",
+                        "{\"amount\":1000,\"customerEmail\":\"jane@doe.com\",\"orderId\":\"o-1\"}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain =
+                new MockFilterChain() {
+                    @Override
+                    public void doFilter(ServletRequest req, ServletResponse res)
+                            throws IOException {
+                        req.getInputStream().readAllBytes();
+                        req.setAttribute(
+                                HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                                "/api/payments/create-payment-intent");
+                        ((MockHttpServletResponse) res).setStatus(201);
+                    }
+                };
+
+        filter.doFilter(request, response, chain);
+
+        CaptureRecord record = captured();
+        assertEquals("2026-03-01T12:00:00Z", record.time());
+        assertEquals("POST", record.method());
+        assertEquals("/api/payments/create-payment-intent", record.path());
+        assertEquals("/api/payments/create-payment-intent", record.route());
+        assertEquals(201, record.status());
+        assertEquals(
+                "{\"amount\":1000,\"customerEmail\":\"redacted@example.com\",\"orderId\":\"o-1\"}",
+                record.body());
+        assertNull(record.bodyOmitted());
+    }
+
+    @Test
+    @DisplayName("should drain and record a body the handler never read")
+    void shouldRecordUnreadBody() throws Exception {
+        filter.doFilter(
+                jsonRequest("/api/save-metric", "{\"event\":\"BUTTON_CLICK\"}"),
+                new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        assertEquals("{\"event\":\"BUTTON_CLICK\"}", captured().body());
+    }
+
+    @Test
+    @DisplayName("should record gzip bodies inflated")
+    void shouldInflateGzipBody() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write("[{\"event\":\"BUTTON_CLICK\"}]".getBytes(StandardCharsets.UTF_8));
+        }
+        MockHttpServletRequest request =
+                new MockHttpServletRequest("POST", "/api/save-metric/batch");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        request.setContent(compressed.toByteArray());
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals("[{\"event\":\"BUTTON_CLICK\"}]", captured().body());
+    }
+
+    @Test
+    @DisplayName("should keep binary bodies as base64 after redacting them")
+    void shouldRecordBinaryBodyAsBase64() throws Exception {
+        CBORMapper cbor = new CBORMapper();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/save-metric");
+        request.setContentType(MediaType.APPLICATION_CBOR_VALUE);
+        request.setContent(cbor.writeValueAsBytes(Map.of("email", "a@b.c")));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        CaptureRecord record = captured();
+        assertNull(record.body());
+        assertEquals(
+                Map.of("email", "redacted@example.com"),
+                cbor.readValue(Base64.getDecoder().decode(record.bodyBase64()), Map.class));
+    }
+
+    @Test
+    @DisplayName("should omit bodies over the size cap, even when the handler read them")
+    void shouldOmitOversizedBody() throws Exception {
+        String large = "{\"text\":\"" + "x".repeat(2048) + "\"}";
+        MockFilterChain reading =
+                new MockFilterChain() {
+                    @Override
+                    public void doFilter(ServletRequest req, ServletResponse res)
+                            throws IOException {
+                        req.getInputStream().readAllBytes();
+                    }
+                };
+
+        filter.doFilter(
+                jsonRequest("/api/save-metric", large), new MockHttpServletResponse(), reading);
+
+        CaptureRecord record = captured();
+        assertTrue(record.bodyOmitted());
+        assertNull(record.body());
+    }
+
+    @Test
+    @DisplayName("should omit bodies that cannot be parsed and so cannot be sanitized")
+    void shouldOmitMalformedBody() throws Exception {
+        filter.doFilter(
+                jsonRequest("/api/save-metric", "{\"email\":"),
+                new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        assertTrue(captured().bodyOmitted());
+    }
+
+    @Test
+    @DisplayName("should leave other paths alone")
+    void shouldIgnoreOtherPaths() throws Exception {
+        MockHttpServletRequest request = jsonRequest("/api/users/1", "{}");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertEquals(request, chain.getRequest());
+        verify(captureWriter, never()).write(any());
+    }
+
+    @Test
+    @DisplayName("should do nothing unless enabled")
+    void shouldDoNothingWhenDisabled() throws Exception {
+        MockHttpServletRequest request = jsonRequest("/api/save-metric", "{}");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(false, DataSize.ofKilobytes(1))
+                .doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertEquals(request, chain.getRequest());
+        verify(captureWriter, never()).write(any());
+    }
+
+    @Test
+    @DisplayName("should not let a failed capture fail the request")
+    void shouldSwallowCaptureFailure() throws Exception {
+        doThrow(new IllegalStateException("disk full")).when(captureWriter).write(any());
+        MockHttpServletRequest request = jsonRequest("/api/save-metric", "{}");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    private TrafficCaptureFilter filter(boolean enabled, DataSize maxBodySize) {
+        return new TrafficCaptureFilter(
+                captureWriter,
+                enabled,
+                List.of("/api/save-metric/**", "/api/payments/**"),
+                maxBodySize,
+                List.of("customerEmail", "email"),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private CaptureRecord captured() {
+        ArgumentCaptor<CaptureRecord> record = ArgumentCaptor.forClass(CaptureRecord.class);
+        verify(captureWriter).write(record.capture());
+        return record.getValue();
+    }
+
+    private static MockHttpServletRequest jsonRequest(String path, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,75 @@
+package com.fortuna.capture.replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ReplayReportTest {
+
+    @Test
+    @DisplayName("should take nearest-rank percentiles")
+    void shouldTakeNearestRankPercentiles() {
+        long[] sorted = {10, 20, 30, 40, 50, 60, 70, 80, 90, 100};
+
+        assertEquals(50, ReplayReport.percentile(sorted, 0.50));
+        assertEquals(100, ReplayReport.percentile(sorted, 0.95));
+        assertEquals(10, ReplayReport.percentile(sorted, 0.01));
+        assertEquals(7, ReplayReport.percentile(new long[] {7}, 0.99));
+    }
+
+    @Test
+    @DisplayName("should report recorded against replayed latency per route")
+    void shouldRenderRoutes() {
+        ReplayReport report = new ReplayReport();
+        for (int i = 1; i <= 100; i++) {
+            report.add(
+                    "POST /api/save-metric",
+                    new ReplayReport.Sample(200, 200, i * 1_000L, i * 2_000L),
+                    0);
+        }
+        report.add(
+                "GET /api/payments/verify/{paymentIntentId}",
+                new ReplayReport.Sample(200, 500, 4_000, 9_000),
+                1_500);
+        report.failed(0);
+        report.skipped();
+        report.finished(2_000_000);
+
+        String rendered = report.render();
+
+        assertTrue(
+                rendered.startsWith(
+                        "Replayed 101 requests in 2.0 s (51.0 req/s), 1 without a response, 1 skipped"),
+                rendered);
+        assertTrue(rendered.contains("Send lag p99 0.0 ms, max 1.5 ms"), rendered);
+        assertTrue(
+                rendered.lines()
+                        .anyMatch(
+                                line ->
+                                        line.startsWith("POST /api/save-metric")
+                                                && line.contains("50.0 / 95.0 / 99.0 / 100.0")
+                                                && line.contains("100.0 / 190.0 / 198.0 / 200.0")),
+                rendered);
+        assertTrue(
+                rendered.lines()
+                        .anyMatch(
+                                line ->
+                                        line.startsWith(
+                                                        "GET /api/payments/verify/{paymentIntentId}")
+                                                && line.matches(".*\\s1\\s+1\\s+4\\.0 / .*")),
+                rendered);
+        assertTrue(rendered.lines().anyMatch(line -> line.startsWith("all ")), rendered);
+    }
+
+    @Test
+    @DisplayName("should leave out send lag for an unpaced replay")
+    void shouldOmitLagWhenUnpaced() {
+        ReplayReport report = new ReplayReport();
+        report.add("POST /api/save-metric", new ReplayReport.Sample(200, 200, 1_000, 1_000), -1);
+
+        assertFalse(report.render().contains("Send lag"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.fortuna.capture.replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class StripeStubTest {
+
+    private StripeStub stub;
+    private RequestOptions options;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = StripeStub.start(0, Duration.ZERO);
+        options =
+                RequestOptions.builder()
+                        .setApiKey("sk_test_replay")
+                        .setBaseUrl("http://localhost:" + stub.port())
+                        .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    @DisplayName("should answer the Stripe client's create with a fresh intent")
+    void shouldCreatePaymentIntent() throws Exception {
+        PaymentIntent intent =
+                PaymentIntent.create(
+                        PaymentIntentCreateParams.builder()
+                                .setAmount(1500L)
+                                .setCurrency("eur")
+                                .putMetadata("orderId", "o-1")
+                                .build(),
+                        options);
+
+        assertEquals("pi_replay_1", intent.getId());
+        assertEquals(1500L, intent.getAmount());
+        assertEquals("eur", intent.getCurrency());
+        assertEquals("requires_payment_method", intent.getStatus());
+        assertEquals("o-1", intent.getMetadata().get("orderId"));
+    }
+
+    @Test
+    @DisplayName("should report any intent as succeeded on retrieve")
+    void shouldRetrieveAsSucceeded() throws Exception {
+        PaymentIntent created =
+                PaymentIntent.create(
+                        PaymentIntentCreateParams.builder()
+                                .setAmount(700L)
+                                .setCurrency("usd")
+                                .build(),
+                        options);
+
+        PaymentIntent retrieved = PaymentIntent.retrieve(created.getId(), options);
+        PaymentIntent recorded = PaymentIntent.retrieve("pi_recorded_elsewhere", options);
+
+        assertEquals("succeeded", retrieved.getStatus());
+        assertEquals(700L, retrieved.getAmountReceived());
+        assertEquals("succeeded", recorded.getStatus());
+    }
+
+    @Test
+    @DisplayName("should list no intents")
+    void shouldListNothing() throws Exception {
+        assertEquals(0, PaymentIntent.list(Map.of(), options).getData().size());
+    }
+}
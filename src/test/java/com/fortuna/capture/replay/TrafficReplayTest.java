@@ -0,0 +1,168 @@
+package com.fortuna.capture.replay;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fortuna.capture.CaptureRecord;
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TrafficReplayTest {
+
+    private final List<Received> received = new CopyOnWriteArrayList<>();
+    private HttpServer target;
+
+    private record Received(String method, String path, String contentType, byte[] body) {}
+
+    @BeforeEach
+    void setUp() throws Exception {
+        target = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        target.createContext(
+                "/",
+                exchange -> {
+                    try (exchange) {
+                        received.add(
+                                new Received(
+                                        exchange.getRequestMethod(),
+                                        exchange.getRequestURI().getPath(),
+                                        exchange.getRequestHeaders().getFirst("Content-Type"),
+                                        exchange.getRequestBody().readAllBytes()));
+                        exchange.sendResponseHeaders(204, -1);
+                    }
+                });
+        target.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        target.stop(0);
+    }
+
+    @Test
+    @DisplayName("should re-send each captured request with its method, path, type and body")
+    void shouldReplayRequests() throws Exception {
+        byte[] cbor = {(byte) 0xa0};
+        List<CaptureRecord> records =
+                List.of(
+                        record(
+                                "2026-03-01T12:00:00.000Z",
+                                "/api/save-metric",
+                                "{\"event\":\"BUTTON_CLICK\"}",
+                                null),
+                        record(
+                                "2026-03-01T12:00:00.010Z",
+                                "/api/save-metric",
+                                null,
+                                Base64.getEncoder().encodeToString(cbor)),
+                        new CaptureRecord(
+                                "2026-03-01T12:00:00.020Z",
+                                "POST",
+                                "/api/save-metric",
+                                null,
+                                "application/json",
+                                200,
+                                900,
+                                null,
+                                null,
+                                true));
+
+        ReplayReport report = replay(TrafficReplay.MAX_SPEED).replay(records);
+
+        assertEquals(2, report.replayed());
+        assertEquals(2, received.size());
+        Received json =
+                received.stream()
+                        .filter(r -> "application/json".equals(r.contentType()))
+                        .findFirst()
+                        .orElseThrow();
+        assertEquals("POST", json.method());
+        assertEquals("/api/save-metric", json.path());
+        assertEquals(
+                "{\"event\":\"BUTTON_CLICK\"}", new String(json.body(), StandardCharsets.UTF_8));
+        Received binary =
+                received.stream()
+                        .filter(r -> "application/cbor".equals(r.contentType()))
+                        .findFirst()
+                        .orElseThrow();
+        assertArrayEquals(cbor, binary.body());
+        assertTrue(report.render().contains("1 skipped"));
+    }
+
+    @Test
+    @DisplayName("should keep the recorded spacing divided by the speed, in arrival order")
+    void shouldPaceBySpeed() throws Exception {
+        List<CaptureRecord> records =
+                List.of(
+                        record("2026-03-01T12:00:00.800Z", "/api/save-metric/3", "{}", null),
+                        record("2026-03-01T12:00:00.000Z", "/api/save-metric/1", "{}", null),
+                        record("2026-03-01T12:00:00.400Z", "/api/save-metric/2", "{}", null));
+
+        TrafficReplay replay = replay(2);
+        // A cold client opens its first connection slowly enough to reorder the requests.
+        replay.replay(List.of(record("2026-03-01T11:00:00Z", "/warm-up", "{}", null)));
+        received.clear();
+
+        long start = System.nanoTime();
+        replay.replay(records);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(
+                List.of("/api/save-metric/1", "/api/save-metric/2", "/api/save-metric/3"),
+                received.stream().map(Received::path).toList());
+        assertTrue(
+                elapsedMillis >= 400 && elapsedMillis < 2_000,
+                "800 ms at 2x should take about 400 ms, took " + elapsedMillis);
+    }
+
+    @Test
+    @DisplayName("should read every capture file in a directory in name order")
+    void shouldLoadCaptureDirectory(@TempDir Path directory) throws Exception {
+        Files.writeString(
+                directory.resolve("capture-20260301-120100-000.ndjson"),
+                "{\"time\":\"2026-03-01T12:01:00Z\",\"method\":\"GET\",\"path\":\"/b\",\"status\":200,\"durationMicros\":5}\n");
+        Files.writeString(
+                directory.resolve("capture-20260301-120000-000.ndjson"),
+                "{\"time\":\"2026-03-01T12:00:00Z\",\"method\":\"GET\",\"path\":\"/a\",\"status\":200,\"durationMicros\":5}\n");
+        Files.writeString(directory.resolve("notes.txt"), "not a capture");
+
+        List<CaptureRecord> records = TrafficReplay.load(directory);
+
+        assertEquals(List.of("/a", "/b"), records.stream().map(CaptureRecord::path).toList());
+    }
+
+    private TrafficReplay replay(double speed) {
+        return new TrafficReplay(
+                HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(),
+                URI.create("http://localhost:" + target.getAddress().getPort()),
+                speed,
+                4);
+    }
+
+    private static CaptureRecord record(String time, String path, String body, String bodyBase64) {
+        return new CaptureRecord(
+                time,
+                "POST",
+                path,
+                "/api/save-metric",
+                body != null ? "application/json" : "application/cbor",
+                200,
+                1_000,
+                body,
+                bodyBase64,
+                null);
+    }
+}
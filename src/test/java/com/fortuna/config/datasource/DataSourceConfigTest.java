@@ -0,0 +1,130 @@
+package com.fortuna.config.datasource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+class DataSourceConfigTest {
+
+    private final DataSourceConfig dataSourceConfig = new DataSourceConfig();
+
+    private final ApplicationContextRunner contextRunner =
+            new ApplicationContextRunner()
+                    .withUserConfiguration(DataSourceConfig.class, Infrastructure.class);
+
+    @Test
+    @DisplayName("should bind the write and read pools from their own properties")
+    void shouldConfigurePoolsIndependently() {
+        contextRunner
+                .withPropertyValues(
+                        "spring.datasource.url=jdbc:postgresql://primary:5432/fortuna",
+                        "spring.datasource.username=dev",
+                        "spring.datasource.password=password",
+                        "spring.datasource.hikari.maximum-pool-size=4",
+                        "spring.datasource.hikari.connection-timeout=1500",
+                        "spring.datasource.hikari.data-source-properties.sslmode=require",
+                        "application.datasource.read.url=jdbc:postgresql://replica:5432/fortuna",
+                        "application.datasource.read.username=reader",
+                        "application.datasource.read.password=password",
+                        "application.datasource.read.hikari.maximum-pool-size=12")
+                .run(
+                        context -> {
+                            HikariDataSource write =
+                                    context.getBean("writeDataSource", HikariDataSource.class);
+                            assertEquals(DataSourceConfig.WRITE_POOL_NAME, write.getPoolName());
+                            assertEquals(
+                                    "jdbc:postgresql://primary:5432/fortuna", write.getJdbcUrl());
+                            assertEquals(4, write.getMaximumPoolSize());
+                            assertEquals(1500, write.getConnectionTimeout());
+                            assertFalse(write.isReadOnly());
+                            assertEquals(
+                                    "true",
+                                    write.getDataSourceProperties()
+                                            .getProperty("reWriteBatchedInserts"));
+                            assertEquals(
+                                    "require",
+                                    write.getDataSourceProperties().getProperty("sslmode"));
+                            assertNotNull(write.getMetricsTrackerFactory());
+
+                            HikariDataSource read =
+                                    context.getBean("readDataSource", HikariDataSource.class);
+                            assertEquals(DataSourceConfig.READ_POOL_NAME, read.getPoolName());
+                            assertEquals(
+                                    "jdbc:postgresql://replica:5432/fortuna", read.getJdbcUrl());
+                            assertEquals("reader", read.getUsername());
+                            assertEquals(12, read.getMaximumPoolSize());
+                            assertTrue(read.isReadOnly());
+                            assertNull(read.getDataSourceProperties().getProperty("sslmode"));
+                            assertNotNull(read.getMetricsTrackerFactory());
+                        });
+    }
+
+    @Test
+    @DisplayName("should point the read pool at the primary when no replica is configured")
+    void shouldFallBackToPrimaryForReads() {
+        contextRunner
+                .withPropertyValues(
+                        "spring.datasource.url=jdbc:postgresql://primary:5432/fortuna",
+                        "spring.datasource.username=dev",
+                        "spring.datasource.password=password")
+                .run(
+                        context -> {
+                            HikariDataSource read =
+                                    context.getBean("readDataSource", HikariDataSource.class);
+                            assertEquals(
+                                    "jdbc:postgresql://primary:5432/fortuna", read.getJdbcUrl());
+                            assertEquals("dev", read.getUsername());
+                            assertTrue(read.isReadOnly());
+                        });
+    }
+
+    @Test
+    @DisplayName(
+            "should send read-only connections to the read pool and the rest to the write pool")
+    void shouldRouteByReadOnlyFlag() throws Exception {
+        DataSource write = mock(DataSource.class);
+        DataSource read = mock(DataSource.class);
+        Connection writeConnection = mock(Connection.class);
+        Connection readConnection = mock(Connection.class);
+        when(write.getConnection()).thenReturn(writeConnection);
+        when(read.getConnection()).thenReturn(readConnection);
+        DataSource dataSource = dataSourceConfig.dataSource(write, read);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.createStatement();
+        }
+        verify(readConnection).createStatement();
+        verify(writeConnection, never()).createStatement();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement();
+        }
+        verify(writeConnection).createStatement();
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(DataSourceProperties.class)
+    static class Infrastructure {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.fortuna.config.nativeimage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fortuna.metrics.controller.model.MetricEventDTO;
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.PaymentIntentCollection;
+import com.stripe.model.StripeCollection;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.PaymentIntentListParams;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+class FortunaRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new FortunaRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("should register Stripe models and their nested classes for Gson reflection")
+    void shouldRegisterStripeModelsWithNestedClasses() {
+        assertTrue(
+                RuntimeHintsPredicates.reflection()
+                        .onType(PaymentIntent.class)
+                        .withMemberCategory(MemberCategory.ACCESS_DECLARED_FIELDS)
+                        .test(hints));
+        assertTrue(
+                RuntimeHintsPredicates.reflection()
+                        .onType(PaymentIntent.NextAction.class)
+                        .test(hints));
+        assertTrue(
+                RuntimeHintsPredicates.reflection()
+                        .onType(PaymentIntentCreateParams.AutomaticPaymentMethods.class)
+                        .test(hints));
+    }
+
+    @Test
+    @DisplayName("should register the types the reconciler lists payment intents with")
+    void shouldRegisterPaymentIntentListTypes() {
+        assertTrue(
+                RuntimeHintsPredicates.reflection()
+                        .onType(PaymentIntentListParams.class)
+                        .withMemberCategory(MemberCategory.ACCESS_DECLARED_FIELDS)
+                        .test(hints));
+        assertTrue(
+                RuntimeHintsPredicates.reflection()
+                        .onType(PaymentIntentListParams.Created.class)
+                        .test(hints));
+        assertTrue(
+                RuntimeHintsPredicates.reflection()
+                        .onType(PaymentIntentCollection.class)
+                        .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                        .test(hints));
+        assertTrue(
+                RuntimeHintsPredicates.reflection()
+                        .onType(StripeCollection.class)
+                        .withMemberCategory(MemberCategory.ACCESS_DECLARED_FIELDS)
+                        .test(hints));
+    }
+
+    @Test
+    @DisplayName("should register DTOs and entities for binding")
+    void shouldRegisterDtosAndEntities() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(MetricEventDTO.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(MetricEventEntity.class).test(hints));
+    }
+
+    @Test
+    @DisplayName("should register Flyway migrations as resources")
+    void shouldRegisterFlywayMigrations() {
+        assertTrue(
+                RuntimeHintsPredicates.resource()
+                        .forResource("db/migration/V20260204124049__metrics_table_create.sql")
+                        .test(hints));
+    }
+}
@@ -0,0 +1,72 @@
+package com.fortuna.config.security;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+class SecurityConfigTest {
+
+    private final WebApplicationContextRunner contextRunner =
+            new WebApplicationContextRunner()
+                    .withUserConfiguration(SecurityConfig.class, Endpoints.class);
+
+    @Test
+    @DisplayName("should refuse the metrics read endpoints by default and permit everything else")
+    void shouldRefuseMetricsReadApiByDefault() {
+        contextRunner.run(
+                context -> {
+                    MockMvc mockMvc =
+                            MockMvcBuilders.webAppContextSetup(context)
+                                    .apply(springSecurity())
+                                    .build();
+
+                    mockMvc.perform(get("/api/metrics/search")).andExpect(status().isForbidden());
+                    mockMvc.perform(get("/api/metrics/stream")).andExpect(status().isForbidden());
+                    mockMvc.perform(get("/api/payments/config")).andExpect(status().isOk());
+                });
+    }
+
+    @Test
+    @DisplayName("should permit the metrics read endpoints once enabled")
+    void shouldPermitMetricsReadApiWhenEnabled() {
+        contextRunner
+                .withPropertyValues("application.metrics.read-api.enabled=true")
+                .run(
+                        context -> {
+                            MockMvc mockMvc =
+                                    MockMvcBuilders.webAppContextSetup(context)
+                                            .apply(springSecurity())
+                                            .build();
+
+                            mockMvc.perform(get("/api/metrics/search")).andExpect(status().isOk());
+                            mockMvc.perform(get("/api/metrics/stream")).andExpect(status().isOk());
+                        });
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @EnableWebSecurity
+    static class Endpoints {
+
+        // Registered as a member class of the configuration.
+        @RestController
+        static class StubController {
+
+            @GetMapping({"/api/metrics/search", "/api/metrics/stream", "/api/payments/config"})
+            String ok() {
+                return "ok";
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.fortuna.config.web;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+class StaticResourceConfigTest {
+
+    private static final String ASSET = "/assets/js/app-3f9a1c.js";
+
+    private AnnotationConfigWebApplicationContext context;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(TestWebConfig.class);
+        context.refresh();
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    @DisplayName("should serve the precompressed brotli variant when the client accepts br")
+    void shouldServeBrotliVariant() throws Exception {
+        mockMvc.perform(get(ASSET).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "br"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString("Accept-Encoding")))
+                .andExpect(content().bytes(fixture("js/app-3f9a1c.js.br")));
+    }
+
+    @Test
+    @DisplayName("should serve the precompressed gzip variant when the client only accepts gzip")
+    void shouldServeGzipVariant() throws Exception {
+        mockMvc.perform(get(ASSET).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(content().bytes(fixture("js/app-3f9a1c.js.gz")));
+    }
+
+    @Test
+    @DisplayName("should serve the original file without Accept-Encoding and mark it immutable")
+    void shouldServeOriginalAsImmutable() throws Exception {
+        mockMvc.perform(get(ASSET))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(
+                        header().string(
+                                        HttpHeaders.CACHE_CONTROL,
+                                        "max-age=31536000, public, immutable"))
+                .andExpect(content().bytes(fixture("js/app-3f9a1c.js")));
+    }
+
+    private static byte[] fixture(String path) throws Exception {
+        return new ClassPathResource("static-fixtures/assets/" + path).getContentAsByteArray();
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class TestWebConfig {
+        @Bean
+        StaticResourceConfig staticResourceConfig() {
+            return new StaticResourceConfig("classpath:/static-fixtures/assets/");
+        }
+    }
+}
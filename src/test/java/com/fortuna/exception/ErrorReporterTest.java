@@ -0,0 +1,186 @@
+package com.fortuna.exception;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+class ErrorReporterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(ErrorReporter.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    @DisplayName("should log full stack traces only for the first occurrences of a fingerprint")
+    void shouldLogFullStackTracesOnlyForFirstOccurrences() {
+        ErrorReporter reporter = new ErrorReporter(meterRegistry, 2, Duration.ofMinutes(1), 3, 10);
+
+        for (int i = 0; i < 8; i++) {
+            reporter.reportError("Runtime exception occurred", sameOrigin());
+        }
+
+        long withStackTrace =
+                appender.list.stream().filter(event -> event.getThrowableProxy() != null).count();
+        long summaries =
+                appender.list.stream().filter(event -> event.getThrowableProxy() == null).count();
+
+        assertEquals(2, withStackTrace);
+        assertEquals(2, summaries, "occurrences 3 and 6 are sampled as summaries");
+    }
+
+    @Test
+    @DisplayName("should count every occurrence per fingerprint in the meter registry")
+    void shouldCountEveryOccurrence() {
+        ErrorReporter reporter =
+                new ErrorReporter(meterRegistry, 1, Duration.ofMinutes(1), 100, 10);
+
+        for (int i = 0; i < 5; i++) {
+            reporter.reportError("Runtime exception occurred", sameOrigin());
+        }
+        reporter.reportWarning("Illegal argument provided", new IllegalArgumentException("bad"));
+
+        assertEquals(
+                5,
+                meterRegistry
+                        .get(ErrorReporter.METER_NAME)
+                        .tag("exception", RuntimeException.class.getName())
+                        .counter()
+                        .count());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(ErrorReporter.METER_NAME)
+                        .tag("exception", IllegalArgumentException.class.getName())
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    @DisplayName("should start logging full stack traces again once the window rolls over")
+    void shouldResetAfterWindow() {
+        MutableClock clock = new MutableClock();
+        ErrorReporter reporter =
+                new ErrorReporter(meterRegistry, 1, Duration.ofMillis(500), 100, 10, clock);
+
+        reporter.reportError("Runtime exception occurred", sameOrigin());
+        reporter.reportError("Runtime exception occurred", sameOrigin());
+        clock.advance(Duration.ofMillis(600));
+        reporter.reportError("Runtime exception occurred", sameOrigin());
+
+        long withStackTrace =
+                appender.list.stream().filter(event -> event.getThrowableProxy() != null).count();
+        assertEquals(2, withStackTrace);
+    }
+
+    @Test
+    @DisplayName("should bound the number of tracked fingerprints")
+    void shouldBoundTrackedFingerprints() {
+        ErrorReporter reporter = new ErrorReporter(meterRegistry, 1, Duration.ofMinutes(1), 100, 1);
+
+        reporter.reportError("first", new IllegalStateException("a"));
+        reporter.reportError("second", new UnsupportedOperationException("b"));
+
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(ErrorReporter.METER_NAME)
+                        .tag("exception", ErrorFingerprint.OVERFLOW.exceptionClass())
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    @DisplayName("should make room for new fingerprints once tracked ones expire")
+    void shouldEvictExpiredFingerprints() {
+        MutableClock clock = new MutableClock();
+        ErrorReporter reporter =
+                new ErrorReporter(meterRegistry, 1, Duration.ofMinutes(1), 100, 1, clock);
+
+        reporter.reportError("first", new IllegalStateException("a"));
+        clock.advance(Duration.ofMinutes(2));
+        reporter.reportError("second", new UnsupportedOperationException("b"));
+
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(ErrorReporter.METER_NAME)
+                        .tag("exception", UnsupportedOperationException.class.getName())
+                        .counter()
+                        .count());
+        assertNull(
+                meterRegistry
+                        .find(ErrorReporter.METER_NAME)
+                        .tag("exception", ErrorFingerprint.OVERFLOW.exceptionClass())
+                        .counter());
+    }
+
+    @Test
+    @DisplayName("should generate unique UUID-formatted error IDs")
+    void shouldGenerateUniqueErrorIds() {
+        ErrorReporter reporter =
+                new ErrorReporter(meterRegistry, 0, Duration.ofMinutes(1), 100, 10);
+        Set<String> ids = new HashSet<>();
+
+        for (int i = 0; i < 1000; i++) {
+            String id = reporter.reportError("Runtime exception occurred", sameOrigin());
+            assertEquals(4, java.util.UUID.fromString(id).version());
+            ids.add(id);
+        }
+
+        assertEquals(1000, ids.size());
+    }
+
+    private static RuntimeException sameOrigin() {
+        return new RuntimeException("Database error");
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-04-20T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
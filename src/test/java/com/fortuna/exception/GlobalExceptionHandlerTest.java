@@ -5,6 +5,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.fortuna.exception.model.ErrorResponse;
 import com.fortuna.metrics.exception.MetricSerializationException;
 import com.fortuna.payment.exception.PaymentException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
@@ -14,7 +16,10 @@ import org.springframework.web.context.request.ServletWebRequest;
 
 class GlobalExceptionHandlerTest {
 
-    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final GlobalExceptionHandler handler =
+            new GlobalExceptionHandler(
+                    new ErrorReporter(
+                            new SimpleMeterRegistry(), 5, Duration.ofMinutes(1), 100, 1000));
 
     @Test
     @DisplayName("should handle PaymentException with 400 status")
@@ -0,0 +1,111 @@
+package com.fortuna.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.cache.CacheInvalidationBus;
+import com.fortuna.cache.InvalidatableCache;
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** Two buses on one channel stand in for two instances sharing the database. */
+@SpringBootTest
+class CacheInvalidationIntegrationTest {
+
+    private static final String CHANNEL = "fortuna_cache_invalidation_it";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("writeDataSource")
+    private HikariDataSource writeDataSource;
+
+    private final List<String> invalidated = new CopyOnWriteArrayList<>();
+    private final AtomicInteger clears = new AtomicInteger();
+    private CacheInvalidationBus nodeA;
+    private CacheInvalidationBus nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = node();
+        nodeB = node();
+        nodeA.register("users", InvalidatableCache.of(invalidated::add, clears::incrementAndGet));
+        nodeB.register("users", InvalidatableCache.of(key -> {}, () -> {}));
+        nodeA.start();
+        nodeB.start();
+        awaitListeners(2);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.stop();
+        nodeB.stop();
+    }
+
+    @Test
+    @DisplayName("INT - keys published on one instance are invalidated on the other")
+    void invalidationsReachOtherInstances() {
+        nodeB.publish("users", "1");
+        nodeB.publish("users", "2");
+
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(invalidated).containsExactly("1", "2"));
+    }
+
+    @Test
+    @DisplayName(
+            "INT - the listener reconnects and clears local caches after losing its connection")
+    void listenerReconnectsAfterConnectionLoss() {
+        jdbcTemplate.queryForList(
+                "SELECT pg_terminate_backend(pid) FROM pg_stat_activity"
+                        + " WHERE application_name = 'fortuna-cache-invalidation'"
+                        + " AND query LIKE 'LISTEN "
+                        + CHANNEL
+                        + "%'");
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> clears.get() > 0);
+        awaitListeners(2);
+        nodeB.publish("users", "3");
+
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(invalidated).contains("3"));
+    }
+
+    private CacheInvalidationBus node() {
+        return new CacheInvalidationBus(
+                jdbcTemplate,
+                new ObjectMapper(),
+                true,
+                CHANNEL,
+                Duration.ofMillis(20),
+                Duration.ofSeconds(1),
+                writeDataSource);
+    }
+
+    private void awaitListeners(int count) {
+        await().atMost(Duration.ofSeconds(5))
+                .until(
+                        () ->
+                                jdbcTemplate.queryForObject(
+                                                "SELECT count(*) FROM pg_stat_activity"
+                                                        + " WHERE application_name ="
+                                                        + " 'fortuna-cache-invalidation'"
+                                                        + " AND query LIKE 'LISTEN "
+                                                        + CHANNEL
+                                                        + "%'",
+                                                Integer.class)
+                                        >= count);
+    }
+}
@@ -0,0 +1,82 @@
+package com.fortuna.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fortuna.metrics.repository.MetricsRepository;
+import com.fortuna.user.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class DataSourceRoutingIntegrationTest {
+
+    @Autowired private MetricsRepository metricsRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("INT - read-only transactions use the read pool on a read-only connection")
+    void readOnlyTransactionsUseTheReadPool() {
+        long readAcquires = acquires("fortuna-read");
+        long writeAcquires = acquires("fortuna-write");
+
+        metricsRepository.count();
+        TransactionTemplate readOnly =
+                new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        Object transactionReadOnly =
+                readOnly.execute(
+                        status ->
+                                entityManager
+                                        .createNativeQuery("SHOW transaction_read_only")
+                                        .getSingleResult());
+
+        assertThat(transactionReadOnly).isEqualTo("on");
+        assertThat(acquires("fortuna-read")).isEqualTo(readAcquires + 2);
+        assertThat(acquires("fortuna-write")).isEqualTo(writeAcquires);
+    }
+
+    @Test
+    @DisplayName("INT - read-write transactions use the write pool")
+    void readWriteTransactionsUseTheWritePool() {
+        long readAcquires = acquires("fortuna-read");
+        long writeAcquires = acquires("fortuna-write");
+
+        Object transactionReadOnly =
+                transactionTemplate.execute(
+                        status ->
+                                entityManager
+                                        .createNativeQuery("SHOW transaction_read_only")
+                                        .getSingleResult());
+
+        assertThat(transactionReadOnly).isEqualTo("off");
+        assertThat(acquires("fortuna-write")).isEqualTo(writeAcquires + 1);
+        assertThat(acquires("fortuna-read")).isEqualTo(readAcquires);
+    }
+
+    @Test
+    @DisplayName("INT - user lookups that fill the cache read the primary, not the replica")
+    void userLookupsUseTheWritePool() {
+        long readAcquires = acquires("fortuna-read");
+        long writeAcquires = acquires("fortuna-write");
+
+        userRepository.findById(-1L);
+        userRepository.findByEmail("routing-it@example.com");
+
+        assertThat(acquires("fortuna-write")).isEqualTo(writeAcquires + 2);
+        assertThat(acquires("fortuna-read")).isEqualTo(readAcquires);
+    }
+
+    private long acquires(String pool) {
+        Timer timer = meterRegistry.find("hikaricp.connections.acquire").tag("pool", pool).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
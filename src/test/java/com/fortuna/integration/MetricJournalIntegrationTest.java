@@ -0,0 +1,93 @@
+package com.fortuna.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fortuna.metrics.journal.MetricJournal;
+import com.fortuna.metrics.journal.MetricJournalDrainer;
+import com.fortuna.metrics.repository.MetricsRepository;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(
+        properties = {
+            "application.metrics.journal.enabled=true",
+            "application.metrics.journal.directory=${java.io.tmpdir}/fortuna-journal-it",
+            "application.metrics.journal.drain-interval=1h"
+        })
+@AutoConfigureMockMvc
+class MetricJournalIntegrationTest {
+
+    private static final String PREFIX = "journal-it-";
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private MetricJournal metricJournal;
+    @Autowired private MetricJournalDrainer metricJournalDrainer;
+    @Autowired private MetricsRepository metricsRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteEvents() {
+        metricJournalDrainer.drain();
+        jdbcTemplate.update("DELETE FROM metrics WHERE client_event_id LIKE ?", PREFIX + "%");
+    }
+
+    @Test
+    @DisplayName("INT - accepted events reach the table only once the journal is drained")
+    @WithMockUser
+    void acceptedEventsAreDrainedIntoTheTable() throws Exception {
+        String single = PREFIX + UUID.randomUUID();
+        String first = PREFIX + UUID.randomUUID();
+        String second = PREFIX + UUID.randomUUID();
+
+        save("/api/save-metric", event(single));
+        save("/api/save-metric/batch", "[" + event(first) + "," + event(second) + "]");
+
+        assertThat(metricsRepository.existsByClientEventId(single)).isFalse();
+        assertThat(metricJournalDrainer.drain()).isEqualTo(3);
+        assertThat(metricsRepository.existsByClientEventId(single)).isTrue();
+        assertThat(metricsRepository.existsByClientEventId(first)).isTrue();
+        assertThat(metricsRepository.existsByClientEventId(second)).isTrue();
+    }
+
+    @Test
+    @DisplayName("INT - events journaled before a restart are drained after it")
+    @WithMockUser
+    void unconfirmedEventsSurviveARestart() throws Exception {
+        String clientEventId = PREFIX + UUID.randomUUID();
+        save("/api/save-metric", event(clientEventId));
+
+        metricJournal.stop();
+        metricJournal.start();
+
+        assertThat(metricJournalDrainer.drain()).isEqualTo(1);
+        assertThat(metricsRepository.existsByClientEventId(clientEventId)).isTrue();
+    }
+
+    private void save(String path, String body) throws Exception {
+        mockMvc.perform(
+                        post(path)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body)
+                                .with(csrf()))
+                .andExpect(status().isCreated());
+    }
+
+    private static String event(String clientEventId) {
+        return "{\"event\":\"BUTTON_CLICK\",\"eventMetadata\":{\"buttonId\":\"journal\"},"
+                + "\"clientEventId\":\""
+                + clientEventId
+                + "\"}";
+    }
+}
@@ -0,0 +1,111 @@
+package com.fortuna.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.metrics.controller.model.MetricEventDTO;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import com.fortuna.metrics.service.MetricsService;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "application.metrics.stream.tick=200ms")
+// A server context of its own; closed afterwards so its pools do not linger beside the others.
+@DirtiesContext
+class MetricStreamIntegrationTest {
+
+    private static final String PREFIX = "stream-it-";
+
+    @LocalServerPort private int port;
+    @Autowired private MetricsService metricsService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @AfterEach
+    void deleteEvents() {
+        jdbcTemplate.update("DELETE FROM metrics WHERE client_event_id LIKE ?", PREFIX + "%");
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("INT - a stored event shows up in the stream as a raw event and in the counts")
+    void storedEventIsStreamed() throws Exception {
+        String page = UUID.randomUUID().toString();
+        HttpResponse<Stream<String>> response =
+                open("/api/metrics/stream?raw=true&event=BUTTON_CLICK&screen=" + page);
+        try (Stream<String> body = response.body()) {
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue("Content-Type"))
+                    .hasValueSatisfying(type -> assertThat(type).startsWith("text/event-stream"));
+            Iterator<String> lines = body.iterator();
+            assertThat(lines.next()).isEqualTo("retry: 1000");
+
+            metricsService.saveMetricEvent(
+                    new MetricEventDTO(
+                            MetricEventType.BUTTON_CLICK,
+                            Map.of("screen", page),
+                            null,
+                            PREFIX + UUID.randomUUID()));
+
+            JsonNode event = null;
+            JsonNode counts = null;
+            String name = null;
+            while (event == null || counts == null) {
+                String line = lines.next();
+                if (line.startsWith("event: ")) {
+                    name = line.substring("event: ".length());
+                } else if (line.startsWith("data: ")) {
+                    JsonNode data = objectMapper.readTree(line.substring("data: ".length()));
+                    if ("event".equals(name)) {
+                        event = data;
+                    } else if (data.path("counts").path("BUTTON_CLICK").asLong() > 0) {
+                        counts = data;
+                    }
+                }
+            }
+            assertThat(event.path("event").asText()).isEqualTo("BUTTON_CLICK");
+            assertThat(event.path("metadata").path("page").asText()).isEqualTo(page);
+            assertThat(counts.path("total").asLong()).isPositive();
+        }
+    }
+
+    @Test
+    @DisplayName("INT - a filter that does not fit the event schema is rejected with 400")
+    void invalidFilterIsRejected() throws Exception {
+        HttpResponse<Stream<String>> response =
+                open("/api/metrics/stream?raw=true&event=PAYMENT_SUBMITTED&amount=lots");
+        try (Stream<String> body = response.body()) {
+            assertThat(response.statusCode()).isEqualTo(400);
+        }
+    }
+
+    private HttpResponse<Stream<String>> open(String path) throws Exception {
+        HttpRequest request =
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .header("Accept", "text/event-stream")
+                        .timeout(Duration.ofSeconds(10))
+                        .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+    }
+}
@@ -3,16 +3,24 @@ package com.fortuna.integration;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.within;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.metrics.archive.MetricArchive;
+import com.fortuna.metrics.archive.MetricsArchiver;
+import com.fortuna.metrics.controller.MetricEventHttpMessageConverter;
 import com.fortuna.metrics.controller.model.MetricEventDTO;
 import com.fortuna.metrics.controller.model.MetricEventType;
 import com.fortuna.metrics.repository.MetricsRepository;
 import com.fortuna.metrics.repository.model.MetricEventEntity;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -20,12 +28,15 @@ import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -35,6 +46,8 @@ public class MetricsIntegrationTest {
     @Autowired private MockMvc mockMvc;
     @Autowired private EntityManager entityManager;
     @Autowired private MetricsRepository metricsRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private RequestMappingHandlerAdapter requestMappingHandlerAdapter;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -60,10 +73,10 @@ public class MetricsIntegrationTest {
                         "screen", "checkout");
 
         MetricEventDTO metricEventDTO1 =
-                new MetricEventDTO(MetricEventType.BUTTON_CLICK, eventMetadata1, null);
+                new MetricEventDTO(MetricEventType.BUTTON_CLICK, eventMetadata1, null, null);
 
         MetricEventDTO metricEventDTO2 =
-                new MetricEventDTO(MetricEventType.PAYMENT_SUBMITTED, eventMetadata2, null);
+                new MetricEventDTO(MetricEventType.PAYMENT_SUBMITTED, eventMetadata2, null, null);
 
         String requestJson1 = objectMapper.writeValueAsString(metricEventDTO1);
         String requestJson2 = objectMapper.writeValueAsString(metricEventDTO2);
@@ -98,4 +111,141 @@ public class MetricsIntegrationTest {
         assertThat(savedMetrics.get(1).getEventTime().toInstant())
                 .isCloseTo(Instant.now(), within(3, ChronoUnit.SECONDS));
     }
+
+    @Test
+    @DisplayName("INT - when the same client event is sent twice, only one metric is recorded")
+    @WithMockUser
+    void whenAClientEventIsRetried_OnlyOneMetricIsRecorded() throws Exception {
+        MetricEventDTO metricEventDTO =
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK,
+                        Map.of("buttonId", "submit"),
+                        null,
+                        "0b7d4c1e-6f6a-4d7e-9a55-6c1f2b9e3a10");
+        String requestJson = objectMapper.writeValueAsString(metricEventDTO);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(
+                            post("/api/save-metric")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(requestJson)
+                                    .with(csrf()))
+                    .andExpect(status().isCreated());
+        }
+
+        List<MetricEventEntity> savedMetrics = metricsRepository.findAll();
+
+        assertThat(savedMetrics).hasSize(1);
+        assertThat(savedMetrics.get(0).getClientEventId())
+                .isEqualTo("0b7d4c1e-6f6a-4d7e-9a55-6c1f2b9e3a10");
+    }
+
+    @Test
+    @DisplayName("INT - metadata search returns only events whose metadata contains the filter")
+    @WithMockUser
+    void whenSearchingByMetadata_OnlyMatchingEventsAreReturned() throws Exception {
+        for (String buttonId : List.of("submit", "cancel")) {
+            mockMvc.perform(
+                            post("/api/save-metric")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(
+                                            objectMapper.writeValueAsString(
+                                                    new MetricEventDTO(
+                                                            MetricEventType.BUTTON_CLICK,
+                                                            Map.of(
+                                                                    "triggerId",
+                                                                    buttonId,
+                                                                    "screen",
+                                                                    "Home"),
+                                                            null,
+                                                            null)))
+                                    .with(csrf()))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(
+                        get("/api/metrics/search")
+                                .param("event", "BUTTON_CLICK")
+                                .param("triggerId", "submit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].metadata.buttonId").value("submit"))
+                .andExpect(jsonPath("$[0].metadata.page").value("Home"));
+    }
+
+    @Test
+    @DisplayName(
+            "INT - JSON metric events are read by the streaming converter and stored canonical")
+    @WithMockUser
+    void whenAJsonEventIsPosted_TheStreamingConverterReadsIt() throws Exception {
+        assertThat(requestMappingHandlerAdapter.getMessageConverters())
+                .filteredOn(c -> c.canRead(MetricEventDTO.class, MediaType.APPLICATION_JSON))
+                .first()
+                .isInstanceOf(MetricEventHttpMessageConverter.class);
+
+        mockMvc.perform(
+                        post("/api/save-metric")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(
+                                        """
+                                        {"eventMetadata":{"triggerId":"pay","screen":null,"ab":{"v":[1]}},
+                                         "event":"BUTTON_CLICK","extra":true}
+                                        """)
+                                .with(csrf()))
+                .andExpect(status().isCreated());
+
+        assertThat(metricsRepository.findAll())
+                .singleElement()
+                .extracting(MetricEventEntity::getMetadata)
+                .isEqualTo("{\"ab\": {\"v\": [1]}, \"buttonId\": \"pay\"}");
+    }
+
+    @Test
+    @DisplayName("INT - events older than the max age move to archive segments and leave the table")
+    void whenArchiving_OldEventsMoveToSegments(@TempDir Path archiveDirectory) {
+        Instant old = Instant.now().minus(Duration.ofDays(100));
+        metricsRepository.saveAll(
+                List.of(
+                        MetricEventEntity.builder()
+                                .event("BUTTON_CLICK")
+                                .eventTime(Timestamp.from(old))
+                                .metadata("{\"buttonId\": \"submit\", \"page\": \"Home\"}")
+                                .build(),
+                        MetricEventEntity.builder()
+                                .event("PAYMENT_SUBMITTED")
+                                .eventTime(Timestamp.from(old.plusSeconds(1)))
+                                .metadata("{\"amount\": 1999}")
+                                .build(),
+                        MetricEventEntity.builder()
+                                .event("BUTTON_CLICK")
+                                .eventTime(Timestamp.from(Instant.now()))
+                                .metadata("{\"buttonId\": \"recent\"}")
+                                .build()));
+        entityManager.flush();
+        MetricArchive metricArchive = new MetricArchive(objectMapper, archiveDirectory);
+        MetricsArchiver metricsArchiver =
+                new MetricsArchiver(
+                        metricsRepository,
+                        metricArchive,
+                        transactionTemplate,
+                        true,
+                        Duration.ofDays(90),
+                        // One row per page, so the day is read across several keyset pages.
+                        1);
+
+        assertThat(metricsArchiver.archive()).isEqualTo(2);
+
+        List<MetricEventEntity> remaining = metricsRepository.findAll();
+        assertThat(remaining)
+                .singleElement()
+                .extracting(MetricEventEntity::getMetadata)
+                .asString()
+                .contains("recent");
+        List<MetricEventEntity> archived =
+                metricArchive.search("{\"amount\":1999}", "PAYMENT_SUBMITTED", null, null, 10);
+        assertThat(archived)
+                .singleElement()
+                .extracting(MetricEventEntity::getEvent)
+                .isEqualTo("PAYMENT_SUBMITTED");
+    }
 }
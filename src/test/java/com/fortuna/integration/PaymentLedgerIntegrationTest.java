@@ -0,0 +1,114 @@
+package com.fortuna.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+import com.fortuna.payment.repository.PaymentLedgerWriter;
+import com.fortuna.payment.repository.PaymentRepository;
+import com.fortuna.payment.repository.model.PaymentSummary;
+import com.fortuna.payment.service.PaymentReconciler;
+import com.fortuna.payment.service.PaymentService;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.PaymentIntentCollection;
+import com.stripe.param.PaymentIntentListParams;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest
+class PaymentLedgerIntegrationTest {
+
+    @Autowired private PaymentReconciler paymentReconciler;
+    @Autowired private PaymentLedgerWriter paymentLedgerWriter;
+    @Autowired private PaymentRepository paymentRepository;
+    @Autowired private PaymentService paymentService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    @AfterEach
+    void deleteLedger() {
+        jdbcTemplate.update("DELETE FROM payments WHERE id LIKE 'pi_ledger_%'");
+        jdbcTemplate.update("DELETE FROM payment_reconciliation_checkpoints");
+    }
+
+    @Test
+    @DisplayName("INT - reconciliation upserts every listed intent and checkpoints at now")
+    void reconciliationFillsLedgerAndCheckpoints() {
+        Instant created = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.SECONDS);
+
+        try (MockedStatic<PaymentIntent> mockedStatic = mockStatic(PaymentIntent.class)) {
+            PaymentIntentCollection collection = mock(PaymentIntentCollection.class);
+            when(collection.autoPagingIterable())
+                    .thenReturn(
+                            List.of(
+                                    intent("pi_ledger_1", "succeeded", 1000L, created),
+                                    intent("pi_ledger_2", "processing", 2500L, created)))
+                    .thenReturn(List.of());
+            mockedStatic
+                    .when(() -> PaymentIntent.list(any(PaymentIntentListParams.class)))
+                    .thenReturn(collection);
+
+            assertThat(paymentReconciler.reconcile()).isEqualTo(2);
+        }
+
+        assertThat(paymentLedgerWriter.findCheckpoint("payment_intents"))
+                .isAfter(created)
+                .isBeforeOrEqualTo(Instant.now());
+        assertThat(paymentRepository.findById("pi_ledger_1").orElseThrow().getOrderId())
+                .isEqualTo("order-pi_ledger_1");
+        assertThat(paymentService.verifyPaymentSuccess("pi_ledger_1")).isTrue();
+
+        List<PaymentSummary> summary =
+                paymentService.summarize(created, created.plus(1, ChronoUnit.SECONDS));
+        assertThat(summary)
+                .extracting(PaymentSummary::getStatus, PaymentSummary::getCount)
+                .containsExactly(tuple("processing", 1L), tuple("succeeded", 1L));
+    }
+
+    @Test
+    @DisplayName(
+            "INT - re-reading an unchanged intent leaves its row alone; a new status updates it")
+    void upsertOnlyRewritesChangedRows() {
+        Instant created = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        paymentLedgerWriter.upsertAll(List.of(intent("pi_ledger_3", "processing", 500L, created)));
+        Timestamp first = reconciledAt("pi_ledger_3");
+
+        paymentLedgerWriter.upsertAll(List.of(intent("pi_ledger_3", "processing", 500L, created)));
+        assertThat(reconciledAt("pi_ledger_3")).isEqualTo(first);
+
+        paymentLedgerWriter.upsertAll(List.of(intent("pi_ledger_3", "succeeded", 500L, created)));
+        assertThat(paymentRepository.findById("pi_ledger_3").orElseThrow().getStatus())
+                .isEqualTo("succeeded");
+    }
+
+    private Timestamp reconciledAt(String id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT reconciled_at FROM payments WHERE id = ?", Timestamp.class, id);
+    }
+
+    private static PaymentIntent intent(String id, String status, long amount, Instant created) {
+        PaymentIntent intent = new PaymentIntent();
+        intent.setId(id);
+        intent.setStatus(status);
+        intent.setAmount(amount);
+        intent.setAmountReceived("succeeded".equals(status) ? amount : 0L);
+        intent.setCurrency("usd");
+        intent.setCreated(created.getEpochSecond());
+        intent.setMetadata(Map.of("orderId", "order-" + id));
+        return intent;
+    }
+}
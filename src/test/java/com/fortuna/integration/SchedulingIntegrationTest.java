@@ -0,0 +1,26 @@
+package com.fortuna.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.annotation.ScheduledAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@SpringBootTest
+class SchedulingIntegrationTest {
+
+    @Autowired private ThreadPoolTaskScheduler taskScheduler;
+    @Autowired private ScheduledAnnotationBeanPostProcessor scheduledAnnotationBeanPostProcessor;
+
+    @Test
+    @DisplayName("INT - every scheduled job has a scheduler thread of its own")
+    void schedulerHasAThreadPerJob() {
+        int jobs = scheduledAnnotationBeanPostProcessor.getScheduledTasks().size();
+
+        assertThat(jobs).isPositive();
+        assertThat(taskScheduler.getPoolSize()).isGreaterThanOrEqualTo(jobs);
+    }
+}
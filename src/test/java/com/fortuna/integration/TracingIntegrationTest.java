@@ -0,0 +1,110 @@
+package com.fortuna.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stripe.model.PaymentIntent;
+import com.stripe.param.PaymentIntentCreateParams;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(
+        properties = {
+            "application.tracing.sample-rate=1",
+            "management.endpoints.web.exposure.include=traces"
+        })
+@AutoConfigureMockMvc
+class TracingIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("INT - a payment request is traced through MVC and Stripe")
+    void paymentRequestIsTracedEndToEnd() throws Exception {
+        PaymentIntent intent = new PaymentIntent();
+        intent.setId("pi_tracing_1");
+        intent.setClientSecret("pi_tracing_1_secret");
+        intent.setAmount(1200L);
+        intent.setAmountReceived(0L);
+        intent.setCurrency("usd");
+        intent.setStatus("requires_payment_method");
+        intent.setCreated(1_780_000_000L);
+
+        try (MockedStatic<PaymentIntent> mockedStatic = mockStatic(PaymentIntent.class)) {
+            mockedStatic
+                    .when(() -> PaymentIntent.create(any(PaymentIntentCreateParams.class)))
+                    .thenReturn(intent);
+
+            mockMvc.perform(
+                            post("/api/payments/create-payment-intent")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("{\"amount\":1200,\"currency\":\"usd\"}"))
+                    .andExpect(status().isOk());
+        }
+
+        String body =
+                mockMvc.perform(get("/actuator/traces"))
+                        .andExpect(status().isOk())
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString();
+        JsonNode trace = objectMapper.readTree(body).get(0);
+        List<String> spans = new ArrayList<>();
+        trace.get("spans").forEach(span -> spans.add(span.get("name").asText()));
+
+        assertThat(trace.get("name").asText())
+                .isEqualTo("POST /api/payments/create-payment-intent");
+        assertThat(trace.get("status").asInt()).isEqualTo(200);
+        assertThat(spans)
+                .containsSubsequence(
+                        "PaymentController#createPaymentIntent",
+                        "request.read",
+                        "validate",
+                        "PaymentService#createPaymentIntent",
+                        "payment.buildStripeParams",
+                        "stripe.PaymentIntent.create",
+                        "response.write");
+        assertThat(trace.get("spans").get(0).get("depth").asInt()).isZero();
+    }
+
+    @Test
+    @DisplayName("INT - repository calls are recorded as spans")
+    void repositoryCallsAreTraced() throws Exception {
+        try (MockedStatic<PaymentIntent> mockedStatic = mockStatic(PaymentIntent.class)) {
+            PaymentIntent intent = mock(PaymentIntent.class);
+            when(intent.getStatus()).thenReturn("processing");
+            mockedStatic.when(() -> PaymentIntent.retrieve("pi_tracing_2")).thenReturn(intent);
+
+            mockMvc.perform(get("/api/payments/verify/pi_tracing_2")).andExpect(status().isOk());
+        }
+
+        String body =
+                mockMvc.perform(get("/actuator/traces"))
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString();
+        JsonNode trace = objectMapper.readTree(body).get(0);
+
+        assertThat(trace.get("name").asText())
+                .isEqualTo("GET /api/payments/verify/{paymentIntentId}");
+        assertThat(trace.toString())
+                .contains("PaymentRepository#findById", "stripe.PaymentIntent.retrieve");
+    }
+}
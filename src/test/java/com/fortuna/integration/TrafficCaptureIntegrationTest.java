@@ -0,0 +1,108 @@
+package com.fortuna.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mockStatic;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.capture.CaptureRecord;
+import com.fortuna.capture.CaptureWriter;
+import com.stripe.model.PaymentIntent;
+import com.stripe.param.PaymentIntentCreateParams;
+import jakarta.transaction.Transactional;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(
+        properties = {
+            "application.capture.enabled=true",
+            "application.capture.directory=${java.io.tmpdir}/fortuna-capture-it"
+        })
+@AutoConfigureMockMvc
+@Transactional
+class TrafficCaptureIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private CaptureWriter captureWriter;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void deleteCaptures() throws Exception {
+        captureWriter.close();
+        for (Path file : captureWriter.files()) {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("INT - metric and payment requests are captured with their route and no PII")
+    @WithMockUser
+    void capturedRequestsAreSanitized() throws Exception {
+        PaymentIntent intent = new PaymentIntent();
+        intent.setId("pi_capture_1");
+        intent.setClientSecret("pi_capture_1_secret");
+        intent.setAmount(1200L);
+        intent.setAmountReceived(0L);
+        intent.setCurrency("usd");
+        intent.setStatus("requires_payment_method");
+        intent.setCreated(1_780_000_000L);
+
+        mockMvc.perform(
+                        post("/api/save-metric")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(
+                                        "{\"event\":\"BUTTON_CLICK\",\"eventMetadata\":{\"buttonId\":\"pay\"}}")
+                                .with(csrf()))
+                .andExpect(status().isCreated());
+        try (MockedStatic<PaymentIntent> mockedStatic = mockStatic(PaymentIntent.class)) {
+            mockedStatic
+                    .when(() -> PaymentIntent.create(any(PaymentIntentCreateParams.class)))
+                    .thenReturn(intent);
+
+            mockMvc.perform(
+                            post("/api/payments/create-payment-intent")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(
+                                            "{\"amount\":1200,\"currency\":\"usd\","
+                                                    + "\"customerEmail\":\"jane@doe.com\"}")
+                                    .with(csrf()))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/users")).andReturn();
+        captureWriter.flush();
+
+        List<CaptureRecord> records = new ArrayList<>();
+        for (Path file : captureWriter.files()) {
+            for (String line : Files.readAllLines(file)) {
+                records.add(objectMapper.readValue(line, CaptureRecord.class));
+            }
+        }
+
+        assertThat(records)
+                .extracting(CaptureRecord::route)
+                .containsExactly("/api/save-metric", "/api/payments/create-payment-intent");
+        assertThat(records.get(0).status()).isEqualTo(201);
+        assertThat(records.get(0).body())
+                .isEqualTo("{\"event\":\"BUTTON_CLICK\",\"eventMetadata\":{\"buttonId\":\"pay\"}}");
+        assertThat(records.get(1).body())
+                .contains("\"customerEmail\":\"redacted@example.com\"")
+                .doesNotContain("jane");
+    }
+}
@@ -0,0 +1,86 @@
+package com.fortuna.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fortuna.user.repository.UserRepository;
+import com.fortuna.user.repository.model.UserEntity;
+import com.fortuna.user.service.LastLoginRecorder;
+import com.fortuna.user.service.UserService;
+import com.fortuna.user.service.model.User;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest
+class UserIntegrationTest {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private UserService userService;
+    @Autowired private LastLoginRecorder lastLoginRecorder;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    @AfterEach
+    void deleteTestUsers() {
+        lastLoginRecorder.flush();
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%@user-int.test'");
+    }
+
+    @Test
+    @DisplayName(
+            "INT - logins are flushed to last_login as one update per user, keeping the latest")
+    void loginsAreFlushedAsBatchedUpdates() {
+        Long adaId = save("ada@user-int.test").getId();
+        Long bobId = save("bob@user-int.test").getId();
+        Instant login = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        lastLoginRecorder.record(adaId, login.minusSeconds(60));
+        lastLoginRecorder.record(adaId, login);
+        lastLoginRecorder.record(bobId, login);
+        // An older login flushed later must not move last_login backwards.
+        assertThat(lastLoginRecorder.flush()).isEqualTo(2);
+        lastLoginRecorder.record(adaId, login.minusSeconds(120));
+        assertThat(lastLoginRecorder.flush()).isEqualTo(1);
+
+        assertThat(lastLogin(adaId)).isEqualTo(Timestamp.from(login));
+        assertThat(lastLogin(bobId)).isEqualTo(Timestamp.from(login));
+    }
+
+    @Test
+    @DisplayName("INT - user lookups read through the cache and reflect unflushed logins")
+    void lookupsReadThroughTheCache() {
+        Long id = save("cache@user-int.test").getId();
+
+        User byEmail = userService.findByEmail("cache@user-int.test").orElseThrow();
+        userService.recordLogin(id);
+        User byId = userService.findById(id).orElseThrow();
+
+        assertThat(byEmail.getId()).isEqualTo(id);
+        assertThat(byEmail.getCreatedAt()).isNotNull();
+        assertThat(byEmail.getLastLogin()).isNull();
+        assertThat(byId.getLastLogin()).isNotNull();
+        assertThat(lastLogin(id)).isNull();
+
+        lastLoginRecorder.flush();
+        assertThat(lastLogin(id)).isNotNull();
+        userService.evict(byId);
+        assertThat(userService.findById(id).orElseThrow().getLastLogin()).isNotNull();
+    }
+
+    private UserEntity save(String email) {
+        return userRepository.save(
+                UserEntity.builder().email(email).firstName("Test").lastName("User").build());
+    }
+
+    private Timestamp lastLogin(Long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT last_login FROM users WHERE id = ?", Timestamp.class, id);
+    }
+}
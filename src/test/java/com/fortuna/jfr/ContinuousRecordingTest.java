@@ -0,0 +1,127 @@
+package com.fortuna.jfr;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import com.fortuna.exception.ErrorReporter;
+import com.fortuna.exception.GlobalExceptionHandler;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+
+class ContinuousRecordingTest {
+
+    @TempDir Path directory;
+
+    private ContinuousRecording continuousRecording;
+
+    @AfterEach
+    void tearDown() {
+        if (continuousRecording != null) {
+            continuousRecording.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("should dump application events next to the JDK's own")
+    void shouldDumpApplicationEvents() throws Exception {
+        continuousRecording = recording(true, 10);
+        continuousRecording.start();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/payments/config");
+
+        new GlobalExceptionHandler(mock(ErrorReporter.class))
+                .handleRuntimeException(
+                        new IllegalStateException("boom"), new ServletWebRequest(request));
+        Path file = continuousRecording.dump(Duration.ofMinutes(1));
+
+        assertTrue(file.startsWith(directory));
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent handled =
+                events.stream()
+                        .filter(
+                                e ->
+                                        e.getEventType()
+                                                .getName()
+                                                .equals("com.fortuna.ExceptionHandled"))
+                        .findFirst()
+                        .orElseThrow();
+        assertEquals(500, handled.getInt("status"));
+        assertEquals(
+                IllegalStateException.class.getName(),
+                handled.getClass("exceptionClass").getName());
+        assertEquals("uri=/api/payments/config", handled.getString("request"));
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().startsWith("jdk.")));
+    }
+
+    @Test
+    @DisplayName("should keep only the newest max-dumps files")
+    void shouldPruneOldDumps() throws Exception {
+        continuousRecording = recording(true, 2);
+        continuousRecording.start();
+
+        for (int i = 0; i < 3; i++) {
+            continuousRecording.dump(null);
+            Thread.sleep(2);
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("should hand back the previous dump when asked again within the interval")
+    void shouldThrottleDumps() throws Exception {
+        continuousRecording =
+                new ContinuousRecording(
+                        true,
+                        "default",
+                        Duration.ofMinutes(5),
+                        DataSize.ofMegabytes(50),
+                        directory,
+                        10,
+                        Duration.ofHours(1));
+        continuousRecording.start();
+
+        Path first = continuousRecording.dump(null);
+        Path second = continuousRecording.dump(null);
+
+        assertEquals(first, second);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("should not start when disabled and refuse to dump")
+    void shouldRefuseToDumpWhenDisabled() {
+        continuousRecording = recording(false, 10);
+        continuousRecording.start();
+
+        assertFalse(continuousRecording.isRunning());
+        assertEquals(0, continuousRecording.getSize());
+        assertThrows(IllegalStateException.class, () -> continuousRecording.dump(null));
+    }
+
+    private ContinuousRecording recording(boolean enabled, int maxDumps) {
+        return new ContinuousRecording(
+                enabled,
+                "default",
+                Duration.ofMinutes(5),
+                DataSize.ofMegabytes(50),
+                directory,
+                maxDumps,
+                Duration.ZERO);
+    }
+}
@@ -0,0 +1,198 @@
+package com.fortuna.metrics.archive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.metrics.exception.MetricArchiveException;
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MetricArchiveTest {
+
+    private static final LocalDate DAY = LocalDate.parse("2026-01-15");
+    private static final Instant NOON = Instant.parse("2026-01-15T12:00:00.123456Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir Path directory;
+
+    private MetricArchive metricArchive;
+
+    @BeforeEach
+    void setUp() {
+        metricArchive = new MetricArchive(objectMapper, directory);
+    }
+
+    @Test
+    @DisplayName("should round-trip every column through a segment, newest first")
+    void shouldRoundTripColumns() {
+        metricArchive.store(
+                DAY,
+                "BUTTON_CLICK",
+                List.of(
+                        click(1L, NOON, "{\"buttonId\":\"submit\"}", 42L, "client-1"),
+                        click(2L, NOON.plusSeconds(60), "{\"buttonId\":\"cancel\"}", null, null)));
+
+        List<MetricEventEntity> results = metricArchive.search(null, null, null, null, 10);
+
+        assertEquals(2, results.size());
+        MetricEventEntity newest = results.get(0);
+        assertEquals(2L, newest.getId());
+        assertEquals("BUTTON_CLICK", newest.getEvent());
+        assertEquals(Timestamp.from(NOON.plusSeconds(60)), newest.getEventTime());
+        assertEquals("{\"buttonId\":\"cancel\"}", newest.getMetadata());
+        assertNull(newest.getUserId());
+        assertNull(newest.getClientEventId());
+        MetricEventEntity oldest = results.get(1);
+        assertEquals(1L, oldest.getId());
+        assertEquals(Timestamp.from(NOON), oldest.getEventTime());
+        assertEquals(42L, oldest.getUserId());
+        assertEquals("client-1", oldest.getClientEventId());
+    }
+
+    @Test
+    @DisplayName("should merge with an existing segment and keep one copy of a re-archived row")
+    void shouldMergeIntoExistingSegment() throws Exception {
+        MetricEventEntity first = click(1L, NOON, "{\"buttonId\":\"submit\"}", null, null);
+        metricArchive.store(DAY, "BUTTON_CLICK", List.of(first));
+        metricArchive.store(
+                DAY,
+                "BUTTON_CLICK",
+                List.of(first, click(2L, NOON.plusSeconds(1), "{\"buttonId\":\"x\"}", null, null)));
+
+        assertEquals(2, metricArchive.search(null, "BUTTON_CLICK", null, null, 10).size());
+        try (var files = Files.list(directory.resolve(DAY.toString()))) {
+            assertEquals(
+                    List.of("BUTTON_CLICK.seg"),
+                    files.map(p -> p.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("should apply containment, event and time range filters like the database search")
+    void shouldFilterLikeTheDatabase() {
+        List<MetricEventEntity> payments = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            payments.add(
+                    MetricEventEntity.builder()
+                            .id((long) i)
+                            .event("PAYMENT_SUBMITTED")
+                            .eventTime(Timestamp.from(NOON.plusSeconds(i)))
+                            .metadata(
+                                    "{\"amount\":"
+                                            + (i % 10 == 0 ? 4200 : i)
+                                            + ",\"currency\":\"usd\"}")
+                            .build());
+        }
+        metricArchive.store(DAY, "PAYMENT_SUBMITTED", payments);
+        metricArchive.store(
+                DAY, "BUTTON_CLICK", List.of(click(500L, NOON, "{\"amount\":4200}", null, null)));
+
+        List<MetricEventEntity> results =
+                metricArchive.search(
+                        "{\"amount\":4200}",
+                        "PAYMENT_SUBMITTED",
+                        NOON.plusSeconds(10),
+                        NOON.plusSeconds(50),
+                        10);
+
+        assertEquals(
+                List.of(40L, 30L, 20L, 10L),
+                results.stream().map(MetricEventEntity::getId).toList());
+        assertEquals(
+                2,
+                metricArchive
+                        .search("{\"amount\":4200.0}", null, null, NOON.plusSeconds(1), 10)
+                        .size());
+    }
+
+    @Test
+    @DisplayName("should stop at the limit, reading newer days first")
+    void shouldReadNewestDaysFirstUpToLimit() {
+        metricArchive.store(DAY, "BUTTON_CLICK", List.of(click(1L, NOON, "{}", null, null)));
+        Instant nextDay = NOON.plusSeconds(86_400);
+        metricArchive.store(
+                DAY.plusDays(1), "BUTTON_CLICK", List.of(click(2L, nextDay, "{}", null, null)));
+
+        List<MetricEventEntity> results = metricArchive.search(null, null, null, null, 1);
+
+        assertEquals(1, results.size());
+        assertEquals(2L, results.get(0).getId());
+        assertTrue(metricArchive.search(null, null, null, NOON, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("should cover only ranges starting before the end of the newest archived day")
+    void shouldCoverRangesBeforeHorizon() {
+        assertFalse(metricArchive.covers(null));
+
+        metricArchive.store(DAY, "BUTTON_CLICK", List.of(click(1L, NOON, "{}", null, null)));
+        Instant endOfDay = Instant.parse("2026-01-16T00:00:00Z");
+
+        assertTrue(metricArchive.covers(null));
+        assertTrue(metricArchive.covers(endOfDay.minusNanos(1)));
+        assertFalse(metricArchive.covers(endOfDay));
+
+        metricArchive.store(
+                DAY.plusDays(1),
+                "BUTTON_CLICK",
+                List.of(click(2L, NOON.plusSeconds(86_400), "{}", null, null)));
+        assertTrue(metricArchive.covers(endOfDay));
+        assertTrue(new MetricArchive(objectMapper, directory).covers(endOfDay));
+    }
+
+    @Test
+    @DisplayName("should return nothing when the archive directory does not exist")
+    void shouldTolerateMissingDirectory() {
+        MetricArchive missing = new MetricArchive(objectMapper, directory.resolve("missing"));
+
+        assertTrue(missing.search(null, null, null, null, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("should reject a file that is not a metric segment")
+    void shouldRejectCorruptSegment() throws Exception {
+        Files.createDirectories(directory.resolve(DAY.toString()));
+        Files.writeString(directory.resolve(DAY + "/BUTTON_CLICK.seg"), "not a segment");
+
+        assertThrows(
+                MetricArchiveException.class,
+                () -> metricArchive.search(null, "BUTTON_CLICK", null, null, 10));
+    }
+
+    @Test
+    @DisplayName("should follow jsonb containment for nested objects, arrays and numbers")
+    void shouldMatchJsonbContainment() throws Exception {
+        var value =
+                objectMapper.readTree(
+                        "{\"a\":{\"b\":1,\"c\":\"x\"},\"tags\":[\"red\",\"blue\"],\"n\":2}");
+
+        assertTrue(MetricArchive.contains(value, objectMapper.readTree("{\"a\":{\"b\":1.0}}")));
+        assertTrue(MetricArchive.contains(value, objectMapper.readTree("{\"tags\":[\"blue\"]}")));
+        assertFalse(MetricArchive.contains(value, objectMapper.readTree("{\"tags\":[\"green\"]}")));
+        assertFalse(MetricArchive.contains(value, objectMapper.readTree("{\"n\":\"2\"}")));
+        assertFalse(MetricArchive.contains(value, objectMapper.readTree("{\"missing\":null}")));
+    }
+
+    private static MetricEventEntity click(
+            Long id, Instant eventTime, String metadata, Long userId, String clientEventId) {
+        return MetricEventEntity.builder()
+                .id(id)
+                .event("BUTTON_CLICK")
+                .eventTime(Timestamp.from(eventTime))
+                .metadata(metadata)
+                .userId(userId)
+                .clientEventId(clientEventId)
+                .build();
+    }
+}
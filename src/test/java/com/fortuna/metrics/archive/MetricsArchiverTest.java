@@ -0,0 +1,149 @@
+package com.fortuna.metrics.archive;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.fortuna.metrics.exception.MetricArchiveException;
+import com.fortuna.metrics.repository.MetricsRepository;
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class MetricsArchiverTest {
+
+    private static final Clock CLOCK =
+            Clock.fixed(Instant.parse("2026-04-20T10:00:00Z"), ZoneOffset.UTC);
+    private static final LocalDate DAY = LocalDate.parse("2026-01-15");
+    private static final Timestamp DAY_START =
+            Timestamp.from(Instant.parse("2026-01-15T00:00:00Z"));
+    private static final Timestamp NEXT_DAY_START =
+            Timestamp.from(Instant.parse("2026-01-16T00:00:00Z"));
+
+    @Mock MetricsRepository mockMetricsRepository;
+    @Mock MetricArchive mockMetricArchive;
+    @Mock MetricArchive.DayWriter mockDayWriter;
+    @Mock TransactionTemplate mockTransactionTemplate;
+
+    private MetricsArchiver metricsArchiver;
+
+    @BeforeEach
+    void setUp() {
+        lenient()
+                .when(mockTransactionTemplate.execute(any()))
+                .thenAnswer(
+                        invocation ->
+                                invocation
+                                        .<TransactionCallback<?>>getArgument(0)
+                                        .doInTransaction(null));
+        metricsArchiver =
+                new MetricsArchiver(
+                        mockMetricsRepository,
+                        mockMetricArchive,
+                        mockTransactionTemplate,
+                        true,
+                        Duration.ofDays(90),
+                        2,
+                        CLOCK);
+    }
+
+    @Test
+    @DisplayName("should stream whole days ending before the cutoff into the archive, page by page")
+    void shouldArchiveWholeDaysPageByPage() {
+        MetricEventEntity click = entity(1L, "BUTTON_CLICK");
+        MetricEventEntity payment = entity(2L, "PAYMENT_SUBMITTED");
+        MetricEventEntity later = entity(3L, "BUTTON_CLICK");
+        // 90 days before 2026-04-20T10:00 is 2026-01-20T10:00; only days before 2026-01-20 qualify.
+        Timestamp cutoff = Timestamp.from(Instant.parse("2026-01-20T00:00:00Z"));
+        when(mockMetricsRepository.findOldestEventTimeBefore(cutoff))
+                .thenReturn(
+                        Timestamp.from(Instant.parse("2026-01-15T08:30:00Z")), (Timestamp) null);
+        when(mockMetricArchive.writeDay(DAY)).thenReturn(mockDayWriter);
+        when(mockMetricsRepository.findPageByEventTimeRange(
+                        DAY_START, NEXT_DAY_START, DAY_START, Long.MIN_VALUE, Limit.of(2)))
+                .thenReturn(List.of(click, payment));
+        when(mockMetricsRepository.findPageByEventTimeRange(
+                        DAY_START, NEXT_DAY_START, payment.getEventTime(), 2L, Limit.of(2)))
+                .thenReturn(List.of(later));
+        when(mockMetricsRepository.deleteAllByEventTimeRange(DAY_START, NEXT_DAY_START))
+                .thenReturn(3);
+
+        assertEquals(3, metricsArchiver.archive());
+
+        InOrder inOrder = inOrder(mockDayWriter, mockMetricsRepository);
+        inOrder.verify(mockDayWriter).add(click);
+        inOrder.verify(mockDayWriter).add(payment);
+        inOrder.verify(mockDayWriter).add(later);
+        inOrder.verify(mockDayWriter).commit();
+        inOrder.verify(mockMetricsRepository).deleteAllByEventTimeRange(DAY_START, NEXT_DAY_START);
+    }
+
+    @Test
+    @DisplayName("should fail the day when the delete does not match the rows that were archived")
+    void shouldFailWhenDeleteCountDiffers() {
+        when(mockMetricsRepository.findOldestEventTimeBefore(any()))
+                .thenReturn(Timestamp.from(Instant.parse("2026-01-15T08:30:00Z")));
+        when(mockMetricArchive.writeDay(DAY)).thenReturn(mockDayWriter);
+        when(mockMetricsRepository.findPageByEventTimeRange(any(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(entity(1L, "BUTTON_CLICK")));
+        when(mockMetricsRepository.deleteAllByEventTimeRange(DAY_START, NEXT_DAY_START))
+                .thenReturn(2);
+
+        assertThrows(MetricArchiveException.class, () -> metricsArchiver.archive());
+    }
+
+    @Test
+    @DisplayName("should do nothing on schedule when archival is disabled")
+    void shouldSkipScheduledRunWhenDisabled() {
+        MetricsArchiver disabled =
+                new MetricsArchiver(
+                        mockMetricsRepository,
+                        mockMetricArchive,
+                        mockTransactionTemplate,
+                        false,
+                        Duration.ofDays(90),
+                        2,
+                        CLOCK);
+
+        disabled.archiveOnSchedule();
+
+        verifyNoInteractions(mockMetricsRepository, mockMetricArchive);
+    }
+
+    @Test
+    @DisplayName("should not touch the archive when nothing is old enough")
+    void shouldDoNothingWhenNothingIsOldEnough() {
+        assertEquals(0, metricsArchiver.archive());
+
+        verifyNoInteractions(mockMetricArchive);
+    }
+
+    private static MetricEventEntity entity(Long id, String event) {
+        return MetricEventEntity.builder()
+                .id(id)
+                .event(event)
+                .eventTime(Timestamp.from(Instant.parse("2026-01-15T08:30:00Z")))
+                .metadata("{}")
+                .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.fortuna.metrics.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.metrics.controller.model.MetricEventDTO;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import com.fortuna.metrics.controller.model.metadata.JsonMetadata;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+class MetricEventHttpMessageConverterTest {
+
+    private final MetricEventHttpMessageConverter converter =
+            new MetricEventHttpMessageConverter(new ObjectMapper());
+
+    private MetricEventDTO read(String json) throws Exception {
+        MockHttpInputMessage message =
+                new MockHttpInputMessage(json.getBytes(StandardCharsets.UTF_8));
+        message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return converter.read(MetricEventDTO.class, message);
+    }
+
+    @Test
+    @DisplayName("should read the scalar fields and keep the metadata as JSON text")
+    void shouldReadEvent() throws Exception {
+        MetricEventDTO metricEventDTO =
+                read(
+                        """
+                        {"event":"PAYMENT_SUBMITTED","userId":7,"clientEventId":"c-1",
+                         "eventMetadata":{"amount":1999,"currency":"usd","nested":{"a":[1,true]}}}
+                        """);
+
+        assertEquals(MetricEventType.PAYMENT_SUBMITTED, metricEventDTO.getEvent());
+        assertEquals(7L, metricEventDTO.getUserId());
+        assertEquals("c-1", metricEventDTO.getClientEventId());
+        JsonMetadata metadata =
+                assertInstanceOf(JsonMetadata.class, metricEventDTO.getEventMetadata());
+        assertEquals(
+                "{\"amount\":1999,\"currency\":\"usd\",\"nested\":{\"a\":[1,true]}}",
+                metadata.json());
+        assertEquals("usd", metadata.get("currency"));
+    }
+
+    @Test
+    @DisplayName("should bind unusual values the way the object mapper would")
+    void shouldDelegateUnusualValues() throws Exception {
+        MetricEventDTO metricEventDTO =
+                read(
+                        """
+                        {"event":null,"userId":"42","eventMetadata":null,"unknown":{"x":1}}
+                        """);
+
+        assertNull(metricEventDTO.getEvent());
+        assertEquals(42L, metricEventDTO.getUserId());
+        assertNull(metricEventDTO.getEventMetadata());
+    }
+
+    @Test
+    @DisplayName("should reject bodies that are not a metric event object")
+    void shouldRejectMalformedBodies() {
+        assertThrows(HttpMessageNotReadableException.class, () -> read("[]"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"event\":\"NOPE\"}"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"eventMetadata\":[1]}"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"event\":"));
+    }
+
+    @Test
+    @DisplayName("should only read metric events")
+    void shouldOnlyReadMetricEvents() {
+        assertTrue(converter.canRead(MetricEventDTO.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(Map.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(MetricEventDTO.class, MediaType.APPLICATION_JSON));
+    }
+}
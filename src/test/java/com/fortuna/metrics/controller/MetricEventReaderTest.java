@@ -0,0 +1,178 @@
+package com.fortuna.metrics.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fortuna.metrics.controller.model.MetricEventDTO;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import com.fortuna.metrics.controller.model.metadata.JsonMetadata;
+import com.fortuna.metrics.exception.MetricPayloadException;
+import com.fortuna.testFactories.ValidatorTestFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+class MetricEventReaderTest {
+
+    private final MetricEventReader reader =
+            new MetricEventReader(new ObjectMapper(), ValidatorTestFactory.createValidator(), 2);
+
+    private List<MetricEventDTO> read(String json) {
+        return reader.read(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    @DisplayName("should bind every event in the array")
+    void shouldBindEveryEvent() {
+        List<MetricEventDTO> events =
+                read(
+                        """
+                        [{"event":"BUTTON_CLICK","eventMetadata":{"screen":"home"},"clientEventId":"a"},
+                         {"event":"PAYMENT_SUBMITTED","eventMetadata":{},"userId":7}]
+                        """);
+
+        assertEquals(2, events.size());
+        assertEquals(MetricEventType.BUTTON_CLICK, events.get(0).getEvent());
+        assertEquals("a", events.get(0).getClientEventId());
+        assertEquals(7L, events.get(1).getUserId());
+    }
+
+    @Test
+    @DisplayName("should skip events that fail validation and keep the rest")
+    void shouldSkipInvalidEvents() {
+        List<MetricEventDTO> events =
+                read(
+                        """
+                        [{"event":"BUTTON_CLICK"},
+                         {"event":"BUTTON_CLICK","eventMetadata":{}}]
+                        """);
+
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    @DisplayName("should return an empty list for an empty array")
+    void shouldReadEmptyArray() {
+        assertTrue(read("[]").isEmpty());
+    }
+
+    @Test
+    @DisplayName("should reject a batch larger than the configured maximum")
+    void shouldRejectOversizedBatch() {
+        String event = "{\"event\":\"BUTTON_CLICK\",\"eventMetadata\":{}}";
+
+        assertThrows(
+                MetricPayloadException.class,
+                () -> read("[" + event + "," + event + "," + event + "]"));
+    }
+
+    @Test
+    @DisplayName("should reject malformed JSON and arrays of non-objects")
+    void shouldRejectMalformedPayloads() {
+        assertThrows(MetricPayloadException.class, () -> read("[{\"event\":"));
+        assertThrows(MetricPayloadException.class, () -> read("[1, 2]"));
+        assertThrows(MetricPayloadException.class, () -> read(""));
+    }
+
+    @Test
+    @DisplayName("should reject a lone object as a batch and read it as a single event")
+    void shouldRequireArrayForBatch() {
+        String event = "{\"event\":\"BUTTON_CLICK\",\"eventMetadata\":{},\"clientEventId\":\"a\"}";
+
+        MetricPayloadException exception =
+                assertThrows(MetricPayloadException.class, () -> read(event));
+        assertEquals("Metric batch must be an array", exception.getMessage());
+        assertEquals(
+                "a",
+                reader.readOne(
+                                new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8)),
+                                MediaType.APPLICATION_JSON)
+                        .getClientEventId());
+    }
+
+    @Test
+    @DisplayName("should read a CBOR array with the same binding as JSON")
+    void shouldReadCborBatch() throws Exception {
+        byte[] cbor = new ObjectMapper(new CBORFactory()).writeValueAsBytes(List.of(event("a")));
+
+        List<MetricEventDTO> events =
+                reader.read(new ByteArrayInputStream(cbor), MediaType.APPLICATION_CBOR);
+
+        assertEquals(List.of(event("a")), events);
+    }
+
+    @Test
+    @DisplayName("should read a Smile array with the same binding as JSON")
+    void shouldReadSmileBatch() throws Exception {
+        byte[] smile =
+                new ObjectMapper(new SmileFactory())
+                        .writeValueAsBytes(List.of(event("a"), event("b")));
+
+        List<MetricEventDTO> events =
+                reader.read(new ByteArrayInputStream(smile), MetricEventReader.APPLICATION_SMILE);
+
+        assertEquals(List.of(event("a"), event("b")), events);
+    }
+
+    @Test
+    @DisplayName("should read newline-delimited events and apply the same validation")
+    void shouldReadNdjsonStream() {
+        String ndjson =
+                """
+                {"event":"BUTTON_CLICK","eventMetadata":{"screen":"home"},"clientEventId":"a"}
+                {"event":"BUTTON_CLICK"}
+                """;
+
+        List<MetricEventDTO> events =
+                reader.read(
+                        new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+                        MediaType.APPLICATION_NDJSON);
+
+        assertEquals(List.of(event("a")), events);
+    }
+
+    @Test
+    @DisplayName("should reject a single binary event that fails validation")
+    void shouldRejectInvalidSingleEvent() throws Exception {
+        byte[] cbor =
+                new ObjectMapper(new CBORFactory())
+                        .writeValueAsBytes(Map.of("event", "BUTTON_CLICK"));
+
+        assertThrows(
+                MetricPayloadException.class,
+                () -> reader.readOne(new ByteArrayInputStream(cbor), MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    @DisplayName("should keep the metadata as JSON text and reject unknown fields")
+    void shouldKeepMetadataAsJson() {
+        List<MetricEventDTO> events =
+                read(
+                        """
+                        [{"eventMetadata":{"screen":"home","tags":["a"]},"event":"BUTTON_CLICK"}]
+                        """);
+
+        JsonMetadata metadata =
+                assertInstanceOf(JsonMetadata.class, events.get(0).getEventMetadata());
+        assertEquals("{\"screen\":\"home\",\"tags\":[\"a\"]}", metadata.json());
+        assertThrows(
+                MetricPayloadException.class,
+                () -> read("[{\"event\":\"BUTTON_CLICK\",\"eventMetadata\":{},\"extra\":1}]"));
+    }
+
+    private static MetricEventDTO event(String clientEventId) {
+        return new MetricEventDTO(
+                MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, clientEventId);
+    }
+}
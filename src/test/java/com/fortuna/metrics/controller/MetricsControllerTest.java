@@ -1,20 +1,31 @@
 package com.fortuna.metrics.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.fortuna.metrics.controller.model.MetricEventDTO;
 import com.fortuna.metrics.controller.model.MetricEventType;
 import com.fortuna.metrics.service.MetricsService;
+import com.fortuna.testFactories.ValidatorTestFactory;
+import com.fortuna.web.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
@@ -29,8 +40,27 @@ class MetricsControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        MetricsController controller = new MetricsController(mockMetricsService);
-        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        MetricEventReader eventReader =
+                new MetricEventReader(objectMapper, ValidatorTestFactory.createValidator(), 3);
+        RateLimiter rateLimiter =
+                new RateLimiter(
+                        new MockEnvironment()
+                                .withProperty(
+                                        "application.rate-limit.limits.button-click.rate", "1")
+                                .withProperty(
+                                        "application.rate-limit.limits.button-click.burst", "5")
+                                .withProperty(
+                                        "application.rate-limit.limits.payment-submitted.rate", "1")
+                                .withProperty(
+                                        "application.rate-limit.limits.payment-submitted.burst",
+                                        "1"),
+                        new SimpleMeterRegistry());
+        MetricsController controller =
+                new MetricsController(mockMetricsService, eventReader, rateLimiter);
+        mockMvc =
+                MockMvcBuilders.standaloneSetup(controller)
+                        .setValidator(ValidatorTestFactory.createValidator())
+                        .build();
     }
 
     @Test
@@ -41,6 +71,7 @@ class MetricsControllerTest {
                 new MetricEventDTO(
                         MetricEventType.BUTTON_CLICK,
                         Map.of("buttonId", "submit", "screen", "login"),
+                        null,
                         null);
 
         String requestJson = objectMapper.writeValueAsString(metricEventDTO);
@@ -70,7 +101,8 @@ class MetricsControllerTest {
     @DisplayName("Should return 500 when service throws exception")
     void shouldReturn500WhenServiceThrowsException() throws Exception {
         MetricEventDTO metricEventDTO =
-                new MetricEventDTO(MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null);
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, null);
 
         doThrow(new RuntimeException("Database error"))
                 .when(mockMetricsService)
@@ -105,7 +137,8 @@ class MetricsControllerTest {
     @DisplayName("Should return 201 with userId provided")
     void shouldReturn201WithUserIdProvided() throws Exception {
         MetricEventDTO metricEventDTO =
-                new MetricEventDTO(MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), 123L);
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), 123L, null);
 
         String requestJson = objectMapper.writeValueAsString(metricEventDTO);
 
@@ -117,4 +150,210 @@ class MetricsControllerTest {
 
         verify(mockMetricsService, times(1)).saveMetricEvent(any(MetricEventDTO.class));
     }
+
+    @Test
+    @DisplayName("should save a JSON array of events as one batch and return 201")
+    void shouldSaveJsonBatch() throws Exception {
+        String requestJson =
+                objectMapper.writeValueAsString(
+                        List.of(
+                                new MetricEventDTO(
+                                        MetricEventType.BUTTON_CLICK,
+                                        Map.of("screen", "home"),
+                                        null,
+                                        "evt-1"),
+                                new MetricEventDTO(
+                                        MetricEventType.PAYMENT_SUBMITTED,
+                                        Map.of("screen", "checkout"),
+                                        null,
+                                        "evt-2")));
+
+        mockMvc.perform(
+                        post("/api/save-metric/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestJson))
+                .andExpect(status().isCreated());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MetricEventDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mockMetricsService, times(1)).saveMetricEvents(captor.capture());
+        assertEquals(2, captor.getValue().size());
+    }
+
+    @Test
+    @DisplayName("should accept a text/plain beacon payload")
+    void shouldAcceptTextPlainBeacon() throws Exception {
+        String beacon = "[{\"event\":\"BUTTON_CLICK\",\"eventMetadata\":{\"screen\":\"home\"}}]";
+
+        mockMvc.perform(
+                        post("/api/save-metric/batch")
+                                .contentType(MediaType.TEXT_PLAIN)
+                                .content(beacon))
+                .andExpect(status().isCreated());
+
+        verify(mockMetricsService, times(1)).saveMetricEvents(anyList());
+    }
+
+    @Test
+    @DisplayName("should return 400 when the batch is not a JSON array")
+    void shouldReturn400WhenBatchIsNotAnArray() throws Exception {
+        mockMvc.perform(
+                        post("/api/save-metric/batch")
+                                .contentType(MediaType.TEXT_PLAIN)
+                                .content("{\"event\":\"BUTTON_CLICK\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(mockMetricsService);
+    }
+
+    @Test
+    @DisplayName("should accept a single CBOR event on the save-metric endpoint")
+    void shouldAcceptCborEvent() throws Exception {
+        byte[] cbor =
+                new ObjectMapper(new CBORFactory())
+                        .writeValueAsBytes(
+                                new MetricEventDTO(
+                                        MetricEventType.BUTTON_CLICK,
+                                        Map.of("screen", "home"),
+                                        null,
+                                        null));
+
+        mockMvc.perform(
+                        post("/api/save-metric")
+                                .contentType(MediaType.APPLICATION_CBOR)
+                                .content(cbor))
+                .andExpect(status().isCreated());
+
+        verify(mockMetricsService, times(1)).saveMetricEvent(any(MetricEventDTO.class));
+    }
+
+    @Test
+    @DisplayName("should return 400 for a CBOR event missing required fields")
+    void shouldReturn400ForInvalidCborEvent() throws Exception {
+        byte[] cbor = new ObjectMapper(new CBORFactory()).writeValueAsBytes(Map.of());
+
+        mockMvc.perform(
+                        post("/api/save-metric")
+                                .contentType(MediaType.APPLICATION_CBOR)
+                                .content(cbor))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(mockMetricsService);
+    }
+
+    @Test
+    @DisplayName("should accept an NDJSON stream on the batch endpoint")
+    void shouldAcceptNdjsonBatch() throws Exception {
+        String ndjson =
+                "{\"event\":\"BUTTON_CLICK\",\"eventMetadata\":{}}\n"
+                        + "{\"event\":\"PAYMENT_SUBMITTED\",\"eventMetadata\":{}}\n";
+
+        mockMvc.perform(
+                        post("/api/save-metric/batch")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content(ndjson))
+                .andExpect(status().isCreated());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MetricEventDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mockMetricsService, times(1)).saveMetricEvents(captor.capture());
+        assertEquals(2, captor.getValue().size());
+    }
+
+    @Test
+    @DisplayName("should return 400 when metadata does not match the event type's schema")
+    void shouldReturn400WhenMetadataDoesNotMatchSchema() throws Exception {
+        String requestJson =
+                "{\"event\":\"PAYMENT_SUBMITTED\",\"eventMetadata\":{\"amount\":\"lots\"}}";
+
+        mockMvc.perform(
+                        post("/api/save-metric")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestJson))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(mockMetricsService);
+    }
+
+    @Test
+    @DisplayName("should return 429 with Retry-After once a client exceeds its event type's limit")
+    void shouldReturn429WhenEventTypeLimitIsExceeded() throws Exception {
+        String click = "{\"event\":\"BUTTON_CLICK\",\"eventMetadata\":{\"screen\":\"home\"}}";
+        String payment = "{\"event\":\"PAYMENT_SUBMITTED\",\"eventMetadata\":{}}";
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(
+                            post("/api/save-metric")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(click))
+                    .andExpect(status().isCreated());
+        }
+        mockMvc.perform(
+                        post("/api/save-metric")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(click))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        mockMvc.perform(
+                        post("/api/save-metric/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[" + payment + "," + click + "]"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(
+                        post("/api/save-metric")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(payment))
+                .andExpect(status().isCreated());
+
+        verify(mockMetricsService, times(6)).saveMetricEvent(any(MetricEventDTO.class));
+        verify(mockMetricsService, never()).saveMetricEvents(anyList());
+    }
+
+    @Test
+    @DisplayName("should give back the tokens of earlier types when a later type is rate limited")
+    void shouldKeepNoTokensFromRejectedBatch() throws Exception {
+        String click = "{\"event\":\"BUTTON_CLICK\",\"eventMetadata\":{\"screen\":\"home\"}}";
+        String payment = "{\"event\":\"PAYMENT_SUBMITTED\",\"eventMetadata\":{}}";
+        mockMvc.perform(
+                        post("/api/save-metric")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(payment))
+                .andExpect(status().isCreated());
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(
+                            post("/api/save-metric/batch")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("[" + click + "," + payment + "]"))
+                    .andExpect(status().isTooManyRequests());
+        }
+        // The rejected batches took no clicks, so the whole burst of five is still there.
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(
+                            post("/api/save-metric")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(click))
+                    .andExpect(status().isCreated());
+        }
+        verify(mockMetricsService, never()).saveMetricEvents(anyList());
+    }
+
+    @Test
+    @DisplayName("should return 413 for a batch with more events of a type than its burst")
+    void shouldReturn413WhenBatchExceedsBurst() throws Exception {
+        String payment = "{\"event\":\"PAYMENT_SUBMITTED\",\"eventMetadata\":{}}";
+
+        mockMvc.perform(
+                        post("/api/save-metric/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[" + payment + "," + payment + "]"))
+                .andExpect(status().is(HttpStatus.CONTENT_TOO_LARGE.value()));
+        mockMvc.perform(
+                        post("/api/save-metric")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(payment))
+                .andExpect(status().isCreated());
+
+        verify(mockMetricsService, never()).saveMetricEvents(anyList());
+    }
 }
@@ -0,0 +1,94 @@
+package com.fortuna.metrics.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fortuna.metrics.controller.model.MetricEventSearchResultDTO;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import com.fortuna.metrics.service.MetricsService;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class MetricsSearchControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock private MetricsService mockMetricsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc =
+                MockMvcBuilders.standaloneSetup(new MetricsSearchController(mockMetricsService))
+                        .build();
+    }
+
+    @Test
+    @DisplayName("should pass non-reserved query parameters through as metadata filters")
+    void shouldPassMetadataFilters() throws Exception {
+        Instant from = Instant.parse("2026-01-01T00:00:00Z");
+        when(mockMetricsService.searchByMetadata(any(), any(), any(), any(), eq(100)))
+                .thenReturn(
+                        List.of(
+                                MetricEventSearchResultDTO.builder()
+                                        .id(1L)
+                                        .event("BUTTON_CLICK")
+                                        .eventTime(from)
+                                        .metadata("{\"buttonId\":\"submit\"}")
+                                        .build()));
+
+        mockMvc.perform(
+                        get("/api/metrics/search")
+                                .param("event", "BUTTON_CLICK")
+                                .param("buttonId", "submit")
+                                .param("from", "2026-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].metadata.buttonId").value("submit"));
+
+        verify(mockMetricsService)
+                .searchByMetadata(
+                        MetricEventType.BUTTON_CLICK,
+                        Map.of("buttonId", "submit"),
+                        from,
+                        null,
+                        MetricsSearchController.DEFAULT_LIMIT);
+    }
+
+    @Test
+    @DisplayName("should search without an event type")
+    void shouldSearchWithoutEventType() throws Exception {
+        mockMvc.perform(get("/api/metrics/search").param("variant", "B").param("limit", "10"))
+                .andExpect(status().isOk());
+
+        verify(mockMetricsService)
+                .searchByMetadata(isNull(), eq(Map.of("variant", "B")), isNull(), isNull(), eq(10));
+    }
+
+    @Test
+    @DisplayName("should return 400 when the limit is out of range")
+    void shouldRejectOutOfRangeLimit() throws Exception {
+        mockMvc.perform(
+                        get("/api/metrics/search")
+                                .param(
+                                        "limit",
+                                        String.valueOf(MetricsSearchController.MAX_LIMIT + 1)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(mockMetricsService);
+    }
+}
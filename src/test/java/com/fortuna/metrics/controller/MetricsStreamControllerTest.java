@@ -0,0 +1,115 @@
+package com.fortuna.metrics.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fortuna.exception.ErrorReporter;
+import com.fortuna.exception.GlobalExceptionHandler;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import com.fortuna.metrics.stream.MetricStream;
+import com.fortuna.metrics.stream.MetricStreamFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class MetricsStreamControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock private MetricStream mockMetricStream;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc =
+                MockMvcBuilders.standaloneSetup(
+                                new MetricsStreamController(
+                                        mockMetricStream, Duration.ofMinutes(30)))
+                        .setControllerAdvice(
+                                new GlobalExceptionHandler(
+                                        new ErrorReporter(
+                                                new SimpleMeterRegistry(),
+                                                5,
+                                                Duration.ofMinutes(1),
+                                                100,
+                                                1000)))
+                        .build();
+    }
+
+    @Test
+    @DisplayName("should open an event stream with the filters bound through the event schema")
+    void shouldSubscribeWithFilters() throws Exception {
+        when(mockMetricStream.subscribe(any(), any())).thenReturn(true);
+
+        mockMvc.perform(
+                        get("/api/metrics/stream")
+                                .accept(MediaType.TEXT_EVENT_STREAM)
+                                .param("raw", "true")
+                                .param("event", "PAYMENT_SUBMITTED")
+                                .param("amount", "100"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Content-Type", "text/event-stream;charset=UTF-8"))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+
+        verify(mockMetricStream)
+                .subscribe(
+                        any(),
+                        eq(
+                                new MetricStreamFilter(
+                                        true,
+                                        Set.of(MetricEventType.PAYMENT_SUBMITTED),
+                                        Map.of("amount", 100L))));
+    }
+
+    @Test
+    @DisplayName("should stream counts only by default")
+    void shouldSubscribeForCountsByDefault() throws Exception {
+        when(mockMetricStream.subscribe(any(), any())).thenReturn(true);
+
+        mockMvc.perform(get("/api/metrics/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk());
+
+        verify(mockMetricStream)
+                .subscribe(any(), eq(new MetricStreamFilter(false, Set.of(), Map.of())));
+    }
+
+    @Test
+    @DisplayName("should return 503 when the stream has no room for another subscriber")
+    void shouldRejectWhenStreamIsFull() throws Exception {
+        when(mockMetricStream.subscribe(any(), any())).thenReturn(false);
+
+        mockMvc.perform(get("/api/metrics/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+
+    @Test
+    @DisplayName("should return 400 when a filter does not fit the event schema")
+    void shouldRejectInvalidFilter() throws Exception {
+        mockMvc.perform(
+                        get("/api/metrics/stream")
+                                .accept(MediaType.TEXT_EVENT_STREAM)
+                                .param("event", "PAYMENT_SUBMITTED")
+                                .param("amount", "lots"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(mockMetricStream);
+    }
+}
@@ -0,0 +1,136 @@
+package com.fortuna.metrics.controller.model.metadata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fortuna.metrics.controller.model.MetricEventDTO;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import com.fortuna.testFactories.ValidatorTestFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MetricMetadataSchemasTest {
+
+    private final Validator validator = ValidatorTestFactory.createValidator();
+
+    @Test
+    @DisplayName("should bind button clicks to the typed record, including legacy aliases")
+    void shouldBindButtonClickAliases() {
+        MetricMetadata typed =
+                MetricMetadataSchemas.parse(
+                        MetricEventType.BUTTON_CLICK,
+                        Map.of("triggerId", "Pay Now Button", "screen", "Home"));
+
+        assertEquals(new ButtonClickMetadata("Pay Now Button", "Home"), typed);
+    }
+
+    @Test
+    @DisplayName("should normalize to canonical keys and keep unknown keys for jsonb")
+    void shouldNormalizeAndKeepExtras() {
+        Map<String, Object> normalized =
+                MetricMetadataSchemas.normalize(
+                        MetricEventType.BUTTON_CLICK,
+                        Map.of("triggerId", "Login", "screen", "/", "variant", "B"));
+
+        assertEquals(Map.of("buttonId", "Login", "page", "/", "variant", "B"), normalized);
+        assertEquals(List.of("buttonId", "page", "variant"), List.copyOf(normalized.keySet()));
+    }
+
+    @Test
+    @DisplayName("should reject a known key with the wrong type")
+    void shouldRejectWrongType() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        MetricMetadataSchemas.parse(
+                                MetricEventType.PAYMENT_SUBMITTED, Map.of("amount", "lots")));
+    }
+
+    @Test
+    @DisplayName("should report record constraint violations against the metric event")
+    void shouldValidateTypedMetadataAtIngestion() {
+        MetricEventDTO metricEventDTO =
+                new MetricEventDTO(
+                        MetricEventType.PAYMENT_SUBMITTED,
+                        Map.of("amount", -5, "currency", "dollars"),
+                        null,
+                        null);
+
+        Set<ConstraintViolation<MetricEventDTO>> violations = validator.validate(metricEventDTO);
+
+        assertEquals(2, violations.size());
+        assertTrue(
+                violations.stream()
+                        .allMatch(v -> v.getPropertyPath().toString().startsWith("eventMetadata")));
+    }
+
+    @Test
+    @DisplayName("should accept metadata that matches the schema")
+    void shouldAcceptValidMetadata() {
+        MetricEventDTO metricEventDTO =
+                new MetricEventDTO(
+                        MetricEventType.PAYMENT_SUBMITTED,
+                        Map.of("amount", 1999, "currency", "usd", "paymentType", "Card"),
+                        null,
+                        null);
+
+        assertTrue(validator.validate(metricEventDTO).isEmpty());
+    }
+
+    @Test
+    @DisplayName("should stream JSON metadata into canonical keys, dropping null typed values")
+    void shouldNormalizeJsonMetadata() throws Exception {
+        String normalized =
+                MetricMetadataSchemas.normalize(
+                        MetricEventType.BUTTON_CLICK,
+                        new JsonMetadata(
+                                "{\"triggerId\":\"Login\",\"screen\":null,\"ab\":{\"variant\":[1,2]}}"));
+
+        assertEquals("{\"buttonId\":\"Login\",\"ab\":{\"variant\":[1,2]}}", normalized);
+    }
+
+    @Test
+    @DisplayName("should write a field once when JSON metadata has it under two names")
+    void shouldNormalizeAliasedDuplicatesOnce() throws Exception {
+        String normalized =
+                MetricMetadataSchemas.normalize(
+                        MetricEventType.BUTTON_CLICK,
+                        new JsonMetadata("{\"buttonId\":\"Login\",\"triggerId\":\"Legacy\"}"));
+
+        assertEquals("{\"buttonId\":\"Legacy\"}", normalized);
+    }
+
+    @Test
+    @DisplayName("should normalize JSON metadata that needs coercion the same way as a map")
+    void shouldCoerceJsonMetadataLikeAMap() throws Exception {
+        String normalized =
+                MetricMetadataSchemas.normalize(
+                        MetricEventType.PAYMENT_SUBMITTED,
+                        new JsonMetadata("{\"currency\":\"usd\",\"amount\":\"1999\"}"));
+
+        assertEquals("{\"amount\":1999,\"currency\":\"usd\"}", normalized);
+    }
+
+    @Test
+    @DisplayName("should validate JSON metadata against the schema without binding a map")
+    void shouldValidateJsonMetadata() {
+        MetricEventDTO metricEventDTO =
+                new MetricEventDTO(
+                        MetricEventType.PAYMENT_SUBMITTED,
+                        new JsonMetadata("{\"amount\":-5,\"currency\":\"usd\"}"),
+                        null,
+                        null);
+
+        Set<ConstraintViolation<MetricEventDTO>> violations = validator.validate(metricEventDTO);
+
+        assertEquals(1, violations.size());
+        assertEquals(
+                "eventMetadata.amount", violations.iterator().next().getPropertyPath().toString());
+    }
+}
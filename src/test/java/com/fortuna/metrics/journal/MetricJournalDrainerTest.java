@@ -0,0 +1,147 @@
+package com.fortuna.metrics.journal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fortuna.metrics.repository.MetricEventWriter;
+import com.fortuna.metrics.repository.MetricsRepository;
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import com.fortuna.metrics.service.MetricEventDeduplicator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+@ExtendWith(MockitoExtension.class)
+class MetricJournalDrainerTest {
+
+    private static final MetricJournal.Cursor FIRST = new MetricJournal.Cursor(1, 100);
+    private static final MetricJournal.Cursor SECOND = new MetricJournal.Cursor(2, 40);
+
+    @Mock MetricJournal mockMetricJournal;
+    @Mock MetricEventWriter mockMetricEventWriter;
+    @Mock MetricsRepository mockMetricsRepository;
+    @Mock MetricEventDeduplicator mockMetricEventDeduplicator;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MetricJournalDrainer drainer;
+
+    @BeforeEach
+    void setUp() {
+        drainer =
+                new MetricJournalDrainer(
+                        mockMetricJournal,
+                        mockMetricEventWriter,
+                        mockMetricsRepository,
+                        mockMetricEventDeduplicator,
+                        meterRegistry,
+                        2);
+    }
+
+    @Test
+    @DisplayName("should insert each batch and confirm it only afterwards")
+    void shouldInsertThenConfirm() {
+        List<MetricEventEntity> first = List.of(event("a"), event("b"));
+        List<MetricEventEntity> second = List.of(event("c"));
+        when(mockMetricJournal.read(2))
+                .thenReturn(new MetricJournal.Batch(first, FIRST))
+                .thenReturn(new MetricJournal.Batch(second, SECOND))
+                .thenReturn(null);
+
+        assertEquals(3, drainer.drain());
+
+        InOrder order = inOrder(mockMetricEventWriter, mockMetricJournal);
+        order.verify(mockMetricEventWriter).insertAll(first);
+        order.verify(mockMetricJournal).confirm(FIRST);
+        order.verify(mockMetricEventWriter).insertAll(second);
+        order.verify(mockMetricJournal).confirm(SECOND);
+    }
+
+    @Test
+    @DisplayName("should confirm a batch that only moves past drained segments without inserting")
+    void shouldConfirmEmptyBatch() {
+        when(mockMetricJournal.read(2))
+                .thenReturn(new MetricJournal.Batch(List.of(), SECOND))
+                .thenReturn(null);
+
+        assertEquals(0, drainer.drain());
+
+        verify(mockMetricEventWriter, never()).insertAll(anyList());
+        verify(mockMetricJournal).confirm(SECOND);
+    }
+
+    @Test
+    @DisplayName("should leave the batch unconfirmed when the database is unavailable")
+    void shouldNotConfirmWhenInsertFails() {
+        List<MetricEventEntity> events = List.of(event("a"));
+        when(mockMetricJournal.read(2)).thenReturn(new MetricJournal.Batch(events, FIRST));
+        doThrow(new DataAccessResourceFailureException("down"))
+                .when(mockMetricEventWriter)
+                .insertAll(events);
+
+        assertThrows(DataAccessResourceFailureException.class, drainer::drain);
+
+        verify(mockMetricJournal, never()).confirm(any());
+    }
+
+    @Test
+    @DisplayName("should skip a replayed duplicate and drop an event the database rejects")
+    void shouldSettleIntegrityViolationsPerEvent() {
+        MetricEventEntity stored = event("already-stored");
+        MetricEventEntity orphan = event(null);
+        MetricEventEntity fresh = event("fresh");
+        List<MetricEventEntity> events = List.of(stored, orphan, fresh);
+        when(mockMetricJournal.read(2))
+                .thenReturn(new MetricJournal.Batch(events, FIRST))
+                .thenReturn(null);
+        doThrow(new DataIntegrityViolationException("batch"))
+                .when(mockMetricEventWriter)
+                .insertAll(events);
+        doThrow(new DataIntegrityViolationException("unique"))
+                .when(mockMetricEventWriter)
+                .insert(stored);
+        doThrow(new DataIntegrityViolationException("foreign key"))
+                .when(mockMetricEventWriter)
+                .insert(orphan);
+        when(mockMetricsRepository.existsByClientEventId("already-stored")).thenReturn(true);
+
+        drainer.drain();
+
+        verify(mockMetricEventWriter).insert(fresh);
+        verify(mockMetricEventDeduplicator).recordRejectedDuplicate("already-stored");
+        verify(mockMetricJournal).confirm(FIRST);
+        assertEquals(1.0, meterRegistry.counter(MetricJournalDrainer.METER_NAME).count());
+    }
+
+    @Test
+    @DisplayName("should not drain on schedule while the journal is not running")
+    void shouldSkipScheduledDrainWhenStopped() {
+        drainer.drainOnSchedule();
+
+        verify(mockMetricJournal, never()).read(2);
+    }
+
+    private static MetricEventEntity event(String clientEventId) {
+        return MetricEventEntity.builder()
+                .event("BUTTON_CLICK")
+                .eventTime(Timestamp.from(Instant.parse("2026-01-15T12:00:00Z")))
+                .metadata("{}")
+                .clientEventId(clientEventId)
+                .build();
+    }
+}
@@ -0,0 +1,247 @@
+package com.fortuna.metrics.journal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fortuna.metrics.exception.MetricJournalException;
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class MetricJournalTest {
+
+    private static final Instant NOON = Instant.parse("2026-01-15T12:00:00.123456789Z");
+
+    @TempDir Path directory;
+
+    private final List<MetricJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        journals.forEach(MetricJournal::stop);
+    }
+
+    @Test
+    @DisplayName("should read back every field of the appended events, in order")
+    void shouldRoundTripEvents() {
+        MetricJournal journal = start(MetricJournal.Fsync.ALWAYS);
+        journal.append(
+                List.of(
+                        event("BUTTON_CLICK", "{\"buttonId\":\"ünïcode\"}", 42L, "client-1"),
+                        event("PAYMENT_SUBMITTED", "{\"amount\":100}", null, null)));
+        journal.append(List.of(event("BUTTON_CLICK", "{}", 7L, null)));
+
+        MetricJournal.Batch batch = journal.read(10);
+
+        assertEquals(3, batch.events().size());
+        MetricEventEntity first = batch.events().get(0);
+        assertEquals("BUTTON_CLICK", first.getEvent());
+        assertEquals(Timestamp.from(NOON), first.getEventTime());
+        assertEquals("{\"buttonId\":\"ünïcode\"}", first.getMetadata());
+        assertEquals(42L, first.getUserId());
+        assertEquals("client-1", first.getClientEventId());
+        MetricEventEntity second = batch.events().get(1);
+        assertEquals("PAYMENT_SUBMITTED", second.getEvent());
+        assertNull(second.getUserId());
+        assertNull(second.getClientEventId());
+        assertEquals(7L, batch.events().get(2).getUserId());
+    }
+
+    @Test
+    @DisplayName("should keep returning the same events until they are confirmed")
+    void shouldReadFromLastConfirmedPosition() {
+        MetricJournal journal = start(MetricJournal.Fsync.ALWAYS);
+        assertNull(journal.read(10));
+        journal.append(List.of(event("BUTTON_CLICK", "{\"n\":1}", null, null)));
+        journal.append(List.of(event("BUTTON_CLICK", "{\"n\":2}", null, null)));
+
+        MetricJournal.Batch first = journal.read(1);
+        assertEquals(List.of("{\"n\":1}"), metadata(first));
+        assertEquals(List.of("{\"n\":1}"), metadata(journal.read(1)));
+
+        journal.confirm(first.end());
+        assertEquals(List.of("{\"n\":2}"), metadata(journal.read(10)));
+        journal.confirm(journal.read(10).end());
+        assertNull(journal.read(10));
+        assertEquals(0, journal.pendingBytes());
+    }
+
+    @Test
+    @DisplayName("should replay only unconfirmed events after a restart")
+    void shouldReplayUnconfirmedEventsOnRestart() {
+        MetricJournal journal = start(MetricJournal.Fsync.GROUP);
+        journal.append(List.of(event("BUTTON_CLICK", "{\"n\":1}", null, null)));
+        journal.append(List.of(event("BUTTON_CLICK", "{\"n\":2}", null, null)));
+        journal.confirm(journal.read(1).end());
+        journal.stop();
+
+        MetricJournal restarted = start(MetricJournal.Fsync.GROUP);
+        restarted.append(List.of(event("BUTTON_CLICK", "{\"n\":3}", null, null)));
+
+        List<String> drained = new ArrayList<>();
+        MetricJournal.Batch batch;
+        while ((batch = restarted.read(10)) != null) {
+            drained.addAll(metadata(batch));
+            restarted.confirm(batch.end());
+        }
+        assertEquals(List.of("{\"n\":2}", "{\"n\":3}"), drained);
+        assertEquals(1, segmentFiles().size());
+    }
+
+    @Test
+    @DisplayName("should start a new segment when one fills and delete drained segments")
+    void shouldRotateAndDeleteDrainedSegments() {
+        MetricJournal journal = start(MetricJournal.Fsync.NONE);
+        for (int i = 0; i < 20; i++) {
+            journal.append(List.of(event("BUTTON_CLICK", "{\"n\":" + i + "}", null, null)));
+        }
+        assertTrue(segmentFiles().size() > 1);
+
+        List<String> drained = new ArrayList<>();
+        MetricJournal.Batch batch;
+        while ((batch = journal.read(3)) != null) {
+            drained.addAll(metadata(batch));
+            journal.confirm(batch.end());
+        }
+
+        assertEquals(20, drained.size());
+        assertEquals("{\"n\":19}", drained.get(19));
+        assertEquals(1, segmentFiles().size());
+    }
+
+    @Test
+    @DisplayName("should give a record larger than a segment a segment of its own")
+    void shouldFitOversizedRecord() {
+        MetricJournal journal = start(MetricJournal.Fsync.ALWAYS);
+        String large = "{\"blob\":\"" + "x".repeat(4_000) + "\"}";
+
+        journal.append(List.of(event("BUTTON_CLICK", large, null, null)));
+
+        assertEquals(List.of(large), metadata(journal.read(10)));
+    }
+
+    @Test
+    @DisplayName("should stop a recovered segment at a torn record and keep what came before")
+    void shouldIgnoreTornTail() throws Exception {
+        MetricJournal journal = start(MetricJournal.Fsync.ALWAYS);
+        journal.append(List.of(event("BUTTON_CLICK", "{\"n\":1}", null, null)));
+        journal.append(List.of(event("BUTTON_CLICK", "{\"n\":2}", null, null)));
+        journal.stop();
+        Path segment = segmentFiles().get(0);
+        // Flip a byte of the second record's payload, as a write cut short by a crash would.
+        int secondPayload =
+                MetricJournalFormat.HEADER_SIZE
+                        + MetricJournalFormat.RECORD_HEADER_SIZE
+                        + readInt(segment, MetricJournalFormat.HEADER_SIZE)
+                        + MetricJournalFormat.RECORD_HEADER_SIZE;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7f}), secondPayload + 10);
+        }
+
+        MetricJournal restarted = start(MetricJournal.Fsync.ALWAYS);
+
+        assertEquals(List.of("{\"n\":1}"), metadata(restarted.read(10)));
+    }
+
+    @Test
+    @DisplayName("should refuse a directory another journal has open")
+    void shouldLockDirectory() {
+        start(MetricJournal.Fsync.ALWAYS);
+        MetricJournal second = journal(MetricJournal.Fsync.ALWAYS);
+
+        assertThrows(MetricJournalException.class, second::start);
+    }
+
+    @Test
+    @DisplayName("should reject appends once stopped")
+    void shouldRejectAppendsWhenStopped() {
+        MetricJournal journal = start(MetricJournal.Fsync.GROUP);
+        journal.append(List.of(event("BUTTON_CLICK", "{}", null, null)));
+        journal.stop();
+
+        assertThrows(
+                MetricJournalException.class,
+                () -> journal.append(List.of(event("BUTTON_CLICK", "{}", null, null))));
+        assertThrows(MetricJournalException.class, () -> journal.read(10));
+    }
+
+    @Test
+    @DisplayName("should do nothing when disabled")
+    void shouldStayClosedWhenDisabled() throws Exception {
+        MetricJournal journal =
+                new MetricJournal(
+                        false,
+                        directory.resolve("off"),
+                        DataSize.ofKilobytes(1),
+                        MetricJournal.Fsync.GROUP,
+                        Duration.ofMillis(1));
+
+        journal.start();
+
+        assertFalse(journal.isRunning());
+        assertFalse(Files.exists(directory.resolve("off")));
+    }
+
+    private MetricJournal start(MetricJournal.Fsync fsync) {
+        MetricJournal journal = journal(fsync);
+        journal.start();
+        return journal;
+    }
+
+    private MetricJournal journal(MetricJournal.Fsync fsync) {
+        MetricJournal journal =
+                new MetricJournal(
+                        true, directory, DataSize.ofKilobytes(1), fsync, Duration.ofMillis(1));
+        journals.add(journal);
+        return journal;
+    }
+
+    private List<Path> segmentFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(
+                            path ->
+                                    MetricJournalFormat.sequenceOf(path.getFileName().toString())
+                                            >= 0)
+                    .sorted()
+                    .toList();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static int readInt(Path file, int position) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(bytes, position);
+            return bytes.flip().getInt();
+        }
+    }
+
+    private static List<String> metadata(MetricJournal.Batch batch) {
+        return batch.events().stream().map(MetricEventEntity::getMetadata).toList();
+    }
+
+    private static MetricEventEntity event(
+            String event, String metadata, Long userId, String clientEventId) {
+        return MetricEventEntity.builder()
+                .event(event)
+                .eventTime(Timestamp.from(NOON))
+                .metadata(metadata)
+                .userId(userId)
+                .clientEventId(clientEventId)
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.fortuna.metrics.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+@ExtendWith(MockitoExtension.class)
+class JdbcMetricEventWriterTest {
+
+    @Mock JdbcTemplate mockJdbcTemplate;
+
+    @InjectMocks JdbcMetricEventWriter jdbcMetricEventWriter;
+
+    private final MetricEventEntity event =
+            MetricEventEntity.builder()
+                    .event("BUTTON_CLICK")
+                    .eventTime(new Timestamp(1_000))
+                    .metadata("{\"buttonId\":\"submit\"}")
+                    .userId(7L)
+                    .clientEventId("evt-1")
+                    .build();
+
+    @Test
+    @DisplayName("should bind every column of a single insert")
+    void shouldBindSingleInsert() throws Exception {
+        jdbcMetricEventWriter.insert(event);
+
+        ArgumentCaptor<PreparedStatementSetter> setter =
+                ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(mockJdbcTemplate).update(eq(JdbcMetricEventWriter.INSERT_SQL), setter.capture());
+        PreparedStatement statement = mock(PreparedStatement.class);
+        setter.getValue().setValues(statement);
+        verify(statement).setString(1, "BUTTON_CLICK");
+        verify(statement).setTimestamp(2, new Timestamp(1_000));
+        verify(statement).setString(3, "{\"buttonId\":\"submit\"}");
+        verify(statement).setLong(4, 7L);
+        verify(statement).setString(5, "evt-1");
+    }
+
+    @Test
+    @DisplayName("should send a batch as one batchUpdate and bind a missing user id as null")
+    @SuppressWarnings("unchecked")
+    void shouldBatchInserts() throws Exception {
+        MetricEventEntity anonymous =
+                MetricEventEntity.builder()
+                        .event("BUTTON_CLICK")
+                        .eventTime(new Timestamp(2_000))
+                        .metadata("{}")
+                        .build();
+
+        jdbcMetricEventWriter.insertAll(List.of(event, anonymous));
+
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<MetricEventEntity>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(mockJdbcTemplate)
+                .batchUpdate(
+                        eq(JdbcMetricEventWriter.INSERT_SQL), anyList(), eq(2), setter.capture());
+        PreparedStatement statement = mock(PreparedStatement.class);
+        setter.getValue().setValues(statement, anonymous);
+        verify(statement).setNull(4, Types.BIGINT);
+        verify(statement).setString(5, null);
+    }
+
+    @Test
+    @DisplayName("should pick the writer named by configuration")
+    void shouldSelectWriterByConfiguration() {
+        MetricEventWriterConfig config = new MetricEventWriterConfig();
+        MetricsRepository metricsRepository = mock(MetricsRepository.class);
+
+        assertInstanceOf(
+                JdbcMetricEventWriter.class,
+                config.metricEventWriter("jdbc", metricsRepository, mockJdbcTemplate));
+        assertInstanceOf(
+                JpaMetricEventWriter.class,
+                config.metricEventWriter("jpa", metricsRepository, mockJdbcTemplate));
+        assertThrows(
+                IllegalStateException.class,
+                () -> config.metricEventWriter("mongo", metricsRepository, mockJdbcTemplate));
+    }
+}
@@ -0,0 +1,84 @@
+package com.fortuna.metrics.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fortuna.metrics.repository.MetricsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class MetricEventDeduplicatorTest {
+
+    @Mock MetricsRepository mockMetricsRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MetricEventDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        deduplicator =
+                new MetricEventDeduplicator(
+                        mockMetricsRepository,
+                        meterRegistry,
+                        new RotatingBloomFilter(
+                                1_000, 0.01, Duration.ofMinutes(10), Clock.systemUTC()));
+    }
+
+    @Test
+    @DisplayName("should never treat events without a client event id as duplicates")
+    void shouldIgnoreMissingClientEventId() {
+        assertFalse(deduplicator.isDuplicate(null));
+        assertFalse(deduplicator.isDuplicate(null));
+        assertFalse(deduplicator.isDuplicate(" "));
+
+        verify(mockMetricsRepository, never()).existsByClientEventId(anyString());
+    }
+
+    @Test
+    @DisplayName("should not query the database for an id the filter has never seen")
+    void shouldSkipLookupForNewId() {
+        assertFalse(deduplicator.isDuplicate("evt-1"));
+
+        verify(mockMetricsRepository, never()).existsByClientEventId(anyString());
+    }
+
+    @Test
+    @DisplayName("should confirm a repeated id against the database and report it as a duplicate")
+    void shouldReportConfirmedDuplicate() {
+        when(mockMetricsRepository.existsByClientEventId("evt-1")).thenReturn(true);
+
+        assertFalse(deduplicator.isDuplicate("evt-1"));
+        assertTrue(deduplicator.isDuplicate("evt-1"));
+
+        assertEquals(1.0, meterRegistry.counter(MetricEventDeduplicator.METER_NAME).count());
+    }
+
+    @Test
+    @DisplayName("should let an event through when the exact lookup does not confirm the hit")
+    void shouldAllowUnconfirmedHit() {
+        when(mockMetricsRepository.existsByClientEventId("evt-1")).thenReturn(false);
+
+        assertFalse(deduplicator.isDuplicate("evt-1"));
+        assertFalse(deduplicator.isDuplicate("evt-1"));
+
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .counter(MetricEventDeduplicator.METER_NAME + ".false-positives")
+                        .count());
+    }
+}
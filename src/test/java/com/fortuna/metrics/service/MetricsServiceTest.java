@@ -2,37 +2,64 @@ package com.fortuna.metrics.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.jfr.MetricIngestionEvent;
+import com.fortuna.metrics.archive.MetricArchive;
 import com.fortuna.metrics.controller.model.MetricEventDTO;
+import com.fortuna.metrics.controller.model.MetricEventSearchResultDTO;
 import com.fortuna.metrics.controller.model.MetricEventType;
+import com.fortuna.metrics.controller.model.metadata.JsonMetadata;
 import com.fortuna.metrics.exception.MetricSerializationException;
+import com.fortuna.metrics.journal.MetricJournal;
+import com.fortuna.metrics.repository.MetricEventWriter;
 import com.fortuna.metrics.repository.MetricsRepository;
 import com.fortuna.metrics.repository.model.MetricEventEntity;
+import com.fortuna.metrics.stream.MetricStream;
+import java.nio.file.Path;
 import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 @ExtendWith(MockitoExtension.class)
 class MetricsServiceTest {
 
     @Mock MetricsRepository mockMetricsRepository;
     @Mock ObjectMapper mockObjectMapper;
+    @Mock MetricEventDeduplicator mockMetricEventDeduplicator;
+    @Mock MetricArchive mockMetricArchive;
+    @Mock MetricEventWriter mockMetricEventWriter;
+    @Mock MetricJournal mockMetricJournal;
+    @Mock MetricStream mockMetricStream;
 
     @InjectMocks MetricsService metricsService;
 
     @BeforeEach
     void setUp() throws Exception {
-        when(mockObjectMapper.writeValueAsString(any()))
+        lenient()
+                .when(mockObjectMapper.writeValueAsString(any()))
                 .thenAnswer(
                         invocation -> {
                             Object arg = invocation.getArgument(0);
@@ -47,12 +74,13 @@ class MetricsServiceTest {
                 new MetricEventDTO(
                         MetricEventType.BUTTON_CLICK,
                         Map.of("buttonId", "submit", "screen", "login"),
+                        null,
                         null);
 
         metricsService.saveMetricEvent(metricEventDTO);
 
         ArgumentCaptor<MetricEventEntity> captor = ArgumentCaptor.forClass(MetricEventEntity.class);
-        verify(mockMetricsRepository).save(captor.capture());
+        verify(mockMetricEventWriter).insert(captor.capture());
 
         MetricEventEntity capturedEntity = captor.getValue();
 
@@ -62,16 +90,35 @@ class MetricsServiceTest {
         assertTrue(capturedEntity.getMetadata().contains("submit"));
     }
 
+    @Test
+    @DisplayName("should store JSON metadata by streaming it, without the object mapper")
+    void shouldStoreJsonMetadataWithoutObjectMapper() throws Exception {
+        MetricEventDTO metricEventDTO =
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK,
+                        new JsonMetadata("{\"screen\":\"home\",\"variant\":\"B\"}"),
+                        null,
+                        null);
+
+        metricsService.saveMetricEvent(metricEventDTO);
+
+        ArgumentCaptor<MetricEventEntity> captor = ArgumentCaptor.forClass(MetricEventEntity.class);
+        verify(mockMetricEventWriter).insert(captor.capture());
+        assertEquals("{\"page\":\"home\",\"variant\":\"B\"}", captor.getValue().getMetadata());
+        verify(mockObjectMapper, never()).writeValueAsString(any());
+    }
+
     @Test
     @DisplayName("should save metric with userId when provided")
     void shouldSaveMetricWithUserId() {
         MetricEventDTO metricEventDTO =
-                new MetricEventDTO(MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), 123L);
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), 123L, null);
 
         metricsService.saveMetricEvent(metricEventDTO);
 
         ArgumentCaptor<MetricEventEntity> captor = ArgumentCaptor.forClass(MetricEventEntity.class);
-        verify(mockMetricsRepository).save(captor.capture());
+        verify(mockMetricEventWriter).insert(captor.capture());
 
         MetricEventEntity capturedEntity = captor.getValue();
         assertEquals(123L, capturedEntity.getUserId());
@@ -81,12 +128,13 @@ class MetricsServiceTest {
     @DisplayName("should save metric without userId when null")
     void shouldSaveMetricWithoutUserId() {
         MetricEventDTO metricEventDTO =
-                new MetricEventDTO(MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null);
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, null);
 
         metricsService.saveMetricEvent(metricEventDTO);
 
         ArgumentCaptor<MetricEventEntity> captor = ArgumentCaptor.forClass(MetricEventEntity.class);
-        verify(mockMetricsRepository).save(captor.capture());
+        verify(mockMetricEventWriter).insert(captor.capture());
 
         MetricEventEntity capturedEntity = captor.getValue();
         assertNull(capturedEntity.getUserId());
@@ -96,14 +144,15 @@ class MetricsServiceTest {
     @DisplayName("should set eventTime to current time")
     void shouldSetEventTimeToCurrentTime() {
         MetricEventDTO metricEventDTO =
-                new MetricEventDTO(MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null);
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, null);
 
         Timestamp before = new Timestamp(System.currentTimeMillis() - 1000);
         metricsService.saveMetricEvent(metricEventDTO);
         Timestamp after = new Timestamp(System.currentTimeMillis() + 1000);
 
         ArgumentCaptor<MetricEventEntity> captor = ArgumentCaptor.forClass(MetricEventEntity.class);
-        verify(mockMetricsRepository).save(captor.capture());
+        verify(mockMetricEventWriter).insert(captor.capture());
 
         MetricEventEntity capturedEntity = captor.getValue();
 
@@ -117,19 +166,21 @@ class MetricsServiceTest {
     @DisplayName("should call repository exactly once per service call")
     void shouldCallRepositoryExactlyOnce() {
         MetricEventDTO metricEventDTO =
-                new MetricEventDTO(MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null);
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, null);
 
         metricsService.saveMetricEvent(metricEventDTO);
 
-        verify(mockMetricsRepository)
-                .save(ArgumentCaptor.forClass(MetricEventEntity.class).capture());
+        verify(mockMetricEventWriter)
+                .insert(ArgumentCaptor.forClass(MetricEventEntity.class).capture());
     }
 
     @Test
     @DisplayName("should throw MetricSerializationException when ObjectMapper fails")
     void shouldThrowMetricSerializationExceptionWhenObjectMapperFails() throws Exception {
         MetricEventDTO metricEventDTO =
-                new MetricEventDTO(MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null);
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, null);
 
         when(mockObjectMapper.writeValueAsString(any()))
                 .thenThrow(new RuntimeException("Serialization failed"));
@@ -143,4 +194,373 @@ class MetricsServiceTest {
 
         assertEquals(MetricSerializationException.MESSAGE, exception.getMessage());
     }
+
+    @Test
+    @DisplayName("should save the client event id on the entity")
+    void shouldSaveClientEventId() {
+        MetricEventDTO metricEventDTO =
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "evt-1");
+
+        metricsService.saveMetricEvent(metricEventDTO);
+
+        ArgumentCaptor<MetricEventEntity> captor = ArgumentCaptor.forClass(MetricEventEntity.class);
+        verify(mockMetricEventWriter).insert(captor.capture());
+        assertEquals("evt-1", captor.getValue().getClientEventId());
+    }
+
+    @Test
+    @DisplayName("should not call the repository when the event is a duplicate")
+    void shouldSkipDuplicateEvent() {
+        MetricEventDTO metricEventDTO =
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "evt-1");
+        when(mockMetricEventDeduplicator.isDuplicate("evt-1")).thenReturn(true);
+
+        metricsService.saveMetricEvent(metricEventDTO);
+
+        verify(mockMetricEventWriter, never()).insert(any());
+    }
+
+    @Test
+    @DisplayName("should swallow a unique violation for a client event id that is already stored")
+    void shouldSwallowDuplicateRejectedByDatabase() {
+        MetricEventDTO metricEventDTO =
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "evt-1");
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(mockMetricEventWriter)
+                .insert(any());
+        when(mockMetricsRepository.existsByClientEventId("evt-1")).thenReturn(true);
+
+        assertDoesNotThrow(() -> metricsService.saveMetricEvent(metricEventDTO));
+
+        verify(mockMetricEventDeduplicator).recordRejectedDuplicate("evt-1");
+    }
+
+    @Test
+    @DisplayName("should rethrow integrity violations unrelated to the client event id")
+    void shouldRethrowOtherIntegrityViolations() {
+        MetricEventDTO metricEventDTO =
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), 99L, null);
+        doThrow(new DataIntegrityViolationException("fk violation"))
+                .when(mockMetricEventWriter)
+                .insert(any());
+
+        assertThrows(
+                DataIntegrityViolationException.class,
+                () -> metricsService.saveMetricEvent(metricEventDTO));
+    }
+
+    @Test
+    @DisplayName("should save a batch with a single insertAll call")
+    void shouldSaveBatchWithInsertAll() {
+        List<MetricEventDTO> batch =
+                List.of(
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "a"),
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "b"));
+
+        metricsService.saveMetricEvents(batch);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MetricEventEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mockMetricEventWriter).insertAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        verify(mockMetricEventWriter, never()).insert(any());
+    }
+
+    @Test
+    @DisplayName("should record one JFR ingestion event per stored batch")
+    void shouldRecordIngestionEventForBatch(@TempDir Path directory) throws Exception {
+        List<MetricEventDTO> batch =
+                List.of(
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "a"),
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK, Map.of("screen", "cart"), null, "b"));
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(MetricIngestionEvent.class);
+            recording.start();
+            metricsService.saveMetricEvents(batch);
+            recording.stop();
+            recording.dump(directory.resolve("ingestion.jfr"));
+            events = RecordingFile.readAllEvents(directory.resolve("ingestion.jfr"));
+        }
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MetricEventEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mockMetricEventWriter).insertAll(captor.capture());
+        long metadataSize =
+                captor.getValue().stream().mapToLong(e -> e.getMetadata().length()).sum();
+        assertEquals(1, events.size());
+        RecordedEvent ingestion = events.get(0);
+        assertEquals("BUTTON_CLICK", ingestion.getString("eventType"));
+        assertEquals(2, ingestion.getInt("events"));
+        assertEquals(metadataSize, ingestion.getLong("metadataSize"));
+        assertFalse(ingestion.getDuration("persistDuration").isNegative());
+    }
+
+    @Test
+    @DisplayName("should record only the rows stored by the per-event fallback, once each")
+    void shouldRecordIngestionEventsForFallbackOnly(@TempDir Path directory) throws Exception {
+        List<MetricEventDTO> batch =
+                List.of(
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "a"),
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK, Map.of("screen", "cart"), null, "b"));
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(mockMetricEventWriter)
+                .insertAll(anyList());
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .doNothing()
+                .when(mockMetricEventWriter)
+                .insert(any());
+        when(mockMetricsRepository.existsByClientEventId("a")).thenReturn(true);
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(MetricIngestionEvent.class);
+            recording.start();
+            metricsService.saveMetricEvents(batch);
+            recording.stop();
+            recording.dump(directory.resolve("ingestion.jfr"));
+            events = RecordingFile.readAllEvents(directory.resolve("ingestion.jfr"));
+        }
+
+        assertEquals(1, events.size());
+        assertEquals(1, events.get(0).getInt("events"));
+        verify(mockMetricEventDeduplicator).recordRejectedDuplicate("a");
+    }
+
+    @Test
+    @DisplayName("should drop repeated client event ids within a batch")
+    void shouldDropDuplicatesWithinBatch() {
+        List<MetricEventDTO> batch =
+                List.of(
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "a"),
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "a"));
+
+        metricsService.saveMetricEvents(batch);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MetricEventEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mockMetricEventWriter).insertAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        verify(mockMetricEventDeduplicator).recordRejectedDuplicate("a");
+    }
+
+    @Test
+    @DisplayName("should not call the repository when every event in the batch is a duplicate")
+    void shouldSkipBatchOfDuplicates() {
+        when(mockMetricEventDeduplicator.isDuplicate("a")).thenReturn(true);
+
+        metricsService.saveMetricEvents(
+                List.of(
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK,
+                                Map.of("screen", "home"),
+                                null,
+                                "a")));
+
+        verify(mockMetricEventWriter, never()).insertAll(anyList());
+    }
+
+    @Test
+    @DisplayName("should fall back to per-event saves when the batch hits a unique violation")
+    void shouldFallBackToSingleSavesOnBatchViolation() {
+        List<MetricEventDTO> batch =
+                List.of(
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "a"),
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "b"));
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(mockMetricEventWriter)
+                .insertAll(anyList());
+
+        metricsService.saveMetricEvents(batch);
+
+        verify(mockMetricEventWriter, times(2)).insert(any());
+    }
+
+    @Test
+    @DisplayName("should journal an accepted event instead of inserting it when the journal is on")
+    void shouldJournalEventWhenEnabled() {
+        when(mockMetricJournal.isEnabled()).thenReturn(true);
+
+        metricsService.saveMetricEvent(
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), 7L, "evt-1"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MetricEventEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mockMetricJournal).append(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals("evt-1", captor.getValue().get(0).getClientEventId());
+        verify(mockMetricEventWriter, never()).insert(any());
+    }
+
+    @Test
+    @DisplayName("should journal a batch as a single append when the journal is on")
+    void shouldJournalBatchWhenEnabled() {
+        when(mockMetricJournal.isEnabled()).thenReturn(true);
+
+        metricsService.saveMetricEvents(
+                List.of(
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK, Map.of("screen", "a"), null, null),
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK, Map.of("screen", "b"), null, null)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MetricEventEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mockMetricJournal).append(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        verify(mockMetricEventWriter, never()).insertAll(anyList());
+    }
+
+    @Test
+    @DisplayName("should publish a stored event to the live stream, but not a duplicate")
+    void shouldPublishStoredEventToStream() {
+        MetricEventDTO stored =
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "a");
+        MetricEventDTO duplicate =
+                new MetricEventDTO(
+                        MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "b");
+        when(mockMetricEventDeduplicator.isDuplicate("a")).thenReturn(false);
+        when(mockMetricEventDeduplicator.isDuplicate("b")).thenReturn(true);
+
+        metricsService.saveMetricEvent(stored);
+        metricsService.saveMetricEvent(duplicate);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MetricEventEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mockMetricStream).publish(captor.capture());
+        assertEquals("a", captor.getValue().get(0).getClientEventId());
+    }
+
+    @Test
+    @DisplayName("should publish a stored batch once, and each event once after a fallback")
+    void shouldPublishBatchToStream() {
+        List<MetricEventDTO> batch =
+                List.of(
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "a"),
+                        new MetricEventDTO(
+                                MetricEventType.BUTTON_CLICK, Map.of("screen", "home"), null, "b"));
+
+        metricsService.saveMetricEvents(batch);
+        verify(mockMetricStream).publish(anyList());
+
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(mockMetricEventWriter)
+                .insertAll(anyList());
+        metricsService.saveMetricEvents(batch);
+        verify(mockMetricStream, times(3)).publish(anyList());
+    }
+
+    @Test
+    @DisplayName("should bind search filters through the event schema before building containment")
+    void shouldNormalizeSearchFilters() {
+        MetricEventEntity entity =
+                MetricEventEntity.builder()
+                        .id(1L)
+                        .event("PAYMENT_SUBMITTED")
+                        .eventTime(new Timestamp(0))
+                        .metadata("{\"amount\":1999}")
+                        .build();
+        when(mockMetricsRepository.searchByMetadata(any(), any(), any(), any(), anyInt()))
+                .thenReturn(List.of(entity));
+
+        List<MetricEventSearchResultDTO> results =
+                metricsService.searchByMetadata(
+                        MetricEventType.PAYMENT_SUBMITTED,
+                        Map.of("amount", "1999"),
+                        null,
+                        null,
+                        50);
+
+        verify(mockMetricsRepository)
+                .searchByMetadata("{amount=1999}", "PAYMENT_SUBMITTED", null, null, 50);
+        assertEquals(1, results.size());
+        assertEquals("{\"amount\":1999}", results.get(0).getMetadata());
+    }
+
+    @Test
+    @DisplayName("should omit the containment filter when no metadata filters are given")
+    void shouldOmitContainmentWithoutFilters() {
+        metricsService.searchByMetadata(null, Map.of(), null, null, 50);
+
+        verify(mockMetricsRepository).searchByMetadata(null, null, null, null, 50);
+    }
+
+    @Test
+    @DisplayName("should fill the rest of the limit from the archive, skipping ids already found")
+    void shouldFillFromArchiveWhenTableHasTooFewResults() {
+        MetricEventEntity recent =
+                MetricEventEntity.builder()
+                        .id(7L)
+                        .event("BUTTON_CLICK")
+                        .eventTime(new Timestamp(2_000))
+                        .metadata("{}")
+                        .build();
+        MetricEventEntity archived =
+                MetricEventEntity.builder()
+                        .id(3L)
+                        .event("BUTTON_CLICK")
+                        .eventTime(new Timestamp(1_000))
+                        .metadata("{}")
+                        .build();
+        when(mockMetricsRepository.searchByMetadata(null, null, null, null, 3))
+                .thenReturn(List.of(recent));
+        when(mockMetricArchive.covers(null)).thenReturn(true);
+        when(mockMetricArchive.search(null, null, null, null, 2))
+                .thenReturn(List.of(recent, archived));
+
+        List<MetricEventSearchResultDTO> results =
+                metricsService.searchByMetadata(null, Map.of(), null, null, 3);
+
+        assertEquals(
+                List.of(7L, 3L), results.stream().map(MetricEventSearchResultDTO::getId).toList());
+    }
+
+    @Test
+    @DisplayName("should not read the archive when the range starts after its horizon")
+    void shouldSkipArchiveForRecentRange() {
+        Instant from = Instant.parse("2026-01-15T00:00:00Z");
+        when(mockMetricsRepository.searchByMetadata(null, null, from, null, 10))
+                .thenReturn(List.of());
+        when(mockMetricArchive.covers(from)).thenReturn(false);
+
+        assertTrue(metricsService.searchByMetadata(null, Map.of(), from, null, 10).isEmpty());
+
+        verify(mockMetricArchive, never()).search(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("should not read the archive when the table fills the limit")
+    void shouldSkipArchiveWhenLimitIsFilled() {
+        MetricEventEntity entity =
+                MetricEventEntity.builder()
+                        .id(1L)
+                        .event("BUTTON_CLICK")
+                        .eventTime(new Timestamp(0))
+                        .metadata("{}")
+                        .build();
+        when(mockMetricsRepository.searchByMetadata(null, null, null, null, 1))
+                .thenReturn(List.of(entity));
+
+        metricsService.searchByMetadata(null, Map.of(), null, null, 1);
+
+        verify(mockMetricArchive, never()).search(any(), any(), any(), any(), anyInt());
+    }
 }
@@ -0,0 +1,89 @@
+package com.fortuna.metrics.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RotatingBloomFilterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final Clock clock =
+            new Clock() {
+                @Override
+                public ZoneOffset getZone() {
+                    return ZoneOffset.UTC;
+                }
+
+                @Override
+                public Clock withZone(java.time.ZoneId zone) {
+                    return this;
+                }
+
+                @Override
+                public Instant instant() {
+                    return Instant.ofEpochMilli(now.get());
+                }
+            };
+
+    @Test
+    @DisplayName("should remember added keys and reject keys it has not seen")
+    void shouldRememberAddedKeys() {
+        RotatingBloomFilter filter =
+                new RotatingBloomFilter(1_000, 0.01, Duration.ofMinutes(1), clock);
+
+        filter.put("evt-1");
+
+        assertTrue(filter.mightContain("evt-1"));
+        assertFalse(filter.mightContain("evt-2"));
+    }
+
+    @Test
+    @DisplayName("should keep the false-positive rate near the configured target")
+    void shouldStayNearConfiguredFalsePositiveRate() {
+        int expected = 10_000;
+        RotatingBloomFilter filter =
+                new RotatingBloomFilter(expected, 0.01, Duration.ofMinutes(1), clock);
+        for (int i = 0; i < expected; i++) {
+            filter.put("present-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < expected; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < expected * 0.02, "false positives: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("should forget keys after two windows have elapsed")
+    void shouldForgetKeysAfterTwoWindows() {
+        RotatingBloomFilter filter =
+                new RotatingBloomFilter(1_000, 0.01, Duration.ofMinutes(1), clock);
+        filter.put("evt-1");
+
+        now.addAndGet(Duration.ofMinutes(1).toMillis());
+        assertTrue(filter.mightContain("evt-1"));
+
+        now.addAndGet(Duration.ofMinutes(1).toMillis());
+        assertFalse(filter.mightContain("evt-1"));
+    }
+
+    @Test
+    @DisplayName("should reject a false-positive rate outside (0, 1)")
+    void shouldRejectInvalidFalsePositiveRate() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new RotatingBloomFilter(1_000, 1.0, Duration.ofMinutes(1), clock));
+    }
+}
@@ -0,0 +1,142 @@
+package com.fortuna.metrics.stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MetricStreamSubscriberTest {
+
+    private final AsyncContext asyncContext = mock(AsyncContext.class);
+    private final FakeOutputStream out = new FakeOutputStream();
+    private final List<MetricStreamSubscriber> closed = new ArrayList<>();
+    private MetricStreamSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() {
+        subscriber =
+                new MetricStreamSubscriber(
+                        asyncContext, out, MetricStreamFilter.COUNTS_ONLY, 2, closed::add);
+    }
+
+    @Test
+    @DisplayName("should hold frames until the container first reports the socket writable")
+    void shouldWaitForFirstWritePossible() {
+        assertTrue(subscriber.offer(bytes("a")));
+
+        assertEquals("", out.written());
+
+        subscriber.onWritePossible();
+        assertEquals("a", out.written());
+        assertEquals(1, out.flushes);
+    }
+
+    @Test
+    @DisplayName("should write while the socket is ready and leave the rest queued")
+    void shouldWriteOnlyWhileReady() {
+        subscriber.onWritePossible();
+        out.ready = false;
+
+        subscriber.offer(bytes("a"));
+        subscriber.offer(bytes("b"));
+        assertEquals("", out.written());
+
+        out.ready = true;
+        subscriber.onWritePossible();
+        assertEquals("ab", out.written());
+    }
+
+    @Test
+    @DisplayName("should report a full queue so the stream can drop the subscriber")
+    void shouldRefuseFrameWhenQueueIsFull() {
+        assertTrue(subscriber.offer(bytes("a")));
+        assertTrue(subscriber.offer(bytes("b")));
+
+        assertFalse(subscriber.offer(bytes("c")));
+    }
+
+    @Test
+    @DisplayName("should complete the response once when the client goes away")
+    void shouldCloseOnWriteFailure() {
+        subscriber.onWritePossible();
+        out.failure = new IOException("Broken pipe");
+
+        subscriber.offer(bytes("a"));
+        subscriber.onError(new IOException("Broken pipe"));
+
+        assertTrue(subscriber.isClosed());
+        assertEquals(List.of(subscriber), closed);
+        verify(asyncContext, times(1)).complete();
+        assertTrue(subscriber.offer(bytes("b")));
+    }
+
+    @Test
+    @DisplayName("should close when the async request times out, even if already completed")
+    void shouldCloseOnTimeout() {
+        doThrow(new IllegalStateException("completed")).when(asyncContext).complete();
+
+        subscriber.onTimeout(null);
+
+        assertTrue(subscriber.isClosed());
+        assertEquals(List.of(subscriber), closed);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** A socket whose readiness the test controls. */
+    static class FakeOutputStream extends ServletOutputStream {
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        volatile boolean ready = true;
+        volatile IOException failure;
+        volatile WriteListener listener;
+        int flushes;
+
+        synchronized String written() {
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            listener = writeListener;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            bytes.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
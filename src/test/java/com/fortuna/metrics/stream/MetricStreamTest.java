@@ -0,0 +1,173 @@
+package com.fortuna.metrics.stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fortuna.metrics.controller.model.MetricEventType;
+import com.fortuna.metrics.repository.model.MetricEventEntity;
+import com.fortuna.metrics.stream.MetricStreamSubscriberTest.FakeOutputStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletResponse;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MetricStreamTest {
+
+    private static final Instant NOON = Instant.parse("2026-01-15T12:00:00Z");
+    private static final String OPENING = "retry: 1000\n\n";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MetricStream stream;
+
+    @BeforeEach
+    void setUp() {
+        // The scheduled tick never comes; tests tick by hand.
+        stream =
+                new MetricStream(
+                        new ObjectMapper(),
+                        meterRegistry,
+                        3,
+                        2,
+                        100,
+                        Duration.ofHours(1),
+                        Clock.fixed(NOON, ZoneOffset.UTC));
+        stream.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.stop();
+    }
+
+    @Test
+    @DisplayName("should send every subscriber the counts stored since the previous tick")
+    void shouldSendCountsPerTick() throws Exception {
+        FakeOutputStream first = subscribe(MetricStreamFilter.COUNTS_ONLY);
+        FakeOutputStream second = subscribe(MetricStreamFilter.COUNTS_ONLY);
+        stream.publish(
+                List.of(
+                        event("BUTTON_CLICK", "{}"),
+                        event("BUTTON_CLICK", "{}"),
+                        event("PAYMENT_SUBMITTED", "{}")));
+
+        stream.tick(NOON);
+        stream.tick(NOON.plusSeconds(1));
+
+        String expected =
+                OPENING
+                        + "event: counts\ndata: {\"time\":\"2026-01-15T12:00:00Z\",\"total\":3,"
+                        + "\"counts\":{\"BUTTON_CLICK\":2,\"PAYMENT_SUBMITTED\":1}}\n\n"
+                        + "event: counts\ndata: {\"time\":\"2026-01-15T12:00:01Z\",\"total\":0,"
+                        + "\"counts\":{\"BUTTON_CLICK\":0,\"PAYMENT_SUBMITTED\":0}}\n\n";
+        assertEquals(expected, first.written());
+        assertEquals(expected, second.written());
+    }
+
+    @Test
+    @DisplayName("should send raw events only to subscribers whose filter they match")
+    void shouldFanOutRawEventsByFilter() throws Exception {
+        FakeOutputStream countsOnly = subscribe(MetricStreamFilter.COUNTS_ONLY);
+        FakeOutputStream filtered =
+                subscribe(
+                        new MetricStreamFilter(
+                                true,
+                                Set.of(MetricEventType.PAYMENT_SUBMITTED),
+                                Map.of("amount", 100L)));
+
+        stream.publish(
+                List.of(
+                        event("BUTTON_CLICK", "{\"page\":\"home\"}"),
+                        event("PAYMENT_SUBMITTED", "{\"amount\":5}"),
+                        event("PAYMENT_SUBMITTED", "{\n\"amount\": 100}")));
+
+        String expected =
+                OPENING
+                        + "event: event\ndata: {\"event\":\"PAYMENT_SUBMITTED\","
+                        + "\"eventTime\":\"2026-01-15T12:00:00Z\",\"userId\":7,"
+                        + "\"metadata\":{ \"amount\": 100}}\n\n";
+        await(() -> filtered.written().equals(expected));
+        assertEquals(OPENING, countsOnly.written());
+    }
+
+    @Test
+    @DisplayName("should disconnect a subscriber that stops reading")
+    void shouldEvictSlowSubscriber() throws Exception {
+        AsyncContext slow = asyncContext(new FakeOutputStream());
+        assertTrue(stream.subscribe(slow, MetricStreamFilter.COUNTS_ONLY));
+        FakeOutputStream healthy = subscribe(MetricStreamFilter.COUNTS_ONLY);
+
+        // The opening frame and two ticks fill a queue of three; the third tick does not fit.
+        stream.tick(NOON);
+        stream.tick(NOON);
+        stream.tick(NOON);
+
+        verify(slow).complete();
+        assertEquals(1.0, meterRegistry.counter(MetricStream.METER_NAME + ".evicted").count());
+        assertEquals(
+                1.0, meterRegistry.get(MetricStream.METER_NAME + ".subscribers").gauge().value());
+        assertTrue(healthy.written().endsWith("\"PAYMENT_SUBMITTED\":0}}\n\n"));
+    }
+
+    @Test
+    @DisplayName("should refuse subscribers beyond the limit and once stopped")
+    void shouldRefuseSubscribersWhenFullOrStopped() throws Exception {
+        subscribe(MetricStreamFilter.COUNTS_ONLY);
+        subscribe(MetricStreamFilter.COUNTS_ONLY);
+
+        AsyncContext refused = asyncContext(new FakeOutputStream());
+        assertFalse(stream.subscribe(refused, MetricStreamFilter.COUNTS_ONLY));
+
+        stream.stop();
+        assertEquals(
+                0.0, meterRegistry.get(MetricStream.METER_NAME + ".subscribers").gauge().value());
+        assertFalse(stream.subscribe(refused, MetricStreamFilter.COUNTS_ONLY));
+    }
+
+    /** Subscribes over a socket that is always ready. */
+    private FakeOutputStream subscribe(MetricStreamFilter filter) throws Exception {
+        FakeOutputStream out = new FakeOutputStream();
+        assertTrue(stream.subscribe(asyncContext(out), filter));
+        out.listener.onWritePossible();
+        return out;
+    }
+
+    private static AsyncContext asyncContext(FakeOutputStream out) throws Exception {
+        ServletResponse response = mock(ServletResponse.class);
+        when(response.getOutputStream()).thenReturn(out);
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        when(asyncContext.getResponse()).thenReturn(response);
+        return asyncContext;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    private static MetricEventEntity event(String event, String metadata) {
+        return MetricEventEntity.builder()
+                .event(event)
+                .eventTime(Timestamp.from(NOON))
+                .metadata(metadata)
+                .userId(7L)
+                .build();
+    }
+}
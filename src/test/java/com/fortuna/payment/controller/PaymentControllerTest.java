@@ -1,24 +1,33 @@
 package com.fortuna.payment.controller;
 
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fortuna.config.stripe.StripeConfig;
+import com.fortuna.exception.ErrorReporter;
 import com.fortuna.exception.GlobalExceptionHandler;
 import com.fortuna.payment.controller.model.PaymentIntentRequestDTO;
 import com.fortuna.payment.controller.model.PaymentIntentResponseDTO;
 import com.fortuna.payment.exception.PaymentException;
 import com.fortuna.payment.service.PaymentService;
+import com.fortuna.web.cache.RepresentationCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
@@ -34,10 +43,25 @@ class PaymentControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        PaymentController controller = new PaymentController(mockPaymentService, mockStripeConfig);
+        MockEnvironment environment =
+                new MockEnvironment()
+                        .withProperty("application.http-cache.payments-config.max-age", "5m")
+                        .withProperty("application.http-cache.payments-config.public", "true");
+        PaymentController controller =
+                new PaymentController(
+                        mockPaymentService,
+                        mockStripeConfig,
+                        new RepresentationCache(objectMapper, environment));
         mockMvc =
                 MockMvcBuilders.standaloneSetup(controller)
-                        .setControllerAdvice(new GlobalExceptionHandler())
+                        .setControllerAdvice(
+                                new GlobalExceptionHandler(
+                                        new ErrorReporter(
+                                                new SimpleMeterRegistry(),
+                                                5,
+                                                Duration.ofMinutes(1),
+                                                100,
+                                                1000)))
                         .build();
     }
 
@@ -133,6 +157,35 @@ class PaymentControllerTest {
         verify(mockStripeConfig, times(1)).getPublishableKey();
     }
 
+    @Test
+    @DisplayName("config response carries a strong ETag and the configured Cache-Control")
+    void configResponseCarriesETagAndCacheControl() throws Exception {
+        when(mockStripeConfig.getPublishableKey()).thenReturn("pk_test_123");
+
+        mockMvc.perform(get("/api/payments/config"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"));
+    }
+
+    @Test
+    @DisplayName("config request with a matching If-None-Match returns 304 without a body")
+    void configRequestWithMatchingETagReturnsNotModified() throws Exception {
+        when(mockStripeConfig.getPublishableKey()).thenReturn("pk_test_123");
+
+        String eTag =
+                mockMvc.perform(get("/api/payments/config"))
+                        .andReturn()
+                        .getResponse()
+                        .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/payments/config").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        verify(mockStripeConfig, times(1)).getPublishableKey();
+    }
+
     @Test
     @DisplayName(
             "when verify payment request is received, service is called and result is returned")
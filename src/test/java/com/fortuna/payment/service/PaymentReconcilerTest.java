@@ -0,0 +1,168 @@
+package com.fortuna.payment.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.fortuna.payment.exception.PaymentException;
+import com.fortuna.payment.repository.PaymentLedgerWriter;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.PaymentIntentCollection;
+import com.stripe.param.PaymentIntentListParams;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.MockedStatic;
+
+class PaymentReconcilerTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-10T12:00:00.750Z");
+    private static final Instant NOW_SECONDS = Instant.parse("2026-03-10T12:00:00Z");
+
+    private PaymentLedgerWriter mockPaymentLedgerWriter;
+    private PaymentReconciler paymentReconciler;
+
+    @BeforeEach
+    void setUp() {
+        mockPaymentLedgerWriter = mock(PaymentLedgerWriter.class);
+        paymentReconciler =
+                new PaymentReconciler(
+                        mockPaymentLedgerWriter,
+                        true,
+                        Duration.ofDays(1),
+                        Duration.ofDays(3),
+                        Duration.ofDays(2),
+                        Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("should walk windows from the initial history and checkpoint after each one")
+    void shouldReconcileFromInitialHistoryInWindows() {
+        try (MockedStatic<PaymentIntent> mockedStatic = mockStatic(PaymentIntent.class)) {
+            List<PaymentIntentListParams> listed = stubList(mockedStatic, 0);
+
+            assertEquals(0, paymentReconciler.reconcile());
+
+            assertEquals(2, listed.size());
+            assertCreated(
+                    listed.get(0),
+                    NOW_SECONDS.minus(Duration.ofDays(2)),
+                    NOW_SECONDS.minus(Duration.ofDays(1)));
+            assertCreated(listed.get(1), NOW_SECONDS.minus(Duration.ofDays(1)), NOW_SECONDS);
+        }
+        InOrder inOrder = inOrder(mockPaymentLedgerWriter);
+        inOrder.verify(mockPaymentLedgerWriter)
+                .saveCheckpoint(
+                        PaymentReconciler.CHECKPOINT, NOW_SECONDS.minus(Duration.ofDays(1)));
+        inOrder.verify(mockPaymentLedgerWriter)
+                .saveCheckpoint(PaymentReconciler.CHECKPOINT, NOW_SECONDS);
+        verify(mockPaymentLedgerWriter, never()).upsertAll(any());
+    }
+
+    @Test
+    @DisplayName("should start the lookback before the checkpoint and cut the last window at now")
+    void shouldResumeFromCheckpointMinusLookback() {
+        Instant checkpoint = NOW_SECONDS.minus(Duration.ofHours(1));
+        when(mockPaymentLedgerWriter.findCheckpoint(PaymentReconciler.CHECKPOINT))
+                .thenReturn(checkpoint);
+
+        try (MockedStatic<PaymentIntent> mockedStatic = mockStatic(PaymentIntent.class)) {
+            List<PaymentIntentListParams> listed = stubList(mockedStatic, 0);
+
+            paymentReconciler.reconcile();
+
+            assertEquals(4, listed.size());
+            assertCreated(
+                    listed.get(0),
+                    checkpoint.minus(Duration.ofDays(3)),
+                    checkpoint.minus(Duration.ofDays(2)));
+            assertCreated(listed.get(3), checkpoint, NOW_SECONDS);
+        }
+    }
+
+    @Test
+    @DisplayName("should upsert a window in pages so only one page is held at a time")
+    void shouldUpsertInPages() {
+        int count = PaymentReconciler.PAGE_SIZE * 2 + 5;
+        // The page list is reused, so record sizes as the calls happen.
+        List<Integer> pageSizes = new ArrayList<>();
+        doAnswer(invocation -> pageSizes.add(invocation.<List<?>>getArgument(0).size()))
+                .when(mockPaymentLedgerWriter)
+                .upsertAll(any());
+
+        try (MockedStatic<PaymentIntent> mockedStatic = mockStatic(PaymentIntent.class)) {
+            stubList(mockedStatic, count);
+
+            assertEquals(count * 2, paymentReconciler.reconcile());
+        }
+        assertEquals(List.of(100, 100, 5, 100, 100, 5), pageSizes);
+    }
+
+    @Test
+    @DisplayName("should wrap Stripe failures and leave the checkpoint where it was")
+    void shouldNotCheckpointWhenStripeFails() {
+        try (MockedStatic<PaymentIntent> mockedStatic = mockStatic(PaymentIntent.class)) {
+            mockedStatic
+                    .when(() -> PaymentIntent.list(any(PaymentIntentListParams.class)))
+                    .thenThrow(new StripeException("Rate limited", "req_123", "code", 429) {});
+
+            assertThrows(PaymentException.class, () -> paymentReconciler.reconcile());
+        }
+        verify(mockPaymentLedgerWriter, never()).saveCheckpoint(any(), any());
+    }
+
+    @Test
+    @DisplayName("should do nothing on schedule when disabled")
+    void shouldSkipWhenDisabled() {
+        PaymentReconciler disabled =
+                new PaymentReconciler(
+                        mockPaymentLedgerWriter,
+                        false,
+                        Duration.ofDays(1),
+                        Duration.ofDays(3),
+                        Duration.ofDays(2),
+                        Clock.fixed(NOW, ZoneOffset.UTC));
+
+        disabled.reconcileOnSchedule();
+
+        verifyNoInteractions(mockPaymentLedgerWriter);
+    }
+
+    /** Every list call returns {@code perWindow} intents; returns the params seen, in order. */
+    private static List<PaymentIntentListParams> stubList(
+            MockedStatic<PaymentIntent> mockedStatic, int perWindow) {
+        List<PaymentIntentListParams> listed = new ArrayList<>();
+        mockedStatic
+                .when(() -> PaymentIntent.list(any(PaymentIntentListParams.class)))
+                .thenAnswer(
+                        invocation -> {
+                            listed.add(invocation.getArgument(0));
+                            PaymentIntentCollection collection =
+                                    mock(PaymentIntentCollection.class);
+                            List<PaymentIntent> intents =
+                                    IntStream.range(0, perWindow)
+                                            .mapToObj(i -> new PaymentIntent())
+                                            .toList();
+                            when(collection.autoPagingIterable()).thenReturn(intents);
+                            return collection;
+                        });
+        return listed;
+    }
+
+    private static void assertCreated(PaymentIntentListParams params, Instant gte, Instant lt) {
+        PaymentIntentListParams.Created created =
+                (PaymentIntentListParams.Created) params.getCreated();
+        assertEquals(gte.getEpochSecond(), created.getGte());
+        assertEquals(lt.getEpochSecond(), created.getLt());
+        assertEquals(Long.valueOf(PaymentReconciler.PAGE_SIZE), params.getLimit());
+    }
+}
@@ -7,21 +7,31 @@ import static org.mockito.Mockito.*;
 import com.fortuna.payment.controller.model.PaymentIntentRequestDTO;
 import com.fortuna.payment.controller.model.PaymentIntentResponseDTO;
 import com.fortuna.payment.exception.PaymentException;
+import com.fortuna.payment.repository.PaymentLedgerWriter;
+import com.fortuna.payment.repository.PaymentRepository;
+import com.fortuna.payment.repository.model.PaymentEntity;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
 import com.stripe.param.PaymentIntentCreateParams;
+import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
+import org.springframework.dao.QueryTimeoutException;
 
 class PaymentServiceTest {
 
+    private PaymentRepository mockPaymentRepository;
+    private PaymentLedgerWriter mockPaymentLedgerWriter;
     private PaymentService paymentService;
 
     @BeforeEach
     void setUp() {
-        paymentService = new PaymentService();
+        mockPaymentRepository = mock(PaymentRepository.class);
+        mockPaymentLedgerWriter = mock(PaymentLedgerWriter.class);
+        paymentService = new PaymentService(mockPaymentRepository, mockPaymentLedgerWriter);
     }
 
     @Test
@@ -58,6 +68,7 @@ class PaymentServiceTest {
 
             mockedStatic.verify(
                     () -> PaymentIntent.create(any(PaymentIntentCreateParams.class)), times(1));
+            verifyNoInteractions(mockPaymentLedgerWriter);
         }
     }
 
@@ -198,4 +209,62 @@ class PaymentServiceTest {
                     () -> paymentService.verifyPaymentSuccess(paymentIntentId));
         }
     }
+
+    @Test
+    @DisplayName("should answer from the ledger without calling Stripe once a payment succeeded")
+    void shouldVerifyFromLedgerWhenSucceeded() {
+        when(mockPaymentRepository.findById("pi_succeeded"))
+                .thenReturn(
+                        Optional.of(
+                                PaymentEntity.builder()
+                                        .id("pi_succeeded")
+                                        .status("succeeded")
+                                        .build()));
+
+        try (MockedStatic<PaymentIntent> mockedStatic = mockStatic(PaymentIntent.class)) {
+            assertTrue(paymentService.verifyPaymentSuccess("pi_succeeded"));
+
+            mockedStatic.verifyNoInteractions();
+        }
+        verifyNoInteractions(mockPaymentLedgerWriter);
+    }
+
+    @Test
+    @DisplayName("should check Stripe and record the result when the ledger is not final")
+    void shouldVerifyWithStripeAndRecordWhenLedgerIsNotFinal() {
+        String paymentIntentId = "pi_processing";
+        when(mockPaymentRepository.findById(paymentIntentId))
+                .thenReturn(
+                        Optional.of(
+                                PaymentEntity.builder()
+                                        .id(paymentIntentId)
+                                        .status("processing")
+                                        .build()));
+        PaymentIntent mockIntent = mock(PaymentIntent.class);
+        when(mockIntent.getStatus()).thenReturn("succeeded");
+
+        try (MockedStatic<PaymentIntent> mockedStatic = mockStatic(PaymentIntent.class)) {
+            mockedStatic.when(() -> PaymentIntent.retrieve(paymentIntentId)).thenReturn(mockIntent);
+
+            assertTrue(paymentService.verifyPaymentSuccess(paymentIntentId));
+        }
+        verify(mockPaymentLedgerWriter).upsertAll(List.of(mockIntent));
+    }
+
+    @Test
+    @DisplayName("should still answer when recording to the ledger fails")
+    void shouldVerifyWhenLedgerWriteFails() {
+        String paymentIntentId = "pi_succeeded";
+        PaymentIntent mockIntent = mock(PaymentIntent.class);
+        when(mockIntent.getStatus()).thenReturn("succeeded");
+        doThrow(new QueryTimeoutException("timeout"))
+                .when(mockPaymentLedgerWriter)
+                .upsertAll(any());
+
+        try (MockedStatic<PaymentIntent> mockedStatic = mockStatic(PaymentIntent.class)) {
+            mockedStatic.when(() -> PaymentIntent.retrieve(paymentIntentId)).thenReturn(mockIntent);
+
+            assertTrue(paymentService.verifyPaymentSuccess(paymentIntentId));
+        }
+    }
 }
@@ -0,0 +1,57 @@
+package com.fortuna.payment.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fortuna.jfr.StripeCallEvent;
+import com.stripe.exception.StripeException;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StripeCallsTest {
+
+    @TempDir Path directory;
+
+    @Test
+    @DisplayName("should record a JFR event for successful and failed Stripe calls")
+    void shouldRecordStripeCallEvents() throws Exception {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(StripeCallEvent.class);
+            recording.start();
+
+            assertEquals("result", StripeCalls.call("PaymentIntent.retrieve", () -> "result"));
+            assertThrows(
+                    StripeException.class,
+                    () ->
+                            StripeCalls.call(
+                                    "PaymentIntent.create",
+                                    () -> {
+                                        throw new StripeException(
+                                                "Card declined",
+                                                "req_123",
+                                                "card_declined",
+                                                402) {};
+                                    }));
+
+            recording.stop();
+            Path file = directory.resolve("stripe.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        assertEquals(2, events.size());
+        assertEquals("PaymentIntent.retrieve", events.get(0).getString("operation"));
+        assertEquals("ok", events.get(0).getString("status"));
+        RecordedEvent failed = events.get(1);
+        assertEquals("PaymentIntent.create", failed.getString("operation"));
+        assertEquals("card_declined", failed.getString("status"));
+        assertEquals(402, failed.getInt("httpStatus"));
+        assertEquals("req_123", failed.getString("requestId"));
+    }
+}
@@ -0,0 +1,19 @@
+package com.fortuna.testFactories;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+public class ValidatorTestFactory {
+
+    private static final LocalValidatorFactoryBean VALIDATOR =
+            new AnnotationConfigApplicationContext(LocalValidatorFactoryBean.class)
+                    .getBean(LocalValidatorFactoryBean.class);
+
+    /**
+     * A validator bootstrapped the way the application does it, so constraint validators that take
+     * the validator in their constructor can be created.
+     */
+    public static LocalValidatorFactoryBean createValidator() {
+        return VALIDATOR;
+    }
+}
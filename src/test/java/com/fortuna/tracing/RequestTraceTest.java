@@ -0,0 +1,114 @@
+package com.fortuna.tracing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RequestTraceTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    @DisplayName("should nest spans by depth and measure them from the start of the request")
+    void shouldRecordNestedSpans() {
+        RequestTrace trace = trace(64);
+
+        Span handler = trace.open("PaymentController#createPaymentIntent");
+        advance(1);
+        try (Span stripe = trace.open("stripe.PaymentIntent.create")) {
+            advance(5);
+        }
+        trace.record("PaymentRepository#findById", nanos.get(), nanos.get() + 2_000_000);
+        handler.close();
+        advance(1);
+        trace.finish("POST /api/payments/create-payment-intent", 200);
+
+        TraceDescriptor descriptor = trace.describe();
+        assertEquals("POST /api/payments/create-payment-intent", descriptor.name());
+        assertEquals(200, descriptor.status());
+        assertEquals(7.0, descriptor.durationMs());
+        assertEquals(
+                List.of(
+                        new TraceDescriptor.SpanDescriptor(
+                                "PaymentController#createPaymentIntent", 0, 0.0, 6.0),
+                        new TraceDescriptor.SpanDescriptor(
+                                "stripe.PaymentIntent.create", 1, 1.0, 5.0),
+                        new TraceDescriptor.SpanDescriptor(
+                                "PaymentRepository#findById", 1, 6.0, 2.0)),
+                descriptor.spans());
+    }
+
+    @Test
+    @DisplayName("should close spans left open inside a span when it closes")
+    void shouldCloseDescendants() {
+        RequestTrace trace = trace(64);
+
+        Span handler = trace.open("handler");
+        trace.open("response.write");
+        advance(3);
+        handler.close();
+        trace.open("after");
+        trace.finish("GET /", 200);
+
+        List<TraceDescriptor.SpanDescriptor> spans = trace.describe().spans();
+        assertEquals(3.0, spans.get(1).durationMs());
+        assertEquals(0, spans.get(2).depth());
+    }
+
+    @Test
+    @DisplayName("should keep at most max-spans and count the rest")
+    void shouldCapSpans() {
+        RequestTrace trace = trace(20);
+
+        for (int i = 0; i < 25; i++) {
+            try (Span span = trace.open("span-" + i)) {
+                advance(1);
+            }
+        }
+        trace.finish("GET /", 200);
+
+        TraceDescriptor descriptor = trace.describe();
+        assertEquals(20, descriptor.spans().size());
+        assertEquals(5, descriptor.droppedSpans());
+        assertTrue(trace.format().endsWith("5 more spans not recorded"));
+    }
+
+    @Test
+    @DisplayName("should format one indented line per span")
+    void shouldFormatBreakdown() {
+        RequestTrace trace = trace(64);
+        try (Span outer = trace.open("outer")) {
+            advance(2);
+            try (Span inner = trace.open("inner")) {
+                advance(1);
+            }
+        }
+        trace.finish("GET /api/x", 503);
+
+        String[] lines = trace.format().split(System.lineSeparator());
+
+        assertEquals("GET /api/x -> 503 in 3.000 ms [trace t1]", lines[0]);
+        assertEquals("     0.000     3.000 ms  outer", lines[1]);
+        assertEquals("     2.000     1.000 ms    inner", lines[2]);
+    }
+
+    @Test
+    @DisplayName("should ignore spans opened outside a traced request")
+    void shouldNoOpWithoutCurrentTrace() {
+        assertSame(Span.NOOP, Tracing.span("anything"));
+        Tracing.record("anything", 0, 1);
+        assertNull(Tracing.current());
+    }
+
+    private RequestTrace trace(int maxSpans) {
+        return new RequestTrace("t1", "GET /", maxSpans, nanos::get, Instant.EPOCH);
+    }
+
+    private void advance(long millis) {
+        nanos.addAndGet(millis * 1_000_000);
+    }
+}
@@ -0,0 +1,99 @@
+package com.fortuna.tracing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.servlet.FilterChain;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+class TracingFilterTest {
+
+    private final TraceBuffer traceBuffer = new TraceBuffer(8);
+
+    @Test
+    @DisplayName("should keep a sampled trace with the spans recorded downstream")
+    void shouldKeepSampledTrace() throws Exception {
+        TracingFilter filter = filter(1.0, Duration.ofMinutes(1));
+        MockHttpServletRequest request =
+                new MockHttpServletRequest("POST", "/api/payments/verify/pi_123");
+
+        filter.doFilter(
+                request,
+                new MockHttpServletResponse(),
+                chain(
+                        () -> {
+                            request.setAttribute(
+                                    HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                                    "/api/payments/verify/{paymentIntentId}");
+                            try (Span span = Tracing.span("stripe.PaymentIntent.retrieve")) {
+                                assertNotNull(Tracing.current());
+                            }
+                        }));
+
+        List<TraceDescriptor> traces = traceBuffer.snapshot();
+        assertEquals(1, traces.size());
+        assertEquals("POST /api/payments/verify/{paymentIntentId}", traces.get(0).name());
+        assertEquals("stripe.PaymentIntent.retrieve", traces.get(0).spans().get(0).name());
+        assertNull(Tracing.current());
+    }
+
+    @Test
+    @DisplayName("should always keep a slow request even when nothing is sampled")
+    void shouldKeepSlowRequest() throws Exception {
+        TracingFilter filter = filter(0.0, Duration.ZERO);
+
+        filter.doFilter(
+                new MockHttpServletRequest("GET", "/api/metrics/search"),
+                new MockHttpServletResponse(),
+                chain(() -> {}));
+
+        assertEquals(1, traceBuffer.snapshot().size());
+    }
+
+    @Test
+    @DisplayName("should drop fast unsampled requests and skip paths outside the configured ones")
+    void shouldDropFastAndUnmatched() throws Exception {
+        TracingFilter filter = filter(0.0, Duration.ofMinutes(1));
+
+        filter.doFilter(
+                new MockHttpServletRequest("GET", "/api/metrics/search"),
+                new MockHttpServletResponse(),
+                chain(() -> {}));
+        filter.doFilter(
+                new MockHttpServletRequest("GET", "/assets/app.js"),
+                new MockHttpServletResponse(),
+                chain(() -> assertNull(Tracing.current())));
+
+        assertTrue(traceBuffer.snapshot().isEmpty());
+    }
+
+    @Test
+    @DisplayName("should keep only the newest traces once the buffer wraps")
+    void shouldWrapBuffer() {
+        for (int i = 0; i < 10; i++) {
+            RequestTrace trace = new RequestTrace("t" + i, "GET /", 4);
+            trace.finish("GET /", 200);
+            traceBuffer.add(trace);
+        }
+
+        List<TraceDescriptor> traces = traceBuffer.snapshot();
+
+        assertEquals(8, traces.size());
+        assertEquals("t9", traces.get(0).id());
+        assertEquals("t2", traces.get(7).id());
+    }
+
+    private TracingFilter filter(double sampleRate, Duration slowThreshold) {
+        return new TracingFilter(
+                traceBuffer, true, List.of("/api/**"), sampleRate, slowThreshold, 64);
+    }
+
+    private static FilterChain chain(Runnable body) {
+        return (request, response) -> body.run();
+    }
+}
@@ -0,0 +1,90 @@
+package com.fortuna.user.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ExpiringLruCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final Clock clock =
+            new Clock() {
+                @Override
+                public ZoneOffset getZone() {
+                    return ZoneOffset.UTC;
+                }
+
+                @Override
+                public Clock withZone(java.time.ZoneId zone) {
+                    return this;
+                }
+
+                @Override
+                public Instant instant() {
+                    return Instant.ofEpochMilli(now.get());
+                }
+            };
+
+    @Test
+    @DisplayName("should return a value until its ttl has passed")
+    void shouldExpireAfterTtl() {
+        ExpiringLruCache<String, String> cache =
+                new ExpiringLruCache<>(10, Duration.ofMinutes(1), clock);
+        cache.put("a", "1");
+
+        now.addAndGet(59_999);
+        assertEquals("1", cache.get("a"));
+
+        now.addAndGet(1);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("should drop the least recently read entry past the maximum size")
+    void shouldEvictLeastRecentlyRead() {
+        ExpiringLruCache<String, String> cache =
+                new ExpiringLruCache<>(2, Duration.ofMinutes(1), clock);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+
+        cache.put("c", "3");
+
+        assertEquals(2, cache.size());
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    @DisplayName("should update a present entry without extending its expiry")
+    void shouldUpdateInPlace() {
+        ExpiringLruCache<String, String> cache =
+                new ExpiringLruCache<>(10, Duration.ofMinutes(1), clock);
+        cache.put("a", "1");
+        now.addAndGet(30_000);
+
+        cache.update("a", value -> value + "!");
+        cache.update("missing", value -> "x");
+
+        assertEquals("1!", cache.get("a"));
+        assertNull(cache.get("missing"));
+        now.addAndGet(30_000);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    @DisplayName("should reject a maximum size below one")
+    void shouldRejectEmptyBound() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new ExpiringLruCache<String, String>(0, Duration.ofMinutes(1), clock));
+    }
+}
@@ -0,0 +1,106 @@
+package com.fortuna.user.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.fortuna.cache.CacheInvalidationBus;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class LastLoginRecorderTest {
+
+    private static final Instant LOGIN = Instant.parse("2026-03-01T09:00:00Z");
+
+    @Mock JdbcTemplate mockJdbcTemplate;
+    @Mock PlatformTransactionManager mockTransactionManager;
+    @Mock CacheInvalidationBus mockCacheInvalidationBus;
+
+    private LastLoginRecorder lastLoginRecorder;
+
+    @BeforeEach
+    void setUp() {
+        lastLoginRecorder =
+                new LastLoginRecorder(
+                        mockJdbcTemplate,
+                        new TransactionTemplate(mockTransactionManager),
+                        mockCacheInvalidationBus);
+    }
+
+    @Test
+    @DisplayName("should collapse repeated logins to the latest and flush them as one batch")
+    @SuppressWarnings("unchecked")
+    void shouldCoalesceLoginsIntoOneBatch() throws Exception {
+        lastLoginRecorder.record(1L, LOGIN.plusSeconds(60));
+        lastLoginRecorder.record(1L, LOGIN);
+        lastLoginRecorder.record(2L, LOGIN);
+
+        assertEquals(2, lastLoginRecorder.flush());
+
+        ArgumentCaptor<List<Map.Entry<Long, Instant>>> logins = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Map.Entry<Long, Instant>>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(mockJdbcTemplate)
+                .batchUpdate(
+                        eq(LastLoginRecorder.UPDATE_SQL),
+                        logins.capture(),
+                        eq(LastLoginRecorder.BATCH_SIZE),
+                        setter.capture());
+        assertEquals(
+                Map.of(1L, LOGIN.plusSeconds(60), 2L, LOGIN),
+                Map.ofEntries(logins.getValue().toArray(Map.Entry[]::new)));
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        setter.getValue().setValues(statement, Map.entry(1L, LOGIN));
+        verify(statement).setTimestamp(1, Timestamp.from(LOGIN));
+        verify(statement).setLong(2, 1L);
+        assertNull(lastLoginRecorder.pending(1L));
+        verify(mockCacheInvalidationBus).publish(UserService.CACHE_NAME, "1");
+        verify(mockCacheInvalidationBus).publish(UserService.CACHE_NAME, "2");
+    }
+
+    @Test
+    @DisplayName("should not touch the database when nothing is buffered")
+    void shouldSkipEmptyFlush() {
+        assertEquals(0, lastLoginRecorder.flush());
+
+        verify(mockJdbcTemplate, never()).batchUpdate(any(), anyList(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("should keep logins buffered when the flush fails")
+    void shouldRequeueOnFailure() {
+        lastLoginRecorder.record(1L, LOGIN);
+        when(mockJdbcTemplate.batchUpdate(any(), anyList(), anyInt(), any()))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        assertEquals(0, lastLoginRecorder.flush());
+        lastLoginRecorder.record(1L, LOGIN.minusSeconds(5));
+
+        assertEquals(LOGIN, lastLoginRecorder.pending(1L));
+        verifyNoInteractions(mockCacheInvalidationBus);
+    }
+}
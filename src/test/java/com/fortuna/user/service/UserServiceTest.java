@@ -0,0 +1,176 @@
+package com.fortuna.user.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fortuna.cache.CacheInvalidationBus;
+import com.fortuna.cache.InvalidatableCache;
+import com.fortuna.user.repository.UserRepository;
+import com.fortuna.user.repository.model.UserEntity;
+import com.fortuna.user.service.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T09:00:00Z");
+
+    @Mock UserRepository mockUserRepository;
+    @Mock LastLoginRecorder mockLastLoginRecorder;
+    @Mock CacheInvalidationBus mockCacheInvalidationBus;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserService userService;
+
+    private final UserEntity ada =
+            UserEntity.builder()
+                    .id(7L)
+                    .email("ada@example.com")
+                    .firstName("Ada")
+                    .lastName("Lovelace")
+                    .lastLogin(Timestamp.from(NOW.minusSeconds(3_600)))
+                    .build();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userService =
+                new UserService(
+                        mockUserRepository,
+                        mockLastLoginRecorder,
+                        mockCacheInvalidationBus,
+                        meterRegistry,
+                        100,
+                        Duration.ofMinutes(5),
+                        Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("should load a user once and serve later lookups by id and email from the cache")
+    void shouldReadThroughOnce() {
+        when(mockUserRepository.findById(7L)).thenReturn(Optional.of(ada));
+
+        User first = userService.findById(7L).orElseThrow();
+        User byId = userService.findById(7L).orElseThrow();
+        User byEmail = userService.findByEmail("ada@example.com").orElseThrow();
+
+        assertEquals("Ada", first.getFirstName());
+        assertSame(first, byId);
+        assertSame(first, byEmail);
+        verify(mockUserRepository, times(1)).findById(7L);
+        verify(mockUserRepository, never()).findByEmail("ada@example.com");
+        assertEquals(2.0, meterRegistry.counter(UserService.METER_NAME + ".hits").count());
+        assertEquals(1.0, meterRegistry.counter(UserService.METER_NAME + ".misses").count());
+    }
+
+    @Test
+    @DisplayName("should not cache a user that does not exist")
+    void shouldNotCacheMisses() {
+        when(mockUserRepository.findByEmail("new@example.com"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(ada));
+
+        assertTrue(userService.findByEmail("new@example.com").isEmpty());
+        assertTrue(userService.findByEmail("new@example.com").isPresent());
+    }
+
+    @Test
+    @DisplayName("should buffer a login and show it on cached and newly loaded users")
+    void shouldReflectRecordedLogin() {
+        when(mockUserRepository.findById(7L)).thenReturn(Optional.of(ada));
+        userService.findById(7L);
+
+        userService.recordLogin(7L);
+
+        verify(mockLastLoginRecorder).record(7L, NOW);
+        assertEquals(NOW, userService.findById(7L).orElseThrow().getLastLogin());
+
+        userService.evict(userService.findById(7L).orElseThrow());
+        when(mockLastLoginRecorder.pending(7L)).thenReturn(NOW);
+        assertEquals(NOW, userService.findById(7L).orElseThrow().getLastLogin());
+    }
+
+    @Test
+    @DisplayName("should record a login for an OAuth2 sign-in with a known email")
+    void shouldRecordOAuth2Login() {
+        when(mockUserRepository.findByEmail("ada@example.com")).thenReturn(Optional.of(ada));
+        DefaultOAuth2User principal =
+                new DefaultOAuth2User(
+                        AuthorityUtils.createAuthorityList("OAUTH2_USER"),
+                        Map.of("sub", "123", "email", "ada@example.com"),
+                        "sub");
+
+        userService.onAuthenticationSuccess(
+                new AuthenticationSuccessEvent(new TestingAuthenticationToken(principal, null)));
+        userService.onAuthenticationSuccess(
+                new AuthenticationSuccessEvent(new TestingAuthenticationToken("bob", null)));
+
+        verify(mockLastLoginRecorder).record(7L, NOW);
+    }
+
+    @Test
+    @DisplayName("should drop users invalidated through the invalidation bus")
+    void shouldInvalidateFromBus() {
+        ArgumentCaptor<InvalidatableCache> cache =
+                ArgumentCaptor.forClass(InvalidatableCache.class);
+        verify(mockCacheInvalidationBus).register(eq(UserService.CACHE_NAME), cache.capture());
+        when(mockUserRepository.findById(7L)).thenReturn(Optional.of(ada));
+        userService.findById(7L);
+
+        cache.getValue().invalidate("7");
+        userService.findById(7L);
+        cache.getValue().invalidateAll();
+        userService.findById(7L);
+
+        verify(mockUserRepository, times(3)).findById(7L);
+    }
+
+    @Test
+    @DisplayName("should not resolve an old email to a user whose email has since changed")
+    void shouldCheckEmailOnCacheHit() {
+        ArgumentCaptor<InvalidatableCache> cache =
+                ArgumentCaptor.forClass(InvalidatableCache.class);
+        verify(mockCacheInvalidationBus).register(eq(UserService.CACHE_NAME), cache.capture());
+        UserEntity renamed =
+                UserEntity.builder()
+                        .id(7L)
+                        .email("ada@lovelace.example")
+                        .firstName("Ada")
+                        .lastName("Lovelace")
+                        .build();
+        when(mockUserRepository.findByEmail("ada@example.com"))
+                .thenReturn(Optional.of(ada), Optional.empty());
+        when(mockUserRepository.findById(7L)).thenReturn(Optional.of(renamed));
+        userService.findByEmail("ada@example.com");
+
+        // Another instance changed the email; only the by-id entry is invalidated.
+        cache.getValue().invalidate("7");
+        userService.findById(7L);
+
+        assertEquals(Optional.empty(), userService.findByEmail("ada@example.com"));
+        assertEquals(Optional.empty(), userService.findByEmail("ada@example.com"));
+        verify(mockUserRepository, times(3)).findByEmail("ada@example.com");
+    }
+}
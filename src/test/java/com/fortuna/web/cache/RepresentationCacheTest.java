@@ -0,0 +1,71 @@
+package com.fortuna.web.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+
+class RepresentationCacheTest {
+
+    private final MockEnvironment environment = new MockEnvironment();
+    private final RepresentationCache cache =
+            new RepresentationCache(new ObjectMapper(), environment);
+
+    @Test
+    @DisplayName("should serialize a representation once and reuse its bytes and ETag")
+    void shouldSerializeOnceAndReuse() {
+        AtomicInteger supplierCalls = new AtomicInteger();
+
+        ResponseEntity<byte[]> first =
+                cache.respond("config", () -> body(supplierCalls, "pk_test_123"));
+        ResponseEntity<byte[]> second =
+                cache.respond("config", () -> body(supplierCalls, "pk_test_123"));
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, first.getHeaders().getContentType());
+        assertEquals("{\"publishableKey\":\"pk_test_123\"}", new String(first.getBody()));
+        assertSame(first.getBody(), second.getBody());
+        assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        assertEquals(1, supplierCalls.get());
+    }
+
+    @Test
+    @DisplayName("should compute a new ETag after eviction when the value changes")
+    void shouldComputeNewETagAfterEviction() {
+        String before =
+                cache.respond("config", () -> Map.of("publishableKey", "pk_old"))
+                        .getHeaders()
+                        .getETag();
+        cache.evict("config");
+        String after =
+                cache.respond("config", () -> Map.of("publishableKey", "pk_new"))
+                        .getHeaders()
+                        .getETag();
+
+        assertNotNull(before);
+        assertTrue(before.startsWith("\"") && !before.startsWith("W/"));
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    @DisplayName("should build Cache-Control from per-endpoint configuration")
+    void shouldBuildCacheControlFromConfiguration() {
+        environment.setProperty("application.http-cache.config.max-age", "10m");
+        environment.setProperty("application.http-cache.config.public", "true");
+
+        assertEquals("max-age=600, public", cache.cacheControlFor("config").getHeaderValue());
+        assertEquals("no-cache, private", cache.cacheControlFor("other").getHeaderValue());
+    }
+
+    private static Map<String, String> body(AtomicInteger supplierCalls, String key) {
+        supplierCalls.incrementAndGet();
+        return Map.of("publishableKey", key);
+    }
+}
@@ -0,0 +1,166 @@
+package com.fortuna.web.compression;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+class GzipRequestFilterTest {
+
+    private final GzipRequestFilter filter = new GzipRequestFilter(DataSize.ofBytes(64));
+
+    @Test
+    @DisplayName("should inflate gzip bodies and hide the encoding from downstream handlers")
+    void shouldInflateGzipBody() throws Exception {
+        byte[] body = "{\"event\":\"BUTTON_CLICK\"}".getBytes(StandardCharsets.UTF_8);
+        MockHttpServletRequest request = gzipRequest(body);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        HttpServletRequest forwarded = (HttpServletRequest) chain.getRequest();
+        assertNull(forwarded.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(-1, forwarded.getContentLength());
+        assertArrayEquals(body, forwarded.getInputStream().readAllBytes());
+    }
+
+    @Test
+    @DisplayName("should fail the read once the inflated body exceeds the limit")
+    void shouldRejectOversizedInflatedBody() throws Exception {
+        MockHttpServletRequest request = gzipRequest(new byte[1024]);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        HttpServletRequest forwarded = (HttpServletRequest) chain.getRequest();
+        assertThrows(IOException.class, () -> forwarded.getInputStream().readAllBytes());
+    }
+
+    @Test
+    @DisplayName("should hand non-blocking readers the inflated body once it has all arrived")
+    void shouldInflateForNonBlockingReads() throws Exception {
+        byte[] body = "{\"event\":\"BUTTON_CLICK\"}".getBytes(StandardCharsets.UTF_8);
+        NonBlockingInputStream compressed = new NonBlockingInputStream(gzip(body));
+        MockHttpServletRequest request =
+                new MockHttpServletRequest("POST", "/api/save-metric/batch") {
+                    @Override
+                    public ServletInputStream getInputStream() {
+                        return compressed;
+                    }
+                };
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        ServletInputStream in = ((HttpServletRequest) chain.getRequest()).getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allDataRead = new AtomicBoolean();
+
+        in.setReadListener(
+                new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        byte[] chunk = new byte[8];
+                        while (in.isReady() && !in.isFinished()) {
+                            int n = in.read(chunk);
+                            if (n > 0) {
+                                read.write(chunk, 0, n);
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        allDataRead.set(true);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {}
+                });
+
+        assertFalse(in.isReady());
+        compressed.listener.onDataAvailable();
+        compressed.listener.onAllDataRead();
+
+        assertArrayEquals(body, read.toByteArray());
+        assertTrue(allDataRead.get());
+    }
+
+    @Test
+    @DisplayName("should pass requests without gzip encoding through untouched")
+    void shouldIgnoreUncompressedRequests() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/save-metric");
+        request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertSame(request, chain.getRequest());
+    }
+
+    private static MockHttpServletRequest gzipRequest(byte[] body) throws IOException {
+        MockHttpServletRequest request =
+                new MockHttpServletRequest("POST", "/api/save-metric/batch");
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        request.setContent(gzip(body));
+        return request;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    /** A container stream whose body has fully arrived, driven by the test's listener calls. */
+    private static final class NonBlockingInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream body;
+        private ReadListener listener;
+
+        private NonBlockingInputStream(byte[] body) {
+            this.body = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public int read() {
+            return body.read();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return body.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return !isFinished();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            this.listener = readListener;
+        }
+    }
+}
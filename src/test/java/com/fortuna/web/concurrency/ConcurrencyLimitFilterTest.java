@@ -0,0 +1,191 @@
+package com.fortuna.web.concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ConcurrencyLimitFilter filter =
+            new ConcurrencyLimitFilter(
+                    new MockEnvironment()
+                            .withProperty("application.concurrency.capacity", "4")
+                            .withProperty("application.concurrency.class-names", "payments,metrics")
+                            .withProperty(
+                                    "application.concurrency.classes.payments.paths",
+                                    "/api/payments/**")
+                            .withProperty(
+                                    "application.concurrency.classes.payments.initial-limit", "3")
+                            .withProperty(
+                                    "application.concurrency.classes.metrics.paths",
+                                    "/api/save-metric,/api/save-metric/**")
+                            .withProperty("application.concurrency.classes.metrics.share", "0.5")
+                            .withProperty(
+                                    "application.concurrency.classes.metrics.initial-limit", "3"),
+                    meterRegistry);
+
+    @Test
+    @DisplayName("should answer 503 once a class has its limit in flight")
+    void shouldShedPastClassLimit() throws Exception {
+        List<Integer> statuses = new ArrayList<>();
+
+        nested(
+                List.of(
+                        "/api/payments/config",
+                        "/api/payments/config",
+                        "/api/payments/config",
+                        "/api/payments/config"),
+                statuses);
+
+        assertEquals(List.of(503, 200, 200, 200), statuses);
+        assertEquals(
+                1.0,
+                meterRegistry
+                        .counter(
+                                ConcurrencyLimitFilter.METER_NAME + ".rejected",
+                                "class",
+                                "payments")
+                        .count());
+    }
+
+    @Test
+    @DisplayName("should shed the low-share class first while the high-share class is admitted")
+    void shouldShedLowShareClassFirst() throws Exception {
+        List<Integer> statuses = new ArrayList<>();
+
+        nested(
+                List.of(
+                        "/api/payments/config",
+                        "/api/payments/config",
+                        "/api/payments/config",
+                        "/api/save-metric"),
+                statuses);
+
+        // Three payments fit the capacity of four; metrics may only use half of it.
+        assertEquals(List.of(503, 200, 200, 200), statuses);
+    }
+
+    @Test
+    @DisplayName("should pass requests outside every class and release permits after failures")
+    void shouldPassUnclassifiedAndReleaseOnFailure() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(get("/assets/app.js"), response, new MockFilterChain());
+        assertEquals(200, response.getStatus());
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(
+                    IllegalStateException.class,
+                    () ->
+                            filter.doFilter(
+                                    get("/api/payments/config"),
+                                    new MockHttpServletResponse(),
+                                    (request, res) -> {
+                                        throw new IllegalStateException("stripe down");
+                                    }));
+        }
+        MockHttpServletResponse after = new MockHttpServletResponse();
+        filter.doFilter(get("/api/payments/config"), after, new MockFilterChain());
+        assertEquals(200, after.getStatus());
+        assertEquals(
+                0.0,
+                meterRegistry
+                        .get(ConcurrencyLimitFilter.METER_NAME + ".in-flight")
+                        .tag("class", "payments")
+                        .gauge()
+                        .value());
+    }
+
+    @Test
+    @DisplayName("should set Retry-After on shed requests")
+    void shouldSetRetryAfter() throws Exception {
+        MockHttpServletResponse[] shed = new MockHttpServletResponse[1];
+        FilterChain holdTwo =
+                (request, response) -> {
+                    shed[0] = new MockHttpServletResponse();
+                    filter.doFilter(get("/api/save-metric"), shed[0], new MockFilterChain());
+                };
+        filter.doFilter(
+                get("/api/payments/config"),
+                new MockHttpServletResponse(),
+                (request, response) ->
+                        filter.doFilter(get("/api/payments/config"), response, holdTwo));
+
+        assertEquals(503, shed[0].getStatus());
+        assertEquals("1", shed[0].getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    @DisplayName("should build the payments and metrics classes from the shipped application.yaml")
+    void shouldConfigureClassesFromApplicationYaml() throws Exception {
+        // The test application.yaml replaces the main one on the classpath, so load it by path.
+        List<PropertySource<?>> applicationYaml =
+                new YamlPropertySourceLoader()
+                        .load(
+                                "application.yaml",
+                                new FileSystemResource("src/main/resources/application.yaml"));
+
+        new ApplicationContextRunner()
+                .withInitializer(
+                        context ->
+                                applicationYaml.forEach(
+                                        context.getEnvironment().getPropertySources()::addLast))
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withUserConfiguration(ConcurrencyLimitFilter.class)
+                .run(
+                        context ->
+                                assertEquals(
+                                        Set.of("payments", "metrics"),
+                                        context
+                                                .getBean(MeterRegistry.class)
+                                                .find(ConcurrencyLimitFilter.METER_NAME + ".limit")
+                                                .gauges()
+                                                .stream()
+                                                .map(gauge -> gauge.getId().getTag("class"))
+                                                .collect(Collectors.toSet())));
+    }
+
+    /**
+     * Sends each path while every earlier one is still in flight, recording statuses innermost
+     * first.
+     */
+    private void nested(List<String> paths, List<Integer> statuses) throws Exception {
+        if (paths.isEmpty()) {
+            return;
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(
+                get(paths.get(0)),
+                response,
+                (request, res) -> {
+                    try {
+                        nested(paths.subList(1, paths.size()), statuses);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+        statuses.add(response.getStatus());
+    }
+
+    private static MockHttpServletRequest get(String path) {
+        return new MockHttpServletRequest("GET", path);
+    }
+}
@@ -0,0 +1,76 @@
+package com.fortuna.web.concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class VegasLimitTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    @DisplayName("should grow while latency stays at the no-load baseline")
+    void shouldGrowWithoutQueueing() {
+        VegasLimit limit = new VegasLimit(10, 1, 100, 1.0);
+        limit.onSample(10 * MS, 10, false);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(10 * MS, limit.getLimit(), false);
+        }
+
+        assertTrue(limit.getLimit() > 10, "limit " + limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("should shrink once latency shows requests queueing")
+    void shouldShrinkWhenLatencyRises() {
+        VegasLimit limit = new VegasLimit(50, 1, 100, 1.0);
+        limit.onSample(10 * MS, 50, false);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(40 * MS, limit.getLimit(), false);
+        }
+
+        assertTrue(limit.getLimit() < 50, "limit " + limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("should shrink on failures and never go below the minimum")
+    void shouldShrinkOnFailure() {
+        VegasLimit limit = new VegasLimit(5, 3, 100, 1.0);
+        limit.onSample(10 * MS, 5, false);
+
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(10 * MS, 5, true);
+        }
+
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("should ignore samples taken while most permits are unused")
+    void shouldIgnoreApplicationLimitedSamples() {
+        VegasLimit limit = new VegasLimit(40, 1, 100, 1.0);
+        limit.onSample(10 * MS, 40, false);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(80 * MS, 2, false);
+        }
+
+        assertEquals(40, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("should stay within the maximum")
+    void shouldRespectMaximum() {
+        VegasLimit limit = new VegasLimit(10, 1, 12, 1.0);
+        limit.onSample(10 * MS, 10, false);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(10 * MS, 12, false);
+        }
+
+        assertEquals(12, limit.getLimit());
+    }
+}
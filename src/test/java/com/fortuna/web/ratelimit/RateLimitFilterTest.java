@@ -0,0 +1,82 @@
+package com.fortuna.web.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class RateLimitFilterTest {
+
+    private final RateLimitFilter filter =
+            new RateLimitFilter(
+                    new RateLimiter(
+                            new MockEnvironment()
+                                    .withProperty(
+                                            "application.rate-limit.limits.requests.rate", "1")
+                                    .withProperty(
+                                            "application.rate-limit.limits.requests.burst", "2"),
+                            new SimpleMeterRegistry()),
+                    List.of("/api/save-metric"));
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("should answer 429 with Retry-After once an address has used its burst")
+    void shouldRejectOverLimitAddress() throws Exception {
+        assertEquals(200, send("10.0.0.1").getStatus());
+        assertEquals(200, send("10.0.0.1").getStatus());
+
+        MockHttpServletResponse limited = send("10.0.0.1");
+
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, send("10.0.0.2").getStatus());
+    }
+
+    @Test
+    @DisplayName("should limit a signed-in user across addresses")
+    void shouldKeySignedInUsersByName() throws Exception {
+        SecurityContextHolder.getContext()
+                .setAuthentication(new TestingAuthenticationToken("ada", null, "ROLE_USER"));
+
+        send("10.0.0.1");
+        send("10.0.0.2");
+
+        assertEquals(429, send("10.0.0.3").getStatus());
+    }
+
+    @Test
+    @DisplayName("should leave other paths alone")
+    void shouldSkipOtherPaths() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/payments");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+
+            filter.doFilter(request, response, chain);
+
+            assertSame(request, chain.getRequest());
+        }
+    }
+
+    private MockHttpServletResponse send(String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/save-metric");
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,150 @@
+package com.fortuna.web.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+class RateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong(5_000_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockEnvironment environment =
+            new MockEnvironment()
+                    .withProperty("application.rate-limit.limits.clicks.rate", "10")
+                    .withProperty("application.rate-limit.limits.clicks.burst", "3");
+
+    private RateLimiter rateLimiter(int maxKeys) {
+        return new RateLimiter(environment, meterRegistry, maxKeys, nanos::get);
+    }
+
+    @Test
+    @DisplayName("should allow a full burst, then one token per interval")
+    void shouldRefillAtTheConfiguredRate() {
+        RateLimiter rateLimiter = rateLimiter(100);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Duration.ZERO, rateLimiter.tryAcquire("clicks", "ip:a", 1));
+        }
+        assertEquals(Duration.ofMillis(100), rateLimiter.tryAcquire("clicks", "ip:a", 1));
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("clicks", "ip:b", 1));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("clicks", "ip:a", 1));
+        assertFalse(rateLimiter.tryAcquire("clicks", "ip:a", 1).isZero());
+        assertEquals(2.0, meterRegistry.counter(RateLimiter.METER_NAME, "limit", "clicks").count());
+    }
+
+    @Test
+    @DisplayName("should charge several permits at once and never grant more than the burst")
+    void shouldChargePermits() {
+        RateLimiter rateLimiter = rateLimiter(100);
+
+        assertTrue(rateLimiter.exceedsBurst("clicks", 4));
+        assertFalse(rateLimiter.exceedsBurst("clicks", 3));
+        assertFalse(rateLimiter.tryAcquire("clicks", "ip:a", 50).isZero());
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("clicks", "ip:a", 3));
+        assertEquals(Duration.ofMillis(200), rateLimiter.tryAcquire("clicks", "ip:a", 2));
+    }
+
+    @Test
+    @DisplayName("should give released tokens back to the bucket")
+    void shouldReleaseTokens() {
+        RateLimiter rateLimiter = rateLimiter(100);
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("clicks", "ip:a", 3));
+
+        rateLimiter.release("clicks", "ip:a", 2);
+
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("clicks", "ip:a", 2));
+        assertFalse(rateLimiter.tryAcquire("clicks", "ip:a", 1).isZero());
+    }
+
+    @Test
+    @DisplayName("should not limit names without a configured rate")
+    void shouldIgnoreUnconfiguredLimits() {
+        RateLimiter rateLimiter = rateLimiter(100);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(Duration.ZERO, rateLimiter.tryAcquire("other", "ip:a", 1));
+        }
+        assertEquals(0, rateLimiter.size("other"));
+    }
+
+    @Test
+    @DisplayName("should evict only clients whose bucket has refilled")
+    void shouldEvictIdleClients() {
+        RateLimiter rateLimiter = rateLimiter(100);
+        rateLimiter.tryAcquire("clicks", "ip:a", 3);
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        rateLimiter.tryAcquire("clicks", "ip:b", 1);
+
+        rateLimiter.evictIdle();
+        assertEquals(2, rateLimiter.size("clicks"));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        rateLimiter.evictIdle();
+        assertEquals(0, rateLimiter.size("clicks"));
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("clicks", "ip:a", 3));
+    }
+
+    @Test
+    @DisplayName("should share one overflow bucket between new clients once the key limit is hit")
+    void shouldBoundTrackedClients() {
+        RateLimiter rateLimiter = rateLimiter(2);
+        rateLimiter.tryAcquire("clicks", "ip:a", 1);
+        rateLimiter.tryAcquire("clicks", "ip:b", 1);
+
+        assertEquals(Duration.ZERO, rateLimiter.tryAcquire("clicks", "ip:c", 3));
+        assertFalse(rateLimiter.tryAcquire("clicks", "ip:d", 1).isZero());
+        assertEquals(3, rateLimiter.size("clicks"));
+    }
+
+    @Test
+    @DisplayName("should hand out exactly the burst to concurrent callers on one key")
+    void shouldNotOverGrantUnderContention() throws Exception {
+        environment.setProperty("application.rate-limit.limits.contended.rate", "0.001");
+        environment.setProperty("application.rate-limit.limits.contended.burst", "1000");
+        RateLimiter rateLimiter = rateLimiter(100);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int t = 0; t < 8; t++) {
+                executor.submit(
+                        () -> {
+                            start.await();
+                            for (int i = 0; i < 500; i++) {
+                                if (rateLimiter.tryAcquire("contended", "ip:a", 1).isZero()) {
+                                    granted.incrementAndGet();
+                                }
+                            }
+                            return null;
+                        });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1_000, granted.get());
+    }
+
+    @Test
+    @DisplayName("should round Retry-After up to whole seconds")
+    void shouldRoundRetryAfterUp() {
+        assertEquals("1", RateLimiter.retryAfterSeconds(Duration.ofMillis(1)));
+        assertEquals("2", RateLimiter.retryAfterSeconds(Duration.ofMillis(1_001)));
+        assertEquals("3", RateLimiter.retryAfterSeconds(Duration.ofSeconds(3)));
+    }
+}